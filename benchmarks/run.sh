@@ -0,0 +1,6 @@
+#!/bin/sh
+# Builds the application, then runs the JMH suites with the given JMH arguments.
+set -e
+cd "$(dirname "$0")/.."
+./mvnw -q install -DskipTests
+./mvnw -q -f benchmarks/pom.xml compile exec:exec -Djmh.args="$*"
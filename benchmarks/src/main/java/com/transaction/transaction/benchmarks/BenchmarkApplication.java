@@ -0,0 +1,58 @@
+package com.transaction.transaction.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.transaction.transaction.TransactionApplication;
+import com.transaction.transaction.dto.CreateAccountDto;
+import com.transaction.transaction.dto.UpdateBalanceDto;
+import com.transaction.transaction.services.AccountService;
+
+/**
+ * Starts the application without the web server on a fresh in-memory H2 database in
+ * PostgreSQL mode. The schema comes from Hibernate, the Flyway migrations are written for
+ * Postgres and stay off.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID()
+                        + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.properties.hibernate.show_sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.flyway.enabled=false",
+                "--logging.level.root=WARN"));
+        args.addAll(List.of(extraArgs));
+        return new SpringApplicationBuilder(TransactionApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+    }
+
+    /**
+     * @return the user id of the new account
+     */
+    static Long createAccount(AccountService accountService, String userName, double balance) {
+        CreateAccountDto createAccountDto = new CreateAccountDto();
+        createAccountDto.setUserName(userName);
+        Long userId = accountService.createAccount(createAccountDto).getUserId();
+
+        UpdateBalanceDto updateBalanceDto = new UpdateBalanceDto();
+        updateBalanceDto.setUserId(userId);
+        updateBalanceDto.setBalance(balance);
+        accountService.updateBalance(updateBalanceDto);
+        return userId;
+    }
+}
@@ -0,0 +1,117 @@
+package com.transaction.transaction.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.transaction.transaction.dto.ResponseTransactionDTO;
+import com.transaction.transaction.entities.Transaction;
+import com.transaction.transaction.mappers.TransactionMapper;
+import com.transaction.transaction.repositories.AccountRepository;
+import com.transaction.transaction.repositories.TransactionRepository;
+import com.transaction.transaction.services.AccountService;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * One history page read as managed entities and mapped with MapStruct, against the same page
+ * projected into DTOs by the query. Both run in a read-only transaction. Run with
+ * {@code -prof gc} to compare the bytes allocated per page ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HistoryProjectionBenchmark {
+    private static final int HISTORY_SIZE = 5_000;
+
+    @Param({"100", "1000"})
+    public int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private TransactionRepository transactionRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnly;
+    private final TransactionMapper transactionMapper = TransactionMapper.INSTANCE;
+    private Long accountId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        transactionRepository = context.getBean(TransactionRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        Long userId = BenchmarkApplication.createAccount(context.getBean(AccountService.class), "Projection", 0.0);
+        accountId = context.getBean(AccountRepository.class).findByUserId(userId).orElseThrow().getId();
+
+        LocalDateTime start = LocalDateTime.now().minusDays(HISTORY_SIZE);
+        List<Transaction> chunk = new ArrayList<>();
+        for (int i = 0; i < HISTORY_SIZE; i++) {
+            Transaction transaction = new Transaction();
+            transaction.setAccountId(accountId);
+            transaction.setType(i % 2 == 0 ? "credit" : "debit");
+            transaction.setCategory(i % 2 == 0 ? "transfer_in" : "transfer_out");
+            transaction.setAmount(100 + i % 1000);
+            transaction.setStatus("success");
+            transaction.setDescription("Benchmark transfer " + i);
+            transaction.setDate(start.plusMinutes(i));
+            chunk.add(transaction);
+            if (chunk.size() == 1000) {
+                transactionRepository.saveAll(chunk);
+                chunk.clear();
+            }
+        }
+        transactionRepository.saveAll(chunk);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // the read path before the projection: entities in the persistence context, then a mapping pass
+    @Benchmark
+    public List<ResponseTransactionDTO> entities() {
+        return readOnly.execute(status -> entityManager
+                .createQuery("SELECT t FROM Transaction t WHERE t.accountId = :accountId ORDER BY t.date DESC, t.id DESC",
+                        Transaction.class)
+                .setParameter("accountId", accountId)
+                .setMaxResults(pageSize + 1)
+                .getResultList()
+                .stream()
+                .limit(pageSize)
+                .map(transactionMapper::toResponseTransactionDTO)
+                .toList());
+    }
+
+    @Benchmark
+    public List<ResponseTransactionDTO> projection() {
+        return readOnly.execute(status -> transactionRepository
+                .findHistoryByAccountId(accountId, PageRequest.of(0, pageSize,
+                        Sort.by(Sort.Order.desc("date"), Sort.Order.desc("id"))))
+                .getContent());
+    }
+}
@@ -0,0 +1,97 @@
+package com.transaction.transaction.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.transaction.transaction.dto.ResponseAccountDto;
+import com.transaction.transaction.dto.ResponseTransactionDTO;
+import com.transaction.transaction.entities.Account;
+import com.transaction.transaction.entities.Transaction;
+import com.transaction.transaction.entities.User;
+import com.transaction.transaction.mappers.AccountMapper;
+import com.transaction.transaction.mappers.TransactionMapper;
+
+/**
+ * Cost of the MapStruct mappers without Spring or a database. Run with {@code -prof gc} to
+ * get the bytes allocated per mapped entity ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    private final TransactionMapper transactionMapper = TransactionMapper.INSTANCE;
+    private final AccountMapper accountMapper = AccountMapper.INSTANCE;
+
+    private Transaction transaction;
+    private List<Transaction> page;
+    private Account account;
+
+    @Setup
+    public void setUp() {
+        page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            page.add(transaction(i));
+        }
+        transaction = page.get(0);
+
+        User user = new User();
+        user.setId(1L);
+        user.setUserName("Benchmark");
+        account = new Account();
+        account.setId(10L);
+        account.setUser(user);
+        account.setBalance(123_456);
+    }
+
+    @Benchmark
+    public ResponseTransactionDTO transaction() {
+        return transactionMapper.toResponseTransactionDTO(transaction);
+    }
+
+    // what one history page costs in mapping
+    @Benchmark
+    public List<ResponseTransactionDTO> transactionPage() {
+        List<ResponseTransactionDTO> dtos = new ArrayList<>(PAGE_SIZE);
+        for (Transaction entry : page) {
+            dtos.add(transactionMapper.toResponseTransactionDTO(entry));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public ResponseAccountDto account() {
+        return accountMapper.toResponseAccountDto(account);
+    }
+
+    private Transaction transaction(int i) {
+        Transaction transaction = new Transaction();
+        transaction.setId((long) i);
+        transaction.setAccountId(10L);
+        transaction.setTransferId((long) i);
+        transaction.setType("debit");
+        transaction.setCategory("transfer_out");
+        transaction.setAmount(10_000 + i);
+        transaction.setStatus("success");
+        transaction.setDescription("Benchmark transfer " + i);
+        transaction.setDate(LocalDateTime.of(2025, 12, 10, 10, 30).plusMinutes(i));
+        return transaction;
+    }
+}
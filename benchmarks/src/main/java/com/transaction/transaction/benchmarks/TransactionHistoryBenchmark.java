@@ -0,0 +1,87 @@
+package com.transaction.transaction.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.transaction.transaction.dto.ResponseHistoryTransactionDto;
+import com.transaction.transaction.entities.Transaction;
+import com.transaction.transaction.repositories.AccountRepository;
+import com.transaction.transaction.repositories.TransactionRepository;
+import com.transaction.transaction.services.AccountService;
+import com.transaction.transaction.services.TransactionService;
+
+/**
+ * Latency of one history page of an account with {@code HISTORY_SIZE} transactions, by page
+ * number. Offset paging has to skip all rows before the page, deep pages show that cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionHistoryBenchmark {
+    private static final int HISTORY_SIZE = 50_000;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"0", "10", "100", "1000", "2400"})
+    public int page;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private Long accountId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        transactionService = context.getBean(TransactionService.class);
+        Long userId = BenchmarkApplication.createAccount(context.getBean(AccountService.class), "History", 0.0);
+        accountId = context.getBean(AccountRepository.class).findByUserId(userId).orElseThrow().getId();
+
+        TransactionRepository transactionRepository = context.getBean(TransactionRepository.class);
+        LocalDateTime start = LocalDateTime.now().minusDays(HISTORY_SIZE);
+        List<Transaction> chunk = new ArrayList<>();
+        for (int i = 0; i < HISTORY_SIZE; i++) {
+            Transaction transaction = new Transaction();
+            transaction.setAccountId(accountId);
+            transaction.setType(i % 2 == 0 ? "credit" : "debit");
+            transaction.setCategory(i % 2 == 0 ? "transfer_in" : "transfer_out");
+            transaction.setAmount(100 + i % 1000);
+            transaction.setStatus("success");
+            transaction.setDate(start.plusMinutes(i));
+            chunk.add(transaction);
+            if (chunk.size() == 1000) {
+                transactionRepository.saveAll(chunk);
+                chunk.clear();
+            }
+        }
+        transactionRepository.saveAll(chunk);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ResponseHistoryTransactionDto historyPage() {
+        return transactionService.getHistoryTransaction(accountId, page, PAGE_SIZE, false);
+    }
+}
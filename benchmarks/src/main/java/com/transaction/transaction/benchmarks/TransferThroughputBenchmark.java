@@ -0,0 +1,126 @@
+package com.transaction.transaction.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import com.transaction.transaction.dto.CreateTransferDto;
+import com.transaction.transaction.dto.ResponseCreateTransferDto;
+import com.transaction.transaction.services.AccountService;
+import com.transaction.transaction.services.TransferService;
+
+/**
+ * Single transfers through the {@code TransferService} the controller uses, including the
+ * optimistic lock retries, by 8 threads. The source and destination of every transfer are
+ * drawn from all accounts either uniformly, where threads rarely touch the same account, or
+ * from a Zipfian hot set, where most transfers contend on a few accounts.
+ *
+ * <p>The {@code ledger} mode runs the same transfers through the in-memory ledger engine
+ * instead of the {@code TransferServiceImpl} modes. A ledger transfer returns once its log
+ * record is synced, the database rows are written behind it, so it measures the confirmed
+ * transfer rate; the write-ahead log lives in a temporary directory removed after the trial.
+ *
+ * <p>Transfers that fail for good, e.g. after the last optimistic retry, still count towards
+ * the primary throughput; the {@code succeeded} and {@code failed} rates tell them apart.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class TransferThroughputBenchmark {
+
+    @Param({"standard", "conditional", "pessimistic", "ledger"})
+    public String mode;
+
+    @Param({"uniform", "zipfian"})
+    public String distribution;
+
+    @Param("1000")
+    public int accounts;
+
+    private ConfigurableApplicationContext context;
+    private TransferService transferService;
+    private AccountPicker picker;
+    private Long[] userIds;
+    private Path ledgerDirectory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if ("ledger".equals(mode)) {
+            ledgerDirectory = Files.createTempDirectory("ledger-benchmark-");
+            context = BenchmarkApplication.start("--transfer.ledger.enabled=true",
+                    "--transfer.ledger.directory=" + ledgerDirectory);
+        } else {
+            context = BenchmarkApplication.start("--transfer.mode=" + mode);
+        }
+        transferService = context.getBean(TransferService.class);
+        AccountService accountService = context.getBean(AccountService.class);
+        picker = AccountPicker.of(distribution, accounts);
+        userIds = new Long[accounts];
+        for (int i = 0; i < accounts; i++) {
+            userIds[i] = BenchmarkApplication.createAccount(accountService, "Benchmark " + i, 1_000_000_000.0);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        if (ledgerDirectory != null) {
+            FileSystemUtils.deleteRecursively(ledgerDirectory);
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcome {
+        public long succeeded;
+        public long failed;
+
+        final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Benchmark
+    public ResponseCreateTransferDto transfer(Outcome outcome) {
+        int from = picker.pick(outcome.random);
+        int to = picker.pick(outcome.random);
+        while (to == from) {
+            to = picker.pick(outcome.random);
+        }
+
+        CreateTransferDto createTransferDto = new CreateTransferDto();
+        createTransferDto.setFromAccountId(userIds[from]);
+        createTransferDto.setToAccountId(userIds[to]);
+        createTransferDto.setAmount(1.0);
+        try {
+            ResponseCreateTransferDto result = transferService.createTransfer(createTransferDto);
+            outcome.succeeded++;
+            return result;
+        } catch (RuntimeException ex) {
+            outcome.failed++;
+            return null;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+#!/bin/sh
+# Runs the load generator against an already running instance, arguments go to LoadTest.
+set -e
+cd "$(dirname "$0")/.."
+./mvnw -q -f loadtest/pom.xml compile exec:java -Dexec.args="$*"
@@ -0,0 +1,30 @@
+package com.transaction.transaction.loadtest;
+
+/**
+ * The REST endpoints the load test calls, named like in the {@code --mix} option.
+ */
+enum Endpoint {
+    TRANSFER("transfer"),
+    BALANCE("balance"),
+    TRANSACTIONS("transactions"),
+    CREATE_ACCOUNT("create-account");
+
+    private final String label;
+
+    Endpoint(String label) {
+        this.label = label;
+    }
+
+    String label() {
+        return label;
+    }
+
+    static Endpoint of(String label) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.label.equals(label)) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint " + label + ", expected transfer, balance, transactions or create-account");
+    }
+}
@@ -0,0 +1,70 @@
+package com.transaction.transaction.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latencies and outcomes of one endpoint. Latencies are recorded in microseconds and
+ * reported in milliseconds.
+ */
+final class EndpointStats {
+    private final Endpoint endpoint;
+    private final Recorder recorder = new Recorder(3);
+    // 4xx answers, e.g. transfers rejected for lack of balance
+    private final LongAdder rejected = new LongAdder();
+    // 5xx answers, timeouts and connection errors
+    private final LongAdder failed = new LongAdder();
+    private Histogram histogram;
+
+    EndpointStats(Endpoint endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    // status 0 for requests that got no answer
+    void record(long latencyNanos, int status) {
+        recorder.recordValue(Math.max(1, latencyNanos / 1000));
+        if (status >= 400 && status < 500) {
+            rejected.increment();
+        } else if (status < 200 || status >= 300) {
+            failed.increment();
+        }
+    }
+
+    Histogram histogram() {
+        if (histogram == null) {
+            histogram = recorder.getIntervalHistogram();
+        }
+        return histogram;
+    }
+
+    static void printHeader(PrintStream out) {
+        out.printf("%-15s %9s %9s %8s %8s %9s %9s %9s %9s %9s %9s%n", "endpoint", "requests", "req/s",
+                "rejected", "failed", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "p99.99 ms", "max ms");
+    }
+
+    void printSummary(PrintStream out, double seconds) {
+        Histogram latencies = histogram();
+        out.printf("%-15s %9d %9.1f %8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n", endpoint.label(),
+                latencies.getTotalCount(), latencies.getTotalCount() / seconds, rejected.sum(), failed.sum(),
+                millis(latencies.getValueAtPercentile(50)), millis(latencies.getValueAtPercentile(90)),
+                millis(latencies.getValueAtPercentile(99)), millis(latencies.getValueAtPercentile(99.9)),
+                millis(latencies.getValueAtPercentile(99.99)), millis(latencies.getMaxValue()));
+    }
+
+    // full percentile distribution, loadable in the HdrHistogram plotter
+    void writeDistribution(Path directory) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(endpoint.label() + ".hgrm")))) {
+            histogram().outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,243 @@
+package com.transaction.transaction.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * HTTP load generator for a running instance. Sends a configurable mix of {@code POST /transfer},
+ * {@code GET /balance}, {@code GET /transactions} and {@code POST /create-account} requests and
+ * writes HdrHistogram latency reports per endpoint.
+ *
+ * <p>In the open model requests are scheduled at a constant rate and every latency is measured
+ * from the time the request was scheduled to start, not from when it was sent. A stalled server
+ * therefore shows up in the percentiles with the full wait of every request queued behind the
+ * stall (no coordinated omission). The closed model has a fixed number of clients that send
+ * back to back; it measures the service time seen by each client, and a slow server lowers
+ * the request rate instead of the reported latencies.
+ *
+ * <p>Every in-flight request has its own thread. On Java 21 and later these are virtual
+ * threads, on older runtimes platform threads from a cached pool.
+ */
+public final class LoadTest {
+    private static final Pattern USER_ID = Pattern.compile("\"user_id\"\\s*:\\s*(\\d+)");
+
+    private final LoadTestOptions options;
+    private final HttpClient client;
+    private final ExecutorService requestExecutor;
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+    private List<Long> users;
+    private List<Long> historyAccounts;
+    private volatile long measureFrom;
+
+    private LoadTest(LoadTestOptions options) {
+        this.options = options;
+        this.requestExecutor = newThreadPerRequestExecutor();
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(options.timeout)
+                .build();
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new EndpointStats(endpoint));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.print(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        if (options.help) {
+            System.out.print(LoadTestOptions.USAGE);
+            return;
+        }
+        new LoadTest(options).run();
+    }
+
+    private void run() throws Exception {
+        users = options.users != null ? options.users : createAccounts(options.accounts);
+        historyAccounts = options.historyAccounts != null ? options.historyAccounts : users;
+        if (options.mix.endpoints().contains(Endpoint.TRANSFER) && users.size() < 2) {
+            throw new IllegalArgumentException("Transfers need at least two users");
+        }
+
+        System.out.printf(Locale.ROOT, "%s model, mix %s, %d users, warmup %ss, measuring %ss%n",
+                options.open ? "open (" + options.rate + " req/s)" : "closed (" + options.concurrency + " clients)",
+                options.mix, users.size(), options.warmup.toSeconds(), options.duration.toSeconds());
+
+        long start = System.nanoTime();
+        measureFrom = start + options.warmup.toNanos();
+        long end = measureFrom + options.duration.toNanos();
+        if (options.open) {
+            runOpen(start, end);
+        } else {
+            runClosed(end);
+        }
+        requestExecutor.shutdown();
+        if (!requestExecutor.awaitTermination(options.timeout.toSeconds() + 5, TimeUnit.SECONDS)) {
+            System.err.println("Requests still in flight after the timeout, they are missing from the report");
+        }
+
+        report(options.duration.toNanos() / 1e9);
+    }
+
+    private void runOpen(long start, long end) {
+        long intervalNanos = (long) (1e9 / options.rate);
+        SplittableRandom random = new SplittableRandom();
+        for (long intended = start; intended < end; intended += intervalNanos) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            // the start time is fixed by the schedule, a late dispatch counts against the latency
+            long scheduled = intended;
+            Endpoint endpoint = options.mix.pick(random);
+            SplittableRandom requestRandom = random.split();
+            requestExecutor.execute(() -> call(endpoint, requestRandom, scheduled));
+        }
+    }
+
+    private void runClosed(long end) throws InterruptedException, ExecutionException {
+        List<Future<?>> clients = new ArrayList<>();
+        SplittableRandom seed = new SplittableRandom();
+        for (int i = 0; i < options.concurrency; i++) {
+            SplittableRandom random = seed.split();
+            clients.add(requestExecutor.submit(() -> {
+                while (System.nanoTime() < end) {
+                    call(options.mix.pick(random), random, System.nanoTime());
+                    if (!options.thinkTime.isZero()) {
+                        LockSupport.parkNanos(options.thinkTime.toNanos());
+                    }
+                }
+            }));
+        }
+        for (Future<?> client : clients) {
+            client.get();
+        }
+    }
+
+    private void call(Endpoint endpoint, SplittableRandom random, long startNanos) {
+        HttpRequest request = request(endpoint, random);
+        int status;
+        try {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException ex) {
+            status = 0;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (startNanos >= measureFrom) {
+            stats.get(endpoint).record(System.nanoTime() - startNanos, status);
+        }
+    }
+
+    private HttpRequest request(Endpoint endpoint, SplittableRandom random) {
+        return switch (endpoint) {
+            case TRANSFER -> transfer(random);
+            case BALANCE -> get("/balance?userid=" + users.get(random.nextInt(users.size())));
+            case TRANSACTIONS -> get("/transactions?account_id=" + historyAccounts.get(random.nextInt(historyAccounts.size()))
+                    + "&page=0&size=10");
+            case CREATE_ACCOUNT -> createAccount().build();
+        };
+    }
+
+    // between two different random users
+    private HttpRequest transfer(SplittableRandom random) {
+        int from = random.nextInt(users.size());
+        int to = random.nextInt(users.size() - 1);
+        if (to >= from) {
+            to++;
+        }
+        String body = String.format(Locale.ROOT, "{\"from_account_id\":%d,\"to_account_id\":%d,\"amount\":%.2f}",
+                users.get(from), users.get(to), options.amount);
+        HttpRequest.Builder builder = post("/transfer", body);
+        if (options.idempotencyKeys) {
+            builder.header("Idempotency-Key", UUID.randomUUID().toString());
+        }
+        return builder.build();
+    }
+
+    private HttpRequest.Builder createAccount() {
+        return post("/create-account", "{\"user_name\":\"loadtest-" + UUID.randomUUID() + "\"}");
+    }
+
+    private List<Long> createAccounts(int count) throws IOException, InterruptedException {
+        List<Long> created = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            HttpResponse<String> response = client.send(createAccount().build(), HttpResponse.BodyHandlers.ofString());
+            Matcher userId = USER_ID.matcher(response.body());
+            if (response.statusCode() != 200 || !userId.find()) {
+                throw new IllegalStateException("Creating an account failed with " + response.statusCode() + ": " + response.body());
+            }
+            created.add(Long.parseLong(userId.group(1)));
+        }
+        System.out.println("Created " + count + " accounts without balance, transfers between them are rejected;"
+                + " pass --users for funded accounts");
+        return created;
+    }
+
+    private void report(double seconds) throws IOException {
+        Files.createDirectories(options.output);
+        try (PrintStream summary = new PrintStream(Files.newOutputStream(options.output.resolve("summary.txt")))) {
+            for (PrintStream out : List.of(System.out, summary)) {
+                EndpointStats.printHeader(out);
+                for (Endpoint endpoint : options.mix.endpoints()) {
+                    stats.get(endpoint).printSummary(out, seconds);
+                }
+            }
+        }
+        for (Endpoint endpoint : options.mix.endpoints()) {
+            stats.get(endpoint).writeDistribution(options.output);
+        }
+        System.out.println("Reports written to " + options.output.toAbsolutePath());
+    }
+
+    private HttpRequest.Builder post(String path, String body) {
+        return HttpRequest.newBuilder(uri(path))
+                .timeout(options.timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).timeout(options.timeout).GET().build();
+    }
+
+    private URI uri(String path) {
+        return URI.create(options.baseUrl + path);
+    }
+
+    // the project targets Java 17, virtual threads are used when the runtime has them
+    private static ExecutorService newThreadPerRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.transaction.transaction.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line options of {@link LoadTest}, every option has a default.
+ */
+final class LoadTestOptions {
+
+    static final String USAGE = """
+            Options:
+              --base-url URL          instance to drive (http://localhost:8080)
+              --model open|closed     open: requests start at a constant rate whatever the response
+                                      times, closed: a fixed number of clients send back to back (open)
+              --rate N                open model, requests started per second (200)
+              --concurrency N         closed model, number of clients (32)
+              --think-time DURATION   closed model, pause of a client between requests (0ms)
+              --duration DURATION     measured run time (60s)
+              --warmup DURATION       run time before measuring (10s)
+              --mix NAME=WEIGHT,...   traffic mix over transfer, balance, transactions and
+                                      create-account (transfer=70,balance=20,transactions=10)
+              --users FROM-TO         existing user ids to send traffic for, the accounts need
+                                      balance for transfers to succeed (default: create --accounts)
+              --accounts N            accounts created when --users is missing (100)
+              --history-accounts FROM-TO
+                                      account ids for /transactions (default: the user ids)
+              --amount N              amount of every transfer (1.00)
+              --idempotency-keys      send a fresh Idempotency-Key with every transfer
+              --timeout DURATION      request timeout (30s)
+              --output DIR            where the reports go (loadtest/target/report)
+
+            Durations are written like 500ms, 30s or 5m.
+            """;
+
+    URI baseUrl = URI.create("http://localhost:8080");
+    boolean open = true;
+    double rate = 200;
+    int concurrency = 32;
+    Duration thinkTime = Duration.ZERO;
+    Duration duration = Duration.ofSeconds(60);
+    Duration warmup = Duration.ofSeconds(10);
+    TrafficMix mix = TrafficMix.parse("transfer=70,balance=20,transactions=10");
+    List<Long> users;
+    int accounts = 100;
+    List<Long> historyAccounts;
+    double amount = 1.00;
+    boolean idempotencyKeys;
+    Duration timeout = Duration.ofSeconds(30);
+    Path output = Path.of("loadtest", "target", "report");
+    boolean help;
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            switch (option) {
+                case "--help", "-h" -> options.help = true;
+                case "--idempotency-keys" -> options.idempotencyKeys = true;
+                default -> {
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("Missing value for " + option);
+                    }
+                    options.set(option, args[++i]);
+                }
+            }
+        }
+        return options;
+    }
+
+    private void set(String option, String value) {
+        switch (option) {
+            case "--base-url" -> baseUrl = URI.create(value.endsWith("/") ? value.substring(0, value.length() - 1) : value);
+            case "--model" -> open = switch (value) {
+                case "open" -> true;
+                case "closed" -> false;
+                default -> throw new IllegalArgumentException("Model must be open or closed: " + value);
+            };
+            case "--rate" -> rate = positive(option, Double.parseDouble(value));
+            case "--concurrency" -> concurrency = (int) positive(option, Integer.parseInt(value));
+            case "--think-time" -> thinkTime = duration(value);
+            case "--duration" -> duration = duration(value);
+            case "--warmup" -> warmup = duration(value);
+            case "--mix" -> mix = TrafficMix.parse(value);
+            case "--users" -> users = range(value);
+            case "--accounts" -> accounts = (int) positive(option, Integer.parseInt(value));
+            case "--history-accounts" -> historyAccounts = range(value);
+            case "--amount" -> amount = positive(option, Double.parseDouble(value));
+            case "--timeout" -> timeout = duration(value);
+            case "--output" -> output = Path.of(value);
+            default -> throw new IllegalArgumentException("Unknown option " + option);
+        }
+    }
+
+    static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Duration needs a unit (ms, s, m, h): " + value);
+        };
+    }
+
+    private static List<Long> range(String value) {
+        String[] bounds = value.split("-", 2);
+        long from = Long.parseLong(bounds[0].trim());
+        long to = bounds.length == 1 ? from : Long.parseLong(bounds[1].trim());
+        if (to < from) {
+            throw new IllegalArgumentException("Empty id range " + value);
+        }
+        List<Long> ids = new ArrayList<>();
+        for (long id = from; id <= to; id++) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private static double positive(String option, double value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(option + " must be positive");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,76 @@
+package com.transaction.transaction.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Weighted choice of the endpoint for the next request, e.g.
+ * {@code transfer=70,balance=20,transactions=10}.
+ */
+final class TrafficMix {
+    private final List<Endpoint> endpoints;
+    // cumulative weights, same order as endpoints
+    private final int[] upperBounds;
+    private final int total;
+
+    private TrafficMix(List<Endpoint> endpoints, int[] upperBounds) {
+        this.endpoints = endpoints;
+        this.upperBounds = upperBounds;
+        this.total = upperBounds[upperBounds.length - 1];
+    }
+
+    static TrafficMix parse(String mix) {
+        List<Endpoint> endpoints = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Mix entries look like transfer=70: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in " + entry);
+            }
+            if (weight > 0) {
+                endpoints.add(Endpoint.of(parts[0].trim()));
+                weights.add(weight);
+            }
+        }
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("The mix needs at least one endpoint with a weight above 0");
+        }
+
+        int[] upperBounds = new int[weights.size()];
+        int sum = 0;
+        for (int i = 0; i < weights.size(); i++) {
+            sum += weights.get(i);
+            upperBounds[i] = sum;
+        }
+        return new TrafficMix(endpoints, upperBounds);
+    }
+
+    Endpoint pick(SplittableRandom random) {
+        int value = random.nextInt(total);
+        for (int i = 0; i < upperBounds.length; i++) {
+            if (value < upperBounds[i]) {
+                return endpoints.get(i);
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    List<Endpoint> endpoints() {
+        return endpoints;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < endpoints.size(); i++) {
+            int weight = upperBounds[i] - (i == 0 ? 0 : upperBounds[i - 1]);
+            text.append(i == 0 ? "" : ",").append(endpoints.get(i).label()).append('=').append(weight);
+        }
+        return text.toString();
+    }
+}
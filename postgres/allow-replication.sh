@@ -0,0 +1,3 @@
+#!/bin/sh
+# runs once when db_service initialises its volume: lets db_replica stream the WAL
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
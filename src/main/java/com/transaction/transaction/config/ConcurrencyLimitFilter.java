@@ -0,0 +1,102 @@
+package com.transaction.transaction.config;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Holds the number of requests handled at the same time to the size of the connection pool.
+ * With virtual threads Tomcat accepts every request on its own thread and they all queue inside
+ * Hikari for a connection, each holding its request and response until the connection timeout.
+ * Here a request waits for a permit instead and is rejected with 503 once it waited for
+ * {@code transfer.concurrency.acquire-timeout}, so an overloaded instance answers quickly.
+ *
+ * <p>Actuator requests are not counted, health checks keep working while the limit is reached.
+ */
+@Component
+@ConditionalOnProperty(prefix = "transfer.concurrency", name = "limit-enabled", havingValue = "true")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private static final String REJECTED_BODY =
+            "{\"message\":\"Too many concurrent requests, please retry\",\"status\":\"failure\"}";
+
+    private final Semaphore permits;
+    private final int maxRequests;
+    private final long acquireTimeoutNanos;
+    private final Counter rejectedCounter;
+
+    public ConcurrencyLimitFilter(TransferProperties transferProperties, DataSource dataSource, MeterRegistry meterRegistry) {
+        TransferProperties.Concurrency properties = transferProperties.getConcurrency();
+        this.maxRequests = properties.getMaxRequests() > 0 ? properties.getMaxRequests() : poolSize(dataSource);
+        this.permits = new Semaphore(maxRequests, true);
+        this.acquireTimeoutNanos = properties.getAcquireTimeout().toNanos();
+        this.rejectedCounter = Counter.builder("http.concurrency.rejected")
+                .description("Requests rejected because the concurrency limit was reached for the whole acquire timeout")
+                .register(meterRegistry);
+        Gauge.builder("http.concurrency.in_flight", permits, semaphore -> maxRequests - semaphore.availablePermits())
+                .description("Requests holding a permit of the concurrency limit")
+                .register(meterRegistry);
+    }
+
+    public int getMaxRequests() {
+        return maxRequests;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejectedCounter.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write(REJECTED_BODY);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Could not read the connection pool size", ex);
+        }
+        throw new IllegalStateException("transfer.concurrency.max-requests is needed when the data source is not a Hikari pool");
+    }
+}
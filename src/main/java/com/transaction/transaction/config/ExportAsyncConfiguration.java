@@ -0,0 +1,54 @@
+package com.transaction.transaction.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * Executor of the asynchronous request handling, whose only user is
+ * {@code GET /transactions/export}: the {@code StreamingResponseBody} it returns is written on one
+ * of these threads instead of a request thread. At most {@code transfer.export.threads} exports
+ * stream at the same time, so long exports can neither take all Tomcat threads nor all pool
+ * connections from transfers; further exports wait in a bounded queue and are rejected with 503
+ * once it is full.
+ *
+ * <p>The executor is not a bean on purpose, an {@code Executor} bean would replace the
+ * application task executor Spring Boot configures otherwise.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ExportAsyncConfiguration implements WebMvcConfigurer, DisposableBean {
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    public ExportAsyncConfiguration(TransferProperties transferProperties, WorkerThreads workerThreads,
+                                    MeterRegistry meterRegistry) {
+        TransferProperties.Export properties = transferProperties.getExport();
+        this.executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()), workerThreads.factory("transaction-export-"));
+        this.timeoutMillis = properties.getTimeout().toMillis();
+        new ExecutorServiceMetrics(executor, "transaction.export", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // a full queue makes the adapter throw TaskRejectedException, see GlobalExceptionHandler
+        configurer.setTaskExecutor(new TaskExecutorAdapter(executor));
+        configurer.setDefaultTimeout(timeoutMillis);
+    }
+
+    @Override
+    public void destroy() {
+        // running exports are cut off, their clients see a truncated response
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,59 @@
+package com.transaction.transaction.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Replaces the auto-configured data source once {@code spring.datasource.replica.url} is set:
+ * the primary pool is built from {@code spring.datasource.*} as before, the replica pool from
+ * {@code spring.datasource.replica.*}, and the data source everything else uses routes between
+ * them, see {@link ReadReplicaRoutingDataSource}. Both pools are beans of their own that only
+ * get injected by name, Spring Boot publishes their {@code hikaricp.*} metrics tagged with
+ * {@code pool=primary} and {@code pool=replica}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnExpression("'${spring.datasource.replica.url:}' != ''")
+public class ReadReplicaDataSourceConfiguration {
+
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("spring.datasource.replica")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("spring.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Qualifier("replicaDataSourceProperties") DataSourceProperties replicaDataSourceProperties) {
+        HikariDataSource dataSource = replicaDataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") HikariDataSource replicaDataSource,
+                                 TransferProperties transferProperties) {
+        return new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(primaryDataSource, replicaDataSource,
+                transferProperties.getReadReplica().getMethods()));
+    }
+}
@@ -0,0 +1,46 @@
+package com.transaction.transaction.config;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hands out replica connections to the read-only transactions of the configured methods and
+ * primary connections to everything else. The transaction name Spring gives an
+ * {@code @Transactional} method is its qualified method name, it tells which method opened the
+ * transaction. Both are only known once the transaction began, so this has to sit behind a
+ * {@code LazyConnectionDataSourceProxy} that asks for the connection on the first statement.
+ */
+class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final List<String> methods;
+
+    ReadReplicaRoutingDataSource(DataSource primary, DataSource replica, List<String> methods) {
+        this.methods = methods.stream().map(method -> "." + method).toList();
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return routesToReplica() ? Target.REPLICA : Target.PRIMARY;
+    }
+
+    private boolean routesToReplica() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        String transactionName = TransactionSynchronizationManager.getCurrentTransactionName();
+        return transactionName != null && methods.stream().anyMatch(transactionName::endsWith);
+    }
+}
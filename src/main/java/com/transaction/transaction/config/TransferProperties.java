@@ -0,0 +1,252 @@
+package com.transaction.transaction.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "transfer")
+public class TransferProperties {
+
+    /**
+     * How {@code createTransfer} moves money between the two accounts.
+     */
+    private Mode mode = Mode.STANDARD;
+
+    private Retry retry = new Retry();
+
+    private Batch batch = new Batch();
+
+    private Sharding sharding = new Sharding();
+
+    private Ledger ledger = new Ledger();
+
+    private Idempotency idempotency = new Idempotency();
+
+    private Async async = new Async();
+
+    private Coalescing coalescing = new Coalescing();
+
+    private Verification verification = new Verification();
+
+    private Concurrency concurrency = new Concurrency();
+
+    private BalanceCache balanceCache = new BalanceCache();
+
+    private ReadReplica readReplica = new ReadReplica();
+
+    private Export export = new Export();
+
+    private Statements statements = new Statements();
+
+    public enum Mode {
+        // load both accounts, check the balance in Java and save them back,
+        // the account version rejects concurrent writers (optimistic locking)
+        STANDARD,
+        // guarded UPDATE statements, the affected-row count decides success
+        CONDITIONAL,
+        // like STANDARD, but both accounts are locked with one SELECT ... FOR UPDATE
+        PESSIMISTIC
+    }
+
+    /**
+     * Retry of transfers that lost an optimistic version check against a concurrent writer.
+     */
+    @Data
+    public static class Retry {
+        // total attempts including the first one, 1 disables retrying
+        private int maxAttempts = 3;
+        private Duration initialBackoff = Duration.ofMillis(20);
+        private Duration maxBackoff = Duration.ofMillis(500);
+        private double multiplier = 2.0;
+    }
+
+    @Data
+    public static class Batch {
+        // largest number of transfers accepted by one POST /transfers/batch
+        private int maxSize = 500;
+    }
+
+    /**
+     * Hot accounts spread their incoming credits over several shard rows instead of the account row.
+     */
+    @Data
+    public static class Sharding {
+        // shards created when an account is marked hot without an explicit count
+        private int defaultShards = 8;
+        // mark accounts hot on their own once they receive more credits per second than the threshold
+        private boolean autoDetect = false;
+        private double creditsPerSecondThreshold = 200;
+        private Duration detectionWindow = Duration.ofSeconds(10);
+    }
+
+    /**
+     * In-memory ledger engine that replaces the database transaction per transfer, see
+     * {@code LedgerEngine}.
+     */
+    @Data
+    public static class Ledger {
+        private boolean enabled = false;
+        // accounts are spread over the partitions by account id, each partition is one thread
+        private int partitions = 4;
+        // transfers waiting per partition before callers are turned away
+        private int queueCapacity = 8192;
+        // transfers applied and covered by one fsync at most
+        private int maxBatch = 256;
+        private String directory = "data/ledger";
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+        // ledger records written to the database per transaction
+        private int persistBatch = 500;
+        // tries of one batch before the persister gives up and transfers are refused, waiting
+        // persist-backoff times the attempt in between, at most max-persist-backoff
+        private int persistAttempts = 10;
+        private Duration persistBackoff = Duration.ofSeconds(1);
+        private Duration maxPersistBackoff = Duration.ofSeconds(10);
+        // logged transfers waiting for the persister before new transfers are refused, so a
+        // slow database bounds the memory the ledger holds
+        private int maxUnpersisted = 100_000;
+        private Duration submitTimeout = Duration.ofSeconds(5);
+    }
+
+    /**
+     * Idempotency-Key handling of {@code POST /transfer}.
+     */
+    @Data
+    public static class Idempotency {
+        // responses of recent keys answered from memory, older keys are looked up in the table
+        private int cacheSize = 10_000;
+        private Duration cacheTtl = Duration.ofMinutes(10);
+        // keys are deleted from the table after this long, a retry later runs as a new transfer
+        private Duration retention = Duration.ofHours(24);
+    }
+
+    /**
+     * Async mode of {@code POST /transfer}: requests are stored in the queued_transfers table
+     * and answered with 202, queue workers execute them in batches.
+     */
+    @Data
+    public static class Async {
+        private boolean enabled = false;
+        private int workers = 4;
+        // queued transfers one worker executes in a single database transaction
+        private int batchSize = 100;
+        // queued transfers accepted before requests are turned away with 503
+        private int capacity = 10_000;
+        // wait of an idle worker before it looks at the queue again
+        private Duration pollInterval = Duration.ofMillis(50);
+    }
+
+    /**
+     * Credits to regular accounts are buffered per account and applied as one balance update
+     * per window, see {@code CreditCoalescingServiceImpl}.
+     */
+    @Data
+    public static class Coalescing {
+        private boolean enabled = false;
+        // longest time a committed credit waits in memory before it reaches the account row
+        private Duration window = Duration.ofMillis(5);
+    }
+
+    /**
+     * Check that a committed transfer left the expected rows behind, see
+     * {@code TransferAuditServiceImpl}.
+     */
+    @Data
+    public static class Verification {
+        private Policy policy = Policy.ASYNC;
+        // share of committed transfers the async auditor checks, 1.0 checks every transfer
+        private double sampleRate = 0.01;
+        private int threads = 1;
+        // sampled transfers waiting for an auditor thread, further ones are skipped
+        private int queueCapacity = 1000;
+
+        public enum Policy {
+            OFF,
+            // re-read both accounts and the transaction rows before createTransfer commits,
+            // only done by the load-and-save modes (STANDARD and PESSIMISTIC)
+            INLINE,
+            // a sample of committed transfers is checked against the database on the auditor threads
+            ASYNC
+        }
+    }
+
+    /**
+     * Limit on requests handled at the same time, see {@code ConcurrencyLimitFilter}. Meant for
+     * {@code spring.threads.virtual.enabled}, where every request gets its own virtual thread and
+     * nothing else stops them from piling up in front of the connection pool.
+     */
+    @Data
+    public static class Concurrency {
+        private boolean limitEnabled = false;
+        // 0 uses the maximum size of the connection pool
+        private int maxRequests = 0;
+        // longest time a request waits for a permit before it is rejected with 503
+        private Duration acquireTimeout = Duration.ofSeconds(1);
+    }
+
+    /**
+     * In-process cache of the account rows read by {@code GET /balance}, see
+     * {@code AccountBalanceCacheImpl}. Entries are dropped after the commit of every write on
+     * this instance; writes of other instances only show once the entry expired.
+     */
+    @Data
+    public static class BalanceCache {
+        private boolean enabled = false;
+        private int maxSize = 10_000;
+        // bounds how long a balance changed by another instance can be served stale
+        private Duration ttl = Duration.ofSeconds(5);
+    }
+
+    /**
+     * Routing of read-only transactions to {@code spring.datasource.replica}, see
+     * {@code ReadReplicaDataSourceConfiguration}. Without a replica url everything runs on the
+     * primary.
+     */
+    @Data
+    public static class ReadReplica {
+        // @Transactional(readOnly = true) methods sent to the replica as Class.method, other
+        // read-only transactions stay on the primary; reads there trail the primary by the
+        // replication lag
+        private List<String> methods = List.of(
+                "TransactionServiceImpl.getHistoryTransaction",
+                "AccountServiceImpl.getAccountBalance",
+                "TransactionExportServiceImpl.export");
+    }
+
+    /**
+     * {@code GET /transactions/export}, see {@code TransactionExportServiceImpl}. Exports stream on
+     * threads of their own, each one holds a database connection until its last row is written.
+     */
+    @Data
+    public static class Export {
+        // exports streaming at the same time, so also the connections they can take from the pool
+        private int threads = 2;
+        // exports waiting for a thread before requests are turned away with 503
+        private int queueCapacity = 8;
+        // rows the driver fetches per round trip, an export holds about this many rows in memory
+        private int fetchSize = 1000;
+        // longest an export may stream before its request is ended
+        private Duration timeout = Duration.ofMinutes(30);
+    }
+
+    /**
+     * Month-end statements, see {@code StatementServiceImpl}: one file per account under
+     * {@code directory/yyyy-MM}, next to the checkpoint of the job that wrote them.
+     */
+    @Data
+    public static class Statements {
+        private String directory = "data/statements";
+        // partitions written at the same time, each holds a database connection while it runs
+        private int threads = 4;
+        // account ids per partition, a partition is read with the same two queries however many accounts it has
+        private int partitionSize = 1000;
+        // rows the driver fetches per round trip while a partition's transactions are read
+        private int fetchSize = 1000;
+        // starts the statements of the previous month, "-" leaves them to POST /statements
+        private String cron = "-";
+    }
+}
@@ -0,0 +1,42 @@
+package com.transaction.transaction.config;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Threads of the background executors that block on the database. They are virtual threads
+ * when {@code spring.threads.virtual.enabled} is set and the runtime is Java 21 or later, the
+ * same condition under which Spring Boot moves Tomcat and its task executors to virtual
+ * threads; otherwise platform threads.
+ *
+ * <p>The ledger engine does not use this: its partition and persister threads are long running
+ * loops that gain nothing from being virtual.
+ */
+@Component
+public class WorkerThreads {
+    private final boolean virtual;
+
+    public WorkerThreads(Environment environment) {
+        this.virtual = Threading.VIRTUAL.isActive(environment);
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Thread factory naming its threads {@code prefix1}, {@code prefix2}, ...
+     */
+    public ThreadFactory factory(String prefix) {
+        if (virtual) {
+            return new VirtualThreadTaskExecutor(prefix).getVirtualThreadFactory();
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        return task -> new Thread(task, prefix + threadNumber.incrementAndGet());
+    }
+}
@@ -0,0 +1,37 @@
+package com.transaction.transaction.controllers;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.transaction.transaction.dto.ResponseHotAccountDto;
+import com.transaction.transaction.dto.UpdateHotAccountDto;
+import com.transaction.transaction.services.HotAccountService;
+
+import jakarta.validation.Valid;
+
+@RestController
+public class HotAccountController {
+    private final HotAccountService hotAccountService;
+
+    public HotAccountController(HotAccountService hotAccountService) {
+        this.hotAccountService = hotAccountService;
+    }
+
+    @PostMapping("/hot-account")
+    public ResponseEntity<ResponseHotAccountDto> updateHotAccount(@Valid @RequestBody UpdateHotAccountDto updateHotAccountDto) {
+        int shards = 0;
+        if (updateHotAccountDto.getShards() != null && updateHotAccountDto.getShards() == 0) {
+            hotAccountService.markNormal(updateHotAccountDto.getUserId());
+        } else {
+            shards = hotAccountService.markHot(updateHotAccountDto.getUserId(), updateHotAccountDto.getShards());
+        }
+
+        ResponseHotAccountDto response = new ResponseHotAccountDto();
+        response.setUserId(updateHotAccountDto.getUserId());
+        response.setHot(shards > 0);
+        response.setShards(shards);
+        return ResponseEntity.ok(response);
+    }
+}
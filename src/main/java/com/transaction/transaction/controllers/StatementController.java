@@ -0,0 +1,32 @@
+package com.transaction.transaction.controllers;
+
+import java.time.YearMonth;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.transaction.transaction.dto.ResponseStatementJobDto;
+import com.transaction.transaction.services.StatementService;
+
+@RestController
+public class StatementController {
+    private final StatementService statementService;
+
+    public StatementController(StatementService statementService) {
+        this.statementService = statementService;
+    }
+
+    // month as yyyy-MM; answered right away, the job writes the statements in the background
+    @PostMapping("/statements")
+    public ResponseEntity<ResponseStatementJobDto> startStatements(@RequestParam("month") YearMonth month) {
+        return ResponseEntity.accepted().body(statementService.start(month));
+    }
+
+    @GetMapping("/statements/status")
+    public ResponseEntity<ResponseStatementJobDto> getStatementStatus() {
+        return ResponseEntity.ok(statementService.getStatus());
+    }
+}
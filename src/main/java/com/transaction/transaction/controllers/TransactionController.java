@@ -1,25 +1,50 @@
 package com.transaction.transaction.controllers;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.transaction.transaction.dto.ResponseHistoryTransactionDto;
+import com.transaction.transaction.services.TransactionExportService;
 import com.transaction.transaction.services.TransactionService;
 
 @RestController
 public class TransactionController {
     private final TransactionService transactionService;
+    private final TransactionExportService transactionExportService;
 
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService, TransactionExportService transactionExportService) {
         this.transactionService = transactionService;
+        this.transactionExportService = transactionExportService;
     }
 
+    // page numbers keep working, next_cursor of any response continues with keyset paging
     @GetMapping("/transactions")
-    public ResponseEntity<ResponseHistoryTransactionDto> getHistoryTransaction(@RequestParam("account_id") Long accountId, @RequestParam(required = false, defaultValue = "0") int page, @RequestParam(required = false, defaultValue = "10") int size) {
-        var response = transactionService.getHistoryTransaction(accountId, page, size);
+    public ResponseEntity<ResponseHistoryTransactionDto> getHistoryTransaction(@RequestParam("account_id") Long accountId, @RequestParam(required = false, defaultValue = "0") int page, @RequestParam(required = false, defaultValue = "10") int size, @RequestParam(required = false) String cursor, @RequestParam(name = "include_total", required = false, defaultValue = "false") boolean includeTotal) {
+        if (cursor != null && page != 0) {
+            throw new IllegalArgumentException("page and cursor cannot be combined");
+        }
+        var response = cursor != null
+                ? transactionService.getHistoryTransaction(accountId, cursor, size, includeTotal)
+                : transactionService.getHistoryTransaction(accountId, page, size, includeTotal);
 
         return ResponseEntity.ok(response);
     }
+
+    // the whole history in one response, written on an export thread while the rows are read
+    @GetMapping("/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(@RequestParam("account_id") Long accountId, @RequestParam(required = false, defaultValue = "ndjson") String format) {
+        TransactionExportService.Format exportFormat = TransactionExportService.Format.of(format);
+        StreamingResponseBody body = out -> transactionExportService.export(accountId, exportFormat, out);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transactions-" + accountId + "." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
 }
@@ -1,12 +1,23 @@
 package com.transaction.transaction.controllers;
 
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.transaction.transaction.dto.CreateBatchTransferDto;
 import com.transaction.transaction.dto.CreateTransferDto;
+import com.transaction.transaction.dto.ResponseBatchTransferDto;
 import com.transaction.transaction.dto.ResponseCreateTransferDto;
+import com.transaction.transaction.dto.ResponseTransferStatusDto;
+import com.transaction.transaction.services.IdempotentTransferService;
+import com.transaction.transaction.services.TransferQueueService;
 import com.transaction.transaction.services.TransferService;
 
 import jakarta.validation.Valid;
@@ -14,18 +25,44 @@ import jakarta.validation.Valid;
 @RestController
 public class TransferController {
     private final TransferService transferService;
+    private final IdempotentTransferService idempotentTransferService;
+    private final TransferQueueService transferQueueService;
 
-    public TransferController(TransferService transferService) {
+    public TransferController(TransferService transferService, IdempotentTransferService idempotentTransferService,
+                              TransferQueueService transferQueueService) {
         this.transferService = transferService;
+        this.idempotentTransferService = idempotentTransferService;
+        this.transferQueueService = transferQueueService;
     }
 
     @PostMapping("/transfer")
-    public ResponseEntity<ResponseCreateTransferDto> createTransfer(@Valid @RequestBody CreateTransferDto createTransferDto) {
-        Long result = transferService.createTransfer(createTransferDto);
-        ResponseCreateTransferDto response = new ResponseCreateTransferDto();
-        response.setTransferId(result);
-        response.setMessage("Transfer successful");
-        response.setStatus("success");
+    public ResponseEntity<ResponseCreateTransferDto> createTransfer(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody CreateTransferDto createTransferDto) {
+        if (idempotencyKey != null) {
+            return ResponseEntity.ok(idempotentTransferService.createTransfer(idempotencyKey, createTransferDto));
+        }
+        if (transferQueueService.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(transferQueueService.enqueue(createTransferDto));
+        }
+
+        return ResponseEntity.ok(transferService.createTransfer(createTransferDto));
+    }
+
+    @GetMapping("/transfer/{transferId}/status")
+    public ResponseEntity<ResponseTransferStatusDto> getTransferStatus(@PathVariable Long transferId) {
+        return ResponseEntity.ok(transferQueueService.getStatus(transferId));
+    }
+
+    @PostMapping("/transfers/batch")
+    public ResponseEntity<ResponseBatchTransferDto> createTransfers(@Valid @RequestBody CreateBatchTransferDto createBatchTransferDto) {
+        List<ResponseCreateTransferDto> results = transferService.createTransfers(createBatchTransferDto.getTransfers());
+        long succeeded = results.stream().filter(result -> "success".equals(result.getStatus())).count();
+
+        ResponseBatchTransferDto response = new ResponseBatchTransferDto();
+        response.setResults(results);
+        response.setSucceeded((int) succeeded);
+        response.setFailed(results.size() - (int) succeeded);
         return ResponseEntity.ok(response);
     }
 }
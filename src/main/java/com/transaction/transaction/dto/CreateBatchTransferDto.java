@@ -0,0 +1,16 @@
+package com.transaction.transaction.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+@Data
+public class CreateBatchTransferDto {
+    @JsonProperty("transfers")
+    @NotEmpty(message = "transfers is required")
+    private List<@Valid CreateTransferDto> transfers;
+}
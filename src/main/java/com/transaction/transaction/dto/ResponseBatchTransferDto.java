@@ -0,0 +1,20 @@
+package com.transaction.transaction.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Data;
+
+@Data
+public class ResponseBatchTransferDto {
+    @JsonProperty("succeeded")
+    private int succeeded;
+
+    @JsonProperty("failed")
+    private int failed;
+
+    // one entry per requested transfer, in request order
+    @JsonProperty("results")
+    private List<ResponseCreateTransferDto> results;
+}
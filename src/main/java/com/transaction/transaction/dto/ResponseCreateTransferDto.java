@@ -1,5 +1,6 @@
 package com.transaction.transaction.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import lombok.Data;
@@ -8,6 +9,10 @@ import lombok.Data;
 public class ResponseCreateTransferDto {
     @JsonProperty("transfer_id")
     private Long transferId;
+    // sequence of a transfer applied by the ledger, its transaction ids are not known until written behind
+    @JsonProperty("ledger_sequence")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long ledgerSequence;
     @JsonProperty("message")
     private String message;
 
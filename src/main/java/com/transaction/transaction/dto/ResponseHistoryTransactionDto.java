@@ -13,4 +13,15 @@ public class ResponseHistoryTransactionDto {
 
     @JsonProperty("transactions")
     private List<ResponseTransactionDTO> transactions;
+
+    // pass as cursor to get the next page, null on the last page
+    @JsonProperty("next_cursor")
+    private String nextCursor;
+
+    @JsonProperty("has_next")
+    private boolean hasNext;
+
+    // only when asked for with include_total
+    @JsonProperty("total_transactions")
+    private Long totalTransactions;
 }
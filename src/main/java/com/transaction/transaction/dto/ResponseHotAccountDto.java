@@ -0,0 +1,17 @@
+package com.transaction.transaction.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Data;
+
+@Data
+public class ResponseHotAccountDto {
+    @JsonProperty("user_id")
+    private long userId;
+
+    @JsonProperty("hot")
+    private boolean hot;
+
+    @JsonProperty("shards")
+    private int shards;
+}
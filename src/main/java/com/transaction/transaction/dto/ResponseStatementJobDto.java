@@ -0,0 +1,43 @@
+package com.transaction.transaction.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Data;
+
+@Data
+public class ResponseStatementJobDto {
+    // yyyy-MM
+    @JsonProperty("month")
+    private String month;
+
+    // running, completed or failed
+    @JsonProperty("status")
+    private String status;
+
+    @JsonProperty("partitions")
+    private int partitions;
+
+    // written by this run
+    @JsonProperty("partitions_done")
+    private int partitionsDone;
+
+    // already written by an earlier run according to the checkpoint
+    @JsonProperty("partitions_skipped")
+    private int partitionsSkipped;
+
+    @JsonProperty("accounts")
+    private long accounts;
+
+    @JsonProperty("transactions")
+    private long transactions;
+
+    @JsonProperty("accounts_per_second")
+    private double accountsPerSecond;
+
+    @JsonProperty("elapsed_seconds")
+    private double elapsedSeconds;
+
+    // first partition failure, the partitions it names are written again by the next run
+    @JsonProperty("message")
+    private String message;
+}
@@ -3,10 +3,13 @@ package com.transaction.transaction.dto;
 import java.time.LocalDateTime;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.transaction.transaction.money.Money;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
 public class ResponseTransactionDTO {
     @JsonProperty("id")
     private long id;
@@ -34,4 +37,19 @@ public class ResponseTransactionDTO {
 
     @JsonProperty("date")
     private LocalDateTime date;
+
+    // built by the history queries of TransactionRepository straight from the row, the amount
+    // comes in minor units like every amount below the DTOs
+    public ResponseTransactionDTO(Long id, Long accountId, long amount, String type, Long transferId,
+                                  String category, String status, String description, LocalDateTime date) {
+        this.id = id;
+        this.accountId = accountId;
+        this.amount = Money.toMajorUnits(amount);
+        this.type = type;
+        this.transferId = transferId;
+        this.category = category;
+        this.status = status;
+        this.description = description;
+        this.date = date;
+    }
 }
@@ -0,0 +1,22 @@
+package com.transaction.transaction.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Data;
+
+@Data
+public class ResponseTransferStatusDto {
+    @JsonProperty("transfer_id")
+    private Long transferId;
+
+    // queued, success, failure or unknown when the ledger did not confirm the transfer in time
+    @JsonProperty("status")
+    private String status;
+
+    @JsonProperty("message")
+    private String message;
+
+    // id a synchronous POST /transfer would have returned, set once the transfer succeeded
+    @JsonProperty("transaction_id")
+    private Long transactionId;
+}
@@ -0,0 +1,28 @@
+package com.transaction.transaction.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Data;
+
+// content of one statement file
+@Data
+public class StatementDto {
+    @JsonProperty("account_id")
+    private long accountId;
+
+    // yyyy-MM
+    @JsonProperty("month")
+    private String month;
+
+    @JsonProperty("opening_balance")
+    private Double openingBalance;
+
+    // oldest first
+    @JsonProperty("transactions")
+    private List<ResponseTransactionDTO> transactions;
+
+    @JsonProperty("closing_balance")
+    private Double closingBalance;
+}
@@ -0,0 +1,21 @@
+package com.transaction.transaction.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class UpdateHotAccountDto {
+    @NotNull(message = "user_id is required")
+    @JsonProperty("user_id")
+    private Long userId;
+
+    // 0 turns the account back into a regular one, omitted uses the configured default
+    @Min(value = 0, message = "shards must not be negative")
+    @Max(value = 256, message = "shards must not exceed 256")
+    @JsonProperty("shards")
+    private Integer shards;
+}
@@ -0,0 +1,36 @@
+package com.transaction.transaction.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Part of the balance of a hot account. Credits to a hot account land on a random shard
+ * instead of the account row, the account balance is {@code accounts.balance} plus the
+ * sum of its shards.
+ */
+@Entity
+@Table(name = "account_shards", uniqueConstraints = @UniqueConstraint(columnNames = {"accountId", "shardNo"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountShard {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long accountId;
+
+    private int shardNo;
+
+    // minor units (cents), see Money
+    private long balance;
+}
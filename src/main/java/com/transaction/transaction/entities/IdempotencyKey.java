@@ -0,0 +1,45 @@
+package com.transaction.transaction.entities;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Idempotency-Key of a transfer request that went through, written in the same database
+ * transaction as the transfer.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class IdempotencyKey {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // the unique index makes a second instance that ran the same key roll back its transfer
+    @Column(nullable = false, unique = true, length = 255)
+    private String idempotencyKey;
+
+    // both null while the ledger engine is still executing the transfer of a reserved key,
+    // which answers with the ledger sequence instead of the transfer id
+    private Long transferId;
+    private Long ledgerSequence;
+
+    // SHA-256 of the request the key was first used with, hex encoded
+    @Column(length = 64)
+    private String requestHash;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -0,0 +1,51 @@
+package com.transaction.transaction.entities;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Transfer request accepted by {@code POST /transfer} in async mode, waiting for or
+ * executed by a queue worker.
+ */
+@Entity
+@Table(name = "queued_transfers", indexes = @Index(name = "idx_queued_transfers_status_id", columnList = "status, id"))
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class QueuedTransfer {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long fromUserId;
+
+    private Long toUserId;
+
+    // minor units (cents), see Money
+    private long amount;
+
+    // queued, success or failure
+    private String status;
+
+    private String message;
+
+    // id returned by TransferService once the transfer went through
+    private Long transactionId;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime completedAt;
+}
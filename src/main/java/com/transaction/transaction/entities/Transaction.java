@@ -6,6 +6,8 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -13,19 +15,26 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "transactions")
+// same indexes as V4__hot_query_indexes.sql, for schemas Hibernate creates itself
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_account_date_id", columnList = "accountId, date DESC, id DESC"),
+        @Index(name = "idx_transactions_transfer_id", columnList = "transferId")
+})
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 public class Transaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // pooled sequence instead of IDENTITY: Hibernate reserves 50 ids per round trip and can batch the inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
 
     private Long accountId;
 
-    private Double amount;
+    // minor units (cents), see Money
+    private long amount;
 
     private String type;
 
@@ -0,0 +1,48 @@
+package com.transaction.transaction.entities;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Number of {@code transactions} rows of an account, raised in the transaction that inserts
+ * them so the history total does not need a {@code COUNT(*)} over the account's rows. Hot
+ * accounts have none, see {@code TransactionCountService}.
+ */
+@Entity
+@Table(name = "transaction_counts")
+@Getter
+@Setter
+@NoArgsConstructor
+public class TransactionCount implements Persistable<Long> {
+    @Id
+    private Long accountId;
+
+    private long transactionCount;
+
+    // the id is assigned, without this save() would select the row before inserting it
+    @Transient
+    private boolean created;
+
+    // a counter at zero for a new account
+    public TransactionCount(Long accountId) {
+        this.accountId = accountId;
+        this.created = true;
+    }
+
+    @Override
+    public Long getId() {
+        return accountId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return created;
+    }
+}
@@ -2,10 +2,12 @@ package com.transaction.transaction.entities;
 
 import java.time.LocalDateTime;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -20,14 +22,22 @@ import lombok.Setter;
 @NoArgsConstructor
 public class Transfer {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transfers_seq")
+    @SequenceGenerator(name = "transfers_seq", sequenceName = "transfers_seq", allocationSize = 50)
     private Long id;
 
     private Long fromAccountId;
 
     private Long toAccountId;
 
-    private Double amount;
+    // minor units (cents), see Money
+    private long amount;
 
     private LocalDateTime date = LocalDateTime.now();
+
+    // set only for transfers accepted by the ledger engine, identifies the write-ahead log record
+    private Integer ledgerPartition;
+
+    @Column(unique = true)
+    private Long ledgerSequence;
 }
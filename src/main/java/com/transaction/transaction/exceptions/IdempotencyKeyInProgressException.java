@@ -0,0 +1,7 @@
+package com.transaction.transaction.exceptions;
+
+public class IdempotencyKeyInProgressException extends RuntimeException {
+    public IdempotencyKeyInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.transaction.transaction.exceptions;
+
+public class IdempotencyKeyMismatchException extends RuntimeException {
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.transaction.transaction.exceptions;
+
+public class QueueFullException extends RuntimeException {
+    public QueueFullException(String message) {
+        super(message);
+    }
+}
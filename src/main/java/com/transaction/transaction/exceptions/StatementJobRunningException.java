@@ -0,0 +1,7 @@
+package com.transaction.transaction.exceptions;
+
+public class StatementJobRunningException extends RuntimeException {
+    public StatementJobRunningException(String message) {
+        super(message);
+    }
+}
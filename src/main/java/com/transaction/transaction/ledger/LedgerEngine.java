@@ -0,0 +1,482 @@
+package com.transaction.transaction.ledger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.transaction.transaction.config.TransferProperties;
+import com.transaction.transaction.entities.Account;
+import com.transaction.transaction.exceptions.ResouceNotFoundException;
+import com.transaction.transaction.repositories.AccountRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Transfer engine that keeps account balances in memory instead of locking database rows.
+ *
+ * <p>Accounts are partitioned by account id. Each partition is a single thread that owns
+ * the balances of its accounts, so no locks are needed on them. A transfer is queued to the
+ * partition of the source account, which checks and applies the debit, appends the
+ * transfer to its {@link WriteAheadLog} and confirms it once the log is synced; one sync
+ * covers every transfer of the batch the partition drained from its queue. The credit is
+ * then queued to the partition of the target account. Postgres is brought up to date
+ * behind the engine by {@link LedgerPersister}.
+ *
+ * <p>A batch the database keeps rejecting is retried {@code transfer.ledger.persist-attempts}
+ * times, after which the persister stops: its records stay in the log for the next
+ * recovery, new transfers are refused and {@link #isPersisterFailed()} reports the failure to
+ * the health endpoint and the {@code ledger.persister.failed} gauge. While more than
+ * {@code transfer.ledger.max-unpersisted} logged transfers wait for a database that is slow
+ * but healthy, new transfers are refused as well; the transfers already queued on the
+ * partitions may still go past that threshold.
+ *
+ * <p>On startup every log record the database does not have yet is written to it, after
+ * which the database is the snapshot the engine starts from: balances are read from the
+ * accounts table the first time an account is used. Balance changes made directly in the
+ * database afterwards are not seen by accounts already in memory.
+ */
+@Component
+@ConditionalOnProperty(prefix = "transfer.ledger", name = "enabled", havingValue = "true")
+public class LedgerEngine implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(LedgerEngine.class);
+
+    private final TransferProperties.Ledger properties;
+    private final AccountRepository accountRepository;
+    private final LedgerPersister persister;
+
+    private final AtomicLong sequence = new AtomicLong();
+    // user id -> account id of every account loaded into a partition
+    private final Map<Long, CompletableFuture<Long>> accountIds = new ConcurrentHashMap<>();
+    // bounded by refusing transfers past max-unpersisted, see transfer()
+    private final BlockingQueue<LedgerRecord> unpersisted = new LinkedBlockingQueue<>();
+
+    private Partition[] partitions;
+    private Thread[] partitionThreads;
+    private Thread persisterThread;
+    private volatile boolean running;
+    private volatile boolean partitionsRunning;
+    private volatile boolean persisterFailed;
+    private final Counter persistRetries;
+
+    public LedgerEngine(TransferProperties transferProperties, AccountRepository accountRepository, LedgerPersister persister,
+                        MeterRegistry meterRegistry) {
+        this.properties = transferProperties.getLedger();
+        this.accountRepository = accountRepository;
+        this.persister = persister;
+        this.persistRetries = Counter.builder("ledger.persist.retries")
+                .description("Ledger batches the database rejected and that were tried again")
+                .register(meterRegistry);
+        Gauge.builder("ledger.persister.failed", this, engine -> engine.isPersisterFailed() ? 1 : 0)
+                .description("1 once the persister gave up writing to the database and transfers are refused")
+                .register(meterRegistry);
+        Gauge.builder("ledger.unpersisted", unpersisted, BlockingQueue::size)
+                .description("Logged transfers not written to the database yet")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        Path directory = Path.of(properties.getDirectory());
+        try {
+            Files.createDirectories(directory);
+            recover(directory);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Ledger recovery failed", ex);
+        }
+
+        partitions = new Partition[properties.getPartitions()];
+        partitionThreads = new Thread[properties.getPartitions()];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new Partition(i, new WriteAheadLog(directory, i, properties.getSegmentSize().toBytes()));
+            partitionThreads[i] = new Thread(partitions[i], "ledger-partition-" + i);
+        }
+        persisterThread = new Thread(this::writeBehind, "ledger-persister");
+
+        running = true;
+        partitionsRunning = true;
+        for (Thread thread : partitionThreads) {
+            thread.start();
+        }
+        persisterThread.start();
+    }
+
+    /**
+     * Stops taking transfers, lets the partitions finish their queues and waits until the
+     * persister has written everything they logged.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        join(partitionThreads);
+        partitionsRunning = false;
+        join(new Thread[] {persisterThread});
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // start before and stop after the web server, which runs in a lower phase than the default
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    /**
+     * @return true once a batch failed every attempt to be written to the database; the engine
+     *         refuses transfers until it is restarted and recovers the log
+     */
+    public boolean isPersisterFailed() {
+        return persisterFailed;
+    }
+
+    /**
+     * @return transfers confirmed by the ledger and not written to the database yet
+     */
+    public int unpersistedCount() {
+        return unpersisted.size();
+    }
+
+    /**
+     * @return the id of the user's account, or null when the user has no account
+     */
+    public Long accountId(Long userId) {
+        CompletableFuture<Long> accountId = accountIds.get(userId);
+        if (accountId == null) {
+            CompletableFuture<Long> loading = new CompletableFuture<>();
+            accountId = accountIds.putIfAbsent(userId, loading);
+            if (accountId == null) {
+                accountId = loading;
+                load(userId, loading);
+            }
+        }
+        Long id = accountId.join();
+        if (id == null) {
+            // the account may still be created, do not remember that it is missing
+            accountIds.remove(userId, accountId);
+        }
+        return id;
+    }
+
+    /**
+     * Queues a transfer between two accounts returned by {@link #accountId}.
+     *
+     * @return completes with the ledger sequence of the transfer once it is logged durably,
+     *         or exceptionally when the source account lacks balance
+     */
+    public CompletableFuture<Long> transfer(Long fromAccountId, Long toAccountId, long amount) {
+        if (!running) {
+            throw new IllegalStateException("Ledger is not running");
+        }
+        if (persisterFailed) {
+            throw new IllegalStateException("Ledger cannot write to the database, transfers are suspended");
+        }
+        if (unpersisted.size() >= properties.getMaxUnpersisted()) {
+            throw new IllegalStateException("Ledger is behind writing to the database, try again later");
+        }
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        partitionOf(fromAccountId).submit(new Debit(fromAccountId, toAccountId, amount, result));
+        return result;
+    }
+
+    private void recover(Path directory) throws IOException {
+        List<LedgerRecord> records = WriteAheadLog.replay(directory);
+        Map<Integer, Long> persisted = new HashMap<>();
+        List<LedgerRecord> missing = records.stream()
+                .filter(record -> record.sequence() > persisted.computeIfAbsent(record.partition(), persister::lastSequence))
+                .toList();
+        for (int from = 0; from < missing.size(); from += properties.getPersistBatch()) {
+            persister.persist(missing.subList(from, Math.min(missing.size(), from + properties.getPersistBatch())));
+        }
+        WriteAheadLog.deleteAll(directory);
+
+        long lastLogged = records.stream().mapToLong(LedgerRecord::sequence).max().orElse(0);
+        sequence.set(Math.max(lastLogged, persister.lastSequence()));
+        log.info("Ledger recovered, {} of {} logged transfers written to the database", missing.size(), records.size());
+    }
+
+    private void load(Long userId, CompletableFuture<Long> result) {
+        try {
+            Optional<Account> account = accountRepository.findByUserId(userId);
+            if (account.isEmpty()) {
+                result.complete(null);
+                return;
+            }
+            partitionOf(account.get().getId()).enqueue(new Load(account.get().getId(), account.get().getBalance(), result));
+        } catch (RuntimeException ex) {
+            accountIds.remove(userId, result);
+            result.completeExceptionally(ex);
+        }
+    }
+
+    private Partition partitionOf(Long accountId) {
+        return partitions[(int) Math.floorMod(accountId, (long) partitions.length)];
+    }
+
+    private void writeBehind() {
+        while (partitionsRunning || !unpersisted.isEmpty()) {
+            LedgerRecord first;
+            try {
+                first = unpersisted.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (first == null) {
+                continue;
+            }
+            List<LedgerRecord> batch = new ArrayList<>(properties.getPersistBatch());
+            batch.add(first);
+            unpersisted.drainTo(batch, properties.getPersistBatch() - 1);
+            if (!persist(batch)) {
+                // the records stay in the log and are written by the next recovery; later
+                // batches are not written either, recovery only fills the gap after the last
+                // persisted sequence of a partition
+                return;
+            }
+
+            Map<Integer, Long> lastPersisted = new HashMap<>();
+            batch.forEach(record -> lastPersisted.merge(record.partition(), record.sequence(), Math::max));
+            lastPersisted.forEach((partition, lastSequence) -> partitions[partition].enqueue(new Release(lastSequence)));
+        }
+    }
+
+    private boolean persist(List<LedgerRecord> batch) {
+        // fewer attempts on shutdown, the records are safe in the log either way
+        for (int attempt = 1; ; attempt++) {
+            try {
+                persister.persist(batch);
+                return true;
+            } catch (RuntimeException ex) {
+                if (!partitionsRunning && attempt >= 3) {
+                    log.error("Giving up writing {} ledger records on shutdown, they are kept in the log", batch.size(), ex);
+                    return false;
+                }
+                if (attempt >= properties.getPersistAttempts()) {
+                    persisterFailed = true;
+                    log.error("Giving up writing {} ledger records after {} attempts, they are kept in the log "
+                            + "and transfers are refused until restart", batch.size(), attempt, ex);
+                    return false;
+                }
+                log.warn("Writing {} ledger records to the database failed, retrying", batch.size(), ex);
+                persistRetries.increment();
+                try {
+                    Thread.sleep(Math.min(properties.getPersistBackoff().toMillis() * attempt,
+                            properties.getMaxPersistBackoff().toMillis()));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+    }
+
+    private void join(Thread[] threads) {
+        if (threads == null) {
+            return;
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private sealed interface Command permits Load, Debit, Credit, Release {
+    }
+
+    private record Load(Long accountId, long balance, CompletableFuture<Long> result) implements Command {
+    }
+
+    private record Debit(Long fromAccountId, Long toAccountId, long amount, CompletableFuture<Long> result) implements Command {
+    }
+
+    private record Credit(Long accountId, long amount) implements Command {
+    }
+
+    // the persister has written every record of the partition up to this sequence
+    private record Release(long sequence) implements Command {
+    }
+
+    private record Accepted(Debit debit, LedgerRecord record) {
+    }
+
+    private final class Partition implements Runnable {
+        private final int id;
+        private final WriteAheadLog writeAheadLog;
+        // commands come through an unbounded queue so partitions never block on each other's
+        // credits, the permits bound only the transfers submitted by callers
+        private final BlockingQueue<Command> queue = new LinkedBlockingQueue<>();
+        private final Semaphore capacity = new Semaphore(properties.getQueueCapacity());
+        private final Map<Long, Long> balances = new HashMap<>();
+        private boolean failed;
+
+        Partition(int id, WriteAheadLog writeAheadLog) {
+            this.id = id;
+            this.writeAheadLog = writeAheadLog;
+        }
+
+        void submit(Debit debit) {
+            try {
+                if (!capacity.tryAcquire(properties.getSubmitTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                    throw new IllegalStateException("Ledger partition " + id + " is overloaded");
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while queueing transfer", ex);
+            }
+            queue.add(debit);
+        }
+
+        void enqueue(Command command) {
+            queue.add(command);
+        }
+
+        @Override
+        public void run() {
+            List<Command> batch = new ArrayList<>(properties.getMaxBatch());
+            List<Accepted> accepted = new ArrayList<>();
+            while (running || !queue.isEmpty()) {
+                Command first;
+                try {
+                    first = queue.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, properties.getMaxBatch() - 1);
+                for (Command command : batch) {
+                    apply(command, accepted);
+                }
+                commit(accepted);
+                batch.clear();
+                accepted.clear();
+            }
+            try {
+                writeAheadLog.close();
+            } catch (IOException ex) {
+                log.error("Closing write-ahead log of ledger partition {} failed", id, ex);
+            }
+        }
+
+        private void apply(Command command, List<Accepted> accepted) {
+            if (command instanceof Load load) {
+                balances.putIfAbsent(load.accountId(), load.balance());
+                load.result().complete(load.accountId());
+            } else if (command instanceof Credit credit) {
+                balances.merge(credit.accountId(), credit.amount(), Long::sum);
+            } else if (command instanceof Release release) {
+                try {
+                    writeAheadLog.release(release.sequence());
+                } catch (IOException ex) {
+                    log.warn("Deleting persisted write-ahead log segments of ledger partition {} failed", id, ex);
+                }
+            } else if (command instanceof Debit debit) {
+                capacity.release();
+                debit(debit, accepted);
+            }
+        }
+
+        private void debit(Debit debit, List<Accepted> accepted) {
+            if (failed) {
+                debit.result().completeExceptionally(new IllegalStateException("Ledger partition " + id + " cannot write its log"));
+                return;
+            }
+            Long balance = balances.get(debit.fromAccountId());
+            if (balance == null) {
+                debit.result().completeExceptionally(new ResouceNotFoundException("From account not found"));
+                return;
+            }
+            if (balance < debit.amount()) {
+                debit.result().completeExceptionally(new IllegalArgumentException("Insufficient balance in the source account"));
+                return;
+            }
+
+            LedgerRecord record = new LedgerRecord(sequence.incrementAndGet(), id, debit.fromAccountId(),
+                    debit.toAccountId(), debit.amount(), System.currentTimeMillis());
+            try {
+                writeAheadLog.append(record);
+            } catch (IOException ex) {
+                log.error("Appending to write-ahead log of ledger partition {} failed", id, ex);
+                fail();
+                debit.result().completeExceptionally(new IllegalStateException("Ledger partition " + id + " cannot write its log"));
+                return;
+            }
+            balances.put(debit.fromAccountId(), balance - debit.amount());
+            accepted.add(new Accepted(debit, record));
+        }
+
+        /**
+         * Syncs the log for every debit accepted in this batch, then confirms them and
+         * sends their credits and records on.
+         */
+        private void commit(List<Accepted> accepted) {
+            if (accepted.isEmpty()) {
+                return;
+            }
+            if (!failed) {
+                try {
+                    writeAheadLog.sync();
+                } catch (IOException ex) {
+                    log.error("Syncing write-ahead log of ledger partition {} failed", id, ex);
+                    fail();
+                }
+            }
+            if (failed) {
+                for (Accepted transfer : accepted) {
+                    balances.merge(transfer.record().fromAccountId(), transfer.record().amount(), Long::sum);
+                    transfer.debit().result().completeExceptionally(new IllegalStateException("Ledger partition " + id + " cannot write its log"));
+                }
+                return;
+            }
+
+            for (Accepted transfer : accepted) {
+                partitionOf(transfer.record().toAccountId()).enqueue(new Credit(transfer.record().toAccountId(), transfer.record().amount()));
+                unpersisted.add(transfer.record());
+                transfer.debit().result().complete(transfer.record().sequence());
+            }
+        }
+
+        /**
+         * Stops the partition taking transfers and drops the records it logged since the last
+         * sync: their debits are reverted and reported as failed, recovery must not replay them.
+         */
+        private void fail() {
+            failed = true;
+            try {
+                writeAheadLog.discard();
+            } catch (IOException ex) {
+                log.error("Discarding unsynced records of ledger partition {} failed, recovery may replay them", id, ex);
+            }
+        }
+    }
+}
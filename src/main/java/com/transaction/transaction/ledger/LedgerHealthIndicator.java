@@ -0,0 +1,33 @@
+package com.transaction.transaction.ledger;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import com.transaction.transaction.config.TransferProperties;
+
+/**
+ * Reports the ledger DOWN once its persister gave up writing to the database, the engine
+ * refuses transfers from then on until a restart recovers the log.
+ */
+@Component
+@ConditionalOnProperty(prefix = "transfer.ledger", name = "enabled", havingValue = "true")
+public class LedgerHealthIndicator implements HealthIndicator {
+
+    private final LedgerEngine ledgerEngine;
+    private final int maxUnpersisted;
+
+    public LedgerHealthIndicator(LedgerEngine ledgerEngine, TransferProperties transferProperties) {
+        this.ledgerEngine = ledgerEngine;
+        this.maxUnpersisted = transferProperties.getLedger().getMaxUnpersisted();
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = ledgerEngine.isPersisterFailed() ? Health.down() : Health.up();
+        return builder.withDetail("unpersisted", ledgerEngine.unpersistedCount())
+                .withDetail("maxUnpersisted", maxUnpersisted)
+                .build();
+    }
+}
@@ -0,0 +1,115 @@
+package com.transaction.transaction.ledger;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.transaction.transaction.entities.Transaction;
+import com.transaction.transaction.entities.Transfer;
+import com.transaction.transaction.repositories.AccountRepository;
+import com.transaction.transaction.repositories.TransactionRepository;
+import com.transaction.transaction.repositories.TransferRepository;
+import com.transaction.transaction.services.AccountBalanceCache;
+import com.transaction.transaction.services.TransactionCountService;
+
+/**
+ * Writes ledger records behind to Postgres: the transfer row, its debit/credit transactions
+ * and the balance change of both accounts, all records of a call in one database
+ * transaction. The ledger sequence stored on the transfer row tells recovery which log
+ * records the database already has.
+ */
+@Component
+@ConditionalOnProperty(prefix = "transfer.ledger", name = "enabled", havingValue = "true")
+public class LedgerPersister {
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransferRepository transferRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountBalanceCache accountBalanceCache;
+    private final TransactionCountService transactionCountService;
+
+    public LedgerPersister(AccountRepository accountRepository,
+                           TransactionRepository transactionRepository,
+                           TransferRepository transferRepository,
+                           PlatformTransactionManager transactionManager,
+                           AccountBalanceCache accountBalanceCache,
+                           TransactionCountService transactionCountService) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.transferRepository = transferRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.accountBalanceCache = accountBalanceCache;
+        this.transactionCountService = transactionCountService;
+    }
+
+    public long lastSequence() {
+        Long sequence = transferRepository.findMaxLedgerSequence();
+        return sequence != null ? sequence : 0;
+    }
+
+    public long lastSequence(int partition) {
+        Long sequence = transferRepository.findMaxLedgerSequenceByLedgerPartition(partition);
+        return sequence != null ? sequence : 0;
+    }
+
+    public void persist(List<LedgerRecord> records) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Transfer> transfers = new ArrayList<>(records.size());
+            // ascending account id, the order every other writer locks accounts in
+            Map<Long, Long> balanceChanges = new TreeMap<>();
+            for (LedgerRecord record : records) {
+                Transfer transfer = new Transfer();
+                transfer.setFromAccountId(record.fromAccountId());
+                transfer.setToAccountId(record.toAccountId());
+                transfer.setAmount(record.amount());
+                transfer.setDate(dateOf(record));
+                transfer.setLedgerPartition(record.partition());
+                transfer.setLedgerSequence(record.sequence());
+                transfers.add(transfer);
+
+                balanceChanges.merge(record.fromAccountId(), -record.amount(), Long::sum);
+                balanceChanges.merge(record.toAccountId(), record.amount(), Long::sum);
+            }
+            transferRepository.saveAll(transfers);
+
+            List<Transaction> transactions = new ArrayList<>(records.size() * 2);
+            for (int i = 0; i < records.size(); i++) {
+                LedgerRecord record = records.get(i);
+                Long transferId = transfers.get(i).getId();
+                transactions.add(newTransaction(record.fromAccountId(), "debit", "transfer_out", record, transferId));
+                transactions.add(newTransaction(record.toAccountId(), "credit", "transfer_in", record, transferId));
+            }
+            transactionRepository.saveAll(transactions);
+            transactionCountService.countInserted(transactions);
+
+            balanceChanges.forEach(accountRepository::credit);
+            accountBalanceCache.evictAfterCommit(balanceChanges.keySet());
+        });
+    }
+
+    private Transaction newTransaction(Long accountId, String type, String category, LedgerRecord record, Long transferId) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(accountId);
+        transaction.setType(type);
+        transaction.setAmount(record.amount());
+        transaction.setCategory(category);
+        transaction.setStatus("success");
+        transaction.setDate(dateOf(record));
+        transaction.setTransferId(transferId);
+        return transaction;
+    }
+
+    private LocalDateTime dateOf(LedgerRecord record) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(record.timestamp()), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,12 @@
+package com.transaction.transaction.ledger;
+
+/**
+ * One accepted transfer as written to the write-ahead log. The record carries both legs,
+ * the credit is implied by the debit and never logged on its own.
+ *
+ * @param sequence  ledger-wide increasing id of the transfer
+ * @param partition partition that accepted the debit and logged the record
+ * @param timestamp acceptance time in epoch milliseconds
+ */
+public record LedgerRecord(long sequence, int partition, long fromAccountId, long toAccountId, long amount, long timestamp) {
+}
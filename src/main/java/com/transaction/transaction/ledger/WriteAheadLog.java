@@ -0,0 +1,209 @@
+package com.transaction.transaction.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of one ledger partition. Records are buffered by {@link #append} and
+ * made durable together by {@link #sync}, so one fsync covers every transfer accepted in
+ * the same batch. The log is split into segment files named
+ * {@code <partition>-<first sequence>.wal}; a segment is deleted once every record in it
+ * has been written to the database. After a failed append or sync the unsynced records are
+ * dropped with {@link #discard}, their transfers are reported as failed and must not be
+ * replayed.
+ *
+ * <p>Not thread safe, each partition thread owns its log.
+ */
+public class WriteAheadLog implements Closeable {
+
+    // sequence, partition, from, to, amount, timestamp, crc
+    static final int RECORD_SIZE = Long.BYTES + Integer.BYTES + 4 * Long.BYTES + Integer.BYTES;
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("(\\d+)-(\\d+)\\.wal");
+
+    private final Path directory;
+    private final int partition;
+    private final long segmentSize;
+    private final ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 1024);
+    private final CRC32 crc = new CRC32();
+    private final Deque<Segment> closedSegments = new ArrayDeque<>();
+
+    private FileChannel channel;
+    private Path currentSegment;
+    private long currentLastSequence;
+    // bytes of the current segment forced to disk by the last sync
+    private long syncedSize;
+    private boolean discarded;
+
+    public WriteAheadLog(Path directory, int partition, long segmentSize) {
+        this.directory = directory;
+        this.partition = partition;
+        this.segmentSize = segmentSize;
+    }
+
+    public void append(LedgerRecord record) throws IOException {
+        if (discarded) {
+            throw new IOException("Write-ahead log of partition " + partition + " was discarded");
+        }
+        if (channel == null) {
+            currentSegment = directory.resolve(String.format("%d-%020d.wal", partition, record.sequence()));
+            channel = FileChannel.open(currentSegment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            syncedSize = 0;
+        }
+        if (buffer.remaining() < RECORD_SIZE) {
+            writeBuffer();
+        }
+        int start = buffer.position();
+        buffer.putLong(record.sequence())
+                .putInt(record.partition())
+                .putLong(record.fromAccountId())
+                .putLong(record.toAccountId())
+                .putLong(record.amount())
+                .putLong(record.timestamp());
+        crc.reset();
+        crc.update(buffer.array(), start, RECORD_SIZE - Integer.BYTES);
+        buffer.putInt((int) crc.getValue());
+        currentLastSequence = record.sequence();
+    }
+
+    /**
+     * Writes the buffered records and forces them to disk.
+     */
+    public void sync() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        writeBuffer();
+        channel.force(false);
+        syncedSize = channel.position();
+        if (syncedSize >= segmentSize) {
+            channel.close();
+            channel = null;
+            closedSegments.add(new Segment(currentSegment, currentLastSequence));
+        }
+    }
+
+    /**
+     * Deletes the closed segments whose records are all persisted up to {@code sequence}.
+     */
+    public void release(long sequence) throws IOException {
+        while (!closedSegments.isEmpty() && closedSegments.peek().lastSequence() <= sequence) {
+            Files.deleteIfExists(closedSegments.poll().path());
+        }
+    }
+
+    /**
+     * Drops every record appended since the last {@link #sync}, from the buffer and from the
+     * segment file, which is truncated back to its synced size. The log takes no more records
+     * and {@link #close} writes nothing.
+     */
+    public void discard() throws IOException {
+        discarded = true;
+        buffer.clear();
+        if (channel == null) {
+            return;
+        }
+        FileChannel failed = channel;
+        channel = null;
+        try (failed) {
+            failed.truncate(syncedSize);
+            failed.force(false);
+        }
+        if (syncedSize == 0) {
+            Files.deleteIfExists(currentSegment);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            sync();
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Reads every intact record in the directory, in log order per partition. A segment is
+     * read up to its first torn or corrupt record, which can only be the tail of the last
+     * batch that was being written when the process stopped.
+     */
+    public static List<LedgerRecord> replay(Path directory) {
+        List<LedgerRecord> records = new ArrayList<>();
+        for (Path segment : segments(directory)) {
+            try {
+                ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(segment));
+                CRC32 checksum = new CRC32();
+                while (content.remaining() >= RECORD_SIZE) {
+                    int start = content.position();
+                    checksum.reset();
+                    checksum.update(content.array(), start, RECORD_SIZE - Integer.BYTES);
+                    LedgerRecord record = new LedgerRecord(content.getLong(), content.getInt(), content.getLong(),
+                            content.getLong(), content.getLong(), content.getLong());
+                    if (content.getInt() != (int) checksum.getValue()) {
+                        break;
+                    }
+                    records.add(record);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        return records;
+    }
+
+    public static void deleteAll(Path directory) throws IOException {
+        for (Path segment : segments(directory)) {
+            Files.delete(segment);
+        }
+    }
+
+    private static List<Path> segments(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> SEGMENT_NAME.matcher(file.getFileName().toString()).matches())
+                    .sorted(Comparator.comparing(WriteAheadLog::partitionOf).thenComparing(WriteAheadLog::firstSequenceOf))
+                    .toList();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static int partitionOf(Path segment) {
+        Matcher matcher = SEGMENT_NAME.matcher(segment.getFileName().toString());
+        matcher.matches();
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    private static long firstSequenceOf(Path segment) {
+        Matcher matcher = SEGMENT_NAME.matcher(segment.getFileName().toString());
+        matcher.matches();
+        return Long.parseLong(matcher.group(2));
+    }
+
+    private record Segment(Path path, long lastSequence) {
+    }
+}
@@ -6,17 +6,20 @@ import org.mapstruct.factory.Mappers;
 
 import com.transaction.transaction.dto.ResponseAccountBalanceDto;
 import com.transaction.transaction.dto.ResponseAccountDto;
+import com.transaction.transaction.money.Money;
 
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", imports = Money.class)
 public interface AccountMapper {
 
     AccountMapper INSTANCE = Mappers.getMapper(AccountMapper.class);
 
     @Mapping(source = "user.id", target = "userId")
     @Mapping(source = "user.userName", target = "userName")
+    @Mapping(target = "balance", expression = "java(Money.toMajorUnits(account.getBalance()))")
     ResponseAccountDto toResponseAccountDto(com.transaction.transaction.entities.Account account);
     
     @Mapping(source = "user.id", target = "userId")
+    @Mapping(target = "balance", expression = "java(Money.toMajorUnits(account.getBalance()))")
     ResponseAccountBalanceDto toResponseAccountBalanceDto(com.transaction.transaction.entities.Account account);
 
     
@@ -1,14 +1,17 @@
 package com.transaction.transaction.mappers;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 import com.transaction.transaction.dto.ResponseTransactionDTO;
 import com.transaction.transaction.entities.Transaction;
+import com.transaction.transaction.money.Money;
 
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", imports = Money.class)
 public interface TransactionMapper {
     TransactionMapper INSTANCE = Mappers.getMapper(TransactionMapper.class);
 
+    @Mapping(target = "amount", expression = "java(Money.toMajorUnits(transaction.getAmount()))")
     ResponseTransactionDTO toResponseTransactionDTO(Transaction transaction);
 }
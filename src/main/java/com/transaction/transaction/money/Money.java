@@ -0,0 +1,37 @@
+package com.transaction.transaction.money;
+
+import java.math.BigDecimal;
+
+/**
+ * Conversion between the decimal amounts of the JSON API and the minor units (cents) the
+ * services, entities and the database work with. Balances and amounts are plain
+ * {@code long}s below the DTOs, so they are compared exactly and never boxed.
+ */
+public final class Money {
+
+    // digits after the decimal point of one major unit
+    public static final int SCALE = 2;
+    private static final double MINOR_UNITS_PER_MAJOR = 100.0;
+
+    private Money() {
+    }
+
+    /**
+     * @throws IllegalArgumentException when the amount is missing or has more than {@link #SCALE} decimals
+     */
+    public static long toMinorUnits(Double amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount is required");
+        }
+        try {
+            return BigDecimal.valueOf(amount).movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException("Amount must not have more than " + SCALE + " decimal places");
+        }
+    }
+
+    // exact for every balance below 2^53 cents, the division is correctly rounded
+    public static double toMajorUnits(long minorUnits) {
+        return minorUnits / MINOR_UNITS_PER_MAJOR;
+    }
+}
@@ -1,17 +1,69 @@
 package com.transaction.transaction.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import com.transaction.transaction.entities.Account;
 
+import jakarta.persistence.LockModeType;
+
 public interface AccountRepository extends JpaRepository<Account, Long> {
-    Optional<Account> findByUserId(Long userId);   
+    // the user is joined in, loading it eagerly afterwards costs a second select per account
+    @EntityGraph(attributePaths = "user")
+    Optional<Account> findByUserId(Long userId);
     Boolean existsByUserId(Long userId);
-    
+
     @Query("SELECT a.balance FROM Account a WHERE a.id = :userId")
     Long getBalanceByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT a.balance FROM Account a WHERE a.id = :id")
+    Long findBalanceById(@Param("id") Long id);
+
+    @Query("SELECT a.id AS id, a.balance AS balance, a.shardCount AS shardCount FROM Account a WHERE a.id = :id")
+    Optional<AccountBalanceView> findBalanceViewById(@Param("id") Long id);
+
+    @Query("SELECT a.id AS id, a.user.id AS userId, a.shardCount AS shardCount FROM Account a WHERE a.user.id IN :userIds")
+    List<AccountIdView> findAccountIdsByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    // rows are locked in ascending account id order, callers must lock every account they update in one call
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.user.id IN :userIds ORDER BY a.id")
+    List<Account> findAllByUserIdInForUpdate(@Param("userIds") Collection<Long> userIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Account> findForUpdateById(Long id);
+
+    // locks without loading the accounts, in ascending id order like findAllByUserIdInForUpdate
+    @Query(value = "SELECT id FROM accounts WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockAllById(@Param("ids") Collection<Long> ids);
+
+    // the bulk updates bump the version themselves so optimistic writers notice the change
+    // returns 0 when the account does not hold enough balance, nothing is changed in that case
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance - :amount, a.version = a.version + 1 WHERE a.id = :id AND a.balance >= :amount")
+    int debitIfSufficient(@Param("id") Long id, @Param("amount") long amount);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance + :amount, a.version = a.version + 1 WHERE a.id = :id")
+    int credit(@Param("id") Long id, @Param("amount") long amount);
+
+    interface AccountIdView {
+        Long getId();
+        Long getUserId();
+        int getShardCount();
+    }
+
+    interface AccountBalanceView {
+        Long getId();
+        long getBalance();
+        int getShardCount();
+    }
 }
@@ -0,0 +1,34 @@
+package com.transaction.transaction.repositories;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.transaction.transaction.entities.AccountShard;
+
+public interface AccountShardRepository extends JpaRepository<AccountShard, Long> {
+
+    @Query("SELECT COALESCE(SUM(s.balance), 0) FROM AccountShard s WHERE s.accountId = :accountId")
+    long sumBalanceByAccountId(@Param("accountId") Long accountId);
+
+    // plain values instead of entities, the bulk updates below change the balances underneath
+    // the persistence context and a cached shard entity would be read back stale
+    @Query(value = "SELECT balance FROM account_shards WHERE account_id = :accountId ORDER BY shard_no FOR UPDATE", nativeQuery = true)
+    List<Long> findBalancesByAccountIdForUpdate(@Param("accountId") Long accountId);
+
+    // returns 0 when the shard does not exist (any more)
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE AccountShard s SET s.balance = s.balance + :amount WHERE s.accountId = :accountId AND s.shardNo = :shardNo")
+    int credit(@Param("accountId") Long accountId, @Param("shardNo") int shardNo, @Param("amount") long amount);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE AccountShard s SET s.balance = 0 WHERE s.accountId = :accountId")
+    int clearBalanceByAccountId(@Param("accountId") Long accountId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM AccountShard s WHERE s.accountId = :accountId")
+    int deleteByAccountId(@Param("accountId") Long accountId);
+}
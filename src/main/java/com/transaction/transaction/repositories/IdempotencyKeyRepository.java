@@ -0,0 +1,19 @@
+package com.transaction.transaction.repositories;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.transaction.transaction.entities.IdempotencyKey;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+    Optional<IdempotencyKey> findByIdempotencyKey(String idempotencyKey);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.createdAt < :createdBefore")
+    int deleteByCreatedAtBefore(@Param("createdBefore") LocalDateTime createdBefore);
+}
@@ -0,0 +1,33 @@
+package com.transaction.transaction.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.transaction.transaction.entities.QueuedTransfer;
+
+public interface QueuedTransferRepository extends JpaRepository<QueuedTransfer, Long> {
+
+    long countByStatus(String status);
+
+    // rows claimed by another worker are skipped instead of waited for, the locks are held
+    // until the claiming transaction has executed the transfers and stored their outcome
+    @Query(value = "SELECT * FROM queued_transfers WHERE status = 'queued' ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<QueuedTransfer> claimQueued(@Param("limit") int limit);
+
+    // one transfer, empty once it was executed or while another worker holds it
+    @Query(value = "SELECT * FROM queued_transfers WHERE id = :id AND status = 'queued' FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<QueuedTransfer> claimQueuedById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE QueuedTransfer q SET q.status = :status, q.message = :message, q.transactionId = :transactionId, "
+            + "q.startedAt = :startedAt, q.completedAt = :completedAt WHERE q.id = :id")
+    int complete(@Param("id") Long id, @Param("status") String status, @Param("message") String message,
+                 @Param("transactionId") Long transactionId, @Param("startedAt") LocalDateTime startedAt,
+                 @Param("completedAt") LocalDateTime completedAt);
+}
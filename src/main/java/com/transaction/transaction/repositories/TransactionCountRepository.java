@@ -0,0 +1,20 @@
+package com.transaction.transaction.repositories;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.transaction.transaction.entities.TransactionCount;
+
+public interface TransactionCountRepository extends JpaRepository<TransactionCount, Long> {
+
+    @Query("SELECT c.transactionCount FROM TransactionCount c WHERE c.accountId = :accountId")
+    Optional<Long> findTransactionCountByAccountId(@Param("accountId") Long accountId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM TransactionCount c WHERE c.accountId = :accountId")
+    int deleteByAccountId(@Param("accountId") Long accountId);
+}
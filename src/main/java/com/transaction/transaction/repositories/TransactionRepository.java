@@ -1,12 +1,35 @@
 package com.transaction.transaction.repositories;
 
 
-import org.springframework.data.domain.Page;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.transaction.transaction.dto.ResponseTransactionDTO;
 import com.transaction.transaction.entities.Transaction;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    Page<Transaction> findByAccountId(Long accountId, Pageable pageable);   
+    long countByAccountId(Long accountId);
+    List<Transaction> findByTransferId(Long transferId);
+
+    // a page of the history as DTOs built by the query: the rows never become managed entities,
+    // there is no persistence context entry, no dirty-checking snapshot and no mapping pass.
+    // A Slice reads one row more than the page instead of counting the account's rows.
+    @Query("SELECT new com.transaction.transaction.dto.ResponseTransactionDTO(t.id, t.accountId, t.amount, t.type,"
+            + " t.transferId, t.category, t.status, t.description, t.date) FROM Transaction t WHERE t.accountId = :accountId")
+    Slice<ResponseTransactionDTO> findHistoryByAccountId(@Param("accountId") Long accountId, Pageable pageable);
+
+    // keyset page of the history, newest first: the rows after (date, id) in that order, the
+    // database seeks to the position instead of reading and skipping the earlier rows
+    @Query("SELECT new com.transaction.transaction.dto.ResponseTransactionDTO(t.id, t.accountId, t.amount, t.type,"
+            + " t.transferId, t.category, t.status, t.description, t.date) FROM Transaction t"
+            + " WHERE t.accountId = :accountId AND (t.date, t.id) < (:date, :id) ORDER BY t.date DESC, t.id DESC")
+    List<ResponseTransactionDTO> findHistoryByAccountIdBefore(@Param("accountId") Long accountId, @Param("date") LocalDateTime date,
+                                                              @Param("id") Long id, Limit limit);
 }
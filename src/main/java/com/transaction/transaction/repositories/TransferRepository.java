@@ -1,9 +1,16 @@
 package com.transaction.transaction.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.transaction.transaction.entities.Transfer;
 
 public interface TransferRepository extends JpaRepository<Transfer, Long> {
-    
+
+    @Query("SELECT MAX(t.ledgerSequence) FROM Transfer t")
+    Long findMaxLedgerSequence();
+
+    @Query("SELECT MAX(t.ledgerSequence) FROM Transfer t WHERE t.ledgerPartition = :partition")
+    Long findMaxLedgerSequenceByLedgerPartition(@Param("partition") int partition);
 }
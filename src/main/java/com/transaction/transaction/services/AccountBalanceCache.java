@@ -0,0 +1,15 @@
+package com.transaction.transaction.services;
+
+import java.util.Collection;
+import java.util.Optional;
+
+public interface AccountBalanceCache {
+    // the account row of the user, from the cache when present
+    Optional<CachedAccount> find(long userId);
+    // drops the accounts once the current transaction committed, right away outside of one
+    void evictAfterCommit(Collection<Long> accountIds);
+
+    // balance of the account row, without buffered credits or the balance of its shards
+    record CachedAccount(Long accountId, long balance, int shardCount) {
+    }
+}
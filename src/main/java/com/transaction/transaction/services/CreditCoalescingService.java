@@ -0,0 +1,12 @@
+package com.transaction.transaction.services;
+
+import java.util.function.LongSupplier;
+
+import com.transaction.transaction.entities.Transaction;
+
+public interface CreditCoalescingService {
+    boolean isEnabled();
+    void defer(Transaction creditTransaction);
+    long readBalance(Long accountId, LongSupplier storedBalance);
+    void flush();
+}
@@ -0,0 +1,10 @@
+package com.transaction.transaction.services;
+
+public interface HotAccountService {
+    int markHot(long userId, Integer shards);
+    void markNormal(long userId);
+    void credit(Long accountId, int shardCount, long amount);
+    long claimShards(Long accountId);
+    long shardBalance(Long accountId);
+    void recordCredit(Long accountId);
+}
@@ -0,0 +1,8 @@
+package com.transaction.transaction.services;
+
+import com.transaction.transaction.dto.CreateTransferDto;
+import com.transaction.transaction.dto.ResponseCreateTransferDto;
+
+public interface IdempotentTransferService {
+    ResponseCreateTransferDto createTransfer(String idempotencyKey, CreateTransferDto createTransferDto);
+}
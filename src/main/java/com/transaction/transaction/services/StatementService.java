@@ -0,0 +1,14 @@
+package com.transaction.transaction.services;
+
+import java.time.YearMonth;
+
+import com.transaction.transaction.dto.ResponseStatementJobDto;
+
+public interface StatementService {
+    // starts writing the statements of a past month in the background and returns the new job;
+    // while a job runs no other one starts: the running job is returned for its own month and
+    // StatementJobRunningException thrown for any other
+    ResponseStatementJobDto start(YearMonth month);
+    // progress of the latest job of this instance
+    ResponseStatementJobDto getStatus();
+}
@@ -0,0 +1,16 @@
+package com.transaction.transaction.services;
+
+import java.util.Collection;
+
+import com.transaction.transaction.entities.Transaction;
+
+public interface TransactionCountService {
+    // starts the counter of a new account at zero
+    void create(Long accountId);
+    // adds the rows to their accounts' counters, call in the transaction that inserts them
+    void countInserted(Collection<Transaction> transactions);
+    // stops counting the account, its total is read with COUNT(*) from then on
+    void drop(Long accountId);
+    // number of transactions rows of the account
+    long getTransactionCount(Long accountId);
+}
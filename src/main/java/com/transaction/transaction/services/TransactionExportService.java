@@ -0,0 +1,41 @@
+package com.transaction.transaction.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+
+public interface TransactionExportService {
+
+    enum Format {
+        // one JSON object per line, the fields of a /transactions entry
+        NDJSON("application/x-ndjson"),
+        // header line, then one line per row
+        CSV("text/csv");
+
+        private final String mediaType;
+
+        Format(String mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        public static Format of(String format) {
+            for (Format candidate : values()) {
+                if (candidate.name().equalsIgnoreCase(format)) {
+                    return candidate;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+    }
+
+    // writes every transaction of the account to out, oldest first, and returns how many
+    long export(Long accountId, Format format, OutputStream out) throws IOException;
+}
@@ -5,5 +5,8 @@ import com.transaction.transaction.dto.ResponseHistoryTransactionDto;
 
 public interface TransactionService {
     
-    ResponseHistoryTransactionDto getHistoryTransaction(Long accountId, int page, int size);
+    // includeTotal adds the number of transactions of the account to the page
+    ResponseHistoryTransactionDto getHistoryTransaction(Long accountId, int page, int size, boolean includeTotal);
+    // the page after the cursor, a next_cursor of a previous response
+    ResponseHistoryTransactionDto getHistoryTransaction(Long accountId, String cursor, int size, boolean includeTotal);
 }
@@ -0,0 +1,13 @@
+package com.transaction.transaction.services;
+
+import java.util.List;
+
+public interface TransferAuditService {
+    void submit(AuditedTransfer transfer);
+    // discrepancies found, empty when the stored rows match the transfer
+    List<String> audit(AuditedTransfer transfer);
+
+    // what the transfer wrote, compared with the stored rows after the commit
+    record AuditedTransfer(Long transferId, Long fromAccountId, Long toAccountId, long amount, boolean creditDeferred) {
+    }
+}
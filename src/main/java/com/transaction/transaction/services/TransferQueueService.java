@@ -0,0 +1,11 @@
+package com.transaction.transaction.services;
+
+import com.transaction.transaction.dto.CreateTransferDto;
+import com.transaction.transaction.dto.ResponseCreateTransferDto;
+import com.transaction.transaction.dto.ResponseTransferStatusDto;
+
+public interface TransferQueueService {
+    boolean isEnabled();
+    ResponseCreateTransferDto enqueue(CreateTransferDto createTransferDto);
+    ResponseTransferStatusDto getStatus(Long transferId);
+}
@@ -1,7 +1,15 @@
 package com.transaction.transaction.services;
 
+import java.util.List;
+
 import com.transaction.transaction.dto.CreateTransferDto;
+import com.transaction.transaction.dto.ResponseCreateTransferDto;
 
 public interface TransferService {
-    Long createTransfer(CreateTransferDto createTransferDto);
+    /**
+     * @return the stored id of the transfer's debit transaction as {@code transfer_id}; the
+     *         ledger writes transactions behind and answers with {@code ledger_sequence} instead
+     */
+    ResponseCreateTransferDto createTransfer(CreateTransferDto createTransferDto);
+    List<ResponseCreateTransferDto> createTransfers(List<CreateTransferDto> createTransferDtos);
 }
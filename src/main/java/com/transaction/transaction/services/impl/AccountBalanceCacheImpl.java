@@ -0,0 +1,108 @@
+package com.transaction.transaction.services.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.transaction.transaction.config.TransferProperties;
+import com.transaction.transaction.repositories.AccountRepository;
+import com.transaction.transaction.services.AccountBalanceCache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Keeps the account rows read by {@code GET /balance} in memory, bounded in size and expiring
+ * after {@code transfer.balance-cache.ttl}. Every write to an account balance evicts the account
+ * once its transaction committed, so a balance of a rolled back transaction is never cached.
+ *
+ * <p>Rows are cached by account id, the writers know the account and not always its user. The
+ * user to account mapping never changes and has its own cache; when it misses the row is read by
+ * user id and returned uncached. A row is only loaded inside the cache's atomic load, an eviction
+ * of the same account waits for a running load, so a load that read the row just before a commit
+ * cannot put it back after the eviction.
+ */
+@Service
+public class AccountBalanceCacheImpl implements AccountBalanceCache {
+    private final AccountRepository accountRepository;
+    private final boolean enabled;
+    private final Cache<Long, Long> accountIds;
+    private final Cache<Long, CachedAccount> accounts;
+
+    public AccountBalanceCacheImpl(AccountRepository accountRepository, TransferProperties transferProperties,
+                                   MeterRegistry meterRegistry) {
+        TransferProperties.BalanceCache properties = transferProperties.getBalanceCache();
+        this.accountRepository = accountRepository;
+        this.enabled = properties.isEnabled();
+        this.accountIds = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .recordStats()
+                .build();
+        this.accounts = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        if (enabled) {
+            CaffeineCacheMetrics.monitor(meterRegistry, accountIds, "account.id");
+            CaffeineCacheMetrics.monitor(meterRegistry, accounts, "account.balance");
+            // every lookup asks for the account id first, a hit needs both caches to hit
+            Gauge.builder("account.balance.cache.hit.ratio", this, AccountBalanceCacheImpl::hitRatio)
+                    .description("Share of balance lookups answered without a query")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public Optional<CachedAccount> find(long userId) {
+        if (!enabled) {
+            return readByUserId(userId);
+        }
+        Long accountId = accountIds.getIfPresent(userId);
+        if (accountId == null) {
+            Optional<CachedAccount> account = readByUserId(userId);
+            account.ifPresent(found -> accountIds.put(userId, found.accountId()));
+            return account;
+        }
+        return Optional.ofNullable(accounts.get(accountId, id -> accountRepository.findBalanceViewById(id)
+                .map(view -> new CachedAccount(view.getId(), view.getBalance(), view.getShardCount()))
+                .orElse(null)));
+    }
+
+    @Override
+    public void evictAfterCommit(Collection<Long> accountIds) {
+        if (!enabled || accountIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accounts.invalidateAll(accountIds);
+            return;
+        }
+        // evicted before the commit a reader could still cache the old row, after a
+        // rollback there is nothing to evict
+        List<Long> evicted = List.copyOf(accountIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accounts.invalidateAll(evicted);
+            }
+        });
+    }
+
+    private double hitRatio() {
+        long lookups = accountIds.stats().requestCount();
+        return lookups == 0 ? 0 : (double) accounts.stats().hitCount() / lookups;
+    }
+
+    private Optional<CachedAccount> readByUserId(long userId) {
+        return accountRepository.findByUserId(userId)
+                .map(account -> new CachedAccount(account.getId(), account.getBalance(), account.getShardCount()));
+    }
+}
@@ -1,6 +1,8 @@
 package com.transaction.transaction.services.impl;
 
 
+import java.util.List;
+
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -11,19 +13,35 @@ import com.transaction.transaction.dto.UpdateBalanceDto;
 import com.transaction.transaction.entities.Account;
 import com.transaction.transaction.entities.User;
 import com.transaction.transaction.exceptions.ResouceNotFoundException;
+import com.transaction.transaction.money.Money;
 import com.transaction.transaction.repositories.AccountRepository;
 import com.transaction.transaction.repositories.UserRepository;
+import com.transaction.transaction.services.AccountBalanceCache;
+import com.transaction.transaction.services.AccountBalanceCache.CachedAccount;
 import com.transaction.transaction.services.AccountService;
+import com.transaction.transaction.services.CreditCoalescingService;
+import com.transaction.transaction.services.HotAccountService;
+import com.transaction.transaction.services.TransactionCountService;
 
 
 @Service
 public class AccountServiceImpl implements AccountService {
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
+    private final HotAccountService hotAccountService;
+    private final CreditCoalescingService creditCoalescingService;
+    private final AccountBalanceCache accountBalanceCache;
+    private final TransactionCountService transactionCountService;
 
-    public AccountServiceImpl(AccountRepository accountRepository, UserRepository userRepository) {
+    public AccountServiceImpl(AccountRepository accountRepository, UserRepository userRepository,
+                              HotAccountService hotAccountService, CreditCoalescingService creditCoalescingService,
+                              AccountBalanceCache accountBalanceCache, TransactionCountService transactionCountService) {
         this.accountRepository = accountRepository;
         this.userRepository = userRepository;
+        this.hotAccountService = hotAccountService;
+        this.creditCoalescingService = creditCoalescingService;
+        this.accountBalanceCache = accountBalanceCache;
+        this.transactionCountService = transactionCountService;
         
     }
 
@@ -38,36 +56,61 @@ public class AccountServiceImpl implements AccountService {
 
         Account account = new Account();
         account.setUser(savedUser);
-        account.setBalance(0.0);
+        account.setBalance(0);
 
 
         Account savedAccount = accountRepository.save(account);
+        transactionCountService.create(savedAccount.getId());
         ResponseAccountDto responseAccountDto = new ResponseAccountDto();
         responseAccountDto.setUserId(savedUser.getId());
         responseAccountDto.setUserName(savedUser.getUserName());
-        responseAccountDto.setBalance(savedAccount.getBalance());
+        responseAccountDto.setBalance(Money.toMajorUnits(savedAccount.getBalance()));
         return  responseAccountDto;
     }
 
 
     @Override
+    @Transactional
     public void updateBalance(UpdateBalanceDto updateBalanceDto) {
         Account account = accountRepository.findByUserId(updateBalanceDto.getUserId())
                 .orElseThrow(() -> new ResouceNotFoundException("Account not found"));
 
-        account.setBalance(updateBalanceDto.getBalance());
+        // the new balance replaces whatever the shards of a hot account held
+        if (account.getShardCount() > 0) {
+            hotAccountService.claimShards(account.getId());
+        }
+
+        account.setBalance(Money.toMinorUnits(updateBalanceDto.getBalance()));
         accountRepository.save(account);
+        accountBalanceCache.evictAfterCommit(List.of(account.getId()));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ResponseAccountBalanceDto getAccountBalance(long userId) {
-        Account account = accountRepository.findByUserId(userId)
-                .orElseThrow(() -> new ResouceNotFoundException("Account not found"));
-        
+        CachedAccount account = findCachedAccount(userId);
+
+        // credits still buffered by the coalescer count as received; the balance is read again under
+        // the coalescer's lock with a scalar query, an entity query would return the account this
+        // transaction already loaded and miss the credits of a flush committed in between
+        long balance = creditCoalescingService.isEnabled()
+                ? creditCoalescingService.readBalance(account.accountId(),
+                        () -> accountRepository.findBalanceById(account.accountId()))
+                : account.balance();
+
+        if (account.shardCount() > 0) {
+            balance += hotAccountService.shardBalance(account.accountId());
+        }
+
         ResponseAccountBalanceDto responseAccountBalanceDto = new ResponseAccountBalanceDto();
-        responseAccountBalanceDto.setBalance(account.getBalance());
-        responseAccountBalanceDto.setUserId(account.getUser().getId());
+        responseAccountBalanceDto.setBalance(Money.toMajorUnits(balance));
+        responseAccountBalanceDto.setUserId(userId);
         return responseAccountBalanceDto;
     }
-    
+
+    private CachedAccount findCachedAccount(long userId) {
+        return accountBalanceCache.find(userId)
+                .orElseThrow(() -> new ResouceNotFoundException("Account not found"));
+    }
+
 }
@@ -0,0 +1,249 @@
+package com.transaction.transaction.services.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.transaction.transaction.config.TransferProperties;
+import com.transaction.transaction.config.WorkerThreads;
+import com.transaction.transaction.entities.Transaction;
+import com.transaction.transaction.repositories.AccountRepository;
+import com.transaction.transaction.repositories.TransactionRepository;
+import com.transaction.transaction.services.AccountBalanceCache;
+import com.transaction.transaction.services.CreditCoalescingService;
+import com.transaction.transaction.services.TransactionCountService;
+
+/**
+ * Write-behind stage for the credit leg of transfers. Committed credits are buffered per
+ * destination account and every window the buffered amount of each account is applied with a
+ * single balance update, the credit transaction rows are inserted with one {@code saveAll}.
+ *
+ * <p>Balance reads add the buffered amount, so a credit is visible as soon as its transfer
+ * committed. It can only be spent once it reached the account row, debits keep checking the
+ * row alone. Credits still in the buffer are lost if the process dies before the next flush;
+ * on a regular shutdown the buffer is flushed.
+ */
+@Service
+public class CreditCoalescingServiceImpl implements CreditCoalescingService, SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(CreditCoalescingServiceImpl.class);
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransferProperties.Coalescing properties;
+    private final WorkerThreads workerThreads;
+    private final AccountBalanceCache accountBalanceCache;
+    private final TransactionCountService transactionCountService;
+
+    private final Map<Long, PendingCredits> buffered = new ConcurrentHashMap<>();
+    // credits of the running flush, still counted by readBalance until their update committed
+    private final Map<Long, PendingCredits> flushing = new ConcurrentHashMap<>();
+    // readers hold the read lock across the row read and the pending lookup, the flush commits
+    // under the write lock so no reader sees a flushed amount twice or not at all
+    private final ReentrantReadWriteLock flushLock = new ReentrantReadWriteLock();
+    // one flush at a time; a lock rather than synchronized, a virtual thread blocking on JDBC
+    // inside a monitor pins its carrier thread
+    private final ReentrantLock flushMutex = new ReentrantLock();
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    public CreditCoalescingServiceImpl(AccountRepository accountRepository,
+                                       TransactionRepository transactionRepository,
+                                       PlatformTransactionManager transactionManager,
+                                       TransferProperties transferProperties,
+                                       WorkerThreads workerThreads,
+                                       AccountBalanceCache accountBalanceCache,
+                                       TransactionCountService transactionCountService) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = transferProperties.getCoalescing();
+        this.workerThreads = workerThreads;
+        this.accountBalanceCache = accountBalanceCache;
+        this.transactionCountService = transactionCountService;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @Override
+    public void defer(Transaction creditTransaction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            buffer(creditTransaction);
+            return;
+        }
+        // a rolled back transfer must not credit anything
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                buffer(creditTransaction);
+            }
+        });
+    }
+
+    @Override
+    public long readBalance(Long accountId, LongSupplier storedBalance) {
+        flushLock.readLock().lock();
+        try {
+            return storedBalance.getAsLong() + pendingAmount(buffered.get(accountId)) + pendingAmount(flushing.get(accountId));
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void flush() {
+        flushMutex.lock();
+        try {
+            // a reader between the remove and the put would find the credits in neither map
+            flushLock.writeLock().lock();
+            try {
+                for (Long accountId : buffered.keySet()) {
+                    PendingCredits pending = buffered.remove(accountId);
+                    if (pending != null) {
+                        flushing.put(accountId, pending);
+                    }
+                }
+            } finally {
+                flushLock.writeLock().unlock();
+            }
+            if (flushing.isEmpty()) {
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<Transaction> credits = new ArrayList<>();
+                    // ascending account id like transfers and the transaction counters, the
+                    // rows stay locked until the commit and another order could deadlock them
+                    new TreeMap<>(flushing).forEach((accountId, pending) -> {
+                        if (accountRepository.credit(accountId, pending.amount()) == 0) {
+                            log.error("Account {} vanished, {} buffered credits not applied", accountId, pending.transactions().size());
+                            return;
+                        }
+                        credits.addAll(pending.transactions());
+                    });
+                    transactionRepository.saveAll(credits);
+                    transactionCountService.countInserted(credits);
+                    // evicted after the commit while the write lock is still held, readers that
+                    // no longer count the flushed credits load the updated rows
+                    accountBalanceCache.evictAfterCommit(flushing.keySet());
+
+                    // held through the commit, released once flushing no longer counts these credits
+                    flushLock.writeLock().lock();
+                });
+                flushing.clear();
+            } catch (RuntimeException ex) {
+                log.warn("Flushing buffered credits failed, retrying with the next window", ex);
+                if (!flushLock.isWriteLockedByCurrentThread()) {
+                    flushLock.writeLock().lock();
+                }
+                flushing.forEach((accountId, pending) -> pending.transactions().forEach(transaction -> {
+                    // the rolled back insert may have assigned an id already
+                    transaction.setId(null);
+                    buffer(transaction);
+                }));
+                flushing.clear();
+            } finally {
+                flushLock.writeLock().unlock();
+            }
+        } finally {
+            flushMutex.unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!properties.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(workerThreads.factory("credit-coalescer-"));
+        long windowNanos = properties.getWindow().toNanos();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, windowNanos, windowNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // stopped after the web server and the queue workers, which still produce credits while stopping
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 4096;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            log.warn("Flushing buffered credits failed", ex);
+        }
+    }
+
+    private void buffer(Transaction creditTransaction) {
+        buffered.compute(creditTransaction.getAccountId(), (accountId, pending) -> {
+            PendingCredits credits = pending != null ? pending : new PendingCredits();
+            credits.add(creditTransaction);
+            return credits;
+        });
+    }
+
+    private long pendingAmount(PendingCredits pending) {
+        return pending != null ? pending.amount() : 0;
+    }
+
+    private static final class PendingCredits {
+        private final List<Transaction> transactions = new ArrayList<>();
+        private long amount;
+
+        synchronized void add(Transaction transaction) {
+            transactions.add(transaction);
+            amount += transaction.getAmount();
+        }
+
+        synchronized long amount() {
+            return amount;
+        }
+
+        synchronized List<Transaction> transactions() {
+            return transactions;
+        }
+    }
+}
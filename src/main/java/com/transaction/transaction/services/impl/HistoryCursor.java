@@ -0,0 +1,39 @@
+package com.transaction.transaction.services.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.transaction.transaction.dto.ResponseTransactionDTO;
+
+/**
+ * Position in an account's history, newest first: the {@code (date, id)} of the last row a
+ * client received. Handed out as an opaque URL-safe token so clients do not build their own.
+ */
+record HistoryCursor(LocalDateTime date, Long id) {
+    private static final char SEPARATOR = '|';
+
+    static HistoryCursor after(ResponseTransactionDTO transaction) {
+        return new HistoryCursor(transaction.getDate(), transaction.getId());
+    }
+
+    /**
+     * @throws IllegalArgumentException when the token was not produced by {@link #encode()}
+     */
+    static HistoryCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            return new HistoryCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.valueOf(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((date.toString() + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,172 @@
+package com.transaction.transaction.services.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.transaction.transaction.config.TransferProperties;
+import com.transaction.transaction.entities.Account;
+import com.transaction.transaction.entities.AccountShard;
+import com.transaction.transaction.exceptions.ResouceNotFoundException;
+import com.transaction.transaction.repositories.AccountRepository;
+import com.transaction.transaction.repositories.AccountShardRepository;
+import com.transaction.transaction.services.AccountBalanceCache;
+import com.transaction.transaction.services.HotAccountService;
+import com.transaction.transaction.services.TransactionCountService;
+
+/**
+ * Keeps the balance of hot accounts split over {@code account_shards} rows. A credit only
+ * locks one randomly chosen shard, so concurrent credits to the same account mostly land on
+ * different rows. Debits still go against the account row and fold the shards back into it
+ * when the row alone does not cover the amount.
+ */
+@Service
+public class HotAccountServiceImpl implements HotAccountService {
+
+    private final AccountRepository accountRepository;
+    private final AccountShardRepository accountShardRepository;
+    private final TransferProperties transferProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountBalanceCache accountBalanceCache;
+    private final TransactionCountService transactionCountService;
+
+    // credits per regular account since the last detection run
+    private final Map<Long, LongAdder> creditCounts = new ConcurrentHashMap<>();
+
+    public HotAccountServiceImpl(AccountRepository accountRepository,
+                                 AccountShardRepository accountShardRepository,
+                                 TransferProperties transferProperties,
+                                 PlatformTransactionManager transactionManager,
+                                 AccountBalanceCache accountBalanceCache,
+                                 TransactionCountService transactionCountService) {
+        this.accountRepository = accountRepository;
+        this.accountShardRepository = accountShardRepository;
+        this.transferProperties = transferProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.accountBalanceCache = accountBalanceCache;
+        this.transactionCountService = transactionCountService;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public int markHot(long userId, Integer shards) {
+        int shardCount = shards != null ? shards : transferProperties.getSharding().getDefaultShards();
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        reshard(lockAccount(userId), shardCount);
+        return shardCount;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void markNormal(long userId) {
+        reshard(lockAccount(userId), 0);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void credit(Long accountId, int shardCount, long amount) {
+        int shardNo = ThreadLocalRandom.current().nextInt(shardCount);
+        if (accountShardRepository.credit(accountId, shardNo, amount) == 1) {
+            return;
+        }
+        // the account was resharded since the caller read its shard count
+        if (accountRepository.credit(accountId, amount) == 0) {
+            throw new ResouceNotFoundException("To account not found");
+        }
+    }
+
+    /**
+     * Locks the shards of the account and resets them to zero.
+     *
+     * @return the balance the shards held, the caller has to add it to the account row
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public long claimShards(Long accountId) {
+        long claimed = accountShardRepository.findBalancesByAccountIdForUpdate(accountId)
+                .stream()
+                .mapToLong(Long::longValue)
+                .sum();
+        if (claimed != 0) {
+            accountShardRepository.clearBalanceByAccountId(accountId);
+        }
+        return claimed;
+    }
+
+    @Override
+    public long shardBalance(Long accountId) {
+        return accountShardRepository.sumBalanceByAccountId(accountId);
+    }
+
+    @Override
+    public void recordCredit(Long accountId) {
+        if (transferProperties.getSharding().isAutoDetect()) {
+            creditCounts.computeIfAbsent(accountId, id -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Marks every account that received more credits per second than the configured threshold
+     * during the last window as hot.
+     */
+    @Scheduled(fixedDelayString = "${transfer.sharding.detection-window:10s}")
+    public void shardContendedAccounts() {
+        TransferProperties.Sharding sharding = transferProperties.getSharding();
+        if (!sharding.isAutoDetect()) {
+            return;
+        }
+        double windowSeconds = sharding.getDetectionWindow().toMillis() / 1000.0;
+        creditCounts.forEach((accountId, counter) -> {
+            long credits = counter.sumThenReset();
+            if (credits == 0) {
+                creditCounts.remove(accountId, counter);
+            } else if (credits / windowSeconds >= sharding.getCreditsPerSecondThreshold()) {
+                creditCounts.remove(accountId, counter);
+                transactionTemplate.executeWithoutResult(status -> accountRepository.findForUpdateById(accountId)
+                        .filter(account -> account.getShardCount() == 0)
+                        .ifPresent(account -> reshard(account, sharding.getDefaultShards())));
+            }
+        });
+    }
+
+    private Account lockAccount(long userId) {
+        return accountRepository.findAllByUserIdInForUpdate(List.of(userId))
+                .stream()
+                .findFirst()
+                .orElseThrow(() -> new ResouceNotFoundException("Account not found"));
+    }
+
+    /**
+     * Folds the current shards into the account row and replaces them with {@code shardCount}
+     * empty ones. The account row has to be locked by the caller.
+     */
+    private void reshard(Account account, int shardCount) {
+        if (account.getShardCount() == shardCount) {
+            return;
+        }
+        if (account.getShardCount() > 0) {
+            account.setBalance(account.getBalance() + claimShards(account.getId()));
+            accountShardRepository.deleteByAccountId(account.getId());
+        } else {
+            // its credits would all queue on the counter row again
+            transactionCountService.drop(account.getId());
+        }
+        accountShardRepository.saveAll(IntStream.range(0, shardCount)
+                .mapToObj(shardNo -> new AccountShard(null, account.getId(), shardNo, 0))
+                .toList());
+        account.setShardCount(shardCount);
+        accountRepository.save(account);
+        accountBalanceCache.evictAfterCommit(List.of(account.getId()));
+    }
+}
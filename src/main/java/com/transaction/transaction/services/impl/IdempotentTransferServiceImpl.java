@@ -0,0 +1,249 @@
+package com.transaction.transaction.services.impl;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.transaction.transaction.config.TransferProperties;
+import com.transaction.transaction.dto.CreateTransferDto;
+import com.transaction.transaction.dto.ResponseCreateTransferDto;
+import com.transaction.transaction.entities.IdempotencyKey;
+import com.transaction.transaction.exceptions.IdempotencyKeyInProgressException;
+import com.transaction.transaction.exceptions.IdempotencyKeyMismatchException;
+import com.transaction.transaction.exceptions.ResouceNotFoundException;
+import com.transaction.transaction.repositories.IdempotencyKeyRepository;
+import com.transaction.transaction.services.IdempotentTransferService;
+import com.transaction.transaction.services.TransferService;
+
+/**
+ * Runs a transfer at most once per Idempotency-Key. The key row is inserted in the same
+ * database transaction as the transfer, so a key is stored exactly when its transfer
+ * committed. Requests for a key that is still running wait for it and get its outcome;
+ * recent responses are answered from a bounded in-memory cache, older ones from the table.
+ * A failed transfer stores nothing, retrying its key runs the transfer again. A key reused
+ * with another request is rejected, the key row keeps a hash of the request it was first
+ * used with.
+ *
+ * <p>The ledger engine does not take part in database transactions and a rollback cannot
+ * undo its transfers. With it the key row is reserved in a transaction of its own before
+ * the ledger sees the transfer and completed once the ledger confirmed it; another instance
+ * running the same key meanwhile is told the key is in progress.
+ */
+@Service
+public class IdempotentTransferServiceImpl implements IdempotentTransferService {
+    private static final Logger log = LoggerFactory.getLogger(IdempotentTransferServiceImpl.class);
+
+    private final TransferService transferService;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final OptimisticLockRetryExecutor retryExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final TransferProperties.Idempotency properties;
+    private final boolean ledgerEnabled;
+
+    private final Map<String, Running> inFlight = new ConcurrentHashMap<>();
+    private final Cache<String, CachedResponse> recent;
+
+    public IdempotentTransferServiceImpl(TransferService transferService,
+                                         IdempotencyKeyRepository idempotencyKeyRepository,
+                                         OptimisticLockRetryExecutor retryExecutor,
+                                         PlatformTransactionManager transactionManager,
+                                         TransferProperties transferProperties) {
+        this.transferService = transferService;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.retryExecutor = retryExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = transferProperties.getIdempotency();
+        this.ledgerEnabled = transferProperties.getLedger().isEnabled();
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(properties.getCacheSize())
+                .expireAfterWrite(properties.getCacheTtl())
+                .build();
+    }
+
+    @Override
+    public ResponseCreateTransferDto createTransfer(String idempotencyKey, CreateTransferDto createTransferDto) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > 255) {
+            throw new IllegalArgumentException("Idempotency-Key must be between 1 and 255 characters");
+        }
+        String requestHash = requestHash(createTransferDto);
+
+        CachedResponse cached = recent.getIfPresent(idempotencyKey);
+        if (cached != null) {
+            checkSameRequest(cached.requestHash(), requestHash);
+            return cached.response();
+        }
+
+        Running running = new Running(requestHash, new CompletableFuture<>());
+        Running first = inFlight.putIfAbsent(idempotencyKey, running);
+        if (first != null) {
+            checkSameRequest(first.requestHash(), requestHash);
+            return await(first.response());
+        }
+
+        try {
+            ResponseCreateTransferDto response = ledgerEnabled
+                    ? executeOnLedger(idempotencyKey, requestHash, createTransferDto)
+                    : execute(idempotencyKey, requestHash, createTransferDto);
+            recent.put(idempotencyKey, new CachedResponse(response, requestHash));
+            running.response().complete(response);
+            return response;
+        } catch (RuntimeException ex) {
+            running.response().completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(idempotencyKey, running);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "PT1H")
+    public void purgeExpiredKeys() {
+        LocalDateTime createdBefore = LocalDateTime.now().minus(properties.getRetention());
+        transactionTemplate.executeWithoutResult(status -> idempotencyKeyRepository.deleteByCreatedAtBefore(createdBefore));
+    }
+
+    private ResponseCreateTransferDto execute(String idempotencyKey, String requestHash, CreateTransferDto createTransferDto) {
+        ResponseCreateTransferDto stored = findStored(idempotencyKey, requestHash);
+        if (stored != null) {
+            return stored;
+        }
+
+        try {
+            // the retry wraps the whole transaction, a conflicting transfer is re-run together with its key
+            return retryExecutor.execute(() -> transactionTemplate.execute(status -> {
+                ResponseCreateTransferDto response = transferService.createTransfer(createTransferDto);
+                IdempotencyKey key = newKey(idempotencyKey, requestHash, response.getTransferId());
+                idempotencyKeyRepository.save(key);
+                return toResponse(key);
+            }));
+        } catch (DataIntegrityViolationException ex) {
+            // another instance committed the same key first, our transfer was rolled back with the key
+            ResponseCreateTransferDto winner = findStored(idempotencyKey, requestHash);
+            if (winner == null) {
+                throw ex;
+            }
+            return winner;
+        }
+    }
+
+    private ResponseCreateTransferDto executeOnLedger(String idempotencyKey, String requestHash, CreateTransferDto createTransferDto) {
+        ResponseCreateTransferDto stored = findStored(idempotencyKey, requestHash);
+        if (stored != null) {
+            return stored;
+        }
+
+        IdempotencyKey key;
+        try {
+            key = transactionTemplate.execute(status ->
+                    idempotencyKeyRepository.saveAndFlush(newKey(idempotencyKey, requestHash, null)));
+        } catch (DataIntegrityViolationException ex) {
+            // another instance reserved the key first, the ledger has not seen our transfer
+            ResponseCreateTransferDto winner = findStored(idempotencyKey, requestHash);
+            if (winner == null) {
+                throw ex;
+            }
+            return winner;
+        }
+
+        ResponseCreateTransferDto response;
+        try {
+            response = transferService.createTransfer(createTransferDto);
+        } catch (IllegalArgumentException | ResouceNotFoundException ex) {
+            // rejected, nothing was transferred and a retry may run it again
+            transactionTemplate.executeWithoutResult(status -> idempotencyKeyRepository.deleteById(key.getId()));
+            throw ex;
+        } catch (RuntimeException ex) {
+            // e.g. not confirmed in time, the ledger may still apply it; the reservation stays
+            // until the key expires so a retry cannot transfer twice
+            log.warn("Transfer of Idempotency-Key {} has an unknown outcome, the key stays reserved", idempotencyKey, ex);
+            throw ex;
+        }
+        key.setLedgerSequence(response.getLedgerSequence());
+        transactionTemplate.executeWithoutResult(status -> idempotencyKeyRepository.save(key));
+        return toResponse(key);
+    }
+
+    /**
+     * @return the response stored for the key, or null when the key has not been used yet
+     */
+    private ResponseCreateTransferDto findStored(String idempotencyKey, String requestHash) {
+        IdempotencyKey stored = idempotencyKeyRepository.findByIdempotencyKey(idempotencyKey).orElse(null);
+        if (stored == null) {
+            return null;
+        }
+        checkSameRequest(stored.getRequestHash(), requestHash);
+        if (stored.getTransferId() == null && stored.getLedgerSequence() == null) {
+            throw new IdempotencyKeyInProgressException("A transfer with this Idempotency-Key is still in progress");
+        }
+        return toResponse(stored);
+    }
+
+    // keys stored before request hashes were kept have none and are not compared
+    private void checkSameRequest(String storedHash, String requestHash) {
+        if (storedHash != null && !storedHash.equals(requestHash)) {
+            throw new IdempotencyKeyMismatchException("Idempotency-Key was already used with a different request");
+        }
+    }
+
+    private String requestHash(CreateTransferDto createTransferDto) {
+        // the amount as a plain decimal, 10.5 and 10.50 are the same request
+        String request = createTransferDto.getFromAccountId() + ":" + createTransferDto.getToAccountId() + ":"
+                + BigDecimal.valueOf(createTransferDto.getAmount()).stripTrailingZeros().toPlainString();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(request.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private ResponseCreateTransferDto await(CompletableFuture<ResponseCreateTransferDto> first) {
+        try {
+            return first.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private IdempotencyKey newKey(String idempotencyKey, String requestHash, Long transferId) {
+        IdempotencyKey key = new IdempotencyKey();
+        key.setIdempotencyKey(idempotencyKey);
+        key.setRequestHash(requestHash);
+        key.setTransferId(transferId);
+        return key;
+    }
+
+    private ResponseCreateTransferDto toResponse(IdempotencyKey key) {
+        ResponseCreateTransferDto response = new ResponseCreateTransferDto();
+        response.setTransferId(key.getTransferId());
+        response.setLedgerSequence(key.getLedgerSequence());
+        response.setMessage("Transfer successful");
+        response.setStatus("success");
+        return response;
+    }
+
+    private record Running(String requestHash, CompletableFuture<ResponseCreateTransferDto> response) {
+    }
+
+    private record CachedResponse(ResponseCreateTransferDto response, String requestHash) {
+    }
+}
@@ -0,0 +1,128 @@
+package com.transaction.transaction.services.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import com.transaction.transaction.config.TransferProperties;
+import com.transaction.transaction.dto.CreateTransferDto;
+import com.transaction.transaction.dto.ResponseCreateTransferDto;
+import com.transaction.transaction.exceptions.ResouceNotFoundException;
+import com.transaction.transaction.ledger.LedgerEngine;
+import com.transaction.transaction.money.Money;
+import com.transaction.transaction.services.TransferService;
+
+/**
+ * Entry point for transfers when {@code transfer.ledger.enabled} is set: transfers are
+ * applied by the {@link LedgerEngine} and written to the database afterwards. A transfer is
+ * answered with its ledger sequence as {@code ledger_sequence} and no {@code transfer_id},
+ * the sequence is stored on the transfer row once it has been written.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "transfer.ledger", name = "enabled", havingValue = "true")
+public class LedgerTransferService implements TransferService {
+    private final LedgerEngine ledgerEngine;
+    private final TransferProperties transferProperties;
+
+    public LedgerTransferService(LedgerEngine ledgerEngine, TransferProperties transferProperties) {
+        this.ledgerEngine = ledgerEngine;
+        this.transferProperties = transferProperties;
+    }
+
+    @Override
+    public ResponseCreateTransferDto createTransfer(CreateTransferDto createTransferDto) {
+        ResponseCreateTransferDto result = new ResponseCreateTransferDto();
+        result.setLedgerSequence(await(submit(createTransferDto)));
+        result.setMessage("Transfer successful");
+        result.setStatus("success");
+        return result;
+    }
+
+    /**
+     * Queues every item before waiting for any of them, so items of one partition share its
+     * log syncs. Items are applied independently, like the database batch, and every item
+     * gets its own outcome: an item the ledger rejected is a failure, an item it did not
+     * confirm in time is unknown, it may still be applied.
+     */
+    @Override
+    public List<ResponseCreateTransferDto> createTransfers(List<CreateTransferDto> createTransferDtos) {
+        if (createTransferDtos.size() > transferProperties.getBatch().getMaxSize()) {
+            throw new IllegalArgumentException("A batch may contain at most " + transferProperties.getBatch().getMaxSize() + " transfers");
+        }
+
+        List<CompletableFuture<Long>> pending = new ArrayList<>(createTransferDtos.size());
+        for (CreateTransferDto createTransferDto : createTransferDtos) {
+            try {
+                pending.add(submit(createTransferDto));
+            } catch (RuntimeException ex) {
+                // not handed to the ledger, e.g. unknown account or partition overloaded
+                pending.add(CompletableFuture.failedFuture(ex));
+            }
+        }
+
+        List<ResponseCreateTransferDto> results = new ArrayList<>(pending.size());
+        for (CompletableFuture<Long> transfer : pending) {
+            ResponseCreateTransferDto result = new ResponseCreateTransferDto();
+            try {
+                result.setLedgerSequence(await(transfer));
+                result.setMessage("Transfer successful");
+                result.setStatus("success");
+            } catch (RuntimeException ex) {
+                // a transfer that has not completed timed out or the wait was interrupted,
+                // the ledger may still apply it
+                result.setMessage(ex.getMessage());
+                result.setStatus(transfer.isCompletedExceptionally() ? "failure" : "unknown");
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    private CompletableFuture<Long> submit(CreateTransferDto createTransferDto) {
+        // validasi account
+        Long fromAccountId = ledgerEngine.accountId(createTransferDto.getFromAccountId());
+        if (fromAccountId == null) {
+            throw new ResouceNotFoundException("From account not found");
+        }
+        Long toAccountId = ledgerEngine.accountId(createTransferDto.getToAccountId());
+        if (toAccountId == null) {
+            throw new ResouceNotFoundException("To account not found");
+        }
+
+        //Validasi amount
+        long amount = Money.toMinorUnits(createTransferDto.getAmount());
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Transfer amount must be positive");
+        }
+
+        if (fromAccountId.equals(toAccountId)) {
+            throw new IllegalArgumentException("Cannot transfer to the same account");
+        }
+
+        return ledgerEngine.transfer(fromAccountId, toAccountId, amount);
+    }
+
+    private Long await(CompletableFuture<Long> transfer) {
+        try {
+            return transfer.get(transferProperties.getLedger().getSubmitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new IllegalStateException("Ledger did not confirm the transfer in time", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the ledger", ex);
+        }
+    }
+}
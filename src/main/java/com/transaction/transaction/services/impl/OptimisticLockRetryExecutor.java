@@ -0,0 +1,82 @@
+package com.transaction.transaction.services.impl;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.transaction.transaction.config.TransferProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+
+/**
+ * Re-runs a transactional unit of work that lost an optimistic version check, waiting a
+ * jittered exponential backoff between attempts. The work has to start its own transaction:
+ * inside a caller's transaction a retry would reuse a rollback-only transaction, so the
+ * failure is passed on unchanged there.
+ */
+@Component
+public class OptimisticLockRetryExecutor {
+    private static final Logger log = LoggerFactory.getLogger(OptimisticLockRetryExecutor.class);
+
+    private final TransferProperties.Retry retry;
+    private final Counter retryCounter;
+    private final Counter exhaustedCounter;
+
+    public OptimisticLockRetryExecutor(TransferProperties transferProperties, MeterRegistry meterRegistry) {
+        this.retry = transferProperties.getRetry();
+        this.retryCounter = Counter.builder("transfer.optimistic.retries")
+                .description("Transfers re-run after losing an optimistic version check")
+                .register(meterRegistry);
+        this.exhaustedCounter = Counter.builder("transfer.optimistic.exhausted")
+                .description("Transfers that still conflicted after the last attempt")
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+
+        int attempt = 1;
+        while (true) {
+            try {
+                return work.get();
+            } catch (OptimisticLockingFailureException | OptimisticLockException ex) {
+                if (attempt >= retry.getMaxAttempts()) {
+                    exhaustedCounter.increment();
+                    throw ex;
+                }
+                retryCounter.increment();
+                log.debug("Optimistic lock conflict on attempt {}, retrying", attempt);
+                sleep(backoff(attempt));
+                attempt++;
+            }
+        }
+    }
+
+    // full jitter: a random wait between 0 and the capped exponential delay
+    public long backoff(int attempt) {
+        double delay = retry.getInitialBackoff().toMillis() * Math.pow(retry.getMultiplier(), attempt - 1);
+        long cap = (long) Math.min(delay, retry.getMaxBackoff().toMillis());
+        return cap <= 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry transfer", ex);
+        }
+    }
+}
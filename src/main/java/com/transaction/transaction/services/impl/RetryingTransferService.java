@@ -0,0 +1,38 @@
+package com.transaction.transaction.services.impl;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import com.transaction.transaction.dto.CreateTransferDto;
+import com.transaction.transaction.dto.ResponseCreateTransferDto;
+import com.transaction.transaction.services.TransferService;
+
+/**
+ * Entry point for transfers: runs {@link TransferServiceImpl} and re-runs the whole
+ * transaction when it loses an optimistic version check on an account.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "transfer.ledger", name = "enabled", havingValue = "false", matchIfMissing = true)
+public class RetryingTransferService implements TransferService {
+    private final TransferServiceImpl transferService;
+    private final OptimisticLockRetryExecutor retryExecutor;
+
+    public RetryingTransferService(TransferServiceImpl transferService, OptimisticLockRetryExecutor retryExecutor) {
+        this.transferService = transferService;
+        this.retryExecutor = retryExecutor;
+    }
+
+    @Override
+    public ResponseCreateTransferDto createTransfer(CreateTransferDto createTransferDto) {
+        return retryExecutor.execute(() -> transferService.createTransfer(createTransferDto));
+    }
+
+    @Override
+    public List<ResponseCreateTransferDto> createTransfers(List<CreateTransferDto> createTransferDtos) {
+        return retryExecutor.execute(() -> transferService.createTransfers(createTransferDtos));
+    }
+}
@@ -0,0 +1,48 @@
+package com.transaction.transaction.services.impl;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Account id ranges whose statements of one month are on disk, one {@code fromId-toId} line per
+ * range. A range is appended only after all its files were moved into place, and every append
+ * reaches the disk before it returns, so a job restarted after a crash skips exactly the
+ * partitions that were complete. Ranges of another partition size do not match and are written
+ * again.
+ */
+final class StatementCheckpoint {
+    private final Path file;
+    private final Set<String> completed = new HashSet<>();
+
+    private StatementCheckpoint(Path file) {
+        this.file = file;
+    }
+
+    static StatementCheckpoint open(Path file) throws IOException {
+        StatementCheckpoint checkpoint = new StatementCheckpoint(file);
+        if (Files.exists(file)) {
+            // a line cut short by a crash can only name a range of another partition size
+            checkpoint.completed.addAll(Files.readAllLines(file, StandardCharsets.UTF_8));
+        }
+        return checkpoint;
+    }
+
+    synchronized boolean isCompleted(long fromId, long toId) {
+        return completed.contains(range(fromId, toId));
+    }
+
+    synchronized void complete(long fromId, long toId) throws IOException {
+        Files.writeString(file, range(fromId, toId) + "\n", StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND, StandardOpenOption.DSYNC);
+        completed.add(range(fromId, toId));
+    }
+
+    private static String range(long fromId, long toId) {
+        return fromId + "-" + toId;
+    }
+}
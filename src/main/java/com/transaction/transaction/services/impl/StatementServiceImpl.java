@@ -0,0 +1,385 @@
+package com.transaction.transaction.services.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.transaction.transaction.config.TransferProperties;
+import com.transaction.transaction.config.WorkerThreads;
+import com.transaction.transaction.dto.ResponseStatementJobDto;
+import com.transaction.transaction.dto.ResponseTransactionDTO;
+import com.transaction.transaction.dto.StatementDto;
+import com.transaction.transaction.exceptions.ResouceNotFoundException;
+import com.transaction.transaction.exceptions.StatementJobRunningException;
+import com.transaction.transaction.money.Money;
+import com.transaction.transaction.services.StatementService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+
+/**
+ * Writes the statement of every account for one month: opening balance, the month's
+ * transaction rows oldest first and closing balance, as {@code <account id>.json} under
+ * {@code transfer.statements.directory/yyyy-MM}.
+ *
+ * <p>Accounts are split into ranges of {@code partition-size} ids that run in parallel on
+ * {@code threads} workers. A partition is read with two queries in one repeatable read
+ * transaction, whatever its number of accounts: one aggregates the balances of all its accounts,
+ * the other streams all their rows of the month ordered by account, which are merged into the
+ * statements as they arrive. A completed partition is recorded in the month's checkpoint, a job
+ * started again for the month skips it.
+ *
+ * <p>Balances are worked back from the stored balance (account row and shards) with the
+ * transaction rows dated after the month, so they are right as long as every change of a balance
+ * left a row: a balance overwritten through {@code updateBalance} after the month shifts that
+ * account's statement by the difference. Credits still buffered by the coalescer are neither in
+ * the balance nor in the rows and do not change the result.
+ */
+@Service
+public class StatementServiceImpl implements StatementService, SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(StatementServiceImpl.class);
+
+    private static final String ACCOUNT_RANGE_QUERY = "SELECT MIN(id), MAX(id) FROM accounts";
+    // closing balance = stored balance - rows after the month, opening = closing - rows of the month
+    private static final String BALANCE_QUERY = "SELECT a.id, a.balance + COALESCE(s.balance, 0) AS balance,"
+            + " COALESCE(SUM(CASE WHEN t.date >= ? THEN CASE WHEN t.type = 'credit' THEN t.amount ELSE -t.amount END END), 0) AS after_month,"
+            + " COALESCE(SUM(CASE WHEN t.date < ? THEN CASE WHEN t.type = 'credit' THEN t.amount ELSE -t.amount END END), 0) AS in_month"
+            + " FROM accounts a"
+            + " LEFT JOIN (SELECT account_id, SUM(balance) AS balance FROM account_shards"
+            + " WHERE account_id BETWEEN ? AND ? GROUP BY account_id) s ON s.account_id = a.id"
+            + " LEFT JOIN transactions t ON t.account_id = a.id AND t.date >= ?"
+            + " WHERE a.id BETWEEN ? AND ?"
+            + " GROUP BY a.id, a.balance, s.balance ORDER BY a.id";
+    private static final String ROWS_QUERY = "SELECT id, account_id, amount, type, transfer_id, category, status,"
+            + " description, date FROM transactions WHERE account_id BETWEEN ? AND ? AND date >= ? AND date < ?"
+            + " ORDER BY account_id, date, id";
+    private static final String CHECKPOINT = "checkpoint";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectWriter statementWriter;
+    private final TransferProperties.Statements properties;
+    private final WorkerThreads workerThreads;
+    private final Counter accountCounter;
+    private final Counter transactionCounter;
+    private final Timer partitionTimer;
+
+    private final AtomicReference<Job> latest = new AtomicReference<>();
+    private ThreadPoolExecutor executor;
+    private volatile boolean running;
+
+    public StatementServiceImpl(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper,
+                                TransferProperties transferProperties,
+                                WorkerThreads workerThreads,
+                                MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        // the balances and the rows of a partition come from the same snapshot
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.statementWriter = objectMapper.writerFor(StatementDto.class);
+        this.properties = transferProperties.getStatements();
+        this.workerThreads = workerThreads;
+        this.accountCounter = Counter.builder("statement.accounts")
+                .description("Account statements written")
+                .register(meterRegistry);
+        this.transactionCounter = Counter.builder("statement.transactions")
+                .description("Transaction rows written to statements")
+                .register(meterRegistry);
+        this.partitionTimer = Timer.builder("statement.partition")
+                .description("Time to write the statements of one partition of accounts")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ResponseStatementJobDto start(YearMonth month) {
+        if (!month.isBefore(YearMonth.now())) {
+            throw new IllegalArgumentException("Statements can only be written for past months");
+        }
+        Job current = latest.get();
+        if (current != null && current.isRunning()) {
+            return running(current, month);
+        }
+
+        Path directory = Path.of(properties.getDirectory(), month.toString());
+        StatementCheckpoint checkpoint;
+        try {
+            Files.createDirectories(directory);
+            checkpoint = StatementCheckpoint.open(directory.resolve(CHECKPOINT));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not open the statement directory " + directory, ex);
+        }
+
+        List<long[]> partitions = partitions();
+        Job job = new Job(month, partitions.size());
+        if (!latest.compareAndSet(current, job)) {
+            // another caller started a job in the meantime
+            return running(latest.get(), month);
+        }
+        log.info("Writing the statements for {}: {} partitions", month, partitions.size());
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (long[] partition : partitions) {
+            if (checkpoint.isCompleted(partition[0], partition[1])) {
+                job.skipped.incrementAndGet();
+                continue;
+            }
+            futures.add(CompletableFuture.runAsync(() -> runPartition(job, directory, checkpoint, partition[0], partition[1]),
+                    executor));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).whenComplete((result, ex) -> job.finish());
+        return job.toDto();
+    }
+
+    private ResponseStatementJobDto running(Job job, YearMonth month) {
+        if (!job.month.equals(month)) {
+            throw new StatementJobRunningException("The statements for " + job.month + " are being written, start "
+                    + month + " once that job has finished");
+        }
+        return job.toDto();
+    }
+
+    @Override
+    public ResponseStatementJobDto getStatus() {
+        Job job = latest.get();
+        if (job == null) {
+            throw new ResouceNotFoundException("No statement job has run");
+        }
+        return job.toDto();
+    }
+
+    // ranges of partition-size ids from the lowest account id on; the ranges do not depend on
+    // the accounts created since, so a restarted job finds the ones it completed in the checkpoint
+    private List<long[]> partitions() {
+        List<long[]> partitions = new ArrayList<>();
+        long[] ids = jdbcTemplate.queryForObject(ACCOUNT_RANGE_QUERY, (resultSet, rowNum) -> {
+            long minId = resultSet.getLong(1);
+            return resultSet.wasNull() ? null : new long[] {minId, resultSet.getLong(2)};
+        });
+        if (ids == null) {
+            return partitions;
+        }
+        for (long fromId = ids[0]; fromId <= ids[1]; fromId += properties.getPartitionSize()) {
+            partitions.add(new long[] {fromId, fromId + properties.getPartitionSize() - 1});
+        }
+        return partitions;
+    }
+
+    @Scheduled(cron = "${transfer.statements.cron:-}")
+    public void startPreviousMonth() {
+        try {
+            start(YearMonth.now().minusMonths(1));
+        } catch (StatementJobRunningException ex) {
+            log.warn("Scheduled statements not started: {}", ex.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(), 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), workerThreads.factory("statement-worker-"));
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        // partitions not written yet are left to the next job, the checkpoint tells which
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void runPartition(Job job, Path directory, StatementCheckpoint checkpoint, long fromId, long toId) {
+        try {
+            long[] written = partitionTimer.record(() ->
+                    transactionTemplate.execute(status -> writePartition(job.month, directory, fromId, toId)));
+            checkpoint.complete(fromId, toId);
+            job.partitionDone(written[0], written[1]);
+            accountCounter.increment(written[0]);
+            transactionCounter.increment(written[1]);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Writing the statements of accounts {} to {} for {} failed", fromId, toId, job.month, ex);
+            job.fail("Accounts " + fromId + " to " + toId + ": " + ex.getMessage());
+        }
+    }
+
+    // returns the number of statements and of transaction rows written
+    private long[] writePartition(YearMonth month, Path directory, long fromId, long toId) {
+        Timestamp monthStart = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp monthEnd = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+
+        List<StatementDto> statements = jdbcTemplate.query(BALANCE_QUERY, (resultSet, rowNum) -> {
+            long closing = resultSet.getLong("balance") - resultSet.getLong("after_month");
+            StatementDto statement = new StatementDto();
+            statement.setAccountId(resultSet.getLong("id"));
+            statement.setMonth(month.toString());
+            statement.setClosingBalance(Money.toMajorUnits(closing));
+            statement.setOpeningBalance(Money.toMajorUnits(closing - resultSet.getLong("in_month")));
+            statement.setTransactions(new ArrayList<>());
+            return statement;
+        }, monthEnd, monthEnd, fromId, toId, monthStart, fromId, toId);
+
+        // rows come ordered by account like the statements: every statement before the account of
+        // the current row is complete and written, only one account's rows are held at a time
+        long[] rows = {0};
+        int[] next = {0};
+        RowCallbackHandler rowMerger = resultSet -> {
+            long accountId = resultSet.getLong("account_id");
+            while (next[0] < statements.size() && statements.get(next[0]).getAccountId() < accountId) {
+                writeStatement(directory, statements.get(next[0]));
+                statements.set(next[0]++, null);
+            }
+            if (next[0] < statements.size() && statements.get(next[0]).getAccountId() == accountId) {
+                statements.get(next[0]).getTransactions().add(transaction(resultSet));
+                rows[0]++;
+            }
+        };
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(ROWS_QUERY,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(properties.getFetchSize());
+            statement.setLong(1, fromId);
+            statement.setLong(2, toId);
+            statement.setTimestamp(3, monthStart);
+            statement.setTimestamp(4, monthEnd);
+            return statement;
+        }, rowMerger);
+        for (int i = next[0]; i < statements.size(); i++) {
+            writeStatement(directory, statements.get(i));
+        }
+        return new long[] {statements.size(), rows[0]};
+    }
+
+    // written next to the target and moved over it, a crash never leaves half a statement behind
+    private void writeStatement(Path directory, StatementDto statement) {
+        Path target = directory.resolve(statement.getAccountId() + ".json");
+        Path temporary = directory.resolve(statement.getAccountId() + ".json.tmp");
+        try {
+            statementWriter.writeValue(temporary.toFile(), statement);
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static ResponseTransactionDTO transaction(ResultSet resultSet) throws SQLException {
+        Timestamp date = resultSet.getTimestamp("date");
+        return new ResponseTransactionDTO(resultSet.getLong("id"), resultSet.getLong("account_id"),
+                resultSet.getLong("amount"), resultSet.getString("type"), resultSet.getObject("transfer_id", Long.class),
+                resultSet.getString("category"), resultSet.getString("status"), resultSet.getString("description"),
+                date == null ? null : date.toLocalDateTime());
+    }
+
+    /**
+     * Progress of one run, updated by the workers as partitions complete.
+     */
+    private static final class Job {
+        private final YearMonth month;
+        private final int partitions;
+        private final long startNanos = System.nanoTime();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger done = new AtomicInteger();
+        private final LongAdder accounts = new LongAdder();
+        private final LongAdder transactions = new LongAdder();
+        private final AtomicReference<String> failure = new AtomicReference<>();
+        private volatile long finishNanos;
+        private volatile boolean finished;
+
+        private Job(YearMonth month, int partitions) {
+            this.month = month;
+            this.partitions = partitions;
+        }
+
+        private boolean isRunning() {
+            return !finished;
+        }
+
+        private void partitionDone(long writtenAccounts, long writtenTransactions) {
+            accounts.add(writtenAccounts);
+            transactions.add(writtenTransactions);
+            int completed = done.incrementAndGet() + skipped.get();
+            // about every tenth of the job
+            if (completed % Math.max(1, partitions / 10) == 0) {
+                log.info("Statements for {}: {}/{} partitions, {} accounts at {} accounts/s", month, completed,
+                        partitions, accounts.sum(), Math.round(accountsPerSecond()));
+            }
+        }
+
+        private void fail(String message) {
+            failure.compareAndSet(null, message);
+        }
+
+        private void finish() {
+            finishNanos = System.nanoTime();
+            finished = true;
+            log.info("Statements for {} {}: {} accounts and {} transactions in {} s, {} partitions skipped",
+                    month, failure.get() == null ? "written" : "failed", accounts.sum(), transactions.sum(),
+                    Math.round(elapsedSeconds()), skipped.get());
+        }
+
+        private double elapsedSeconds() {
+            return ((finished ? finishNanos : System.nanoTime()) - startNanos) / 1e9;
+        }
+
+        private double accountsPerSecond() {
+            double elapsed = elapsedSeconds();
+            return elapsed > 0 ? accounts.sum() / elapsed : 0;
+        }
+
+        private ResponseStatementJobDto toDto() {
+            ResponseStatementJobDto dto = new ResponseStatementJobDto();
+            dto.setMonth(month.toString());
+            dto.setStatus(finished ? (failure.get() == null ? "completed" : "failed") : "running");
+            dto.setPartitions(partitions);
+            dto.setPartitionsDone(done.get());
+            dto.setPartitionsSkipped(skipped.get());
+            dto.setAccounts(accounts.sum());
+            dto.setTransactions(transactions.sum());
+            dto.setAccountsPerSecond(accountsPerSecond());
+            dto.setElapsedSeconds(elapsedSeconds());
+            dto.setMessage(failure.get());
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.transaction.transaction.services.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.transaction.transaction.entities.Transaction;
+import com.transaction.transaction.entities.TransactionCount;
+import com.transaction.transaction.repositories.TransactionCountRepository;
+import com.transaction.transaction.repositories.TransactionRepository;
+import com.transaction.transaction.services.TransactionCountService;
+
+/**
+ * Keeps {@code transaction_counts} in step with the {@code transactions} rows. Every writer of
+ * history rows counts them in its own transaction, so a counter commits or rolls back together
+ * with the rows it counts.
+ *
+ * <p>A hot account has no counter: its credits are spread over shard rows so that they do not
+ * queue on one lock, a counter row would be that lock again. Its increments match no row and
+ * lock nothing, its total is counted from the rows. That stays so after it is made regular
+ * again, credits still in flight then would not be on a counter started from COUNT(*).
+ */
+@Service
+public class TransactionCountServiceImpl implements TransactionCountService {
+    private static final String INCREMENT =
+            "UPDATE transaction_counts SET transaction_count = transaction_count + ? WHERE account_id = ?";
+
+    private final TransactionCountRepository transactionCountRepository;
+    private final TransactionRepository transactionRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionCountServiceImpl(TransactionCountRepository transactionCountRepository,
+                                       TransactionRepository transactionRepository,
+                                       JdbcTemplate jdbcTemplate) {
+        this.transactionCountRepository = transactionCountRepository;
+        this.transactionRepository = transactionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void create(Long accountId) {
+        transactionCountRepository.save(new TransactionCount(accountId));
+    }
+
+    @Override
+    public void countInserted(Collection<Transaction> transactions) {
+        // counter rows are locked in ascending account id order, A->B and B->A transfers queue
+        // on the same row instead of deadlocking each other
+        Map<Long, Long> counts = transactions.stream()
+                .collect(Collectors.groupingBy(Transaction::getAccountId, TreeMap::new, Collectors.counting()));
+        if (counts.isEmpty()) {
+            return;
+        }
+        // one JDBC batch for all accounts, Hibernate sends every bulk update on its own
+        List<Object[]> increments = counts.entrySet().stream()
+                .map(entry -> new Object[] {entry.getValue(), entry.getKey()})
+                .toList();
+        jdbcTemplate.batchUpdate(INCREMENT, increments);
+    }
+
+    @Override
+    public void drop(Long accountId) {
+        transactionCountRepository.deleteByAccountId(accountId);
+    }
+
+    @Override
+    public long getTransactionCount(Long accountId) {
+        return transactionCountRepository.findTransactionCountByAccountId(accountId)
+                .orElseGet(() -> transactionRepository.countByAccountId(accountId));
+    }
+}
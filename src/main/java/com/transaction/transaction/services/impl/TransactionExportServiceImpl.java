@@ -0,0 +1,163 @@
+package com.transaction.transaction.services.impl;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.transaction.transaction.config.TransferProperties;
+import com.transaction.transaction.dto.ResponseTransactionDTO;
+import com.transaction.transaction.money.Money;
+import com.transaction.transaction.services.TransactionExportService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+
+/**
+ * Streams the whole history of an account without holding it in memory. The rows come from a
+ * forward-only cursor that fetches {@code transfer.export.fetch-size} rows per round trip and
+ * are written to the response as they arrive, through JDBC so that no entity or persistence
+ * context entry is created for any of them. PostgreSQL only fetches in portions inside a
+ * transaction, without one the driver reads the whole result before returning the first row.
+ *
+ * <p>The transaction and its connection last as long as the client takes to read the export,
+ * which is why exports run on their own threads, see {@code ExportAsyncConfiguration}.
+ */
+@Service
+public class TransactionExportServiceImpl implements TransactionExportService {
+    // oldest first along idx_transactions_account_date_id, the id orders rows of the same instant
+    private static final String EXPORT_QUERY = "SELECT id, account_id, amount, type, transfer_id, category, status,"
+            + " description, date FROM transactions WHERE account_id = ? ORDER BY date, id";
+    private static final String CSV_HEADER = "id,account_id,amount,type,transfer_id,category,status,description,date\n";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectWriter jsonWriter;
+    private final int fetchSize;
+    private final Map<Format, Timer> exportTimers = new EnumMap<>(Format.class);
+    private final Counter rowCounter;
+
+    public TransactionExportServiceImpl(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                                        TransferProperties transferProperties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jsonWriter = objectMapper.writerFor(ResponseTransactionDTO.class);
+        this.fetchSize = transferProperties.getExport().getFetchSize();
+        for (Format format : Format.values()) {
+            exportTimers.put(format, Timer.builder("transaction.export")
+                    .description("Time to stream the history of one account")
+                    .tag("format", format.getExtension())
+                    .register(meterRegistry));
+        }
+        this.rowCounter = Counter.builder("transaction.export.rows")
+                .description("Transaction rows written by exports")
+                .register(meterRegistry);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long export(Long accountId, Format format, OutputStream out) throws IOException {
+        Timer.Sample sample = Timer.start();
+        // the writer's buffer is all that is kept of the rows already written
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+        }
+        long[] rows = {0};
+        RowCallbackHandler rowWriter = resultSet -> {
+            try {
+                if (format == Format.CSV) {
+                    writeCsv(resultSet, writer);
+                } else {
+                    writeJson(resultSet, writer);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            rows[0]++;
+        };
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(EXPORT_QUERY,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                statement.setLong(1, accountId);
+                return statement;
+            }, rowWriter);
+        } catch (UncheckedIOException ex) {
+            // the client went away, the cursor is closed and the transaction ends with the exception
+            throw ex.getCause();
+        } finally {
+            rowCounter.increment(rows[0]);
+            sample.stop(exportTimers.get(format));
+        }
+        writer.flush();
+        return rows[0];
+    }
+
+    private void writeJson(ResultSet resultSet, Writer writer) throws SQLException, IOException {
+        ResponseTransactionDTO transaction = new ResponseTransactionDTO(resultSet.getLong("id"),
+                resultSet.getLong("account_id"), resultSet.getLong("amount"), resultSet.getString("type"),
+                resultSet.getObject("transfer_id", Long.class), resultSet.getString("category"),
+                resultSet.getString("status"), resultSet.getString("description"), localDateTime(resultSet));
+        writer.write(jsonWriter.writeValueAsString(transaction));
+        writer.write('\n');
+    }
+
+    private void writeCsv(ResultSet resultSet, Writer writer) throws SQLException, IOException {
+        Long transferId = resultSet.getObject("transfer_id", Long.class);
+        LocalDateTime date = localDateTime(resultSet);
+        writer.write(Long.toString(resultSet.getLong("id")));
+        writer.write(',');
+        writer.write(Long.toString(resultSet.getLong("account_id")));
+        writer.write(',');
+        // exact decimal, never in exponent notation
+        writer.write(BigDecimal.valueOf(resultSet.getLong("amount"), Money.SCALE).toPlainString());
+        writer.write(',');
+        writer.write(csvField(resultSet.getString("type")));
+        writer.write(',');
+        writer.write(transferId == null ? "" : transferId.toString());
+        writer.write(',');
+        writer.write(csvField(resultSet.getString("category")));
+        writer.write(',');
+        writer.write(csvField(resultSet.getString("status")));
+        writer.write(',');
+        writer.write(csvField(resultSet.getString("description")));
+        writer.write(',');
+        writer.write(date == null ? "" : date.toString());
+        writer.write('\n');
+    }
+
+    private static LocalDateTime localDateTime(ResultSet resultSet) throws SQLException {
+        Timestamp date = resultSet.getTimestamp("date");
+        return date == null ? null : date.toLocalDateTime();
+    }
+
+    // RFC 4180: fields with a separator, quote or line break are quoted, quotes inside doubled
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
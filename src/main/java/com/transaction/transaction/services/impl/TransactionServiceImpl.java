@@ -1,41 +1,114 @@
 package com.transaction.transaction.services.impl;
 
 import java.util.List;
+import java.util.Map;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.transaction.transaction.dto.ResponseHistoryTransactionDto;
 import com.transaction.transaction.dto.ResponseTransactionDTO;
-import com.transaction.transaction.entities.Transaction;
-import com.transaction.transaction.mappers.TransactionMapper;
 import com.transaction.transaction.repositories.TransactionRepository;
+import com.transaction.transaction.services.TransactionCountService;
 import com.transaction.transaction.services.TransactionService;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 @Service
 public class TransactionServiceImpl implements TransactionService {
+    // newest first, the id breaks ties between rows written in the same instant
+    private static final Sort HISTORY_ORDER = Sort.by(Sort.Order.desc("date"), Sort.Order.desc("id"));
+
     private final TransactionRepository transactionRepository;
-    private final TransactionMapper transactionMapper;
+    private final TransactionCountService transactionCountService;
+    // offset paging reads and skips every row before the page, deep pages are timed apart;
+    // cursor pages seek to their position and share one timer however deep they are
+    private final Map<String, Timer> historyTimers;
 
-    public TransactionServiceImpl(TransactionRepository transactionRepository, TransactionMapper transactionMapper) {
+    public TransactionServiceImpl(TransactionRepository transactionRepository, TransactionCountService transactionCountService,
+                                  MeterRegistry meterRegistry) {
         this.transactionRepository = transactionRepository;
-        this.transactionMapper = transactionMapper;
+        this.transactionCountService = transactionCountService;
+        this.historyTimers = Map.of(
+                "0", historyTimer(meterRegistry, "0"),
+                "1-9", historyTimer(meterRegistry, "1-9"),
+                "10-99", historyTimer(meterRegistry, "10-99"),
+                "100-999", historyTimer(meterRegistry, "100-999"),
+                "1000+", historyTimer(meterRegistry, "1000+"),
+                "cursor", historyTimer(meterRegistry, "cursor"));
     }
 
+    /**
+     * Offset paging: reads one row more than the page to tell whether another page follows,
+     * there is no count of the account's rows on every request.
+     */
     @Override
-    public ResponseHistoryTransactionDto getHistoryTransaction(Long accountId, int page, int size) {
-        Page<Transaction> transactions = transactionRepository.findByAccountId(accountId, Pageable.ofSize(size).withPage(page));
-        
-        List<ResponseTransactionDTO> transactionDTOs = transactions
-            .map(transactionMapper::toResponseTransactionDTO)
-            .getContent();
-        
+    @Transactional(readOnly = true)
+    public ResponseHistoryTransactionDto getHistoryTransaction(Long accountId, int page, int size, boolean includeTotal) {
+        Slice<ResponseTransactionDTO> transactions = historyTimers.get(pageDepth(page)).record(() ->
+                transactionRepository.findHistoryByAccountId(accountId, PageRequest.of(page, size, HISTORY_ORDER)));
+
+        return history(accountId, transactions.getContent(), transactions.hasNext(), includeTotal);
+    }
+
+    /**
+     * Keyset paging: the page starts right after the row the cursor points at, so it costs the
+     * same on the first and on the thousandth page. One row more than the page is read to tell
+     * whether another page follows.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseHistoryTransactionDto getHistoryTransaction(Long accountId, String cursor, int size, boolean includeTotal) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
+        }
+        HistoryCursor after = HistoryCursor.decode(cursor);
+        List<ResponseTransactionDTO> transactions = historyTimers.get("cursor").record(() ->
+                transactionRepository.findHistoryByAccountIdBefore(accountId, after.date(), after.id(), Limit.of(size + 1)));
+
+        boolean hasNext = transactions.size() > size;
+        return history(accountId, hasNext ? transactions.subList(0, size) : transactions, hasNext, includeTotal);
+    }
+
+    private ResponseHistoryTransactionDto history(Long accountId, List<ResponseTransactionDTO> transactions, boolean hasNext,
+                                                  boolean includeTotal) {
         ResponseHistoryTransactionDto response = new ResponseHistoryTransactionDto();
         response.setAccountId(accountId);
-        response.setTransactions(transactionDTOs);
-        
+        response.setTransactions(transactions);
+        response.setHasNext(hasNext);
+        if (includeTotal) {
+            // the maintained counter, a COUNT(*) would read every row of the account
+            response.setTotalTransactions(transactionCountService.getTransactionCount(accountId));
+        }
+        if (hasNext) {
+            response.setNextCursor(HistoryCursor.after(transactions.get(transactions.size() - 1)).encode());
+        }
         return response;
     }
-     
+
+    private static String pageDepth(int page) {
+        if (page == 0) {
+            return "0";
+        }
+        if (page < 10) {
+            return "1-9";
+        }
+        if (page < 100) {
+            return "10-99";
+        }
+        return page < 1000 ? "100-999" : "1000+";
+    }
+
+    private static Timer historyTimer(MeterRegistry meterRegistry, String pageDepth) {
+        return Timer.builder("transaction.history")
+                .description("Time to read one page of an account's transaction history")
+                .tag("page_depth", pageDepth)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 }
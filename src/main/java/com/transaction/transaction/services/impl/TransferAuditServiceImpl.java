@@ -0,0 +1,182 @@
+package com.transaction.transaction.services.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.transaction.transaction.config.TransferProperties;
+import com.transaction.transaction.config.WorkerThreads;
+import com.transaction.transaction.entities.Transaction;
+import com.transaction.transaction.entities.Transfer;
+import com.transaction.transaction.repositories.TransactionRepository;
+import com.transaction.transaction.repositories.TransferRepository;
+import com.transaction.transaction.services.TransferAuditService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Async verification policy: after the commit a sample of the transfers is read back on a
+ * small thread pool and compared with what the transfer wrote. The transfer row must exist
+ * with the same accounts and amount, and its debit and credit transaction rows must be
+ * stored for the right accounts with the same amount. Discrepancies are logged and counted
+ * in {@code transfer.audit.discrepancies}, tagged with the failed check.
+ *
+ * <p>Balances are not compared, concurrent transfers change them between the commit and the
+ * audit. A coalesced credit row may still be buffered when the audit runs, so it is only
+ * checked once it is stored.
+ */
+@Service
+public class TransferAuditServiceImpl implements TransferAuditService, SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(TransferAuditServiceImpl.class);
+
+    private final TransferRepository transferRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransferProperties.Verification properties;
+    private final MeterRegistry meterRegistry;
+    private final WorkerThreads workerThreads;
+    private final Counter checkedCounter;
+    private final Counter skippedCounter;
+
+    private ThreadPoolExecutor executor;
+    private volatile boolean running;
+
+    public TransferAuditServiceImpl(TransferRepository transferRepository,
+                                    TransactionRepository transactionRepository,
+                                    TransferProperties transferProperties,
+                                    MeterRegistry meterRegistry,
+                                    WorkerThreads workerThreads) {
+        this.transferRepository = transferRepository;
+        this.transactionRepository = transactionRepository;
+        this.properties = transferProperties.getVerification();
+        this.meterRegistry = meterRegistry;
+        this.workerThreads = workerThreads;
+        this.checkedCounter = Counter.builder("transfer.audit.checked")
+                .description("Committed transfers read back by the auditor")
+                .register(meterRegistry);
+        this.skippedCounter = Counter.builder("transfer.audit.skipped")
+                .description("Sampled transfers dropped because the auditor queue was full")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void submit(AuditedTransfer transfer) {
+        if (properties.getPolicy() != TransferProperties.Verification.Policy.ASYNC
+                || ThreadLocalRandom.current().nextDouble() >= properties.getSampleRate()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(transfer);
+            return;
+        }
+        // rows of a rolled back transfer are not expected to exist
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(transfer);
+            }
+        });
+    }
+
+    @Override
+    public List<String> audit(AuditedTransfer transfer) {
+        List<String> discrepancies = new ArrayList<>();
+        Optional<Transfer> stored = transferRepository.findById(transfer.transferId());
+        if (stored.isEmpty()) {
+            discrepancies.add("transfer_missing");
+        } else if (!stored.get().getFromAccountId().equals(transfer.fromAccountId())
+                || !stored.get().getToAccountId().equals(transfer.toAccountId())
+                || stored.get().getAmount() != transfer.amount()) {
+            discrepancies.add("transfer_mismatch");
+        }
+
+        List<Transaction> rows = transactionRepository.findByTransferId(transfer.transferId());
+        checkLeg(rows, "debit", transfer.fromAccountId(), transfer.amount(), false, discrepancies);
+        checkLeg(rows, "credit", transfer.toAccountId(), transfer.amount(), transfer.creditDeferred(), discrepancies);
+        return discrepancies;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (properties.getPolicy() != TransferProperties.Verification.Policy.ASYNC) {
+            return;
+        }
+        executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()), workerThreads.factory("transfer-auditor-"));
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (executor == null) {
+            return;
+        }
+        // pending audits are only samples, they are not worth delaying the shutdown for
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void enqueue(AuditedTransfer transfer) {
+        ThreadPoolExecutor current = executor;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.execute(() -> run(transfer));
+        } catch (RejectedExecutionException ex) {
+            skippedCounter.increment();
+        }
+    }
+
+    private void run(AuditedTransfer transfer) {
+        try {
+            List<String> discrepancies = audit(transfer);
+            for (String check : discrepancies) {
+                meterRegistry.counter("transfer.audit.discrepancies", "check", check).increment();
+            }
+            // counted last, an audit shown as checked has its discrepancies counted already
+            checkedCounter.increment();
+            if (!discrepancies.isEmpty()) {
+                log.warn("Transfer {} failed the audit: {}", transfer.transferId(), discrepancies);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Auditing transfer {} failed", transfer.transferId(), ex);
+        }
+    }
+
+    private void checkLeg(List<Transaction> rows, String type, Long accountId, long amount, boolean mayBePending,
+                          List<String> discrepancies) {
+        List<Transaction> legs = rows.stream().filter(row -> type.equals(row.getType())).toList();
+        if (legs.isEmpty()) {
+            if (!mayBePending) {
+                discrepancies.add(type + "_missing");
+            }
+            return;
+        }
+        if (legs.size() > 1 || !legs.get(0).getAccountId().equals(accountId) || legs.get(0).getAmount() != amount) {
+            discrepancies.add(type + "_mismatch");
+        }
+    }
+}
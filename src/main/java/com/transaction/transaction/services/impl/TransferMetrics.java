@@ -0,0 +1,96 @@
+package com.transaction.transaction.services.impl;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Meters of {@link TransferServiceImpl}: a {@code transfer.phase} timer per phase of a
+ * transfer, a {@code transfer.outcome} counter per result and the {@code transfer.amount}
+ * distribution of successful transfers in minor units. The timers and the amount publish
+ * histogram buckets so percentiles can be aggregated across instances in Prometheus.
+ */
+final class TransferMetrics {
+
+    enum Phase {
+        // reading (or locking) the two accounts
+        LOOKUP,
+        // debit and credit of the balances, including hot-account shards
+        BALANCE_UPDATE,
+        TRANSFER_INSERT,
+        // debit and credit transaction rows, a deferred credit row is inserted by the coalescer
+        TRANSACTION_INSERT,
+        // inline read-back before the commit, the async auditor has its own meters
+        VERIFICATION
+    }
+
+    enum Outcome {
+        SUCCESS,
+        INSUFFICIENT_BALANCE,
+        SAME_ACCOUNT,
+        NOT_FOUND,
+        INVALID_AMOUNT
+    }
+
+    private final Map<Phase, Timer> phaseTimers = new EnumMap<>(Phase.class);
+    private final Map<Outcome, Counter> outcomeCounters = new EnumMap<>(Outcome.class);
+    private final DistributionSummary amounts;
+
+    TransferMetrics(MeterRegistry meterRegistry) {
+        for (Phase phase : Phase.values()) {
+            phaseTimers.put(phase, Timer.builder("transfer.phase")
+                    .description("Time spent in one phase of a transfer")
+                    .tag("phase", tag(phase))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        for (Outcome outcome : Outcome.values()) {
+            outcomeCounters.put(outcome, Counter.builder("transfer.outcome")
+                    .description("Transfers by result, batch items counted one by one")
+                    .tag("outcome", tag(outcome))
+                    .register(meterRegistry));
+        }
+        this.amounts = DistributionSummary.builder("transfer.amount")
+                .description("Amount of successful transfers in minor units")
+                .baseUnit("cents")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(1e11)
+                .register(meterRegistry);
+    }
+
+    <T> T time(Phase phase, Supplier<T> work) {
+        return phaseTimers.get(phase).record(work);
+    }
+
+    void time(Phase phase, Runnable work) {
+        phaseTimers.get(phase).record(work);
+    }
+
+    void succeeded(long amount) {
+        outcomeCounters.get(Outcome.SUCCESS).increment();
+        amounts.record(amount);
+    }
+
+    void rejected(Outcome outcome) {
+        outcomeCounters.get(outcome).increment();
+    }
+
+    /**
+     * Counts a rejected transfer and hands back the exception, {@code throw rejected(...)}.
+     */
+    <E extends RuntimeException> E rejected(Outcome outcome, E exception) {
+        rejected(outcome);
+        return exception;
+    }
+
+    private static String tag(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,120 @@
+package com.transaction.transaction.services.impl;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.transaction.transaction.config.TransferProperties;
+import com.transaction.transaction.dto.CreateTransferDto;
+import com.transaction.transaction.dto.ResponseCreateTransferDto;
+import com.transaction.transaction.dto.ResponseTransferStatusDto;
+import com.transaction.transaction.entities.QueuedTransfer;
+import com.transaction.transaction.exceptions.QueueFullException;
+import com.transaction.transaction.exceptions.ResouceNotFoundException;
+import com.transaction.transaction.money.Money;
+import com.transaction.transaction.repositories.AccountRepository;
+import com.transaction.transaction.repositories.AccountRepository.AccountIdView;
+import com.transaction.transaction.repositories.QueuedTransferRepository;
+import com.transaction.transaction.services.TransferQueueService;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Accepts transfers into the queued_transfers table for {@link TransferQueueWorkers} and
+ * reports their outcome. Requests are validated up front so that only transfers which can
+ * still fail on balance are queued.
+ */
+@Service
+public class TransferQueueServiceImpl implements TransferQueueService {
+    private final QueuedTransferRepository queuedTransferRepository;
+    private final AccountRepository accountRepository;
+    private final TransferProperties.Async properties;
+
+    // counted from the table every second, counted up in between by accepted transfers
+    private final AtomicLong depth = new AtomicLong();
+
+    public TransferQueueServiceImpl(QueuedTransferRepository queuedTransferRepository,
+                                    AccountRepository accountRepository,
+                                    TransferProperties transferProperties,
+                                    MeterRegistry meterRegistry) {
+        this.queuedTransferRepository = queuedTransferRepository;
+        this.accountRepository = accountRepository;
+        this.properties = transferProperties.getAsync();
+        Gauge.builder("transfer.queue.depth", depth, AtomicLong::get)
+                .description("Transfers accepted in async mode and not executed yet")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @Override
+    public ResponseCreateTransferDto enqueue(CreateTransferDto createTransferDto) {
+        if (depth.get() >= properties.getCapacity()) {
+            throw new QueueFullException("Transfer queue is full, please retry later");
+        }
+
+        // validasi account, both users in one round trip
+        Set<Long> userIds = accountRepository.findAccountIdsByUserIds(List.of(createTransferDto.getFromAccountId(), createTransferDto.getToAccountId()))
+                .stream()
+                .map(AccountIdView::getUserId)
+                .collect(Collectors.toSet());
+        if (!userIds.contains(createTransferDto.getFromAccountId())) {
+            throw new ResouceNotFoundException("From account not found");
+        }
+        if (!userIds.contains(createTransferDto.getToAccountId())) {
+            throw new ResouceNotFoundException("To account not found");
+        }
+
+        //Validasi amount
+        long amount = Money.toMinorUnits(createTransferDto.getAmount());
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Transfer amount must be positive");
+        }
+
+        if (createTransferDto.getFromAccountId().equals(createTransferDto.getToAccountId())) {
+            throw new IllegalArgumentException("Cannot transfer to the same account");
+        }
+
+        QueuedTransfer queuedTransfer = new QueuedTransfer();
+        queuedTransfer.setFromUserId(createTransferDto.getFromAccountId());
+        queuedTransfer.setToUserId(createTransferDto.getToAccountId());
+        queuedTransfer.setAmount(amount);
+        queuedTransfer.setStatus("queued");
+        queuedTransferRepository.save(queuedTransfer);
+        depth.incrementAndGet();
+
+        ResponseCreateTransferDto response = new ResponseCreateTransferDto();
+        response.setTransferId(queuedTransfer.getId());
+        response.setMessage("Transfer accepted");
+        response.setStatus("queued");
+        return response;
+    }
+
+    @Override
+    public ResponseTransferStatusDto getStatus(Long transferId) {
+        QueuedTransfer queuedTransfer = queuedTransferRepository.findById(transferId)
+                .orElseThrow(() -> new ResouceNotFoundException("Transfer not found"));
+
+        ResponseTransferStatusDto response = new ResponseTransferStatusDto();
+        response.setTransferId(queuedTransfer.getId());
+        response.setStatus(queuedTransfer.getStatus());
+        response.setMessage(queuedTransfer.getMessage());
+        response.setTransactionId(queuedTransfer.getTransactionId());
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "PT1S")
+    public void refreshDepth() {
+        if (properties.isEnabled()) {
+            depth.set(queuedTransferRepository.countByStatus("queued"));
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.transaction.transaction.services.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.transaction.transaction.config.TransferProperties;
+import com.transaction.transaction.config.WorkerThreads;
+import com.transaction.transaction.dto.CreateTransferDto;
+import com.transaction.transaction.dto.ResponseCreateTransferDto;
+import com.transaction.transaction.entities.QueuedTransfer;
+import com.transaction.transaction.money.Money;
+import com.transaction.transaction.repositories.QueuedTransferRepository;
+import com.transaction.transaction.services.TransferService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Pool of workers executing queued transfers. A worker claims a batch of queued rows,
+ * runs them through {@link TransferService#createTransfers} and stores every outcome in the
+ * same database transaction, so a batch is either executed and marked or rolled back as a
+ * whole. A rolled back batch is executed again one transfer per transaction, and a transfer
+ * that still fails is marked as failed on its own, so one bad row cannot keep its batch
+ * queued forever.
+ *
+ * <p>With the ledger engine the transfers are not part of that transaction, a rolled back
+ * batch may have been applied in part. Its rows are marked unknown to be reconciled against
+ * the ledger instead of being executed again. A crash between executing and marking a batch,
+ * or a database that also refuses the unknown marks, leaves the rows queued and executes
+ * them again.
+ */
+@Component
+@ConditionalOnProperty(prefix = "transfer.async", name = "enabled", havingValue = "true")
+public class TransferQueueWorkers implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(TransferQueueWorkers.class);
+
+    private final QueuedTransferRepository queuedTransferRepository;
+    private final TransferService transferService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransferProperties.Async properties;
+    private final boolean ledgerEnabled;
+    private final WorkerThreads workerThreads;
+    private final Timer waitTimer;
+
+    private ExecutorService executor;
+    private volatile boolean running;
+
+    public TransferQueueWorkers(QueuedTransferRepository queuedTransferRepository,
+                                TransferService transferService,
+                                PlatformTransactionManager transactionManager,
+                                TransferProperties transferProperties,
+                                MeterRegistry meterRegistry,
+                                WorkerThreads workerThreads) {
+        this.queuedTransferRepository = queuedTransferRepository;
+        this.transferService = transferService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = transferProperties.getAsync();
+        this.ledgerEnabled = transferProperties.getLedger().isEnabled();
+        this.workerThreads = workerThreads;
+        this.waitTimer = Timer.builder("transfer.queue.wait")
+                .description("Time transfers spent queued before a worker picked them up")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        executor = Executors.newFixedThreadPool(properties.getWorkers(), workerThreads.factory("transfer-queue-worker-"));
+        running = true;
+        for (int i = 0; i < properties.getWorkers(); i++) {
+            executor.submit(this::work);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Executes one batch of queued transfers.
+     *
+     * @return the number of transfers executed, 0 when the queue was empty
+     */
+    public int processBatch() {
+        List<Long> claimedIds = new ArrayList<>();
+        try {
+            Integer processed = transactionTemplate.execute(status -> {
+                List<QueuedTransfer> claimed = queuedTransferRepository.claimQueued(properties.getBatchSize());
+                claimed.forEach(queuedTransfer -> claimedIds.add(queuedTransfer.getId()));
+                execute(claimed);
+                return claimed.size();
+            });
+            return processed != null ? processed : 0;
+        } catch (RuntimeException ex) {
+            if (claimedIds.isEmpty()) {
+                throw ex;
+            }
+            if (ledgerEnabled) {
+                log.error("Executing {} queued transfers on the ledger failed, marking them unknown", claimedIds.size(), ex);
+                claimedIds.forEach(id -> mark(id, "unknown", "Transfer outcome unknown, reconcile it with the ledger"));
+                return claimedIds.size();
+            }
+            log.warn("Executing {} queued transfers failed, executing them one at a time", claimedIds.size(), ex);
+            claimedIds.forEach(this::processOne);
+            return claimedIds.size();
+        }
+    }
+
+    /**
+     * Executes one transfer of a rolled back batch in its own transaction, unless another
+     * worker has claimed or executed it meanwhile. A transfer that fails again is marked as
+     * failed in a separate transaction.
+     */
+    private void processOne(Long queuedTransferId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> queuedTransferRepository.claimQueuedById(queuedTransferId)
+                    .ifPresent(queuedTransfer -> execute(List.of(queuedTransfer))));
+        } catch (RuntimeException ex) {
+            log.warn("Executing queued transfer {} failed, marking it as failed", queuedTransferId, ex);
+            mark(queuedTransferId, "failure", "Transfer could not be executed");
+        }
+    }
+
+    // in its own transaction, unless another worker has claimed or executed the transfer meanwhile
+    private void mark(Long queuedTransferId, String status, String message) {
+        transactionTemplate.executeWithoutResult(transaction -> queuedTransferRepository.claimQueuedById(queuedTransferId)
+                .ifPresent(queuedTransfer -> {
+                    LocalDateTime markedAt = LocalDateTime.now();
+                    queuedTransferRepository.complete(queuedTransferId, status, message, null, markedAt, markedAt);
+                }));
+    }
+
+    private void execute(List<QueuedTransfer> claimed) {
+        if (claimed.isEmpty()) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<CreateTransferDto> transfers = claimed.stream().map(this::toDto).toList();
+        List<ResponseCreateTransferDto> results = transferService.createTransfers(transfers);
+
+        LocalDateTime completedAt = LocalDateTime.now();
+        for (int i = 0; i < claimed.size(); i++) {
+            ResponseCreateTransferDto result = results.get(i);
+            queuedTransferRepository.complete(claimed.get(i).getId(), result.getStatus(), result.getMessage(),
+                    result.getTransferId(), startedAt, completedAt);
+            waitTimer.record(Duration.between(claimed.get(i).getCreatedAt(), startedAt));
+        }
+    }
+
+    private void work() {
+        while (running) {
+            int processed;
+            try {
+                processed = processBatch();
+            } catch (RuntimeException ex) {
+                log.warn("Executing queued transfers failed, they stay queued", ex);
+                processed = 0;
+            }
+            if (processed == 0) {
+                try {
+                    Thread.sleep(properties.getPollInterval().toMillis());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private CreateTransferDto toDto(QueuedTransfer queuedTransfer) {
+        CreateTransferDto createTransferDto = new CreateTransferDto();
+        createTransferDto.setFromAccountId(queuedTransfer.getFromUserId());
+        createTransferDto.setToAccountId(queuedTransfer.getToUserId());
+        createTransferDto.setAmount(Money.toMajorUnits(queuedTransfer.getAmount()));
+        return createTransferDto;
+    }
+}
@@ -3,17 +3,42 @@ package com.transaction.transaction.services.impl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.transaction.transaction.config.TransferProperties;
 import com.transaction.transaction.dto.CreateTransferDto;
+import com.transaction.transaction.dto.ResponseCreateTransferDto;
 import com.transaction.transaction.entities.Account;
 import com.transaction.transaction.entities.Transaction;
 import com.transaction.transaction.entities.Transfer;
 import com.transaction.transaction.exceptions.ResouceNotFoundException;
+import com.transaction.transaction.money.Money;
 import com.transaction.transaction.repositories.AccountRepository;
+import com.transaction.transaction.repositories.AccountRepository.AccountIdView;
 import com.transaction.transaction.repositories.TransactionRepository;
 import com.transaction.transaction.repositories.TransferRepository;
+import com.transaction.transaction.services.AccountBalanceCache;
+import com.transaction.transaction.services.CreditCoalescingService;
+import com.transaction.transaction.services.HotAccountService;
+import com.transaction.transaction.services.TransactionCountService;
+import com.transaction.transaction.services.TransferAuditService;
+import com.transaction.transaction.services.TransferAuditService.AuditedTransfer;
 import com.transaction.transaction.services.TransferService;
+import com.transaction.transaction.services.impl.TransferMetrics.Outcome;
+import com.transaction.transaction.services.impl.TransferMetrics.Phase;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class TransferServiceImpl implements TransferService {
@@ -21,91 +46,459 @@ public class TransferServiceImpl implements TransferService {
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
     private final TransferRepository transferRepository;
+    private final TransferProperties transferProperties;
+    private final HotAccountService hotAccountService;
+    private final CreditCoalescingService creditCoalescingService;
+    private final TransferAuditService transferAuditService;
+    private final AccountBalanceCache accountBalanceCache;
+    private final TransactionCountService transactionCountService;
+    private final TransferMetrics metrics;
 
     public TransferServiceImpl(AccountRepository accountRepository,
                                TransactionRepository transactionRepository,
-                               TransferRepository transferRepository) {
+                               TransferRepository transferRepository,
+                               TransferProperties transferProperties,
+                               HotAccountService hotAccountService,
+                               CreditCoalescingService creditCoalescingService,
+                               TransferAuditService transferAuditService,
+                               AccountBalanceCache accountBalanceCache,
+                               TransactionCountService transactionCountService,
+                               MeterRegistry meterRegistry) {
         this.accountRepository = accountRepository;
         this.transactionRepository = transactionRepository;
         this.transferRepository = transferRepository;
+        this.transferProperties = transferProperties;
+        this.hotAccountService = hotAccountService;
+        this.creditCoalescingService = creditCoalescingService;
+        this.transferAuditService = transferAuditService;
+        this.accountBalanceCache = accountBalanceCache;
+        this.transactionCountService = transactionCountService;
+        this.metrics = new TransferMetrics(meterRegistry);
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
-    public Long createTransfer(CreateTransferDto createTransferDto) {
+    public ResponseCreateTransferDto createTransfer(CreateTransferDto createTransferDto) {
+        if (transferProperties.getMode() == TransferProperties.Mode.CONDITIONAL) {
+            return createConditionalTransfer(createTransferDto);
+        }
 
         // validasi account
-        Account fromAccount = accountRepository.findByUserId(createTransferDto.getFromAccountId())
-                .orElseThrow(() -> new ResouceNotFoundException("From account not found"));
-
-        Account toAccount = accountRepository.findByUserId(createTransferDto.getToAccountId())
-                .orElseThrow(() -> new ResouceNotFoundException("To account not found"));
+        AccountPair accounts = metrics.time(Phase.LOOKUP, () -> findAccountPair(createTransferDto));
+        Account fromAccount = accounts.from();
+        Account toAccount = accounts.to();
 
         //Validasi amount
-        if (createTransferDto.getAmount() <= 0) {
-            throw new IllegalArgumentException("Transfer amount must be positive");
-        }
+        long amount = transferAmount(createTransferDto);
 
         if (fromAccount.getId().equals(toAccount.getId())) {
-            throw new IllegalArgumentException("Cannot transfer to the same account");
+            throw metrics.rejected(Outcome.SAME_ACCOUNT, new IllegalArgumentException("Cannot transfer to the same account"));
         }
 
-        if (fromAccount.getBalance() < createTransferDto.getAmount()) {
-            throw new IllegalArgumentException("Insufficient balance in the source account");
+        if (fromAccount.getBalance() < amount && fromAccount.getShardCount() > 0) {
+            // a hot account keeps the credits it received on its shards
+            metrics.time(Phase.BALANCE_UPDATE, () ->
+                    fromAccount.setBalance(fromAccount.getBalance() + hotAccountService.claimShards(fromAccount.getId())));
         }
 
+        if (fromAccount.getBalance() < amount) {
+            throw metrics.rejected(Outcome.INSUFFICIENT_BALANCE, new IllegalArgumentException("Insufficient balance in the source account"));
+        }
 
-        
-       
+        boolean deferCredit = defersCredit(toAccount.getShardCount());
+        metrics.time(Phase.BALANCE_UPDATE, () -> {
+            fromAccount.setBalance(fromAccount.getBalance() - amount);
+            accountRepository.save(fromAccount);
 
+            if (toAccount.getShardCount() > 0) {
+                hotAccountService.credit(toAccount.getId(), toAccount.getShardCount(), amount);
+            } else if (!deferCredit) {
+                toAccount.setBalance(toAccount.getBalance() + amount);
+                accountRepository.save(toAccount);
+                hotAccountService.recordCredit(toAccount.getId());
+            }
+            // the updates would otherwise wait for the commit and be timed in no phase
+            accountRepository.flush();
+        });
 
-        Transfer transfer = new Transfer();
-        transfer.setFromAccountId(fromAccount.getId());
-        transfer.setToAccountId(toAccount.getId());
-        transfer.setAmount(createTransferDto.getAmount());
-        transfer.setDate(LocalDateTime.now());
-        transferRepository.save(transfer);
-
-        fromAccount.setBalance(fromAccount.getBalance() - createTransferDto.getAmount());
-        accountRepository.save(fromAccount);
-
-        Transaction debitTx = new Transaction();
-        debitTx.setAccountId(fromAccount.getId());
-        debitTx.setType("debit");
-        debitTx.setAmount(createTransferDto.getAmount());
-        debitTx.setCategory("transfer_out");
-        debitTx.setTransferId(transfer.getId());
-        debitTx.setStatus("success");
-        debitTx.setDate(LocalDateTime.now());
-        transactionRepository.save(debitTx);
-
-        toAccount.setBalance(toAccount.getBalance() + createTransferDto.getAmount());
-        accountRepository.save(toAccount);
-
-        Transaction creditTx = new Transaction();
-        creditTx.setAccountId(toAccount.getId());
-        creditTx.setType("credit");
-        creditTx.setAmount(createTransferDto.getAmount());
-        creditTx.setCategory("transfer_in");
-        creditTx.setTransferId(transfer.getId());
-        creditTx.setDate(LocalDateTime.now());
-        creditTx.setStatus("success");
-        transactionRepository.save(creditTx);
+        TransferRecords records = recordTransfer(fromAccount.getId(), toAccount.getId(), amount, deferCredit);
+        if (transferProperties.getVerification().getPolicy() == TransferProperties.Verification.Policy.INLINE) {
+            metrics.time(Phase.VERIFICATION, () -> verifyInline(fromAccount, toAccount, records, deferCredit));
+        } else {
+            transferAuditService.submit(audited(records, deferCredit));
+        }
+        accountBalanceCache.evictAfterCommit(List.of(fromAccount.getId(), toAccount.getId()));
+        metrics.succeeded(amount);
+        return transferResult(records.debit().getId(), "Transfer successful", "success");
+    }
 
+    private AccountPair findAccountPair(CreateTransferDto createTransferDto) {
+        if (transferProperties.getMode() == TransferProperties.Mode.PESSIMISTIC) {
+            Map<Long, Account> lockedAccounts = lockAccounts(createTransferDto.getFromAccountId(), createTransferDto.getToAccountId());
+            Account fromAccount = Optional.ofNullable(lockedAccounts.get(createTransferDto.getFromAccountId()))
+                    .orElseThrow(() -> metrics.rejected(Outcome.NOT_FOUND, new ResouceNotFoundException("From account not found")));
+            Account toAccount = Optional.ofNullable(lockedAccounts.get(createTransferDto.getToAccountId()))
+                    .orElseThrow(() -> metrics.rejected(Outcome.NOT_FOUND, new ResouceNotFoundException("To account not found")));
+            return new AccountPair(fromAccount, toAccount);
+        }
+
+        Account fromAccount = accountRepository.findByUserId(createTransferDto.getFromAccountId())
+                .orElseThrow(() -> metrics.rejected(Outcome.NOT_FOUND, new ResouceNotFoundException("From account not found")));
+
+        Account toAccount = accountRepository.findByUserId(createTransferDto.getToAccountId())
+                .orElseThrow(() -> metrics.rejected(Outcome.NOT_FOUND, new ResouceNotFoundException("To account not found")));
+        return new AccountPair(fromAccount, toAccount);
+    }
+
+    /**
+     * Re-reads both accounts and the transaction rows before the commit. The reads are answered
+     * by the persistence context of this transaction, so they cost four queries and catch little;
+     * the async auditor checks a sample of committed transfers instead.
+     */
+    private void verifyInline(Account fromAccount, Account toAccount, TransferRecords records, boolean deferCredit) {
         Account fromCheck = accountRepository.findById(fromAccount.getId())
                 .orElseThrow(() -> new ResouceNotFoundException("From account not found"));
         Account toCheck = accountRepository.findById(toAccount.getId())
                 .orElseThrow(() -> new ResouceNotFoundException("To account not found"));
-        if (!fromCheck.getBalance().equals(fromAccount.getBalance()) ||
-            !toCheck.getBalance().equals(toAccount.getBalance())) {
+        // the credit of a hot account went to a shard and a deferred credit has not been applied
+        // yet, in both cases the account row is not expected to change
+        if (fromCheck.getBalance() != fromAccount.getBalance() ||
+            (toAccount.getShardCount() == 0 && toCheck.getBalance() != toAccount.getBalance())) {
             throw new IllegalStateException("Balance mismatch after transfer");
         }
-        boolean debitExists = transactionRepository.existsById(debitTx.getId());
-        boolean creditExists = transactionRepository.existsById(creditTx.getId());
+        boolean debitExists = transactionRepository.existsById(records.debit().getId());
+        boolean creditExists = deferCredit || transactionRepository.existsById(records.credit().getId());
         if (!debitExists || !creditExists) {
             throw new IllegalStateException("Transaction records missing after transfer");
         }
+    }
+
+    /**
+     * Locks the accounts of both users with a single {@code SELECT ... FOR UPDATE}. The rows are
+     * always locked in ascending account id order, so two transfers between the same pair of
+     * accounts wait for each other instead of deadlocking, whatever their direction.
+     *
+     * @return the locked accounts keyed by user id
+     */
+    private Map<Long, Account> lockAccounts(Long fromUserId, Long toUserId) {
+        return accountRepository.findAllByUserIdInForUpdate(List.of(fromUserId, toUserId))
+                .stream()
+                .collect(Collectors.toMap(account -> account.getUser().getId(), Function.identity()));
+    }
+
+    /**
+     * Moves the money with two guarded UPDATE statements instead of loading and saving
+     * both accounts. The balance check happens inside the debit statement, so concurrent
+     * transfers can never overdraw the source account or overwrite each other's balance.
+     */
+    private ResponseCreateTransferDto createConditionalTransfer(CreateTransferDto createTransferDto) {
+        // validasi account, both ids in one round trip
+        Map<Long, AccountIdView> accounts = metrics.time(Phase.LOOKUP, () ->
+                findAccounts(List.of(createTransferDto.getFromAccountId(), createTransferDto.getToAccountId())));
+        ResolvedTransfer resolved = resolve(createTransferDto, accounts);
+
+        if (!metrics.time(Phase.BALANCE_UPDATE, () -> moveBalance(resolved))) {
+            throw metrics.rejected(Outcome.INSUFFICIENT_BALANCE, new IllegalArgumentException("Insufficient balance in the source account"));
+        }
+
+        boolean deferCredit = defersCredit(resolved.toShardCount());
+        TransferRecords records = recordTransfer(resolved.fromAccountId(), resolved.toAccountId(), resolved.amount(), deferCredit);
+        transferAuditService.submit(audited(records, deferCredit));
+        accountBalanceCache.evictAfterCommit(List.of(resolved.fromAccountId(), resolved.toAccountId()));
+        metrics.succeeded(resolved.amount());
+        return transferResult(records.debit().getId(), "Transfer successful", "success");
+    }
+
+    /**
+     * Runs a batch of transfers in one database transaction. Every item gets its own result:
+     * an item that fails validation or lacks balance is reported as failed and leaves no
+     * trace, the other items still go through. The transfer and transaction rows of all
+     * successful items are written with one {@code saveAll} each so Hibernate can send them
+     * as JDBC batches.
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<ResponseCreateTransferDto> createTransfers(List<CreateTransferDto> createTransferDtos) {
+        if (createTransferDtos.size() > transferProperties.getBatch().getMaxSize()) {
+            throw new IllegalArgumentException("A batch may contain at most " + transferProperties.getBatch().getMaxSize() + " transfers");
+        }
+
+        Map<Long, AccountIdView> accounts = metrics.time(Phase.LOOKUP, () -> findAccounts(createTransferDtos.stream()
+                .flatMap(dto -> Stream.of(dto.getFromAccountId(), dto.getToAccountId()))
+                .collect(Collectors.toSet())));
+
+        // null where the item failed validation, its result is set already
+        List<ResolvedTransfer> resolvedItems = new ArrayList<>(createTransferDtos.size());
+        List<ResponseCreateTransferDto> results = new ArrayList<>(createTransferDtos.size());
+        for (CreateTransferDto createTransferDto : createTransferDtos) {
+            try {
+                resolvedItems.add(resolve(createTransferDto, accounts));
+                results.add(null);
+            } catch (IllegalArgumentException | ResouceNotFoundException ex) {
+                resolvedItems.add(null);
+                results.add(transferResult(null, ex.getMessage(), "failure"));
+            }
+        }
+        metrics.time(Phase.LOOKUP, () -> lockBatchAccounts(resolvedItems));
+
+        List<BatchItem> applied = new ArrayList<>();
+        for (int i = 0; i < resolvedItems.size(); i++) {
+            ResolvedTransfer resolved = resolvedItems.get(i);
+            if (resolved == null) {
+                continue;
+            }
+            if (!metrics.time(Phase.BALANCE_UPDATE, () -> moveBalance(resolved))) {
+                metrics.rejected(Outcome.INSUFFICIENT_BALANCE);
+                results.set(i, transferResult(null, "Insufficient balance in the source account", "failure"));
+                continue;
+            }
+            metrics.succeeded(resolved.amount());
+
+            Transfer transfer = newTransfer(resolved.fromAccountId(), resolved.toAccountId(), resolved.amount());
+            Transaction debitTx = newTransaction(resolved.fromAccountId(), "debit", "transfer_out", resolved.amount());
+            Transaction creditTx = newTransaction(resolved.toAccountId(), "credit", "transfer_in", resolved.amount());
+            applied.add(new BatchItem(i, new TransferRecords(transfer, debitTx, creditTx), defersCredit(resolved.toShardCount())));
+            results.set(i, transferResult(null, "Transfer successful", "success"));
+        }
+
+        metrics.time(Phase.TRANSFER_INSERT, () -> {
+            transferRepository.saveAll(applied.stream().map(item -> item.records().transfer()).toList());
+            transferRepository.flush();
+        });
+        List<Transaction> transactions = new ArrayList<>();
+        for (BatchItem item : applied) {
+            TransferRecords record = item.records();
+            Long transferId = record.transfer().getId();
+            record.debit().setTransferId(transferId);
+            record.credit().setTransferId(transferId);
+            transactions.add(record.debit());
+            if (!item.deferCredit()) {
+                transactions.add(record.credit());
+            }
+        }
+        metrics.time(Phase.TRANSACTION_INSERT, () -> {
+            transactionRepository.saveAll(transactions);
+            transactionRepository.flush();
+            transactionCountService.countInserted(transactions);
+        });
+        for (BatchItem item : applied) {
+            if (item.deferCredit()) {
+                creditCoalescingService.defer(item.records().credit());
+            }
+            transferAuditService.submit(audited(item.records(), item.deferCredit()));
+            results.get(item.index()).setTransferId(item.records().debit().getId());
+        }
+        accountBalanceCache.evictAfterCommit(applied.stream()
+                .flatMap(item -> Stream.of(item.records().transfer().getFromAccountId(), item.records().transfer().getToAccountId()))
+                .collect(Collectors.toSet()));
+        return results;
+    }
+
+    /**
+     * Locks the row of every account the batch updates, in ascending account id order, before
+     * any item is applied. The items update their rows in their own order, two batches such as
+     * A->B, C->D and D->C, B->A would otherwise each hold a row the other one waits for. A credit
+     * to a hot account goes to a shard and a deferred credit to the coalescer, neither touches
+     * the target's row.
+     */
+    private void lockBatchAccounts(List<ResolvedTransfer> resolvedItems) {
+        Set<Long> accountIds = new TreeSet<>();
+        for (ResolvedTransfer resolved : resolvedItems) {
+            if (resolved == null) {
+                continue;
+            }
+            accountIds.add(resolved.fromAccountId());
+            if (resolved.toShardCount() == 0 && !defersCredit(resolved.toShardCount())) {
+                accountIds.add(resolved.toAccountId());
+            }
+        }
+        if (!accountIds.isEmpty()) {
+            accountRepository.lockAllById(accountIds);
+        }
+    }
+
+    private Map<Long, AccountIdView> findAccounts(Collection<Long> userIds) {
+        return accountRepository.findAccountIdsByUserIds(userIds)
+                .stream()
+                .collect(Collectors.toMap(AccountIdView::getUserId, Function.identity()));
+    }
+
+    private ResolvedTransfer resolve(CreateTransferDto createTransferDto, Map<Long, AccountIdView> accounts) {
+        AccountIdView fromAccount = accounts.get(createTransferDto.getFromAccountId());
+        if (fromAccount == null) {
+            throw metrics.rejected(Outcome.NOT_FOUND, new ResouceNotFoundException("From account not found"));
+        }
+        AccountIdView toAccount = accounts.get(createTransferDto.getToAccountId());
+        if (toAccount == null) {
+            throw metrics.rejected(Outcome.NOT_FOUND, new ResouceNotFoundException("To account not found"));
+        }
+
+        //Validasi amount
+        long amount = transferAmount(createTransferDto);
+
+        if (fromAccount.getId().equals(toAccount.getId())) {
+            throw metrics.rejected(Outcome.SAME_ACCOUNT, new IllegalArgumentException("Cannot transfer to the same account"));
+        }
+        return new ResolvedTransfer(fromAccount.getId(), fromAccount.getShardCount(),
+                toAccount.getId(), toAccount.getShardCount(), amount);
+    }
+
+    private long transferAmount(CreateTransferDto createTransferDto) {
+        long amount;
+        try {
+            amount = Money.toMinorUnits(createTransferDto.getAmount());
+        } catch (IllegalArgumentException ex) {
+            throw metrics.rejected(Outcome.INVALID_AMOUNT, ex);
+        }
+        if (amount <= 0) {
+            throw metrics.rejected(Outcome.INVALID_AMOUNT, new IllegalArgumentException("Transfer amount must be positive"));
+        }
+        return amount;
+    }
+
+    /**
+     * Applies the guarded debit and the credit.
+     *
+     * @return false when the source account lacks balance, in which case no balance has changed
+     */
+    private boolean moveBalance(ResolvedTransfer transfer) {
+        // update the lower account id first so that A->B and B->A transfers queue on the
+        // same row lock instead of deadlocking each other. A credit to a hot account only
+        // locks one of its shards and a deferred credit locks nothing, there is no account
+        // row to order against.
+        if (transfer.toShardCount() > 0 || defersCredit(transfer.toShardCount())
+                || transfer.fromAccountId() < transfer.toAccountId()) {
+            if (!debit(transfer)) {
+                return false;
+            }
+            credit(transfer.toAccountId(), transfer.toShardCount(), transfer.amount());
+            return true;
+        }
+
+        credit(transfer.toAccountId(), transfer.toShardCount(), transfer.amount());
+        if (!debit(transfer)) {
+            // undo the credit, a batch keeps using this transaction for its other items
+            accountRepository.credit(transfer.toAccountId(), -transfer.amount());
+            return false;
+        }
+        return true;
+    }
+
+    private boolean debit(ResolvedTransfer transfer) {
+        if (accountRepository.debitIfSufficient(transfer.fromAccountId(), transfer.amount()) == 1) {
+            return true;
+        }
+        if (transfer.fromShardCount() == 0) {
+            return false;
+        }
+        // a hot account keeps the credits it received on its shards, fold them into the
+        // account row and try once more
+        long claimed = hotAccountService.claimShards(transfer.fromAccountId());
+        if (claimed == 0) {
+            return false;
+        }
+        accountRepository.credit(transfer.fromAccountId(), claimed);
+        return accountRepository.debitIfSufficient(transfer.fromAccountId(), transfer.amount()) == 1;
+    }
+
+    private void credit(Long accountId, int shardCount, long amount) {
+        if (shardCount > 0) {
+            hotAccountService.credit(accountId, shardCount, amount);
+            return;
+        }
+        if (defersCredit(shardCount)) {
+            // applied by the coalescer together with the credit transaction row
+            return;
+        }
+        if (accountRepository.credit(accountId, amount) == 0) {
+            throw new ResouceNotFoundException("To account not found");
+        }
+        hotAccountService.recordCredit(accountId);
+    }
+
+    /**
+     * Credits to regular accounts go through the coalescer when it is enabled, hot accounts
+     * keep crediting their shards.
+     */
+    private boolean defersCredit(int toShardCount) {
+        return toShardCount == 0 && creditCoalescingService.isEnabled();
+    }
+
+    /**
+     * Writes the transfer row and its debit/credit transactions. A deferred credit transaction
+     * is handed to the coalescer, which inserts it when it applies the credit.
+     */
+    private TransferRecords recordTransfer(Long fromAccountId, Long toAccountId, long amount, boolean deferCredit) {
+        Transfer transfer = newTransfer(fromAccountId, toAccountId, amount);
+        metrics.time(Phase.TRANSFER_INSERT, () -> {
+            transferRepository.save(transfer);
+            transferRepository.flush();
+        });
+
+        Transaction debitTx = newTransaction(fromAccountId, "debit", "transfer_out", amount);
+        Transaction creditTx = newTransaction(toAccountId, "credit", "transfer_in", amount);
+        metrics.time(Phase.TRANSACTION_INSERT, () -> {
+            debitTx.setTransferId(transfer.getId());
+            transactionRepository.save(debitTx);
+
+            creditTx.setTransferId(transfer.getId());
+            if (deferCredit) {
+                creditCoalescingService.defer(creditTx);
+            } else {
+                transactionRepository.save(creditTx);
+            }
+            transactionRepository.flush();
+            transactionCountService.countInserted(deferCredit ? List.of(debitTx) : List.of(debitTx, creditTx));
+        });
+
+        return new TransferRecords(transfer, debitTx, creditTx);
+    }
+
+    private AuditedTransfer audited(TransferRecords records, boolean deferCredit) {
+        Transfer transfer = records.transfer();
+        return new AuditedTransfer(transfer.getId(), transfer.getFromAccountId(), transfer.getToAccountId(),
+                transfer.getAmount(), deferCredit);
+    }
+
+    private Transfer newTransfer(Long fromAccountId, Long toAccountId, long amount) {
+        Transfer transfer = new Transfer();
+        transfer.setFromAccountId(fromAccountId);
+        transfer.setToAccountId(toAccountId);
+        transfer.setAmount(amount);
+        transfer.setDate(LocalDateTime.now());
+        return transfer;
+    }
+
+    private Transaction newTransaction(Long accountId, String type, String category, long amount) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(accountId);
+        transaction.setType(type);
+        transaction.setAmount(amount);
+        transaction.setCategory(category);
+        transaction.setStatus("success");
+        // the column keeps microseconds, history cursors compare against the stored value
+        transaction.setDate(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        return transaction;
+    }
+
+    private ResponseCreateTransferDto transferResult(Long transferId, String message, String status) {
+        ResponseCreateTransferDto result = new ResponseCreateTransferDto();
+        result.setTransferId(transferId);
+        result.setMessage(message);
+        result.setStatus(status);
+        return result;
+    }
+
+    private record ResolvedTransfer(Long fromAccountId, int fromShardCount, Long toAccountId, int toShardCount, long amount) {
+    }
+
+    private record AccountPair(Account from, Account to) {
+    }
+
+    private record TransferRecords(Transfer transfer, Transaction debit, Transaction credit) {
+    }
 
-        return debitTx.getId();
+    // an applied batch item and its position in the batch
+    private record BatchItem(int index, TransferRecords records, boolean deferCredit) {
     }
 }
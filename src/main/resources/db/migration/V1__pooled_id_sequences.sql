@@ -0,0 +1,27 @@
+-- users, accounts, transfers and transactions take their ids from pooled sequences
+-- (allocationSize 50) instead of their IDENTITY columns. Hibernate uses the 50 ids up to
+-- each value it fetches, so on an existing database every sequence is moved 50 past the
+-- highest id already stored. The IDENTITY defaults stay in place and are no longer used.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS accounts_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS transfers_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS transactions_seq START WITH 1 INCREMENT BY 50;
+
+DO $$
+DECLARE
+    entry RECORD;
+BEGIN
+    FOR entry IN
+        SELECT * FROM (VALUES ('users', 'users_seq'),
+                              ('accounts', 'accounts_seq'),
+                              ('transfers', 'transfers_seq'),
+                              ('transactions', 'transactions_seq')) AS ids(table_name, sequence_name)
+    LOOP
+        -- a fresh database gets its tables from Hibernate after this migration
+        IF to_regclass(entry.table_name) IS NOT NULL THEN
+            EXECUTE format('SELECT setval(%L, (SELECT COALESCE(MAX(id), 0) FROM %I) + 50)',
+                           entry.sequence_name, entry.table_name);
+        END IF;
+    END LOOP;
+END $$;
@@ -0,0 +1,25 @@
+-- balances and amounts are stored as bigint minor units (cents) instead of double precision.
+-- Existing values are rounded to the nearest cent while converting. Columns that are already
+-- bigint, or tables that do not exist yet, are left to Hibernate.
+
+DO $$
+DECLARE
+    entry RECORD;
+BEGIN
+    FOR entry IN
+        SELECT * FROM (VALUES ('accounts', 'balance'),
+                              ('account_shards', 'balance'),
+                              ('transactions', 'amount'),
+                              ('transfers', 'amount'),
+                              ('queued_transfers', 'amount')) AS money(table_name, column_name)
+    LOOP
+        IF EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema()
+                     AND table_name = entry.table_name
+                     AND column_name = entry.column_name
+                     AND data_type = 'double precision') THEN
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN %I TYPE bigint USING round(%I * 100)::bigint',
+                           entry.table_name, entry.column_name, entry.column_name);
+        END IF;
+    END LOOP;
+END $$;
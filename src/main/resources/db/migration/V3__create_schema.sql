@@ -0,0 +1,87 @@
+-- the schema is owned by migrations from here on instead of ddl-auto. A fresh database gets
+-- every table here, one created by ddl-auto before this migration keeps the tables it has
+-- and gets the columns the entities gained since, at the end of this file.
+-- Definitions match what Hibernate generated for the entities, the unique constraints keep
+-- the names PostgreSQL gives them (<table>_<column>_key).
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS accounts_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS transfers_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS transactions_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS users (
+    id bigint NOT NULL,
+    user_name varchar(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS accounts (
+    id bigint NOT NULL,
+    user_id bigint UNIQUE REFERENCES users (id),
+    balance bigint NOT NULL,
+    version bigint DEFAULT 0 NOT NULL,
+    shard_count integer DEFAULT 0 NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS account_shards (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    account_id bigint,
+    shard_no integer NOT NULL,
+    balance bigint NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE (account_id, shard_no)
+);
+
+CREATE TABLE IF NOT EXISTS transfers (
+    id bigint NOT NULL,
+    from_account_id bigint,
+    to_account_id bigint,
+    amount bigint NOT NULL,
+    date timestamp(6),
+    ledger_partition integer,
+    ledger_sequence bigint UNIQUE,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS transactions (
+    id bigint NOT NULL,
+    account_id bigint,
+    amount bigint NOT NULL,
+    type varchar(255),
+    transfer_id bigint,
+    category varchar(255),
+    status varchar(255),
+    description varchar(255),
+    date timestamp(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS queued_transfers (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    from_user_id bigint,
+    to_user_id bigint,
+    amount bigint NOT NULL,
+    status varchar(255),
+    message varchar(255),
+    transaction_id bigint,
+    created_at timestamp(6),
+    started_at timestamp(6),
+    completed_at timestamp(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    idempotency_key varchar(255) NOT NULL UNIQUE,
+    transfer_id bigint,
+    created_at timestamp(6),
+    PRIMARY KEY (id)
+);
+
+-- tables created by ddl-auto from the original entities lack these columns; existing accounts
+-- start at version 0 without shards, existing transfers were not made by the ledger
+ALTER TABLE accounts ADD COLUMN IF NOT EXISTS version bigint DEFAULT 0 NOT NULL;
+ALTER TABLE accounts ADD COLUMN IF NOT EXISTS shard_count integer DEFAULT 0 NOT NULL;
+ALTER TABLE transfers ADD COLUMN IF NOT EXISTS ledger_partition integer;
+ALTER TABLE transfers ADD COLUMN IF NOT EXISTS ledger_sequence bigint UNIQUE;
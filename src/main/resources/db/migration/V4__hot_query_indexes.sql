@@ -0,0 +1,22 @@
+-- indexes for the queries every request runs. CONCURRENTLY keeps writes going while a
+-- populated table is indexed, Flyway runs a migration made only of such statements outside
+-- a transaction. An index whose build failed stays behind as INVALID and IF NOT EXISTS
+-- skips it on the next run, drop it before migrating again.
+
+-- GET /transactions: rows of one account newest first, served in index order without a sort.
+-- The count of a page request reads the index alone.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_account_date_id
+    ON transactions (account_id, date DESC, id DESC);
+
+-- TransactionRepository.findByTransferId, the two rows a transfer wrote
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_transfer_id
+    ON transactions (transfer_id);
+
+-- AccountRepository.findByUserId, on every transfer and balance read. Databases created by
+-- ddl-auto already have it under this name from the one-to-one mapping.
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS accounts_user_id_key
+    ON accounts (user_id);
+
+-- the queue workers' poll, declared on QueuedTransfer
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_queued_transfers_status_id
+    ON queued_transfers (status, id);
@@ -0,0 +1,18 @@
+-- per-account number of transactions rows, raised by every writer of history rows in the
+-- same transaction. GET /transactions?include_total=true reads it instead of counting the
+-- account's rows. Existing accounts are counted once here, rows an older instance writes
+-- while this runs are not. Hot accounts get no counter, their total is counted on request.
+-- The backfill reads accounts.shard_count, which V3 adds to accounts tables created by
+-- ddl-auto before migrations existed.
+
+CREATE TABLE IF NOT EXISTS transaction_counts (
+    account_id bigint NOT NULL,
+    transaction_count bigint NOT NULL,
+    PRIMARY KEY (account_id)
+);
+
+INSERT INTO transaction_counts (account_id, transaction_count)
+SELECT a.id, (SELECT COUNT(*) FROM transactions t WHERE t.account_id = a.id)
+FROM accounts a
+WHERE a.shard_count = 0
+ON CONFLICT (account_id) DO NOTHING;
@@ -0,0 +1,4 @@
+-- SHA-256 of the request an Idempotency-Key was first used with, a reuse of the key with
+-- another request is rejected. Keys stored before this column existed are not compared.
+
+ALTER TABLE idempotency_keys ADD COLUMN IF NOT EXISTS request_hash varchar(64);
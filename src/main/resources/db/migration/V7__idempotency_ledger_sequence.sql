@@ -0,0 +1,4 @@
+-- Ledger sequence of a transfer the ledger engine executed for an Idempotency-Key, its
+-- transaction ids are only known once the transfer is written behind.
+
+ALTER TABLE idempotency_keys ADD COLUMN IF NOT EXISTS ledger_sequence bigint;
@@ -0,0 +1,135 @@
+package com.transaction.transaction.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+
+class ConcurrencyLimitFilterTest {
+
+    private TransferProperties transferProperties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        transferProperties = new TransferProperties();
+        transferProperties.getConcurrency().setLimitEnabled(true);
+        transferProperties.getConcurrency().setAcquireTimeout(Duration.ofMillis(50));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    // mvn test -Dtest=ConcurrencyLimitFilterTest#testLimitDefaultsToPoolSize
+    // Test: no max-requests configured, Hikari pool of 7 connections
+    // Expected: The filter admits 7 requests at a time
+    @Test
+    void testLimitDefaultsToPoolSize() {
+        // Arrange
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setMaximumPoolSize(7);
+
+            // Act
+            ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(transferProperties, dataSource, meterRegistry);
+
+            // Assert
+            assertEquals(7, filter.getMaxRequests());
+        }
+    }
+
+    // mvn test -Dtest=ConcurrencyLimitFilterTest#testRequestOverTheLimitIsRejected
+    // Test: limit of one, a second request arrives while the first one is still handled
+    // Expected: The second request is rejected with 503 after the acquire timeout, the first completes
+    @Test
+    void testRequestOverTheLimitIsRejected() throws Exception {
+        // Arrange
+        transferProperties.getConcurrency().setMaxRequests(1);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(transferProperties, new HikariDataSource(), meterRegistry);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain blockingChain = (request, response) -> {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+        Thread first = new Thread(() -> {
+            try {
+                filter.doFilter(new MockHttpServletRequest("POST", "/transfer"), firstResponse, blockingChain);
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        first.start();
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        // Act
+        MockHttpServletResponse secondResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/transfer"), secondResponse, new MockFilterChain());
+        release.countDown();
+        first.join(5_000);
+
+        // Assert
+        assertEquals(503, secondResponse.getStatus());
+        assertTrue(secondResponse.getContentAsString().contains("\"status\":\"failure\""));
+        assertEquals(200, firstResponse.getStatus());
+        assertEquals(1.0, meterRegistry.get("http.concurrency.rejected").counter().count());
+    }
+
+    // mvn test -Dtest=ConcurrencyLimitFilterTest#testPermitReleasedAfterFailure
+    // Test: limit of one, the first request fails inside the chain
+    // Expected: The permit is returned and the next request is handled
+    @Test
+    void testPermitReleasedAfterFailure() throws Exception {
+        // Arrange
+        transferProperties.getConcurrency().setMaxRequests(1);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(transferProperties, new HikariDataSource(), meterRegistry);
+        FilterChain failingChain = (request, response) -> {
+            throw new IllegalStateException("handler failed");
+        };
+
+        // Act
+        assertThrows(IllegalStateException.class, () ->
+                filter.doFilter(new MockHttpServletRequest("GET", "/balance"), new MockHttpServletResponse(), failingChain));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/balance"), response, new MockFilterChain());
+
+        // Assert
+        assertEquals(200, response.getStatus());
+    }
+
+    // mvn test -Dtest=ConcurrencyLimitFilterTest#testActuatorIsNotLimited
+    // Test: the only permit is taken and a health check arrives
+    // Expected: The health check passes the filter without a permit
+    @Test
+    void testActuatorIsNotLimited() throws Exception {
+        // Arrange
+        transferProperties.getConcurrency().setMaxRequests(1);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(transferProperties, new HikariDataSource(), meterRegistry);
+        MockHttpServletResponse healthResponse = new MockHttpServletResponse();
+        FilterChain chainCallingHealth = (request, response) ->
+                filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), healthResponse, new MockFilterChain());
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/balance"), new MockHttpServletResponse(), chainCallingHealth);
+
+        // Assert
+        assertEquals(200, healthResponse.getStatus());
+        assertEquals(0.0, meterRegistry.get("http.concurrency.rejected").counter().count());
+    }
+}
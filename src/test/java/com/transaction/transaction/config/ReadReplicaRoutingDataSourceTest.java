@@ -0,0 +1,105 @@
+package com.transaction.transaction.config;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class ReadReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replicaConnection;
+
+    private ReadReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        routingDataSource = new ReadReplicaRoutingDataSource(primary, replica,
+                List.of("TransactionServiceImpl.getHistoryTransaction"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setCurrentTransactionName(null);
+    }
+
+    // mvn test -Dtest=ReadReplicaRoutingDataSourceTest#testReadOnlyTransactionOfListedMethodUsesReplica
+    // Test: read-only transaction opened by a method on the replica list
+    // Expected: The connection comes from the replica
+    @Test
+    void testReadOnlyTransactionOfListedMethodUsesReplica() throws Exception {
+        // Arrange
+        transaction("com.transaction.transaction.services.impl.TransactionServiceImpl.getHistoryTransaction", true);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        // Act
+        Connection connection = routingDataSource.getConnection();
+
+        // Assert
+        assertSame(replicaConnection, connection);
+        verify(primary, never()).getConnection();
+    }
+
+    // mvn test -Dtest=ReadReplicaRoutingDataSourceTest#testReadOnlyTransactionOfOtherMethodUsesPrimary
+    // Test: read-only transaction opened by a method that is not on the replica list
+    // Expected: The connection comes from the primary
+    @Test
+    void testReadOnlyTransactionOfOtherMethodUsesPrimary() throws Exception {
+        // Arrange
+        transaction("com.transaction.transaction.services.impl.AccountServiceImpl.getAccountBalance", true);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        // Act
+        Connection connection = routingDataSource.getConnection();
+
+        // Assert
+        assertSame(primaryConnection, connection);
+        verify(replica, never()).getConnection();
+    }
+
+    // mvn test -Dtest=ReadReplicaRoutingDataSourceTest#testReadWriteTransactionUsesPrimary
+    // Test: read-write transaction opened by a method on the replica list
+    // Expected: The connection comes from the primary
+    @Test
+    void testReadWriteTransactionUsesPrimary() throws Exception {
+        // Arrange
+        transaction("com.transaction.transaction.services.impl.TransactionServiceImpl.getHistoryTransaction", false);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        // Act
+        Connection connection = routingDataSource.getConnection();
+
+        // Assert
+        assertSame(primaryConnection, connection);
+        verify(replica, never()).getConnection();
+    }
+
+    private void transaction(String name, boolean readOnly) {
+        TransactionSynchronizationManager.setCurrentTransactionName(name);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+}
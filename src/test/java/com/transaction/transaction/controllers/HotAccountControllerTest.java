@@ -0,0 +1,89 @@
+package com.transaction.transaction.controllers;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.transaction.transaction.exceptions.GlobalExceptionHandler;
+import com.transaction.transaction.services.HotAccountService;
+
+@ExtendWith(MockitoExtension.class)
+class HotAccountControllerTest {
+
+    @Mock
+    private HotAccountService hotAccountService;
+
+    @InjectMocks
+    private HotAccountController hotAccountController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(hotAccountController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    // mvn test -Dtest=HotAccountControllerTest#testMarkAccountHot
+    // Test: mark an account hot without a shard count
+    // Expected: HTTP 200, shard count chosen by the service returned
+    @Test
+    void testMarkAccountHot() throws Exception {
+        // Arrange
+        when(hotAccountService.markHot(1L, null)).thenReturn(8);
+
+        // Act & Assert
+        mockMvc.perform(post("/hot-account")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"user_id\": 1}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user_id").value(1L))
+                .andExpect(jsonPath("$.hot").value(true))
+                .andExpect(jsonPath("$.shards").value(8));
+    }
+
+    // mvn test -Dtest=HotAccountControllerTest#testMarkAccountNormal
+    // Test: set the shard count of an account to zero
+    // Expected: HTTP 200, account turned back into a regular one
+    @Test
+    void testMarkAccountNormal() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/hot-account")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"user_id\": 1, \"shards\": 0}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hot").value(false))
+                .andExpect(jsonPath("$.shards").value(0));
+
+        verify(hotAccountService).markNormal(1L);
+    }
+
+    // mvn test -Dtest=HotAccountControllerTest#testNegativeShardsRejected
+    // Test: request with a negative shard count
+    // Expected: HTTP 400, service not called
+    @Test
+    void testNegativeShardsRejected() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/hot-account")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"user_id\": 1, \"shards\": -2}"))
+                .andExpect(status().isBadRequest());
+
+        verify(hotAccountService, never()).markNormal(anyLong());
+    }
+}
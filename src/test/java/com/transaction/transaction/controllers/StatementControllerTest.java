@@ -0,0 +1,126 @@
+package com.transaction.transaction.controllers;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.YearMonth;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.transaction.transaction.dto.ResponseStatementJobDto;
+import com.transaction.transaction.exceptions.GlobalExceptionHandler;
+import com.transaction.transaction.exceptions.ResouceNotFoundException;
+import com.transaction.transaction.exceptions.StatementJobRunningException;
+import com.transaction.transaction.services.StatementService;
+
+@ExtendWith(MockitoExtension.class)
+class StatementControllerTest {
+
+    @Mock
+    private StatementService statementService;
+
+    @InjectMocks
+    private StatementController statementController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(statementController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    // mvn test -Dtest=StatementControllerTest#testStartStatements
+    // Test: start the statements of a past month
+    // Expected: HTTP 202 with the status of the started job
+    @Test
+    void testStartStatements() throws Exception {
+        // Arrange
+        ResponseStatementJobDto job = new ResponseStatementJobDto();
+        job.setMonth("2026-09");
+        job.setStatus("running");
+        job.setPartitions(12);
+        when(statementService.start(YearMonth.of(2026, 9))).thenReturn(job);
+
+        // Act & Assert
+        mockMvc.perform(post("/statements")
+                .param("month", "2026-09"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.month").value("2026-09"))
+                .andExpect(jsonPath("$.status").value("running"))
+                .andExpect(jsonPath("$.partitions").value(12));
+    }
+
+    // mvn test -Dtest=StatementControllerTest#testStartStatementsWhileOtherMonthRuns
+    // Test: start a month while the statements of another month are being written
+    // Expected: HTTP 409 naming the running month
+    @Test
+    void testStartStatementsWhileOtherMonthRuns() throws Exception {
+        // Arrange
+        when(statementService.start(YearMonth.of(2026, 8)))
+                .thenThrow(new StatementJobRunningException("The statements for 2026-09 are being written, start 2026-08 once that job has finished"));
+
+        // Act & Assert
+        mockMvc.perform(post("/statements")
+                .param("month", "2026-08"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("The statements for 2026-09 are being written, start 2026-08 once that job has finished"));
+    }
+
+    // mvn test -Dtest=StatementControllerTest#testStartStatementsWithInvalidMonth
+    // Test: month that is not yyyy-MM
+    // Expected: HTTP 400, no job started
+    @Test
+    void testStartStatementsWithInvalidMonth() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/statements")
+                .param("month", "september"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid parameter type for 'month'"));
+
+        verifyNoInteractions(statementService);
+    }
+
+    // mvn test -Dtest=StatementControllerTest#testStartStatementsForCurrentMonth
+    // Test: month that is not over yet
+    // Expected: HTTP 400 with the service's message
+    @Test
+    void testStartStatementsForCurrentMonth() throws Exception {
+        // Arrange
+        YearMonth month = YearMonth.now();
+        when(statementService.start(month))
+                .thenThrow(new IllegalArgumentException("Statements can only be written for past months"));
+
+        // Act & Assert
+        mockMvc.perform(post("/statements")
+                .param("month", month.toString()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Statements can only be written for past months"));
+    }
+
+    // mvn test -Dtest=StatementControllerTest#testGetStatementStatusWithoutJob
+    // Test: ask for the progress before any job ran
+    // Expected: HTTP 404
+    @Test
+    void testGetStatementStatusWithoutJob() throws Exception {
+        // Arrange
+        when(statementService.getStatus()).thenThrow(new ResouceNotFoundException("No statement job has run"));
+
+        // Act & Assert
+        mockMvc.perform(get("/statements/status"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("No statement job has run"));
+    }
+}
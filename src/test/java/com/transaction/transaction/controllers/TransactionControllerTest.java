@@ -1,11 +1,21 @@
 package com.transaction.transaction.controllers;
 
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -17,11 +27,13 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import com.transaction.transaction.dto.ResponseHistoryTransactionDto;
 import com.transaction.transaction.dto.ResponseTransactionDTO;
 import com.transaction.transaction.exceptions.GlobalExceptionHandler;
+import com.transaction.transaction.services.TransactionExportService;
 import com.transaction.transaction.services.TransactionService;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +42,9 @@ class TransactionControllerTest {
     @Mock
     private TransactionService transactionService;
 
+    @Mock
+    private TransactionExportService transactionExportService;
+
     @InjectMocks
     private TransactionController transactionController;
 
@@ -81,7 +96,7 @@ class TransactionControllerTest {
         response.setAccountId(accountId);
         response.setTransactions(transactions);
 
-        when(transactionService.getHistoryTransaction(accountId, page, size))
+        when(transactionService.getHistoryTransaction(accountId, page, size, false))
                 .thenReturn(response);
 
         // Act & Assert
@@ -114,7 +129,7 @@ class TransactionControllerTest {
         response.setAccountId(accountId);
         response.setTransactions(new ArrayList<>());
 
-        when(transactionService.getHistoryTransaction(accountId, defaultPage, defaultSize))
+        when(transactionService.getHistoryTransaction(accountId, defaultPage, defaultSize, false))
                 .thenReturn(response);
 
         // Act & Assert
@@ -140,7 +155,7 @@ class TransactionControllerTest {
         response.setAccountId(accountId);
         response.setTransactions(new ArrayList<>());
 
-        when(transactionService.getHistoryTransaction(accountId, page, size))
+        when(transactionService.getHistoryTransaction(accountId, page, size, false))
                 .thenReturn(response);
 
         // Act & Assert
@@ -178,7 +193,7 @@ class TransactionControllerTest {
         response.setAccountId(accountId);
         response.setTransactions(transactions);
 
-        when(transactionService.getHistoryTransaction(accountId, page, size))
+        when(transactionService.getHistoryTransaction(accountId, page, size, false))
                 .thenReturn(response);
 
         // Act & Assert
@@ -191,6 +206,69 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$.transactions.length()").value(1));
     }
 
+    // mvn test -Dtest=TransactionControllerTest#testGetHistoryTransactionWithCursor
+    // Test: get transaction history with the next_cursor of a previous page
+    // Expected: HTTP 200, the page after the cursor and its own next_cursor
+    @Test
+    void testGetHistoryTransactionWithCursor() throws Exception {
+        // Arrange
+        Long accountId = 100L;
+        ResponseHistoryTransactionDto response = new ResponseHistoryTransactionDto();
+        response.setAccountId(accountId);
+        response.setTransactions(new ArrayList<>());
+        response.setNextCursor("next");
+
+        when(transactionService.getHistoryTransaction(accountId, "previous", 5, false))
+                .thenReturn(response);
+
+        // Act & Assert
+        mockMvc.perform(get("/transactions")
+                .param("account_id", accountId.toString())
+                .param("cursor", "previous")
+                .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.next_cursor").value("next"));
+    }
+
+    // mvn test -Dtest=TransactionControllerTest#testGetHistoryTransactionWithTotal
+    // Test: get transaction history with include_total
+    // Expected: HTTP 200, has_next and total_transactions in the response
+    @Test
+    void testGetHistoryTransactionWithTotal() throws Exception {
+        // Arrange
+        Long accountId = 100L;
+        ResponseHistoryTransactionDto response = new ResponseHistoryTransactionDto();
+        response.setAccountId(accountId);
+        response.setTransactions(new ArrayList<>());
+        response.setHasNext(true);
+        response.setTotalTransactions(42L);
+
+        when(transactionService.getHistoryTransaction(accountId, 0, 10, true))
+                .thenReturn(response);
+
+        // Act & Assert
+        mockMvc.perform(get("/transactions")
+                .param("account_id", accountId.toString())
+                .param("include_total", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.has_next").value(true))
+                .andExpect(jsonPath("$.total_transactions").value(42));
+    }
+
+    // mvn test -Dtest=TransactionControllerTest#testGetHistoryTransactionWithPageAndCursor
+    // Test: get transaction history with both a page number and a cursor
+    // Expected: HTTP 400 Bad Request
+    @Test
+    void testGetHistoryTransactionWithPageAndCursor() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/transactions")
+                .param("account_id", "100")
+                .param("page", "2")
+                .param("cursor", "previous"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("page and cursor cannot be combined"));
+    }
+
     // mvn test -Dtest=TransactionControllerTest#testGetHistoryTransactionWithInvalidAccountId
     // Test: get transaction history with invalid accountId
     // Expected: HTTP 400 Bad Request
@@ -241,7 +319,7 @@ class TransactionControllerTest {
         response.setAccountId(accountId);
         response.setTransactions(transactions);
 
-        when(transactionService.getHistoryTransaction(accountId, 0, 10))
+        when(transactionService.getHistoryTransaction(accountId, 0, 10, false))
                 .thenReturn(response);
 
         // Act & Assert
@@ -273,7 +351,7 @@ class TransactionControllerTest {
         response.setAccountId(accountId);
         response.setTransactions(new ArrayList<>());
 
-        when(transactionService.getHistoryTransaction(accountId, page, size))
+        when(transactionService.getHistoryTransaction(accountId, page, size, false))
                 .thenReturn(response);
 
         // Act & Assert
@@ -284,4 +362,68 @@ class TransactionControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.transactions").isArray());
     }
+
+    // mvn test -Dtest=TransactionControllerTest#testExportTransactionsStreamsNdjson
+    // Test: export of an account without a format
+    // Expected: HTTP 200 written asynchronously, NDJSON as an attachment with the rows of the export service
+    @Test
+    void testExportTransactionsStreamsNdjson() throws Exception {
+        // Arrange
+        Long accountId = 100L;
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        }).when(transactionExportService).export(eq(accountId), eq(TransactionExportService.Format.NDJSON), any(OutputStream.class));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/transactions/export")
+                .param("account_id", accountId.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"transactions-100.ndjson\""))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+    }
+
+    // mvn test -Dtest=TransactionControllerTest#testExportTransactionsAsCsv
+    // Test: export with format=CSV in upper case
+    // Expected: HTTP 200, text/csv attachment
+    @Test
+    void testExportTransactionsAsCsv() throws Exception {
+        // Arrange
+        Long accountId = 100L;
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/transactions/export")
+                .param("account_id", accountId.toString())
+                .param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"transactions-100.csv\""));
+    }
+
+    // mvn test -Dtest=TransactionControllerTest#testExportTransactionsWithUnknownFormat
+    // Test: export with a format that is neither ndjson nor csv
+    // Expected: HTTP 400, nothing exported
+    @Test
+    void testExportTransactionsWithUnknownFormat() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/transactions/export")
+                .param("account_id", "100")
+                .param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unsupported export format: xml"));
+
+        verifyNoInteractions(transactionExportService);
+    }
 }
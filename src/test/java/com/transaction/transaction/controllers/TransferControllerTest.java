@@ -1,11 +1,18 @@
 package com.transaction.transaction.controllers;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,8 +25,14 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 
 import com.transaction.transaction.dto.CreateTransferDto;
+import com.transaction.transaction.dto.ResponseCreateTransferDto;
+import com.transaction.transaction.dto.ResponseTransferStatusDto;
 import com.transaction.transaction.exceptions.GlobalExceptionHandler;
+import com.transaction.transaction.exceptions.IdempotencyKeyMismatchException;
+import com.transaction.transaction.exceptions.QueueFullException;
 import com.transaction.transaction.exceptions.ResouceNotFoundException;
+import com.transaction.transaction.services.IdempotentTransferService;
+import com.transaction.transaction.services.TransferQueueService;
 import com.transaction.transaction.services.TransferService;
 
 import tools.jackson.databind.ObjectMapper;
@@ -30,6 +43,12 @@ class TransferControllerTest {
     @Mock
     private TransferService transferService;
 
+    @Mock
+    private IdempotentTransferService idempotentTransferService;
+
+    @Mock
+    private TransferQueueService transferQueueService;
+
     @InjectMocks
     private TransferController transferController;
 
@@ -59,7 +78,7 @@ class TransferControllerTest {
         Long transferId = 100L;
 
         when(transferService.createTransfer(any(CreateTransferDto.class)))
-                .thenReturn(transferId);
+                .thenReturn(success(transferId));
 
         // Act & Assert
         mockMvc.perform(post("/transfer")
@@ -67,10 +86,35 @@ class TransferControllerTest {
                 .content(objectMapper.writeValueAsString(createTransferDto)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.transfer_id").value(transferId))
+                .andExpect(jsonPath("$.ledger_sequence").doesNotExist())
                 .andExpect(jsonPath("$.message").value("Transfer successful"))
                 .andExpect(jsonPath("$.status").value("success"));
     }
 
+    // mvn test -Dtest=TransferControllerTest#testCreateTransferOnLedger
+    // Test: create transfer while the ledger engine executes transfers
+    // Expected: HTTP 200 with the ledger sequence and no transfer id
+    @Test
+    void testCreateTransferOnLedger() throws Exception {
+        // Arrange
+        CreateTransferDto createTransferDto = new CreateTransferDto();
+        createTransferDto.setFromAccountId(1L);
+        createTransferDto.setToAccountId(2L);
+        createTransferDto.setAmount(500.0);
+
+        ResponseCreateTransferDto result = success(null);
+        result.setLedgerSequence(7L);
+        when(transferService.createTransfer(any(CreateTransferDto.class))).thenReturn(result);
+
+        // Act & Assert
+        mockMvc.perform(post("/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createTransferDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transfer_id").isEmpty())
+                .andExpect(jsonPath("$.ledger_sequence").value(7L));
+    }
+
     // mvn test -Dtest=TransferControllerTest#testCreateTransferWithNullFromAccountId
     // Test: create transfer with null fromAccountId
     // Expected: HTTP 400 Bad Request
@@ -282,7 +326,7 @@ class TransferControllerTest {
         Long transferId = 200L;
 
         when(transferService.createTransfer(any(CreateTransferDto.class)))
-                .thenReturn(transferId);
+                .thenReturn(success(transferId));
 
         // Act & Assert
         mockMvc.perform(post("/transfer")
@@ -312,7 +356,7 @@ class TransferControllerTest {
         Long transferId = 300L;
 
         when(transferService.createTransfer(any(CreateTransferDto.class)))
-                .thenReturn(transferId);
+                .thenReturn(success(transferId));
 
         // Act & Assert
         mockMvc.perform(post("/transfer")
@@ -321,4 +365,187 @@ class TransferControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.transfer_id").value(transferId));
     }
+
+    // mvn test -Dtest=TransferControllerTest#testCreateTransfersBatchReturnsResultPerItem
+    // Test: create a batch with one successful and one failed transfer
+    // Expected: HTTP 200, one result per item and matching counters
+    @Test
+    void testCreateTransfersBatchReturnsResultPerItem() throws Exception {
+        // Arrange
+        ResponseCreateTransferDto success = new ResponseCreateTransferDto();
+        success.setTransferId(100L);
+        success.setMessage("Transfer successful");
+        success.setStatus("success");
+        ResponseCreateTransferDto failure = new ResponseCreateTransferDto();
+        failure.setMessage("Insufficient balance in the source account");
+        failure.setStatus("failure");
+
+        when(transferService.createTransfers(anyList())).thenReturn(List.of(success, failure));
+
+        String body = "{\"transfers\": ["
+                + "{\"from_account_id\": 1, \"to_account_id\": 2, \"amount\": 100},"
+                + "{\"from_account_id\": 1, \"to_account_id\": 2, \"amount\": 100000}]}";
+
+        // Act & Assert
+        mockMvc.perform(post("/transfers/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results.length()").value(2))
+                .andExpect(jsonPath("$.results[0].transfer_id").value(100L))
+                .andExpect(jsonPath("$.results[1].status").value("failure"));
+    }
+
+    // mvn test -Dtest=TransferControllerTest#testCreateTransfersBatchWithInvalidItem
+    // Test: create a batch containing an item without amount
+    // Expected: HTTP 400 Bad Request
+    @Test
+    void testCreateTransfersBatchWithInvalidItem() throws Exception {
+        // Arrange
+        String body = "{\"transfers\": [{\"from_account_id\": 1, \"to_account_id\": 2}]}";
+
+        // Act & Assert
+        mockMvc.perform(post("/transfers/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isBadRequest());
+    }
+
+    // mvn test -Dtest=TransferControllerTest#testCreateTransfersBatchWithEmptyList
+    // Test: create a batch without transfers
+    // Expected: HTTP 400 Bad Request
+    @Test
+    void testCreateTransfersBatchWithEmptyList() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/transfers/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"transfers\": []}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // mvn test -Dtest=TransferControllerTest#testCreateTransferWithIdempotencyKey
+    // Test: create transfer with an Idempotency-Key header
+    // Expected: HTTP 200, response of the idempotent service, plain transfer service not called
+    @Test
+    void testCreateTransferWithIdempotencyKey() throws Exception {
+        // Arrange
+        ResponseCreateTransferDto response = new ResponseCreateTransferDto();
+        response.setTransferId(100L);
+        response.setMessage("Transfer successful");
+        response.setStatus("success");
+        when(idempotentTransferService.createTransfer(eq("key-1"), any(CreateTransferDto.class))).thenReturn(response);
+
+        // Act & Assert
+        mockMvc.perform(post("/transfer")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"from_account_id\": 1, \"to_account_id\": 2, \"amount\": 100}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transfer_id").value(100L))
+                .andExpect(jsonPath("$.status").value("success"));
+
+        verify(transferService, never()).createTransfer(any(CreateTransferDto.class));
+    }
+
+    // mvn test -Dtest=TransferControllerTest#testCreateTransferWithReusedIdempotencyKey
+    // Test: Idempotency-Key sent again with a different request body
+    // Expected: HTTP 422 Unprocessable Content
+    @Test
+    void testCreateTransferWithReusedIdempotencyKey() throws Exception {
+        // Arrange
+        when(idempotentTransferService.createTransfer(eq("key-1"), any(CreateTransferDto.class)))
+                .thenThrow(new IdempotencyKeyMismatchException("Idempotency-Key was already used with a different request"));
+
+        // Act & Assert
+        mockMvc.perform(post("/transfer")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"from_account_id\": 1, \"to_account_id\": 2, \"amount\": 100}"))
+                .andExpect(status().isUnprocessableContent())
+                .andExpect(jsonPath("$.message").value("Idempotency-Key was already used with a different request"));
+    }
+
+    // mvn test -Dtest=TransferControllerTest#testCreateTransferAsyncAccepted
+    // Test: create transfer while async acceptance is enabled
+    // Expected: HTTP 202, queued response, transfer not executed in the request
+    @Test
+    void testCreateTransferAsyncAccepted() throws Exception {
+        // Arrange
+        ResponseCreateTransferDto response = new ResponseCreateTransferDto();
+        response.setTransferId(7L);
+        response.setMessage("Transfer accepted");
+        response.setStatus("queued");
+        when(transferQueueService.isEnabled()).thenReturn(true);
+        when(transferQueueService.enqueue(any(CreateTransferDto.class))).thenReturn(response);
+
+        // Act & Assert
+        mockMvc.perform(post("/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"from_account_id\": 1, \"to_account_id\": 2, \"amount\": 100}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.transfer_id").value(7L))
+                .andExpect(jsonPath("$.status").value("queued"));
+
+        verify(transferService, never()).createTransfer(any(CreateTransferDto.class));
+    }
+
+    // mvn test -Dtest=TransferControllerTest#testCreateTransferAsyncQueueFull
+    // Test: create transfer while the async queue is at capacity
+    // Expected: HTTP 503 Service Unavailable
+    @Test
+    void testCreateTransferAsyncQueueFull() throws Exception {
+        // Arrange
+        when(transferQueueService.isEnabled()).thenReturn(true);
+        when(transferQueueService.enqueue(any(CreateTransferDto.class)))
+                .thenThrow(new QueueFullException("Transfer queue is full, please retry later"));
+
+        // Act & Assert
+        mockMvc.perform(post("/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"from_account_id\": 1, \"to_account_id\": 2, \"amount\": 100}"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    // mvn test -Dtest=TransferControllerTest#testGetTransferStatus
+    // Test: poll the status of a queued transfer
+    // Expected: HTTP 200, status and transaction id of the executed transfer
+    @Test
+    void testGetTransferStatus() throws Exception {
+        // Arrange
+        ResponseTransferStatusDto response = new ResponseTransferStatusDto();
+        response.setTransferId(7L);
+        response.setStatus("success");
+        response.setMessage("Transfer successful");
+        response.setTransactionId(100L);
+        when(transferQueueService.getStatus(7L)).thenReturn(response);
+
+        // Act & Assert
+        mockMvc.perform(get("/transfer/7/status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("success"))
+                .andExpect(jsonPath("$.transaction_id").value(100L));
+    }
+
+    // mvn test -Dtest=TransferControllerTest#testGetTransferStatusNotFound
+    // Test: poll the status of an unknown transfer
+    // Expected: HTTP 404 Not Found
+    @Test
+    void testGetTransferStatusNotFound() throws Exception {
+        // Arrange
+        when(transferQueueService.getStatus(999L)).thenThrow(new ResouceNotFoundException("Transfer not found"));
+
+        // Act & Assert
+        mockMvc.perform(get("/transfer/999/status"))
+                .andExpect(status().isNotFound());
+    }
+
+    private ResponseCreateTransferDto success(Long transferId) {
+        ResponseCreateTransferDto result = new ResponseCreateTransferDto();
+        result.setTransferId(transferId);
+        result.setMessage("Transfer successful");
+        result.setStatus("success");
+        return result;
+    }
 }
@@ -0,0 +1,84 @@
+package com.transaction.transaction.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.transaction.transaction.dto.CreateAccountDto;
+import com.transaction.transaction.dto.CreateTransferDto;
+import com.transaction.transaction.dto.UpdateBalanceDto;
+import com.transaction.transaction.services.AccountService;
+import com.transaction.transaction.services.TransferQueueService;
+
+// Not @Transactional: queued transfers are executed by the worker threads
+@SpringBootTest(properties = "transfer.async.enabled=true")
+class AsyncTransferIntegrationTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransferQueueService transferQueueService;
+
+    // mvn test -Dtest=AsyncTransferIntegrationTest#testQueuedTransfersAreExecuted
+    // Test: enqueue more transfers than the source balance covers
+    // Expected: Covered transfers succeed, the rest fail, balances match the successful ones
+    @Test
+    void testQueuedTransfersAreExecuted() throws InterruptedException {
+        Long first = createAccountWithBalance("Async A", 100.0);
+        Long second = createAccountWithBalance("Async B", 0.0);
+
+        List<Long> queued = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            queued.add(transferQueueService.enqueue(transfer(first, second, 10.0)).getTransferId());
+        }
+
+        int succeeded = 0;
+        for (Long transferId : queued) {
+            String status = awaitCompletion(transferId);
+            if ("success".equals(status)) {
+                succeeded++;
+            }
+        }
+
+        assertEquals(10, succeeded);
+        assertEquals(0.0, accountService.getAccountBalance(first).getBalance());
+        assertEquals(100.0, accountService.getAccountBalance(second).getBalance());
+    }
+
+    private String awaitCompletion(Long transferId) throws InterruptedException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            String status = transferQueueService.getStatus(transferId).getStatus();
+            if (!"queued".equals(status)) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        return transferQueueService.getStatus(transferId).getStatus();
+    }
+
+    private Long createAccountWithBalance(String userName, double balance) {
+        CreateAccountDto createAccountDto = new CreateAccountDto();
+        createAccountDto.setUserName(userName);
+        Long userId = accountService.createAccount(createAccountDto).getUserId();
+
+        UpdateBalanceDto updateBalanceDto = new UpdateBalanceDto();
+        updateBalanceDto.setUserId(userId);
+        updateBalanceDto.setBalance(balance);
+        accountService.updateBalance(updateBalanceDto);
+        return userId;
+    }
+
+    private CreateTransferDto transfer(Long from, Long to, double amount) {
+        CreateTransferDto createTransferDto = new CreateTransferDto();
+        createTransferDto.setFromAccountId(from);
+        createTransferDto.setToAccountId(to);
+        createTransferDto.setAmount(amount);
+        return createTransferDto;
+    }
+}
@@ -0,0 +1,140 @@
+package com.transaction.transaction.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.transaction.transaction.dto.CreateAccountDto;
+import com.transaction.transaction.dto.CreateTransferDto;
+import com.transaction.transaction.dto.ResponseCreateTransferDto;
+import com.transaction.transaction.dto.UpdateBalanceDto;
+import com.transaction.transaction.repositories.AccountRepository;
+import com.transaction.transaction.repositories.TransactionCountRepository;
+import com.transaction.transaction.repositories.TransactionRepository;
+import com.transaction.transaction.services.AccountService;
+import com.transaction.transaction.services.CreditCoalescingService;
+import com.transaction.transaction.services.TransferService;
+
+// Not @Transactional: credits are buffered only once their transfer committed
+@SpringBootTest(properties = {"transfer.mode=conditional", "transfer.coalescing.enabled=true", "transfer.coalescing.window=20ms"})
+class CoalescedCreditIntegrationTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private CreditCoalescingService creditCoalescingService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionCountRepository transactionCountRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // mvn test -Dtest=CoalescedCreditIntegrationTest#testConcurrentCreditsToOneAccount
+    // Test: many senders credit the same account concurrently
+    // Expected: Balance complete right after the transfers, account row and credit rows complete after the flush
+    @Test
+    void testConcurrentCreditsToOneAccount() throws Exception {
+        Long receiver = createAccountWithBalance("Coalesced receiver", 0.0);
+        List<Long> senders = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            senders.add(createAccountWithBalance("Coalesced sender " + i, 100.0));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Callable<ResponseCreateTransferDto>> tasks = new ArrayList<>();
+        for (Long sender : senders) {
+            for (int i = 0; i < 10; i++) {
+                tasks.add(() -> transferService.createTransfer(transfer(sender, receiver, 5.0)));
+            }
+        }
+        try {
+            for (Future<ResponseCreateTransferDto> result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // buffered credits count as soon as the transfers returned
+        assertEquals(200.0, accountService.getAccountBalance(receiver).getBalance());
+
+        creditCoalescingService.flush();
+        Long receiverAccountId = accountRepository.findByUserId(receiver).orElseThrow().getId();
+        assertEquals(20_000L, accountRepository.findBalanceById(receiverAccountId));
+        assertEquals(40, transactionRepository.countByAccountId(receiverAccountId));
+        // the flush counted the credit rows it inserted
+        assertEquals(40, transactionCountRepository.findTransactionCountByAccountId(receiverAccountId).orElseThrow());
+    }
+
+    // mvn test -Dtest=CoalescedCreditIntegrationTest#testBalanceAfterFlushCommittedDuringRead
+    // Test: the reading transaction already loaded the account when a flush of its credits commits
+    // Expected: The flushed credit counted once, not lost between the stale account and the emptied buffer
+    @Test
+    void testBalanceAfterFlushCommittedDuringRead() throws Exception {
+        Long receiver = createAccountWithBalance("Flushed receiver", 0.0);
+        Long sender = createAccountWithBalance("Flushed sender", 100.0);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        Double balance = readOnly.execute(status -> {
+            accountRepository.findByUserId(receiver).orElseThrow();
+
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                executor.submit(() -> {
+                    transferService.createTransfer(transfer(sender, receiver, 5.0));
+                    creditCoalescingService.flush();
+                }).get();
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            } finally {
+                executor.shutdownNow();
+            }
+            return accountService.getAccountBalance(receiver).getBalance();
+        });
+
+        assertEquals(5.0, balance);
+    }
+
+    private Long createAccountWithBalance(String userName, double balance) {
+        CreateAccountDto createAccountDto = new CreateAccountDto();
+        createAccountDto.setUserName(userName);
+        Long userId = accountService.createAccount(createAccountDto).getUserId();
+
+        UpdateBalanceDto updateBalanceDto = new UpdateBalanceDto();
+        updateBalanceDto.setUserId(userId);
+        updateBalanceDto.setBalance(balance);
+        accountService.updateBalance(updateBalanceDto);
+        return userId;
+    }
+
+    private CreateTransferDto transfer(Long from, Long to, double amount) {
+        CreateTransferDto createTransferDto = new CreateTransferDto();
+        createTransferDto.setFromAccountId(from);
+        createTransferDto.setToAccountId(to);
+        createTransferDto.setAmount(amount);
+        return createTransferDto;
+    }
+}
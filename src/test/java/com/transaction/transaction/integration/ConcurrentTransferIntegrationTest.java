@@ -0,0 +1,118 @@
+package com.transaction.transaction.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.transaction.transaction.dto.CreateAccountDto;
+import com.transaction.transaction.dto.CreateTransferDto;
+import com.transaction.transaction.dto.ResponseCreateTransferDto;
+import com.transaction.transaction.dto.UpdateBalanceDto;
+import com.transaction.transaction.services.AccountService;
+import com.transaction.transaction.services.TransferService;
+
+// Not @Transactional: every transfer has to commit on its own thread for the row locks to matter
+@SpringBootTest(properties = "transfer.mode=pessimistic")
+class ConcurrentTransferIntegrationTest {
+
+    private static final int TRANSFERS_PER_DIRECTION = 50;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransferService transferService;
+
+    private ExecutorService executor;
+    private Long firstUserId;
+    private Long secondUserId;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(8);
+        firstUserId = createAccountWithBalance("Concurrent A", 1000.0);
+        secondUserId = createAccountWithBalance("Concurrent B", 1000.0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    // mvn test -Dtest=ConcurrentTransferIntegrationTest#testOppositeTransfersDoNotDeadlockOrLoseUpdates
+    // Test: run A->B and B->A transfers at the same time with pessimistic locking
+    // Expected: Every transfer succeeds, no update is lost and the total balance is unchanged
+    @Test
+    void testOppositeTransfersDoNotDeadlockOrLoseUpdates() throws Exception {
+        List<Callable<ResponseCreateTransferDto>> tasks = new ArrayList<>();
+        for (int i = 0; i < TRANSFERS_PER_DIRECTION; i++) {
+            tasks.add(() -> transferService.createTransfer(transfer(firstUserId, secondUserId, 3.0)));
+            tasks.add(() -> transferService.createTransfer(transfer(secondUserId, firstUserId, 1.0)));
+        }
+
+        for (Future<ResponseCreateTransferDto> result : executor.invokeAll(tasks)) {
+            result.get();
+        }
+
+        double first = accountService.getAccountBalance(firstUserId).getBalance();
+        double second = accountService.getAccountBalance(secondUserId).getBalance();
+        assertEquals(1000.0 - TRANSFERS_PER_DIRECTION * 2.0, first, 0.001);
+        assertEquals(1000.0 + TRANSFERS_PER_DIRECTION * 2.0, second, 0.001);
+    }
+
+    // mvn test -Dtest=ConcurrentTransferIntegrationTest#testOpposingBatchesDoNotDeadlock
+    // Test: run batches A->B, C->D and D->C, B->A at the same time, their items update the rows in opposite order
+    // Expected: Every item succeeds and the balances add up
+    @Test
+    void testOpposingBatchesDoNotDeadlock() throws Exception {
+        Long thirdUserId = createAccountWithBalance("Concurrent C", 1000.0);
+        Long fourthUserId = createAccountWithBalance("Concurrent D", 1000.0);
+        List<Callable<List<ResponseCreateTransferDto>>> tasks = new ArrayList<>();
+        for (int i = 0; i < TRANSFERS_PER_DIRECTION; i++) {
+            tasks.add(() -> transferService.createTransfers(List.of(
+                    transfer(firstUserId, secondUserId, 1.0), transfer(thirdUserId, fourthUserId, 1.0))));
+            tasks.add(() -> transferService.createTransfers(List.of(
+                    transfer(fourthUserId, thirdUserId, 2.0), transfer(secondUserId, firstUserId, 2.0))));
+        }
+
+        for (Future<List<ResponseCreateTransferDto>> result : executor.invokeAll(tasks)) {
+            result.get().forEach(item -> assertEquals("success", item.getStatus()));
+        }
+
+        assertEquals(1000.0 + TRANSFERS_PER_DIRECTION, accountService.getAccountBalance(firstUserId).getBalance(), 0.001);
+        assertEquals(1000.0 - TRANSFERS_PER_DIRECTION, accountService.getAccountBalance(secondUserId).getBalance(), 0.001);
+        assertEquals(1000.0 + TRANSFERS_PER_DIRECTION, accountService.getAccountBalance(thirdUserId).getBalance(), 0.001);
+        assertEquals(1000.0 - TRANSFERS_PER_DIRECTION, accountService.getAccountBalance(fourthUserId).getBalance(), 0.001);
+    }
+
+    private Long createAccountWithBalance(String userName, double balance) {
+        CreateAccountDto createAccountDto = new CreateAccountDto();
+        createAccountDto.setUserName(userName);
+        Long userId = accountService.createAccount(createAccountDto).getUserId();
+
+        UpdateBalanceDto updateBalanceDto = new UpdateBalanceDto();
+        updateBalanceDto.setUserId(userId);
+        updateBalanceDto.setBalance(balance);
+        accountService.updateBalance(updateBalanceDto);
+        return userId;
+    }
+
+    private CreateTransferDto transfer(Long fromUserId, Long toUserId, double amount) {
+        CreateTransferDto createTransferDto = new CreateTransferDto();
+        createTransferDto.setFromAccountId(fromUserId);
+        createTransferDto.setToAccountId(toUserId);
+        createTransferDto.setAmount(amount);
+        return createTransferDto;
+    }
+}
@@ -0,0 +1,145 @@
+package com.transaction.transaction.integration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.transaction.transaction.dto.CreateAccountDto;
+import com.transaction.transaction.dto.CreateTransferDto;
+import com.transaction.transaction.dto.UpdateBalanceDto;
+import com.transaction.transaction.services.AccountService;
+import com.transaction.transaction.services.TransferService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Counts the JDBC statements and measures the mean latency of the insert-heavy calls. The
+ * statement counts are asserted, the latencies are only logged: they depend on the database
+ * and the machine, on a networked Postgres every saved statement is a saved round trip.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class InsertStatementBenchmarkTest {
+    private static final Logger log = LoggerFactory.getLogger(InsertStatementBenchmarkTest.class);
+
+    private static final int WARMUP = 50;
+    private static final int ITERATIONS = 200;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    // mvn test -Dtest=InsertStatementBenchmarkTest#testCreateAccountStatements
+    // Test: create accounts, count statements and time per call
+    // Expected: The user, account and transaction counter inserts and an occasional sequence call per account
+    @Test
+    void testCreateAccountStatements() {
+        for (int i = 0; i < WARMUP; i++) {
+            createAccount("Warmup " + i);
+        }
+
+        Result result = measure(() -> createAccount("Benchmark"));
+
+        log.info("createAccount: {} statements/call, {} us/call", result.statementsPerCall(), result.microsPerCall());
+        assertTrue(result.statementsPerCall() <= 3.1, "statements per createAccount: " + result.statementsPerCall());
+    }
+
+    // mvn test -Dtest=InsertStatementBenchmarkTest#testCreateTransferStatements
+    // Test: single transfers between two accounts, count statements and time per call
+    // Expected: Both transaction rows go out as one batched insert, not one statement each
+    @Test
+    void testCreateTransferStatements() {
+        Long from = createAccountWithBalance("Benchmark from", 1_000_000.0);
+        Long to = createAccountWithBalance("Benchmark to", 0.0);
+        for (int i = 0; i < WARMUP; i++) {
+            transferService.createTransfer(transfer(from, to, 1.0));
+        }
+
+        Result result = measure(() -> transferService.createTransfer(transfer(from, to, 1.0)));
+
+        log.info("createTransfer: {} statements/call, {} us/call", result.statementsPerCall(), result.microsPerCall());
+        assertTrue(result.statementsPerCall() < 9.5, "statements per createTransfer: " + result.statementsPerCall());
+    }
+
+    // mvn test -Dtest=InsertStatementBenchmarkTest#testCreateTransfersBatchStatements
+    // Test: batches of 100 transfers, count statements per batch
+    // Expected: The 300 rows of a batch need a handful of insert statements instead of 300
+    @Test
+    void testCreateTransfersBatchStatements() {
+        Long from = createAccountWithBalance("Batch from", 1_000_000.0);
+        Long to = createAccountWithBalance("Batch to", 0.0);
+        List<CreateTransferDto> batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            batch.add(transfer(from, to, 1.0));
+        }
+        transferService.createTransfers(batch);
+
+        statistics.clear();
+        long started = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            transferService.createTransfers(batch);
+        }
+        double microsPerBatch = (System.nanoTime() - started) / 10 / 1000.0;
+        double statementsPerBatch = statistics.getPrepareStatementCount() / 10.0;
+
+        log.info("createTransfers(100): {} statements/batch, {} us/batch", statementsPerBatch, microsPerBatch);
+        assertTrue(statementsPerBatch < 250, "statements per batch of 100: " + statementsPerBatch);
+    }
+
+    private Result measure(Runnable call) {
+        statistics.clear();
+        long started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            call.run();
+        }
+        long elapsed = System.nanoTime() - started;
+        return new Result((double) statistics.getPrepareStatementCount() / ITERATIONS, elapsed / ITERATIONS / 1000.0);
+    }
+
+    private Long createAccount(String userName) {
+        CreateAccountDto createAccountDto = new CreateAccountDto();
+        createAccountDto.setUserName(userName);
+        return accountService.createAccount(createAccountDto).getUserId();
+    }
+
+    private Long createAccountWithBalance(String userName, double balance) {
+        Long userId = createAccount(userName);
+        UpdateBalanceDto updateBalanceDto = new UpdateBalanceDto();
+        updateBalanceDto.setUserId(userId);
+        updateBalanceDto.setBalance(balance);
+        accountService.updateBalance(updateBalanceDto);
+        return userId;
+    }
+
+    private CreateTransferDto transfer(Long from, Long to, double amount) {
+        CreateTransferDto createTransferDto = new CreateTransferDto();
+        createTransferDto.setFromAccountId(from);
+        createTransferDto.setToAccountId(to);
+        createTransferDto.setAmount(amount);
+        return createTransferDto;
+    }
+
+    private record Result(double statementsPerCall, double microsPerCall) {
+    }
+}
@@ -0,0 +1,106 @@
+package com.transaction.transaction.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.transaction.transaction.dto.CreateAccountDto;
+import com.transaction.transaction.dto.CreateTransferDto;
+import com.transaction.transaction.dto.ResponseCreateTransferDto;
+import com.transaction.transaction.dto.UpdateBalanceDto;
+import com.transaction.transaction.services.AccountService;
+import com.transaction.transaction.services.TransferService;
+import com.transaction.transaction.services.impl.LedgerTransferService;
+
+// Not @Transactional: the ledger writes to the database on its own thread
+@SpringBootTest(properties = {"transfer.ledger.enabled=true", "transfer.ledger.directory=target/ledger-it"})
+class LedgerTransferIntegrationTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransferService transferService;
+
+    // mvn test -Dtest=LedgerTransferIntegrationTest#testLedgerTransfersReachTheDatabase
+    // Test: concurrent transfers in both directions through the ledger engine
+    // Expected: Every transfer confirmed, database balances catch up with the ledger
+    @Test
+    void testLedgerTransfersReachTheDatabase() throws Exception {
+        assertInstanceOf(LedgerTransferService.class, transferService);
+        Long first = createAccountWithBalance("Ledger A", 1000.0);
+        Long second = createAccountWithBalance("Ledger B", 1000.0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Callable<ResponseCreateTransferDto>> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(() -> transferService.createTransfer(transfer(first, second, 3.0)));
+            tasks.add(() -> transferService.createTransfer(transfer(second, first, 1.0)));
+        }
+        try {
+            for (Future<ResponseCreateTransferDto> result : executor.invokeAll(tasks)) {
+                // the debit transaction is written behind, the ledger answers with its sequence
+                assertNull(result.get().getTransferId());
+                assertNotNull(result.get().getLedgerSequence());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        awaitBalance(first, 800.0);
+        awaitBalance(second, 1200.0);
+    }
+
+    // mvn test -Dtest=LedgerTransferIntegrationTest#testLedgerRejectsOverdraft
+    // Test: transfer larger than the ledger balance
+    // Expected: IllegalArgumentException with the insufficient balance message
+    @Test
+    void testLedgerRejectsOverdraft() {
+        Long first = createAccountWithBalance("Ledger C", 10.0);
+        Long second = createAccountWithBalance("Ledger D", 0.0);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> transferService.createTransfer(transfer(first, second, 10.5)));
+        assertEquals("Insufficient balance in the source account", exception.getMessage());
+    }
+
+    private void awaitBalance(Long userId, double expected) throws InterruptedException {
+        for (int attempt = 0; attempt < 100 && accountService.getAccountBalance(userId).getBalance() != expected; attempt++) {
+            Thread.sleep(50);
+        }
+        assertEquals(expected, accountService.getAccountBalance(userId).getBalance());
+    }
+
+    private Long createAccountWithBalance(String userName, double balance) {
+        CreateAccountDto createAccountDto = new CreateAccountDto();
+        createAccountDto.setUserName(userName);
+        Long userId = accountService.createAccount(createAccountDto).getUserId();
+
+        UpdateBalanceDto updateBalanceDto = new UpdateBalanceDto();
+        updateBalanceDto.setUserId(userId);
+        updateBalanceDto.setBalance(balance);
+        accountService.updateBalance(updateBalanceDto);
+        return userId;
+    }
+
+    private CreateTransferDto transfer(Long from, Long to, double amount) {
+        CreateTransferDto createTransferDto = new CreateTransferDto();
+        createTransferDto.setFromAccountId(from);
+        createTransferDto.setToAccountId(to);
+        createTransferDto.setAmount(amount);
+        return createTransferDto;
+    }
+}
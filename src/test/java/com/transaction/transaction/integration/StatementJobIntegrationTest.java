@@ -0,0 +1,142 @@
+package com.transaction.transaction.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.util.FileSystemUtils;
+
+import com.transaction.transaction.dto.CreateAccountDto;
+import com.transaction.transaction.dto.ResponseStatementJobDto;
+import com.transaction.transaction.dto.UpdateBalanceDto;
+import com.transaction.transaction.entities.Transaction;
+import com.transaction.transaction.repositories.AccountRepository;
+import com.transaction.transaction.repositories.TransactionRepository;
+import com.transaction.transaction.services.AccountService;
+import com.transaction.transaction.services.StatementService;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+// Not @Transactional: the partitions are read on the statement workers
+@SpringBootTest(properties = {"transfer.statements.directory=target/statements-it", "transfer.statements.partition-size=2",
+        "transfer.statements.threads=2"})
+class StatementJobIntegrationTest {
+    private static final Path DIRECTORY = Path.of("target/statements-it");
+
+    @Autowired
+    private StatementService statementService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        FileSystemUtils.deleteRecursively(DIRECTORY);
+    }
+
+    // mvn test -Dtest=StatementJobIntegrationTest#testStatementsOfLastMonth
+    // Test: accounts with rows before, in and after last month, statements written, then the job started again
+    // Expected: Balances worked back from the stored balance, the month's rows only; the second run skips every partition
+    @Test
+    void testStatementsOfLastMonth() throws Exception {
+        YearMonth month = YearMonth.now().minusMonths(1);
+        Long first = accountId(createAccountWithBalance("Statement A", 100.0));
+        Long second = accountId(createAccountWithBalance("Statement B", 15.0));
+        transactionRepository.saveAll(List.of(
+                transaction(first, "credit", 5_000, month.atDay(3).atTime(10, 0)),
+                transaction(first, "debit", 2_000, month.atDay(10).atTime(9, 30)),
+                transaction(first, "credit", 1_000, month.plusMonths(1).atDay(1).atStartOfDay().plusSeconds(1)),
+                transaction(first, "debit", 700, month.minusMonths(1).atDay(20).atStartOfDay()),
+                transaction(second, "credit", 1_500, month.atEndOfMonth().atTime(23, 59))));
+
+        ResponseStatementJobDto job = awaitCompletion(statementService.start(month));
+
+        // 100.00 now, 10.00 credited since the month ended, 50.00 in and 20.00 out during it
+        assertEquals("completed", job.getStatus());
+        assertEquals(job.getPartitions(), job.getPartitionsDone());
+        JsonNode statement = readStatement(month, first);
+        assertEquals(60.0, statement.get("opening_balance").asDouble());
+        assertEquals(90.0, statement.get("closing_balance").asDouble());
+        assertEquals(2, statement.get("transactions").size());
+        assertEquals(50.0, statement.get("transactions").get(0).get("amount").asDouble());
+        assertEquals("debit", statement.get("transactions").get(1).get("type").asString());
+
+        // The second account's statement, merged from the same rows query when both share a partition
+        JsonNode other = readStatement(month, second);
+        assertEquals(0.0, other.get("opening_balance").asDouble());
+        assertEquals(15.0, other.get("closing_balance").asDouble());
+        assertEquals(1, other.get("transactions").size());
+
+        // Started again: every partition is in the checkpoint, nothing is written
+        Files.delete(statementFile(month, first));
+        ResponseStatementJobDto restarted = awaitCompletion(statementService.start(month));
+        assertEquals(restarted.getPartitions(), restarted.getPartitionsSkipped());
+        assertEquals(0, restarted.getPartitionsDone());
+        assertFalse(Files.exists(statementFile(month, first)));
+        assertTrue(Files.exists(statementFile(month, second)));
+    }
+
+    private ResponseStatementJobDto awaitCompletion(ResponseStatementJobDto started) throws InterruptedException {
+        for (int attempt = 0; attempt < 200 && "running".equals(statementService.getStatus().getStatus()); attempt++) {
+            Thread.sleep(50);
+        }
+        ResponseStatementJobDto status = statementService.getStatus();
+        assertEquals(started.getMonth(), status.getMonth());
+        return status;
+    }
+
+    private JsonNode readStatement(YearMonth month, Long accountId) {
+        return objectMapper.readTree(statementFile(month, accountId).toFile());
+    }
+
+    private Path statementFile(YearMonth month, Long accountId) {
+        return DIRECTORY.resolve(month.toString()).resolve(accountId + ".json");
+    }
+
+    private Transaction transaction(Long accountId, String type, long amount, LocalDateTime date) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(accountId);
+        transaction.setType(type);
+        transaction.setCategory("credit".equals(type) ? "transfer_in" : "transfer_out");
+        transaction.setAmount(amount);
+        transaction.setStatus("success");
+        transaction.setDate(date);
+        return transaction;
+    }
+
+    private Long accountId(Long userId) {
+        return accountRepository.findByUserId(userId).orElseThrow().getId();
+    }
+
+    private Long createAccountWithBalance(String userName, double balance) {
+        CreateAccountDto createAccountDto = new CreateAccountDto();
+        createAccountDto.setUserName(userName);
+        Long userId = accountService.createAccount(createAccountDto).getUserId();
+
+        UpdateBalanceDto updateBalanceDto = new UpdateBalanceDto();
+        updateBalanceDto.setUserId(userId);
+        updateBalanceDto.setBalance(balance);
+        accountService.updateBalance(updateBalanceDto);
+        return userId;
+    }
+}
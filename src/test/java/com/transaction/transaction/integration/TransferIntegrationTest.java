@@ -1,22 +1,43 @@
 package com.transaction.transaction.integration;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.transaction.transaction.dto.CreateAccountDto;
 import com.transaction.transaction.dto.CreateTransferDto;
 import com.transaction.transaction.dto.ResponseAccountBalanceDto;
 import com.transaction.transaction.dto.ResponseAccountDto;
+import com.transaction.transaction.dto.ResponseCreateTransferDto;
+import com.transaction.transaction.dto.ResponseHistoryTransactionDto;
+import com.transaction.transaction.dto.ResponseTransactionDTO;
 import com.transaction.transaction.dto.UpdateBalanceDto;
+import com.transaction.transaction.repositories.AccountRepository;
+import com.transaction.transaction.repositories.TransactionRepository;
 import com.transaction.transaction.services.AccountService;
+import com.transaction.transaction.services.HotAccountService;
+import com.transaction.transaction.services.IdempotentTransferService;
+import com.transaction.transaction.services.TransactionExportService;
+import com.transaction.transaction.services.TransactionService;
 import com.transaction.transaction.services.TransferService;
+import com.transaction.transaction.sql.StatementBudget;
 
 @SpringBootTest
 @Transactional
@@ -28,6 +49,27 @@ class TransferIntegrationTest {
     @Autowired
     private TransferService transferService;
 
+    @Autowired
+    private HotAccountService hotAccountService;
+
+    @Autowired
+    private IdempotentTransferService idempotentTransferService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionExportService transactionExportService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private Long fromUserId;
     private Long toUserId;
 
@@ -52,6 +94,7 @@ class TransferIntegrationTest {
     }
 
     @Test
+    @StatementBudget(select = 6, insert = 2, update = 2)
     void testCompleteTransferFlow() {
         // 1. Check initial balances
         ResponseAccountBalanceDto fromBalanceBefore = accountService.getAccountBalance(fromUserId);
@@ -66,8 +109,8 @@ class TransferIntegrationTest {
         transferDto.setToAccountId(toUserId);
         transferDto.setAmount(300.0);
 
-        Long transferId = transferService.createTransfer(transferDto);
-        assertNotNull(transferId);
+        ResponseCreateTransferDto result = transferService.createTransfer(transferDto);
+        assertNotNull(result.getTransferId());
 
         // 3. Check balances after transfer
         ResponseAccountBalanceDto fromBalanceAfter = accountService.getAccountBalance(fromUserId);
@@ -82,6 +125,7 @@ class TransferIntegrationTest {
     }
 
     @Test
+    @StatementBudget(select = 8, insert = 6, update = 6)
     void testMultipleTransfers() {
         // Perform multiple transfers
         CreateTransferDto transfer1 = new CreateTransferDto();
@@ -111,6 +155,7 @@ class TransferIntegrationTest {
     }
 
     @Test
+    @StatementBudget(select = 4, insert = 2, update = 2)
     void testTransferWithExactBalance() {
         // Transfer exact balance
         CreateTransferDto transferDto = new CreateTransferDto();
@@ -129,6 +174,7 @@ class TransferIntegrationTest {
     }
 
     @Test
+    @StatementBudget(select = 7, insert = 4, update = 5)
     void testBidirectionalTransfer() {
         // Set balance for toUser as well
         UpdateBalanceDto updateBalance = new UpdateBalanceDto();
@@ -159,6 +205,7 @@ class TransferIntegrationTest {
     }
 
     @Test
+    @StatementBudget(insert = 3)
     void testCreateMultipleAccounts() {
         // Create additional accounts
         CreateAccountDto account3 = new CreateAccountDto();
@@ -177,6 +224,7 @@ class TransferIntegrationTest {
     }
 
     @Test
+    @StatementBudget(select = 6, update = 3)
     void testUpdateBalanceMultipleTimes() {
         // Update balance multiple times
         UpdateBalanceDto update1 = new UpdateBalanceDto();
@@ -205,6 +253,7 @@ class TransferIntegrationTest {
     }
 
     @Test
+    @StatementBudget(insert = 3)
     void testAccountCreationWithDifferentUserNames() {
         // Create accounts with various usernames
         String[] userNames = {"Alice", "Bob", "Charlie", "David", "Eve"};
@@ -221,6 +270,7 @@ class TransferIntegrationTest {
     }
 
     @Test
+    @StatementBudget(select = 4, insert = 2, update = 2)
     void testTransferWithDecimalAmount() {
         // Transfer with decimal amount
         CreateTransferDto transferDto = new CreateTransferDto();
@@ -237,4 +287,265 @@ class TransferIntegrationTest {
         assertEquals(876.55, fromBalance.getBalance(), 0.01);
         assertEquals(123.45, toBalance.getBalance(), 0.01);
     }
+
+    @Test
+    @StatementBudget(select = 7, insert = 2, update = 6)
+    void testBatchTransferAppliesOnlyValidItems() {
+        // Two transfers that fit the balance and one that does not
+        CreateTransferDto first = new CreateTransferDto();
+        first.setFromAccountId(fromUserId);
+        first.setToAccountId(toUserId);
+        first.setAmount(400.0);
+
+        CreateTransferDto tooLarge = new CreateTransferDto();
+        tooLarge.setFromAccountId(fromUserId);
+        tooLarge.setToAccountId(toUserId);
+        tooLarge.setAmount(5000.0);
+
+        CreateTransferDto second = new CreateTransferDto();
+        second.setFromAccountId(fromUserId);
+        second.setToAccountId(toUserId);
+        second.setAmount(100.0);
+
+        List<ResponseCreateTransferDto> results = transferService.createTransfers(List.of(first, tooLarge, second));
+
+        assertEquals("success", results.get(0).getStatus());
+        assertEquals("failure", results.get(1).getStatus());
+        assertEquals("success", results.get(2).getStatus());
+        assertNotNull(results.get(0).getTransferId());
+
+        assertEquals(500.0, accountService.getAccountBalance(fromUserId).getBalance());
+        assertEquals(500.0, accountService.getAccountBalance(toUserId).getBalance());
+    }
+
+    @Test
+    @StatementBudget(select = 19, insert = 10, update = 13, delete = 2)
+    void testHotAccountReceivesAndSpendsThroughShards() {
+        hotAccountService.markHot(toUserId, 4);
+
+        // Credit lands on a shard
+        CreateTransferDto incoming = new CreateTransferDto();
+        incoming.setFromAccountId(fromUserId);
+        incoming.setToAccountId(toUserId);
+        incoming.setAmount(300.0);
+        transferService.createTransfer(incoming);
+        assertEquals(300.0, accountService.getAccountBalance(toUserId).getBalance());
+
+        // Debit larger than the account row claims the shards
+        CreateTransferDto outgoing = new CreateTransferDto();
+        outgoing.setFromAccountId(toUserId);
+        outgoing.setToAccountId(fromUserId);
+        outgoing.setAmount(250.0);
+        transferService.createTransfer(outgoing);
+        assertEquals(50.0, accountService.getAccountBalance(toUserId).getBalance());
+        assertEquals(950.0, accountService.getAccountBalance(fromUserId).getBalance());
+
+        // Batch credits go through the shards as well
+        CreateTransferDto batched = new CreateTransferDto();
+        batched.setFromAccountId(fromUserId);
+        batched.setToAccountId(toUserId);
+        batched.setAmount(100.0);
+        transferService.createTransfers(List.of(batched));
+        assertEquals(150.0, accountService.getAccountBalance(toUserId).getBalance());
+
+        hotAccountService.markNormal(toUserId);
+        assertEquals(150.0, accountService.getAccountBalance(toUserId).getBalance());
+    }
+
+    @Test
+    @StatementBudget(select = 5, insert = 3, update = 2)
+    void testRepeatedIdempotencyKeyTransfersOnce() {
+        CreateTransferDto transferDto = new CreateTransferDto();
+        transferDto.setFromAccountId(fromUserId);
+        transferDto.setToAccountId(toUserId);
+        transferDto.setAmount(200.0);
+
+        ResponseCreateTransferDto first = idempotentTransferService.createTransfer("integration-key", transferDto);
+        ResponseCreateTransferDto repeated = idempotentTransferService.createTransfer("integration-key", transferDto);
+
+        assertEquals(first.getTransferId(), repeated.getTransferId());
+        assertEquals(800.0, accountService.getAccountBalance(fromUserId).getBalance());
+        assertEquals(200.0, accountService.getAccountBalance(toUserId).getBalance());
+    }
+
+    @Test
+    @StatementBudget(select = 1)
+    void testGetAccountBalanceStatementBudget() {
+        // The account and its user are read with one select
+        assertEquals(1000.0, accountService.getAccountBalance(fromUserId).getBalance());
+    }
+
+    @Test
+    @StatementBudget(select = 8, insert = 6, update = 6)
+    void testGetHistoryTransactionStatementBudget() {
+        // 1 select for the account id, 2 per transfer, each transfer writes its rows in 2 inserts and 2 updates, the balances and the transaction counters
+        Long fromAccountId = accountRepository.findByUserId(fromUserId).orElseThrow().getId();
+        for (int i = 0; i < 3; i++) {
+            CreateTransferDto transferDto = new CreateTransferDto();
+            transferDto.setFromAccountId(fromUserId);
+            transferDto.setToAccountId(toUserId);
+            transferDto.setAmount(10.0);
+            transferService.createTransfer(transferDto);
+        }
+
+        // The history page adds one select, it reads one row ahead instead of counting the rows
+        ResponseHistoryTransactionDto history = transactionService.getHistoryTransaction(fromAccountId, 0, 10, false);
+        assertEquals(3, history.getTransactions().size());
+        // the projection converts the stored minor units like the mapper did
+        assertEquals(10.0, history.getTransactions().get(0).getAmount());
+        assertEquals("debit", history.getTransactions().get(0).getType());
+    }
+
+    @Test
+    @StatementBudget(select = 14, insert = 10, update = 10)
+    void testGetHistoryTransactionByCursor() {
+        // 1 select for the account id, 2 per transfer, each transfer writes its rows in 2 inserts and 2 updates, the balances and the transaction counters
+        Long fromAccountId = accountRepository.findByUserId(fromUserId).orElseThrow().getId();
+        for (int i = 0; i < 5; i++) {
+            CreateTransferDto transferDto = new CreateTransferDto();
+            transferDto.setFromAccountId(fromUserId);
+            transferDto.setToAccountId(toUserId);
+            transferDto.setAmount(10.0);
+            transferService.createTransfer(transferDto);
+        }
+
+        // Every page one select, by number or by cursor
+        ResponseHistoryTransactionDto firstPage = transactionService.getHistoryTransaction(fromAccountId, 0, 2, false);
+        ResponseHistoryTransactionDto secondPage = transactionService.getHistoryTransaction(fromAccountId, firstPage.getNextCursor(), 2, false);
+        ResponseHistoryTransactionDto lastPage = transactionService.getHistoryTransaction(fromAccountId, secondPage.getNextCursor(), 2, false);
+
+        // Newest first, every row exactly once
+        List<Long> ids = Stream.of(firstPage, secondPage, lastPage)
+                .flatMap(page -> page.getTransactions().stream())
+                .map(ResponseTransactionDTO::getId)
+                .toList();
+        assertEquals(5, ids.size());
+        assertEquals(ids.stream().sorted(Comparator.reverseOrder()).toList(), ids);
+        assertNull(lastPage.getNextCursor());
+    }
+
+    @Test
+    @StatementBudget(select = 9, insert = 6, update = 6)
+    void testGetHistoryTransactionIncludesTotal() {
+        Long fromAccountId = accountRepository.findByUserId(fromUserId).orElseThrow().getId();
+        for (int i = 0; i < 3; i++) {
+            CreateTransferDto transferDto = new CreateTransferDto();
+            transferDto.setFromAccountId(fromUserId);
+            transferDto.setToAccountId(toUserId);
+            transferDto.setAmount(10.0);
+            transferService.createTransfer(transferDto);
+        }
+
+        // The total is one select of the counter instead of a count over the rows
+        ResponseHistoryTransactionDto history = transactionService.getHistoryTransaction(fromAccountId, 0, 2, true);
+
+        assertEquals(2, history.getTransactions().size());
+        assertTrue(history.isHasNext());
+        assertEquals(3L, history.getTotalTransactions());
+    }
+
+    @Test
+    void testExportTransactionsAsNdjson() throws IOException {
+        Long fromAccountId = accountRepository.findByUserId(fromUserId).orElseThrow().getId();
+        for (int i = 0; i < 3; i++) {
+            CreateTransferDto transferDto = new CreateTransferDto();
+            transferDto.setFromAccountId(fromUserId);
+            transferDto.setToAccountId(toUserId);
+            transferDto.setAmount(10.0 + i);
+            transferService.createTransfer(transferDto);
+        }
+        // the export reads through JDBC, the rows have to be sent first
+        transactionRepository.flush();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = transactionExportService.export(fromAccountId, TransactionExportService.Format.NDJSON, out);
+
+        // One JSON object per line, oldest first, with the fields of GET /transactions
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(3L, rows);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).contains("\"amount\":10.0"), lines.get(0));
+        assertTrue(lines.get(2).contains("\"amount\":12.0"), lines.get(2));
+        assertTrue(lines.get(0).contains("\"account_id\":" + fromAccountId), lines.get(0));
+    }
+
+    @Test
+    void testExportTransactionsAsCsv() throws IOException {
+        Long toAccountId = accountRepository.findByUserId(toUserId).orElseThrow().getId();
+        CreateTransferDto transferDto = new CreateTransferDto();
+        transferDto.setFromAccountId(fromUserId);
+        transferDto.setToAccountId(toUserId);
+        transferDto.setAmount(25.5);
+        transferService.createTransfer(transferDto);
+        transactionRepository.flush();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transactionExportService.export(toAccountId, TransactionExportService.Format.CSV, out);
+
+        // Header line, then the credit with its amount as a plain decimal
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(2, lines.size());
+        assertEquals("id,account_id,amount,type,transfer_id,category,status,description,date", lines.get(0));
+        assertTrue(lines.get(1).contains("," + toAccountId + ",25.50,credit,"), lines.get(1));
+    }
+
+    @Test
+    void testExportQueryUsesAccountDateIndex() {
+        // The export query of TransactionExportServiceImpl, oldest first
+        Long accountId = accountRepository.findByUserId(fromUserId).orElseThrow().getId();
+        String plan = explain("SELECT id, account_id, amount, type, transfer_id, category, status, description, date"
+                + " FROM transactions WHERE account_id = " + accountId + " ORDER BY date, id");
+
+        // The index is read backwards instead of sorting the account's rows
+        assertUsesIndex(plan, "idx_transactions_account_date_id");
+    }
+
+    @Test
+    void testHistoryQueriesUseAccountDateIndex() {
+        // The page and the cursor query of GET /transactions as Hibernate sends them
+        Long accountId = accountRepository.findByUserId(fromUserId).orElseThrow().getId();
+        String history = "SELECT t.id, t.account_id, t.amount, t.category, t.date, t.description, t.status, t.transfer_id, t.type"
+                + " FROM transactions t WHERE t.account_id = " + accountId;
+        String order = " ORDER BY t.date DESC, t.id DESC FETCH FIRST 20 ROWS ONLY";
+
+        String pagePlan = explain(history + order);
+        String cursorPlan = explain(history + " AND (t.date, t.id) < (TIMESTAMP '2026-01-01 00:00:00', 100)" + order);
+
+        // Both read the account's rows from the (account_id, date DESC, id DESC) index
+        assertUsesIndex(pagePlan, "idx_transactions_account_date_id");
+        assertUsesIndex(cursorPlan, "idx_transactions_account_date_id");
+    }
+
+    @Test
+    void testAccountLookupUsesUserIdIndex() {
+        // AccountRepository.findByUserId on every transfer and balance read
+        String plan = explain("SELECT a.id, a.balance, a.shard_count, a.user_id, a.version FROM accounts a WHERE a.user_id = " + fromUserId);
+
+        // The unique index is named by the database, the plan shows it looked up by user_id
+        assertUsesIndex(plan, "user_id = ");
+    }
+
+    @Test
+    void testTransferRowsLookupUsesTransferIdIndex() {
+        String plan = explain("SELECT t.id FROM transactions t WHERE t.transfer_id = 1");
+
+        assertUsesIndex(plan, "idx_transactions_transfer_id");
+    }
+
+    // tables this small are cheaper to scan whole, PostgreSQL only shows an index it could use
+    // once sequential scans are off; SET LOCAL lasts until the test transaction rolls back
+    private String explain(String sql) {
+        boolean postgreSql = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                connection.getMetaData().getDatabaseProductName().equals("PostgreSQL"));
+        if (postgreSql) {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        }
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class)).toLowerCase();
+    }
+
+    // PostgreSQL reports "Seq Scan", H2 "tableScan" when no index serves the query
+    private void assertUsesIndex(String plan, String expected) {
+        assertFalse(plan.contains("seq scan") || plan.contains("tablescan"), plan);
+        assertTrue(plan.contains(expected), plan);
+    }
 }
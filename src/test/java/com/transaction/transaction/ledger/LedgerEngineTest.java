@@ -0,0 +1,285 @@
+package com.transaction.transaction.ledger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.transaction.transaction.config.TransferProperties;
+import com.transaction.transaction.entities.Account;
+import com.transaction.transaction.repositories.AccountRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerEngineTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private LedgerPersister persister;
+
+    @TempDir
+    Path directory;
+
+    private TransferProperties transferProperties;
+    private LedgerEngine ledgerEngine;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        transferProperties = new TransferProperties();
+        transferProperties.getLedger().setDirectory(directory.toString());
+        transferProperties.getLedger().setPartitions(2);
+        meterRegistry = new SimpleMeterRegistry();
+        ledgerEngine = new LedgerEngine(transferProperties, accountRepository, persister, meterRegistry);
+
+        lenient().when(accountRepository.findByUserId(1L)).thenReturn(Optional.of(account(10L, 100_000)));
+        lenient().when(accountRepository.findByUserId(2L)).thenReturn(Optional.of(account(21L, 0)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (ledgerEngine.isRunning()) {
+            ledgerEngine.stop();
+        }
+    }
+
+    // mvn test -Dtest=LedgerEngineTest#testTransfersAcrossPartitions
+    // Test: transfers back and forth between accounts of different partitions
+    // Expected: Increasing sequences returned, the credited balance can be spent again
+    @Test
+    void testTransfersAcrossPartitions() {
+        // Arrange
+        ledgerEngine.start();
+        Long from = ledgerEngine.accountId(1L);
+        Long to = ledgerEngine.accountId(2L);
+
+        // Act
+        Long first = ledgerEngine.transfer(from, to, 30_000).join();
+        Long second = ledgerEngine.transfer(from, to, 70_000).join();
+        // the credit runs on the other partition after the debit is confirmed
+        Long back = awaitTransfer(to, from, 100_000);
+
+        // Assert
+        assertEquals(10L, from);
+        assertEquals(21L, to);
+        assertTrue(first < second && second < back);
+    }
+
+    // mvn test -Dtest=LedgerEngineTest#testInsufficientBalance
+    // Test: transfer larger than the source balance
+    // Expected: Completes exceptionally with the insufficient balance message, nothing logged
+    @Test
+    void testInsufficientBalance() {
+        // Arrange
+        ledgerEngine.start();
+        Long from = ledgerEngine.accountId(1L);
+        Long to = ledgerEngine.accountId(2L);
+
+        // Act
+        CompletableFuture<Long> transfer = ledgerEngine.transfer(from, to, 100_001);
+
+        // Assert
+        CompletionException exception = assertThrows(CompletionException.class, transfer::join);
+        assertInstanceOf(IllegalArgumentException.class, exception.getCause());
+        assertEquals("Insufficient balance in the source account", exception.getCause().getMessage());
+        ledgerEngine.stop();
+        assertTrue(WriteAheadLog.replay(directory).isEmpty());
+    }
+
+    // mvn test -Dtest=LedgerEngineTest#testUnknownUser
+    // Test: account id of a user without account
+    // Expected: Null returned
+    @Test
+    void testUnknownUser() {
+        // Arrange
+        when(accountRepository.findByUserId(99L)).thenReturn(Optional.empty());
+        ledgerEngine.start();
+
+        // Act & Assert
+        assertNull(ledgerEngine.accountId(99L));
+    }
+
+    // mvn test -Dtest=LedgerEngineTest#testAcceptedTransfersAreWrittenBehind
+    // Test: transfer accepted by the engine
+    // Expected: Its ledger record handed to the persister
+    @SuppressWarnings("unchecked")
+    @Test
+    void testAcceptedTransfersAreWrittenBehind() {
+        // Arrange
+        ledgerEngine.start();
+
+        // Act
+        Long sequence = ledgerEngine.transfer(ledgerEngine.accountId(1L), ledgerEngine.accountId(2L), 25_000).join();
+
+        // Assert
+        ArgumentCaptor<List<LedgerRecord>> captor = ArgumentCaptor.forClass(List.class);
+        verify(persister, timeout(2000)).persist(captor.capture());
+        LedgerRecord record = captor.getValue().get(0);
+        assertEquals(sequence, record.sequence());
+        assertEquals(10L, record.fromAccountId());
+        assertEquals(21L, record.toAccountId());
+        assertEquals(25_000L, record.amount());
+    }
+
+    // mvn test -Dtest=LedgerEngineTest#testRecoveryWritesMissingRecords
+    // Test: start with a log holding records the database has only partly
+    // Expected: Only records after the persisted sequence written, new sequences continue after the log
+    @SuppressWarnings("unchecked")
+    @Test
+    void testRecoveryWritesMissingRecords() throws Exception {
+        // Arrange
+        try (WriteAheadLog log = new WriteAheadLog(directory, 0, 1 << 20)) {
+            log.append(new LedgerRecord(5, 0, 10L, 21L, 100, 1000L));
+            log.append(new LedgerRecord(6, 0, 10L, 21L, 200, 1001L));
+            log.sync();
+        }
+        when(persister.lastSequence(anyInt())).thenReturn(5L);
+        when(persister.lastSequence()).thenReturn(5L);
+
+        // Act
+        ledgerEngine.start();
+
+        // Assert
+        ArgumentCaptor<List<LedgerRecord>> captor = ArgumentCaptor.forClass(List.class);
+        verify(persister).persist(captor.capture());
+        assertEquals(List.of(6L), captor.getValue().stream().map(LedgerRecord::sequence).toList());
+        assertTrue(WriteAheadLog.replay(directory).isEmpty());
+        assertEquals(7L, ledgerEngine.transfer(ledgerEngine.accountId(1L), ledgerEngine.accountId(2L), 100).join());
+    }
+
+    // mvn test -Dtest=LedgerEngineTest#testRecordsStayLoggedWhenDatabaseIsDown
+    // Test: engine stopped while the database rejects every write
+    // Expected: The accepted transfer is still in the log for the next recovery
+    @Test
+    void testRecordsStayLoggedWhenDatabaseIsDown() {
+        // Arrange
+        lenient().doThrow(new IllegalStateException("database down")).when(persister).persist(anyList());
+        ledgerEngine.start();
+        Long sequence = ledgerEngine.transfer(ledgerEngine.accountId(1L), ledgerEngine.accountId(2L), 1_000).join();
+
+        // Act
+        ledgerEngine.stop();
+
+        // Assert
+        assertEquals(List.of(sequence), WriteAheadLog.replay(directory).stream().map(LedgerRecord::sequence).toList());
+    }
+
+    // mvn test -Dtest=LedgerEngineTest#testPersisterGivesUpAfterAttempts
+    // Test: the database rejects every write while the engine keeps running
+    // Expected: After the configured attempts the engine reports the failure, refuses transfers and keeps the record logged
+    @Test
+    void testPersisterGivesUpAfterAttempts() {
+        // Arrange
+        transferProperties.getLedger().setPersistAttempts(3);
+        transferProperties.getLedger().setPersistBackoff(Duration.ofMillis(10));
+        doThrow(new IllegalStateException("database down")).when(persister).persist(anyList());
+        ledgerEngine.start();
+        Long from = ledgerEngine.accountId(1L);
+        Long to = ledgerEngine.accountId(2L);
+        assertFalse(ledgerEngine.isPersisterFailed());
+
+        // Act
+        Long sequence = ledgerEngine.transfer(from, to, 1_000).join();
+        verify(persister, timeout(2000).times(3)).persist(anyList());
+        awaitPersisterFailed();
+
+        // Assert
+        assertEquals(1.0, meterRegistry.get("ledger.persister.failed").gauge().value());
+        assertEquals(2.0, meterRegistry.get("ledger.persist.retries").counter().count());
+        assertThrows(IllegalStateException.class, () -> ledgerEngine.transfer(from, to, 1_000));
+        ledgerEngine.stop();
+        assertEquals(List.of(sequence), WriteAheadLog.replay(directory).stream().map(LedgerRecord::sequence).toList());
+    }
+
+    // mvn test -Dtest=LedgerEngineTest#testTransfersRefusedWhilePersisterIsBehind
+    // Test: the database is slow, one batch is being written and max-unpersisted transfers wait behind it
+    // Expected: The next transfer is refused, the engine itself has not failed
+    @Test
+    void testTransfersRefusedWhilePersisterIsBehind() throws Exception {
+        // Arrange
+        transferProperties.getLedger().setMaxUnpersisted(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> release.await(5, TimeUnit.SECONDS)).when(persister).persist(anyList());
+        ledgerEngine.start();
+        Long from = ledgerEngine.accountId(1L);
+        Long to = ledgerEngine.accountId(2L);
+        try {
+            ledgerEngine.transfer(from, to, 1_000).join();
+            verify(persister, timeout(2000)).persist(anyList());
+            ledgerEngine.transfer(from, to, 1_000).join();
+
+            // Act & Assert
+            IllegalStateException exception = assertThrows(IllegalStateException.class, () -> ledgerEngine.transfer(from, to, 1_000));
+            assertEquals("Ledger is behind writing to the database, try again later", exception.getMessage());
+            assertFalse(ledgerEngine.isPersisterFailed());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private void awaitPersisterFailed() {
+        for (int attempt = 0; !ledgerEngine.isPersisterFailed(); attempt++) {
+            assertTrue(attempt < 100, "persister did not give up");
+            sleep();
+        }
+    }
+
+    private Long awaitTransfer(Long from, Long to, long amount) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return ledgerEngine.transfer(from, to, amount).join();
+            } catch (CompletionException ex) {
+                if (attempt == 50) {
+                    throw ex;
+                }
+                sleep();
+            }
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Account account(Long id, long balance) {
+        Account account = new Account();
+        account.setId(id);
+        account.setBalance(balance);
+        return account;
+    }
+}
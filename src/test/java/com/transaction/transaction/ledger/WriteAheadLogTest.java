@@ -0,0 +1,123 @@
+package com.transaction.transaction.ledger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    // mvn test -Dtest=WriteAheadLogTest#testReplayReturnsSyncedRecords
+    // Test: records of two partitions appended and synced
+    // Expected: Replay returns every record unchanged, grouped by partition
+    @Test
+    void testReplayReturnsSyncedRecords() throws IOException {
+        // Arrange
+        LedgerRecord first = new LedgerRecord(1, 1, 10L, 20L, 30_000, 1000L);
+        LedgerRecord second = new LedgerRecord(2, 0, 20L, 30L, 1_250, 1001L);
+        LedgerRecord third = new LedgerRecord(3, 1, 10L, 30L, 1, 1002L);
+        try (WriteAheadLog partition0 = new WriteAheadLog(directory, 0, 1 << 20);
+             WriteAheadLog partition1 = new WriteAheadLog(directory, 1, 1 << 20)) {
+            partition1.append(first);
+            partition0.append(second);
+            partition1.append(third);
+            partition0.sync();
+            partition1.sync();
+        }
+
+        // Act
+        List<LedgerRecord> records = WriteAheadLog.replay(directory);
+
+        // Assert
+        assertEquals(List.of(second, first, third), records);
+    }
+
+    // mvn test -Dtest=WriteAheadLogTest#testReplayStopsAtTornRecord
+    // Test: segment ending in a partially written record
+    // Expected: Complete records returned, the torn tail ignored
+    @Test
+    void testReplayStopsAtTornRecord() throws IOException {
+        // Arrange
+        try (WriteAheadLog log = new WriteAheadLog(directory, 0, 1 << 20)) {
+            log.append(new LedgerRecord(1, 0, 10L, 20L, 500, 1000L));
+            log.append(new LedgerRecord(2, 0, 10L, 20L, 600, 1001L));
+            log.sync();
+        }
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(WriteAheadLog.RECORD_SIZE + 10);
+        }
+
+        // Act
+        List<LedgerRecord> records = WriteAheadLog.replay(directory);
+
+        // Assert
+        assertEquals(1, records.size());
+        assertEquals(1, records.get(0).sequence());
+    }
+
+    // mvn test -Dtest=WriteAheadLogTest#testReleaseDeletesPersistedSegments
+    // Test: segments rolled after every sync, first two persisted
+    // Expected: Only the segment holding unpersisted records remains
+    @Test
+    void testReleaseDeletesPersistedSegments() throws IOException {
+        // Arrange
+        try (WriteAheadLog log = new WriteAheadLog(directory, 0, WriteAheadLog.RECORD_SIZE)) {
+            for (long sequence = 1; sequence <= 3; sequence++) {
+                log.append(new LedgerRecord(sequence, 0, 10L, 20L, 100, 1000L));
+                log.sync();
+            }
+            assertEquals(3, segments().size());
+
+            // Act
+            log.release(2);
+        }
+
+        // Assert
+        List<Path> remaining = segments();
+        assertEquals(1, remaining.size());
+        assertTrue(remaining.get(0).getFileName().toString().startsWith("0-"));
+        assertEquals(3, WriteAheadLog.replay(directory).get(0).sequence());
+    }
+
+    // mvn test -Dtest=WriteAheadLogTest#testDiscardDropsUnsyncedRecords
+    // Test: one synced record, then more records than the buffer holds appended and discarded before closing
+    // Expected: Only the synced record is replayed, closing does not flush the discarded ones
+    @Test
+    void testDiscardDropsUnsyncedRecords() throws IOException {
+        // Arrange
+        LedgerRecord synced = new LedgerRecord(1, 0, 10L, 20L, 500, 1000L);
+        try (WriteAheadLog log = new WriteAheadLog(directory, 0, 1 << 20)) {
+            log.append(synced);
+            log.sync();
+            // the buffer holds 1024 records, part of these reach the segment file unsynced
+            for (long sequence = 2; sequence <= 1500; sequence++) {
+                log.append(new LedgerRecord(sequence, 0, 10L, 20L, 100, 1000L));
+            }
+
+            // Act
+            log.discard();
+        }
+
+        // Assert
+        assertEquals(List.of(synced), WriteAheadLog.replay(directory));
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}
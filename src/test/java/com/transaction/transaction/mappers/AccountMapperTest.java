@@ -33,7 +33,7 @@ class AccountMapperTest {
         account = new Account();
         account.setId(100L);
         account.setUser(user);
-        account.setBalance(1000.0);
+        account.setBalance(100_000);
     }
 
     // mvn test -Dtest=AccountMapperTest#testToResponseAccountDto
@@ -56,12 +56,12 @@ class AccountMapperTest {
     // Expected: Correct mapping for all user/balance combinations
     @ParameterizedTest(name = "User {0} with userId {1} and balance {2}")
     @CsvSource({
-        "John Doe, 1, 1000.0",
-        "Jane Smith, 2, 500.0",
-        "Bob Wilson, 3, 0.0",
-        "Alice Brown, 4, 999999.99"
+        "John Doe, 1, 100000, 1000.0",
+        "Jane Smith, 2, 50000, 500.0",
+        "Bob Wilson, 3, 0, 0.0",
+        "Alice Brown, 4, 99999999, 999999.99"
     })
-    void testToResponseAccountDtoWithDifferentUsers(String userName, long userId, double balance) {
+    void testToResponseAccountDtoWithDifferentUsers(String userName, long userId, long balance, double expected) {
         // Arrange
         user.setId(userId);
         user.setUserName(userName);
@@ -74,20 +74,20 @@ class AccountMapperTest {
         assertNotNull(result);
         assertEquals(userId, result.getUserId());
         assertEquals(userName, result.getUserName());
-        assertEquals(balance, result.getBalance());
+        assertEquals(expected, result.getBalance());
     }
 
     // mvn test -Dtest=AccountMapperTest#testToResponseAccountBalanceDtoWithVariousBalances
     // Test: map Account to ResponseAccountBalanceDto with different balance values
-    // Expected: Correct mapping including userId and various balance amounts
+    // Expected: Correct mapping including userId and the balance converted from cents
     @ParameterizedTest(name = "Balance {0}")
     @CsvSource({
-        "0.0",
-        "100.0",
-        "123.456",
-        "999999.99"
+        "0, 0.0",
+        "10000, 100.0",
+        "12346, 123.46",
+        "99999999, 999999.99"
     })
-    void testToResponseAccountBalanceDtoWithVariousBalances(double balance) {
+    void testToResponseAccountBalanceDtoWithVariousBalances(long balance, double expected) {
         // Arrange
         account.setBalance(balance);
 
@@ -97,6 +97,6 @@ class AccountMapperTest {
         // Assert
         assertNotNull(result);
         assertEquals(1L, result.getUserId());
-        assertEquals(balance, result.getBalance());
+        assertEquals(expected, result.getBalance());
     }
 }
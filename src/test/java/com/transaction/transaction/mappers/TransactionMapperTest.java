@@ -30,7 +30,7 @@ class TransactionMapperTest {
         transaction = new Transaction();
         transaction.setId(1L);
         transaction.setAccountId(100L);
-        transaction.setAmount(500.0);
+        transaction.setAmount(50_000);
         transaction.setType("debit");
         transaction.setTransferId(10L);
         transaction.setCategory("transfer_out");
@@ -86,16 +86,16 @@ class TransactionMapperTest {
 
     // mvn test -Dtest=TransactionMapperTest#testToResponseTransactionDTOWithVariousAmounts
     // Test: map Transaction with different amount values
-    // Expected: All amount values correctly mapped (0.0, 100.0, 123.456, 500.0, 999999.99)
+    // Expected: Amounts in cents mapped to decimal amounts (0.0, 100.0, 123.46, 500.0, 999999.99)
     @ParameterizedTest(name = "Amount: {0}")
     @CsvSource({
-        "0.0",
-        "100.0",
-        "123.456",
-        "500.0",
-        "999999.99"
+        "0, 0.0",
+        "10000, 100.0",
+        "12346, 123.46",
+        "50000, 500.0",
+        "99999999, 999999.99"
     })
-    void testToResponseTransactionDTOWithVariousAmounts(double amount) {
+    void testToResponseTransactionDTOWithVariousAmounts(long amount, double expected) {
         // Arrange
         transaction.setAmount(amount);
 
@@ -104,7 +104,7 @@ class TransactionMapperTest {
 
         // Assert
         assertNotNull(result);
-        assertEquals(amount, result.getAmount());
+        assertEquals(expected, result.getAmount());
     }
 
     // mvn test -Dtest=TransactionMapperTest#testToResponseTransactionDTOWithNullTransferId
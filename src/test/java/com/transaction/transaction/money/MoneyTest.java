@@ -0,0 +1,69 @@
+package com.transaction.transaction.money;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class MoneyTest {
+
+    // mvn test -Dtest=MoneyTest#testToMinorUnits
+    // Test: convert decimal amounts with up to two decimal places
+    // Expected: Exact number of cents, including amounts that have no exact double representation
+    @ParameterizedTest(name = "{0} -> {1}")
+    @CsvSource({
+        "0.0, 0",
+        "0.01, 1",
+        "0.1, 10",
+        "0.29, 29",
+        "1.15, 115",
+        "300.0, 30000",
+        "-500.5, -50050",
+        "999999999.99, 99999999999"
+    })
+    void testToMinorUnits(double amount, long expected) {
+        // Act & Assert
+        assertEquals(expected, Money.toMinorUnits(amount));
+    }
+
+    // mvn test -Dtest=MoneyTest#testToMinorUnitsRejectsFractionsOfCents
+    // Test: convert amounts with more than two decimal places
+    // Expected: IllegalArgumentException thrown with the decimal places message
+    @ParameterizedTest(name = "Amount {0}")
+    @ValueSource(doubles = {0.001, 123.456, 1.005})
+    void testToMinorUnitsRejectsFractionsOfCents(double amount) {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> Money.toMinorUnits(amount));
+        assertEquals("Amount must not have more than 2 decimal places", exception.getMessage());
+    }
+
+    // mvn test -Dtest=MoneyTest#testToMinorUnitsRequiresAmount
+    // Test: convert a missing amount
+    // Expected: IllegalArgumentException thrown with "Amount is required" message
+    @Test
+    void testToMinorUnitsRequiresAmount() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> Money.toMinorUnits(null));
+        assertEquals("Amount is required", exception.getMessage());
+    }
+
+    // mvn test -Dtest=MoneyTest#testToMajorUnits
+    // Test: convert cents back to decimal amounts
+    // Expected: The decimal amount the cents were converted from
+    @ParameterizedTest(name = "{0} -> {1}")
+    @CsvSource({
+        "0, 0.0",
+        "1, 0.01",
+        "29, 0.29",
+        "115, 1.15",
+        "-50050, -500.5",
+        "99999999999, 999999999.99"
+    })
+    void testToMajorUnits(long minorUnits, double expected) {
+        // Act & Assert
+        assertEquals(expected, Money.toMajorUnits(minorUnits));
+    }
+}
@@ -0,0 +1,171 @@
+package com.transaction.transaction.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import com.transaction.transaction.config.TransferProperties;
+import com.transaction.transaction.entities.Account;
+import com.transaction.transaction.repositories.AccountRepository;
+import com.transaction.transaction.repositories.AccountRepository.AccountBalanceView;
+import com.transaction.transaction.services.AccountBalanceCache.CachedAccount;
+import com.transaction.transaction.services.impl.AccountBalanceCacheImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class AccountBalanceCacheTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    private TransferProperties transferProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private AccountBalanceCacheImpl accountBalanceCache;
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        transferProperties = new TransferProperties();
+        transferProperties.getBalanceCache().setEnabled(true);
+        meterRegistry = new SimpleMeterRegistry();
+        accountBalanceCache = new AccountBalanceCacheImpl(accountRepository, transferProperties, meterRegistry);
+
+        account = new Account();
+        account.setId(100L);
+        account.setBalance(50_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    // mvn test -Dtest=AccountBalanceCacheTest#testRepeatedLookupsAreAnsweredFromMemory
+    // Test: the balance of one user is looked up three times
+    // Expected: One read by user id, one read of the balance row, the third lookup runs no query
+    @Test
+    void testRepeatedLookupsAreAnsweredFromMemory() {
+        // Arrange
+        when(accountRepository.findByUserId(10L)).thenReturn(Optional.of(account));
+        when(accountRepository.findBalanceViewById(100L)).thenReturn(Optional.of(view(100L, 50_000)));
+
+        // Act
+        accountBalanceCache.find(10L);
+        accountBalanceCache.find(10L);
+        Optional<CachedAccount> cached = accountBalanceCache.find(10L);
+
+        // Assert
+        assertEquals(new CachedAccount(100L, 50_000, 0), cached.orElseThrow());
+        verify(accountRepository, times(1)).findByUserId(10L);
+        verify(accountRepository, times(1)).findBalanceViewById(100L);
+        assertEquals(1.0 / 3, meterRegistry.get("account.balance.cache.hit.ratio").gauge().value(), 1e-9);
+    }
+
+    // mvn test -Dtest=AccountBalanceCacheTest#testEvictionWaitsForTheCommit
+    // Test: a cached account is evicted inside a transaction that then commits
+    // Expected: The old row is still served before the commit, the new one is loaded after it
+    @Test
+    void testEvictionWaitsForTheCommit() {
+        // Arrange
+        cache(50_000);
+        when(accountRepository.findBalanceViewById(100L)).thenReturn(Optional.of(view(100L, 20_000)));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        accountBalanceCache.evictAfterCommit(List.of(100L));
+        long beforeCommit = accountBalanceCache.find(10L).orElseThrow().balance();
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        long afterCommit = accountBalanceCache.find(10L).orElseThrow().balance();
+
+        // Assert
+        assertEquals(50_000, beforeCommit);
+        assertEquals(20_000, afterCommit);
+        assertEquals(2, meterRegistry.get("cache.gets").tag("cache", "account.balance").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    // mvn test -Dtest=AccountBalanceCacheTest#testRolledBackWriteKeepsTheCachedRow
+    // Test: a cached account is evicted inside a transaction that rolls back
+    // Expected: Nothing is evicted, the row is not read again
+    @Test
+    void testRolledBackWriteKeepsTheCachedRow() {
+        // Arrange
+        cache(50_000);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        accountBalanceCache.evictAfterCommit(List.of(100L));
+        TransactionSynchronizationManager.clearSynchronization();
+        long balance = accountBalanceCache.find(10L).orElseThrow().balance();
+
+        // Assert
+        assertEquals(50_000, balance);
+        verify(accountRepository, times(1)).findBalanceViewById(100L);
+    }
+
+    // mvn test -Dtest=AccountBalanceCacheTest#testDisabledCacheReadsEveryTime
+    // Test: balance cache disabled, the balance of one user is looked up twice
+    // Expected: Both lookups read the account by user id, no meters registered
+    @Test
+    void testDisabledCacheReadsEveryTime() {
+        // Arrange
+        transferProperties.getBalanceCache().setEnabled(false);
+        SimpleMeterRegistry disabledRegistry = new SimpleMeterRegistry();
+        AccountBalanceCacheImpl disabledCache = new AccountBalanceCacheImpl(accountRepository, transferProperties, disabledRegistry);
+        when(accountRepository.findByUserId(10L)).thenReturn(Optional.of(account));
+
+        // Act
+        disabledCache.find(10L);
+        disabledCache.find(10L);
+
+        // Assert
+        verify(accountRepository, times(2)).findByUserId(10L);
+        verify(accountRepository, never()).findBalanceViewById(100L);
+        assertTrue(disabledRegistry.getMeters().isEmpty());
+    }
+
+    // looks the user up twice, the second lookup caches the balance row
+    private void cache(long balance) {
+        when(accountRepository.findByUserId(10L)).thenReturn(Optional.of(account));
+        when(accountRepository.findBalanceViewById(100L)).thenReturn(Optional.of(view(100L, balance)));
+        accountBalanceCache.find(10L);
+        accountBalanceCache.find(10L);
+    }
+
+    private AccountBalanceView view(Long id, long balance) {
+        return new AccountBalanceView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public long getBalance() {
+                return balance;
+            }
+
+            @Override
+            public int getShardCount() {
+                return 0;
+            }
+        };
+    }
+}
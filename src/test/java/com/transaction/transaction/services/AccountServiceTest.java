@@ -4,10 +4,12 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -15,7 +17,6 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
-import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -29,6 +30,7 @@ import com.transaction.transaction.entities.User;
 import com.transaction.transaction.exceptions.ResouceNotFoundException;
 import com.transaction.transaction.repositories.AccountRepository;
 import com.transaction.transaction.repositories.UserRepository;
+import com.transaction.transaction.services.AccountBalanceCache.CachedAccount;
 import com.transaction.transaction.services.impl.AccountServiceImpl;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,6 +42,18 @@ class AccountServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private HotAccountService hotAccountService;
+
+    @Mock
+    private CreditCoalescingService creditCoalescingService;
+
+    @Mock
+    private AccountBalanceCache accountBalanceCache;
+
+    @Mock
+    private TransactionCountService transactionCountService;
+
     @InjectMocks
     private AccountServiceImpl accountService;
 
@@ -59,7 +73,7 @@ class AccountServiceTest {
         account = new Account();
         account.setId(100L);
         account.setUser(user);
-        account.setBalance(500.0);
+        account.setBalance(50_000);
 
         // Setup DTOs
         createAccountDto = new CreateAccountDto();
@@ -79,7 +93,7 @@ class AccountServiceTest {
         Account newAccount = new Account();
         newAccount.setId(100L);
         newAccount.setUser(user);
-        newAccount.setBalance(0.0);
+        newAccount.setBalance(0);
 
         when(userRepository.save(any(User.class))).thenReturn(user);
         when(accountRepository.save(any(Account.class))).thenReturn(newAccount);
@@ -116,7 +130,7 @@ class AccountServiceTest {
         Account newAccount = new Account();
         newAccount.setId(200L);
         newAccount.setUser(newUser);
-        newAccount.setBalance(0.0);
+        newAccount.setBalance(0);
 
         when(userRepository.save(any(User.class))).thenReturn(newUser);
         when(accountRepository.save(any(Account.class))).thenReturn(newAccount);
@@ -139,7 +153,7 @@ class AccountServiceTest {
         when(userRepository.save(any(User.class))).thenReturn(user);
         when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> {
             Account acc = invocation.getArgument(0);
-            assertEquals(0.0, acc.getBalance());
+            assertEquals(0L, acc.getBalance());
             return acc;
         });
 
@@ -155,23 +169,14 @@ class AccountServiceTest {
     // Expected: Correct balance returned for different users and amounts
     @ParameterizedTest(name = "Get balance with {0}")
     @CsvSource({
-        "10, 500.0",
-        "20, 750.0",
-        "30, 0.0",
-        "40, 999999999.99"
+        "10, 50000, 500.0",
+        "20, 75000, 750.0",
+        "30, 0, 0.0",
+        "40, 99999999999, 999999999.99"
     })
-    void testGetBalanceWithVariousAmounts(long userId, double balance) {
+    void testGetBalanceWithVariousAmounts(long userId, long balance, double expected) {
         // Arrange
-        User testUser = new User();
-        testUser.setId(userId);
-        testUser.setUserName("User " + userId);
-
-        Account testAccount = new Account();
-        testAccount.setId(userId * 10);
-        testAccount.setUser(testUser);
-        testAccount.setBalance(balance);
-
-        when(accountRepository.findByUserId(userId)).thenReturn(Optional.of(testAccount));
+        when(accountBalanceCache.find(userId)).thenReturn(Optional.of(new CachedAccount(userId * 10, balance, 0)));
 
         // Act
         ResponseAccountBalanceDto result = accountService.getAccountBalance(userId);
@@ -179,7 +184,7 @@ class AccountServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(userId, result.getUserId());
-        assertEquals(balance, result.getBalance());
+        assertEquals(expected, result.getBalance());
     }
 
     // mvn test -Dtest=AccountServiceTest#testGetBalanceUserNotFound
@@ -188,7 +193,7 @@ class AccountServiceTest {
     @Test
     void testGetBalanceUserNotFound() {
         // Arrange
-        when(accountRepository.findByUserId(99L)).thenReturn(Optional.empty());
+        when(accountBalanceCache.find(99L)).thenReturn(Optional.empty());
 
         // Act & Assert
         ResouceNotFoundException exception = assertThrows(ResouceNotFoundException.class, () -> {
@@ -198,12 +203,71 @@ class AccountServiceTest {
         assertEquals("Account not found", exception.getMessage());
     }
 
+    // mvn test -Dtest=AccountServiceTest#testGetBalanceOfHotAccountSumsShards
+    // Test: retrieve balance of an account that is split into shards
+    // Expected: Account row balance plus the balance held by the shards
+    @Test
+    void testGetBalanceOfHotAccountSumsShards() {
+        // Arrange
+        when(accountBalanceCache.find(10L)).thenReturn(Optional.of(new CachedAccount(100L, 50_000, 4)));
+        when(hotAccountService.shardBalance(100L)).thenReturn(25_000L);
+
+        // Act
+        ResponseAccountBalanceDto result = accountService.getAccountBalance(10L);
+
+        // Assert
+        assertEquals(750.0, result.getBalance());
+    }
+
+    // mvn test -Dtest=AccountServiceTest#testGetBalanceIncludesBufferedCredits
+    // Test: retrieve balance while credit coalescing holds credits for the account
+    // Expected: Balance read through the coalescer, buffered credits included
+    @Test
+    void testGetBalanceIncludesBufferedCredits() {
+        // Arrange
+        when(accountBalanceCache.find(10L)).thenReturn(Optional.of(new CachedAccount(100L, 50_000, 0)));
+        when(creditCoalescingService.isEnabled()).thenReturn(true);
+        when(creditCoalescingService.readBalance(eq(100L), any())).thenReturn(54_000L);
+
+        // Act
+        ResponseAccountBalanceDto result = accountService.getAccountBalance(10L);
+
+        // Assert
+        assertEquals(540.0, result.getBalance());
+    }
+
+    // mvn test -Dtest=AccountServiceTest#testUpdateBalanceOfHotAccountClearsShards
+    // Test: update balance of an account that is split into shards
+    // Expected: Shards are emptied so the new balance is the whole balance
+    @Test
+    void testUpdateBalanceOfHotAccountClearsShards() {
+        // Arrange
+        account.setShardCount(4);
+        when(accountRepository.findByUserId(10L)).thenReturn(Optional.of(account));
+        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        accountService.updateBalance(updateBalanceDto);
+
+        // Assert
+        assertEquals(100_000L, account.getBalance());
+        verify(hotAccountService, times(1)).claimShards(100L);
+    }
+
     // mvn test -Dtest=AccountServiceTest#testUpdateBalanceWithVariousAmounts
     // Test: update account balance with different values (positive, negative, zero, decimal)
-    // Expected: Balance updated correctly for all test cases
+    // Expected: Balance stored in cents for all test cases
     @ParameterizedTest(name = "Update balance to {0}")
-    @ValueSource(doubles = {0.0, 100.0, 500.0, 1000.0, 123.456, -500.0, 999999.99})
-    void testUpdateBalanceWithVariousAmounts(double newBalance) {
+    @CsvSource({
+        "0.0, 0",
+        "100.0, 10000",
+        "500.0, 50000",
+        "1000.0, 100000",
+        "123.45, 12345",
+        "-500.0, -50000",
+        "999999.99, 99999999"
+    })
+    void testUpdateBalanceWithVariousAmounts(double newBalance, long expected) {
         // Arrange
         updateBalanceDto.setBalance(newBalance);
         when(accountRepository.findByUserId(10L)).thenReturn(Optional.of(account));
@@ -213,8 +277,27 @@ class AccountServiceTest {
         accountService.updateBalance(updateBalanceDto);
 
         // Assert
-        assertEquals(newBalance, account.getBalance());
+        assertEquals(expected, account.getBalance());
         verify(accountRepository, times(1)).save(account);
+        verify(accountBalanceCache, times(1)).evictAfterCommit(List.of(100L));
+    }
+
+    // mvn test -Dtest=AccountServiceTest#testUpdateBalanceRejectsFractionsOfCents
+    // Test: update balance with more than two decimal places
+    // Expected: IllegalArgumentException thrown, nothing saved
+    @Test
+    void testUpdateBalanceRejectsFractionsOfCents() {
+        // Arrange
+        updateBalanceDto.setBalance(123.456);
+        when(accountRepository.findByUserId(10L)).thenReturn(Optional.of(account));
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            accountService.updateBalance(updateBalanceDto);
+        });
+
+        assertEquals("Amount must not have more than 2 decimal places", exception.getMessage());
+        verify(accountRepository, times(0)).save(any(Account.class));
     }
 
     // mvn test -Dtest=AccountServiceTest#testUpdateBalanceUserNotFound
@@ -247,17 +330,17 @@ class AccountServiceTest {
         // Act & Assert - Update 1
         updateBalanceDto.setBalance(1000.0);
         accountService.updateBalance(updateBalanceDto);
-        assertEquals(1000.0, account.getBalance());
+        assertEquals(100_000L, account.getBalance());
 
         // Act & Assert - Update 2
         updateBalanceDto.setBalance(1500.0);
         accountService.updateBalance(updateBalanceDto);
-        assertEquals(1500.0, account.getBalance());
+        assertEquals(150_000L, account.getBalance());
 
         // Act & Assert - Update 3
         updateBalanceDto.setBalance(500.0);
         accountService.updateBalance(updateBalanceDto);
-        assertEquals(500.0, account.getBalance());
+        assertEquals(50_000L, account.getBalance());
 
         // Verify all three saves
         verify(accountRepository, times(3)).save(account);
@@ -0,0 +1,162 @@
+package com.transaction.transaction.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.transaction.transaction.config.TransferProperties;
+import com.transaction.transaction.config.WorkerThreads;
+import com.transaction.transaction.entities.Transaction;
+import com.transaction.transaction.repositories.AccountRepository;
+import com.transaction.transaction.repositories.TransactionRepository;
+import com.transaction.transaction.services.impl.CreditCoalescingServiceImpl;
+
+@ExtendWith(MockitoExtension.class)
+class CreditCoalescingServiceTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private AccountBalanceCache accountBalanceCache;
+
+    @Mock
+    private TransactionCountService transactionCountService;
+
+    private CreditCoalescingServiceImpl creditCoalescingService;
+
+    @BeforeEach
+    void setUp() {
+        TransferProperties transferProperties = new TransferProperties();
+        transferProperties.getCoalescing().setEnabled(true);
+        creditCoalescingService = new CreditCoalescingServiceImpl(accountRepository, transactionRepository,
+                transactionManager, transferProperties, new WorkerThreads(new MockEnvironment()), accountBalanceCache,
+                transactionCountService);
+    }
+
+    // mvn test -Dtest=CreditCoalescingServiceTest#testFlushAppliesOneUpdatePerAccount
+    // Test: three credits to one account and one to another, then a flush
+    // Expected: One balance update per account with the summed amount, all rows inserted in one saveAll
+    @SuppressWarnings("unchecked")
+    @Test
+    void testFlushAppliesOneUpdatePerAccount() {
+        // Arrange
+        creditCoalescingService.defer(credit(20L, 10_000));
+        creditCoalescingService.defer(credit(20L, 5_000));
+        creditCoalescingService.defer(credit(20L, 2_500));
+        creditCoalescingService.defer(credit(30L, 1_000));
+        when(accountRepository.credit(20L, 17_500)).thenReturn(1);
+        when(accountRepository.credit(30L, 1_000)).thenReturn(1);
+
+        // Act
+        creditCoalescingService.flush();
+
+        // Assert
+        ArgumentCaptor<List<Transaction>> saved = ArgumentCaptor.forClass(List.class);
+        verify(transactionRepository, times(1)).saveAll(saved.capture());
+        assertEquals(4, saved.getValue().size());
+        verify(accountRepository, times(2)).credit(anyLong(), anyLong());
+    }
+
+    // mvn test -Dtest=CreditCoalescingServiceTest#testFlushUpdatesAccountsInIdOrder
+    // Test: credits buffered for accounts in descending id order, then a flush
+    // Expected: Account rows updated in ascending id order
+    @Test
+    void testFlushUpdatesAccountsInIdOrder() {
+        // Arrange
+        for (long accountId = 90L; accountId >= 10L; accountId -= 10L) {
+            creditCoalescingService.defer(credit(accountId, 1_000));
+        }
+        when(accountRepository.credit(anyLong(), anyLong())).thenReturn(1);
+
+        // Act
+        creditCoalescingService.flush();
+
+        // Assert
+        InOrder order = inOrder(accountRepository);
+        for (long accountId = 10L; accountId <= 90L; accountId += 10L) {
+            order.verify(accountRepository).credit(accountId, 1_000);
+        }
+    }
+
+    // mvn test -Dtest=CreditCoalescingServiceTest#testReadBalanceIncludesBufferedCredits
+    // Test: read a balance while credits are buffered, and again after the flush
+    // Expected: Buffered amount added before the flush, only the stored balance after it
+    @Test
+    void testReadBalanceIncludesBufferedCredits() {
+        // Arrange
+        creditCoalescingService.defer(credit(20L, 10_000));
+        creditCoalescingService.defer(credit(20L, 5_000));
+        when(accountRepository.credit(20L, 15_000)).thenReturn(1);
+
+        // Act & Assert
+        assertEquals(65_000L, creditCoalescingService.readBalance(20L, () -> 50_000));
+        creditCoalescingService.flush();
+        assertEquals(65_000L, creditCoalescingService.readBalance(20L, () -> 65_000));
+    }
+
+    // mvn test -Dtest=CreditCoalescingServiceTest#testFailedFlushKeepsCredits
+    // Test: the flush transaction fails
+    // Expected: Credits stay buffered and are applied by the next flush
+    @Test
+    void testFailedFlushKeepsCredits() {
+        // Arrange
+        creditCoalescingService.defer(credit(20L, 10_000));
+        when(accountRepository.credit(20L, 10_000))
+            .thenThrow(new IllegalStateException("connection lost"))
+            .thenReturn(1);
+
+        // Act
+        creditCoalescingService.flush();
+        creditCoalescingService.flush();
+
+        // Assert
+        assertEquals(50_000L, creditCoalescingService.readBalance(20L, () -> 50_000));
+        verify(transactionRepository, times(1)).saveAll(anyList());
+    }
+
+    // mvn test -Dtest=CreditCoalescingServiceTest#testFlushWithoutCreditsDoesNothing
+    // Test: flush with an empty buffer
+    // Expected: No database access
+    @Test
+    void testFlushWithoutCreditsDoesNothing() {
+        // Act
+        creditCoalescingService.flush();
+
+        // Assert
+        verify(accountRepository, never()).credit(anyLong(), anyLong());
+        verify(transactionRepository, never()).saveAll(anyList());
+    }
+
+    private Transaction credit(Long accountId, long amount) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(accountId);
+        transaction.setType("credit");
+        transaction.setCategory("transfer_in");
+        transaction.setAmount(amount);
+        return transaction;
+    }
+}
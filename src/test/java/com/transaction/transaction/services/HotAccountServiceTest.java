@@ -0,0 +1,214 @@
+package com.transaction.transaction.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.transaction.transaction.config.TransferProperties;
+import com.transaction.transaction.entities.Account;
+import com.transaction.transaction.entities.AccountShard;
+import com.transaction.transaction.exceptions.ResouceNotFoundException;
+import com.transaction.transaction.repositories.AccountRepository;
+import com.transaction.transaction.repositories.AccountShardRepository;
+import com.transaction.transaction.services.impl.HotAccountServiceImpl;
+
+@ExtendWith(MockitoExtension.class)
+class HotAccountServiceTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private AccountShardRepository accountShardRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private AccountBalanceCache accountBalanceCache;
+
+    @Mock
+    private TransactionCountService transactionCountService;
+
+    private TransferProperties transferProperties;
+    private HotAccountServiceImpl hotAccountService;
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        transferProperties = new TransferProperties();
+        hotAccountService = new HotAccountServiceImpl(accountRepository, accountShardRepository, transferProperties,
+                transactionManager, accountBalanceCache, transactionCountService);
+
+        account = new Account();
+        account.setId(100L);
+        account.setBalance(50_000);
+    }
+
+    // mvn test -Dtest=HotAccountServiceTest#testMarkHotCreatesEmptyShards
+    // Test: mark a regular account hot with an explicit shard count
+    // Expected: That many empty shards created, shard count stored on the account
+    @SuppressWarnings("unchecked")
+    @Test
+    void testMarkHotCreatesEmptyShards() {
+        // Arrange
+        when(accountRepository.findAllByUserIdInForUpdate(anyCollection())).thenReturn(List.of(account));
+
+        // Act
+        int shards = hotAccountService.markHot(10L, 4);
+
+        // Assert
+        ArgumentCaptor<List<AccountShard>> captor = ArgumentCaptor.forClass(List.class);
+        verify(accountShardRepository).saveAll(captor.capture());
+        assertEquals(4, shards);
+        assertEquals(4, captor.getValue().size());
+        assertEquals(List.of(0, 1, 2, 3), captor.getValue().stream().map(AccountShard::getShardNo).toList());
+        assertEquals(4, account.getShardCount());
+        assertEquals(50_000L, account.getBalance());
+        verify(accountShardRepository, never()).deleteByAccountId(anyLong());
+        verify(transactionCountService).drop(100L);
+    }
+
+    // mvn test -Dtest=HotAccountServiceTest#testMarkHotUsesDefaultShards
+    // Test: mark an account hot without a shard count
+    // Expected: Configured default shard count applied
+    @Test
+    void testMarkHotUsesDefaultShards() {
+        // Arrange
+        transferProperties.getSharding().setDefaultShards(6);
+        when(accountRepository.findAllByUserIdInForUpdate(anyCollection())).thenReturn(List.of(account));
+
+        // Act & Assert
+        assertEquals(6, hotAccountService.markHot(10L, null));
+        assertEquals(6, account.getShardCount());
+    }
+
+    // mvn test -Dtest=HotAccountServiceTest#testMarkHotAccountNotFound
+    // Test: mark a user without account hot
+    // Expected: ResourceNotFoundException thrown with "Account not found" message
+    @Test
+    void testMarkHotAccountNotFound() {
+        // Arrange
+        when(accountRepository.findAllByUserIdInForUpdate(anyCollection())).thenReturn(List.of());
+
+        // Act & Assert
+        ResouceNotFoundException exception = assertThrows(ResouceNotFoundException.class,
+                () -> hotAccountService.markHot(99L, 4));
+        assertEquals("Account not found", exception.getMessage());
+    }
+
+    // mvn test -Dtest=HotAccountServiceTest#testMarkNormalFoldsShardsIntoAccount
+    // Test: turn a hot account back into a regular one
+    // Expected: Shard balances added to the account row, shards removed, shard count reset
+    @Test
+    void testMarkNormalFoldsShardsIntoAccount() {
+        // Arrange
+        account.setShardCount(3);
+        when(accountRepository.findAllByUserIdInForUpdate(anyCollection())).thenReturn(List.of(account));
+        when(accountShardRepository.findBalancesByAccountIdForUpdate(100L)).thenReturn(List.of(1_000L, 2_000L, 3_000L));
+
+        // Act
+        hotAccountService.markNormal(10L);
+
+        // Assert
+        assertEquals(56_000L, account.getBalance());
+        assertEquals(0, account.getShardCount());
+        verify(accountShardRepository).clearBalanceByAccountId(100L);
+        verify(accountShardRepository).deleteByAccountId(100L);
+        verify(accountRepository).save(account);
+        verifyNoInteractions(transactionCountService);
+    }
+
+    // mvn test -Dtest=HotAccountServiceTest#testClaimEmptyShards
+    // Test: claim shards that hold no balance
+    // Expected: Zero returned, no update issued
+    @Test
+    void testClaimEmptyShards() {
+        // Arrange
+        when(accountShardRepository.findBalancesByAccountIdForUpdate(100L)).thenReturn(List.of(0L, 0L));
+
+        // Act & Assert
+        assertEquals(0L, hotAccountService.claimShards(100L));
+        verify(accountShardRepository, never()).clearBalanceByAccountId(anyLong());
+    }
+
+    // mvn test -Dtest=HotAccountServiceTest#testCreditFallsBackToAccountRow
+    // Test: credit a shard that was removed by a concurrent reshard
+    // Expected: Amount credited to the account row instead
+    @Test
+    void testCreditFallsBackToAccountRow() {
+        // Arrange
+        when(accountShardRepository.credit(eq(100L), anyInt(), eq(5_000L))).thenReturn(0);
+        when(accountRepository.credit(100L, 5_000L)).thenReturn(1);
+
+        // Act
+        hotAccountService.credit(100L, 4, 5_000L);
+
+        // Assert
+        verify(accountRepository).credit(100L, 5_000L);
+    }
+
+    // mvn test -Dtest=HotAccountServiceTest#testDetectionShardsBusyAccount
+    // Test: automatic detection with one account above and one below the credit rate threshold
+    // Expected: Only the busy account is marked hot
+    @Test
+    void testDetectionShardsBusyAccount() {
+        // Arrange
+        transferProperties.getSharding().setAutoDetect(true);
+        transferProperties.getSharding().setCreditsPerSecondThreshold(2);
+        transferProperties.getSharding().setDetectionWindow(Duration.ofSeconds(1));
+        for (int i = 0; i < 5; i++) {
+            hotAccountService.recordCredit(100L);
+        }
+        hotAccountService.recordCredit(200L);
+        when(accountRepository.findForUpdateById(100L)).thenReturn(Optional.of(account));
+
+        // Act
+        hotAccountService.shardContendedAccounts();
+
+        // Assert
+        assertEquals(8, account.getShardCount());
+        verify(accountRepository, never()).findForUpdateById(200L);
+    }
+
+    // mvn test -Dtest=HotAccountServiceTest#testDetectionDisabled
+    // Test: credits recorded while automatic detection is off
+    // Expected: No account looked up or changed
+    @Test
+    void testDetectionDisabled() {
+        // Arrange
+        for (int i = 0; i < 1000; i++) {
+            hotAccountService.recordCredit(100L);
+        }
+
+        // Act
+        hotAccountService.shardContendedAccounts();
+
+        // Assert
+        verify(accountRepository, never()).findForUpdateById(anyLong());
+        verify(accountShardRepository, never()).saveAll(anyList());
+        verify(accountRepository, never()).credit(anyLong(), anyLong());
+        verify(accountRepository, never()).save(any(Account.class));
+    }
+}
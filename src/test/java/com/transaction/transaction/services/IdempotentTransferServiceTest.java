@@ -0,0 +1,312 @@
+package com.transaction.transaction.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.transaction.transaction.config.TransferProperties;
+import com.transaction.transaction.dto.CreateTransferDto;
+import com.transaction.transaction.dto.ResponseCreateTransferDto;
+import com.transaction.transaction.entities.IdempotencyKey;
+import com.transaction.transaction.exceptions.IdempotencyKeyInProgressException;
+import com.transaction.transaction.exceptions.IdempotencyKeyMismatchException;
+import com.transaction.transaction.repositories.IdempotencyKeyRepository;
+import com.transaction.transaction.services.impl.IdempotentTransferServiceImpl;
+import com.transaction.transaction.services.impl.OptimisticLockRetryExecutor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotentTransferServiceTest {
+
+    @Mock
+    private TransferService transferService;
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotentTransferServiceImpl idempotentTransferService;
+    private CreateTransferDto createTransferDto;
+
+    @BeforeEach
+    void setUp() {
+        TransferProperties transferProperties = new TransferProperties();
+        idempotentTransferService = new IdempotentTransferServiceImpl(transferService, idempotencyKeyRepository,
+                new OptimisticLockRetryExecutor(transferProperties, new SimpleMeterRegistry()),
+                transactionManager, transferProperties);
+
+        createTransferDto = new CreateTransferDto();
+        createTransferDto.setFromAccountId(1L);
+        createTransferDto.setToAccountId(2L);
+        createTransferDto.setAmount(300.0);
+    }
+
+    // mvn test -Dtest=IdempotentTransferServiceTest#testFirstRequestRunsTransferAndStoresKey
+    // Test: first request with a new key
+    // Expected: Transfer executed once, key stored with the transfer id
+    @Test
+    void testFirstRequestRunsTransferAndStoresKey() {
+        // Arrange
+        when(idempotencyKeyRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.empty());
+        when(transferService.createTransfer(createTransferDto)).thenReturn(success(100L));
+
+        // Act
+        ResponseCreateTransferDto response = idempotentTransferService.createTransfer("key-1", createTransferDto);
+
+        // Assert
+        assertEquals(100L, response.getTransferId());
+        assertEquals("success", response.getStatus());
+        verify(idempotencyKeyRepository, times(1)).save(any(IdempotencyKey.class));
+    }
+
+    // mvn test -Dtest=IdempotentTransferServiceTest#testRepeatedKeyServedFromCache
+    // Test: same key sent twice
+    // Expected: Original response returned, transfer and table touched only by the first request
+    @Test
+    void testRepeatedKeyServedFromCache() {
+        // Arrange
+        when(idempotencyKeyRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.empty());
+        when(transferService.createTransfer(createTransferDto)).thenReturn(success(100L));
+        idempotentTransferService.createTransfer("key-1", createTransferDto);
+
+        // Act
+        ResponseCreateTransferDto response = idempotentTransferService.createTransfer("key-1", createTransferDto);
+
+        // Assert
+        assertEquals(100L, response.getTransferId());
+        verify(transferService, times(1)).createTransfer(any(CreateTransferDto.class));
+        verify(idempotencyKeyRepository, times(1)).findByIdempotencyKey("key-1");
+    }
+
+    // mvn test -Dtest=IdempotentTransferServiceTest#testKeyFoundInTable
+    // Test: key not in memory but stored by an earlier run
+    // Expected: Stored transfer id returned, transfer not executed
+    @Test
+    void testKeyFoundInTable() {
+        // Arrange
+        IdempotencyKey stored = new IdempotencyKey();
+        stored.setIdempotencyKey("key-1");
+        stored.setTransferId(55L);
+        when(idempotencyKeyRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.of(stored));
+
+        // Act
+        ResponseCreateTransferDto response = idempotentTransferService.createTransfer("key-1", createTransferDto);
+
+        // Assert
+        assertEquals(55L, response.getTransferId());
+        verify(transferService, never()).createTransfer(any(CreateTransferDto.class));
+    }
+
+    // mvn test -Dtest=IdempotentTransferServiceTest#testFailedTransferIsNotRemembered
+    // Test: first attempt fails, retried with the same key
+    // Expected: Failure passed on, the retry executes the transfer again
+    @Test
+    void testFailedTransferIsNotRemembered() {
+        // Arrange
+        when(idempotencyKeyRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.empty());
+        when(transferService.createTransfer(createTransferDto))
+            .thenThrow(new IllegalArgumentException("Insufficient balance in the source account"))
+            .thenReturn(success(100L));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> idempotentTransferService.createTransfer("key-1", createTransferDto));
+        assertEquals(100L, idempotentTransferService.createTransfer("key-1", createTransferDto).getTransferId());
+        verify(idempotencyKeyRepository, times(1)).save(any(IdempotencyKey.class));
+    }
+
+    // mvn test -Dtest=IdempotentTransferServiceTest#testConcurrentRequestWaitsForFirst
+    // Test: second request with the same key arrives while the first is still running
+    // Expected: Second request gets the first one's response, transfer executed once
+    @Test
+    void testConcurrentRequestWaitsForFirst() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(idempotencyKeyRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.empty());
+        when(transferService.createTransfer(createTransferDto)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return success(100L);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ResponseCreateTransferDto> first = executor.submit(() -> idempotentTransferService.createTransfer("key-1", createTransferDto));
+            started.await(5, TimeUnit.SECONDS);
+            Future<ResponseCreateTransferDto> second = executor.submit(() -> idempotentTransferService.createTransfer("key-1", createTransferDto));
+
+            // Act
+            Thread.sleep(100);
+            release.countDown();
+
+            // Assert
+            assertEquals(100L, first.get(5, TimeUnit.SECONDS).getTransferId());
+            assertEquals(100L, second.get(5, TimeUnit.SECONDS).getTransferId());
+            verify(transferService, times(1)).createTransfer(any(CreateTransferDto.class));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // mvn test -Dtest=IdempotentTransferServiceTest#testRepeatedKeyWithDifferentRequestRejected
+    // Test: key reused with another amount while its response is cached
+    // Expected: IdempotencyKeyMismatchException thrown, the second transfer not executed
+    @Test
+    void testRepeatedKeyWithDifferentRequestRejected() {
+        // Arrange
+        when(idempotencyKeyRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.empty());
+        when(transferService.createTransfer(createTransferDto)).thenReturn(success(100L));
+        idempotentTransferService.createTransfer("key-1", createTransferDto);
+        CreateTransferDto other = new CreateTransferDto();
+        other.setFromAccountId(1L);
+        other.setToAccountId(2L);
+        other.setAmount(301.0);
+
+        // Act & Assert
+        assertThrows(IdempotencyKeyMismatchException.class, () -> idempotentTransferService.createTransfer("key-1", other));
+        verify(transferService, times(1)).createTransfer(any(CreateTransferDto.class));
+    }
+
+    // mvn test -Dtest=IdempotentTransferServiceTest#testKeyStoredWithDifferentRequestRejected
+    // Test: key not in memory, stored by an earlier run of another request
+    // Expected: IdempotencyKeyMismatchException thrown, transfer not executed
+    @Test
+    void testKeyStoredWithDifferentRequestRejected() {
+        // Arrange
+        IdempotencyKey stored = new IdempotencyKey();
+        stored.setIdempotencyKey("key-1");
+        stored.setTransferId(55L);
+        stored.setRequestHash("0".repeat(64));
+        when(idempotencyKeyRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.of(stored));
+
+        // Act & Assert
+        assertThrows(IdempotencyKeyMismatchException.class,
+                () -> idempotentTransferService.createTransfer("key-1", createTransferDto));
+        verify(transferService, never()).createTransfer(any(CreateTransferDto.class));
+    }
+
+    // mvn test -Dtest=IdempotentTransferServiceTest#testLedgerReservesKeyBeforeTransfer
+    // Test: new key with the ledger engine enabled
+    // Expected: Key reserved in its own transaction before the transfer, completed with the ledger sequence after it
+    @Test
+    void testLedgerReservesKeyBeforeTransfer() {
+        // Arrange
+        IdempotentTransferServiceImpl ledgerService = ledgerService();
+        when(idempotencyKeyRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.empty());
+        when(idempotencyKeyRepository.saveAndFlush(any(IdempotencyKey.class))).thenAnswer(invocation -> {
+            IdempotencyKey key = invocation.getArgument(0);
+            assertNull(key.getTransferId());
+            key.setId(9L);
+            return key;
+        });
+        ResponseCreateTransferDto ledgerResult = success(null);
+        ledgerResult.setLedgerSequence(7L);
+        when(transferService.createTransfer(createTransferDto)).thenReturn(ledgerResult);
+
+        // Act
+        ResponseCreateTransferDto response = ledgerService.createTransfer("key-1", createTransferDto);
+
+        // Assert
+        assertNull(response.getTransferId());
+        assertEquals(7L, response.getLedgerSequence());
+        InOrder order = inOrder(idempotencyKeyRepository, transferService);
+        order.verify(idempotencyKeyRepository).saveAndFlush(any(IdempotencyKey.class));
+        order.verify(transferService).createTransfer(createTransferDto);
+        order.verify(idempotencyKeyRepository).save(argThat(key -> key.getLedgerSequence() == 7L));
+    }
+
+    // mvn test -Dtest=IdempotentTransferServiceTest#testLedgerKeyReservedElsewhereInProgress
+    // Test: with the ledger engine another instance reserved the key first and is still running it
+    // Expected: IdempotencyKeyInProgressException thrown, the ledger never sees this transfer
+    @Test
+    void testLedgerKeyReservedElsewhereInProgress() {
+        // Arrange
+        IdempotentTransferServiceImpl ledgerService = ledgerService();
+        IdempotencyKey reserved = new IdempotencyKey();
+        reserved.setIdempotencyKey("key-1");
+        when(idempotencyKeyRepository.findByIdempotencyKey("key-1"))
+            .thenReturn(Optional.empty())
+            .thenReturn(Optional.of(reserved));
+        when(idempotencyKeyRepository.saveAndFlush(any(IdempotencyKey.class)))
+            .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        // Act & Assert
+        assertThrows(IdempotencyKeyInProgressException.class,
+                () -> ledgerService.createTransfer("key-1", createTransferDto));
+        verify(transferService, never()).createTransfer(any(CreateTransferDto.class));
+    }
+
+    // mvn test -Dtest=IdempotentTransferServiceTest#testLedgerRejectedTransferFreesKey
+    // Test: with the ledger engine the reserved transfer is rejected for lack of balance
+    // Expected: Failure passed on, the reservation deleted so a retry can run
+    @Test
+    void testLedgerRejectedTransferFreesKey() {
+        // Arrange
+        IdempotentTransferServiceImpl ledgerService = ledgerService();
+        when(idempotencyKeyRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.empty());
+        when(idempotencyKeyRepository.saveAndFlush(any(IdempotencyKey.class))).thenAnswer(invocation -> {
+            IdempotencyKey key = invocation.getArgument(0);
+            key.setId(9L);
+            return key;
+        });
+        when(transferService.createTransfer(createTransferDto))
+            .thenThrow(new IllegalArgumentException("Insufficient balance in the source account"));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> ledgerService.createTransfer("key-1", createTransferDto));
+        verify(idempotencyKeyRepository).deleteById(9L);
+    }
+
+    // mvn test -Dtest=IdempotentTransferServiceTest#testOverlongKeyRejected
+    // Test: key longer than the column
+    // Expected: IllegalArgumentException thrown, nothing executed
+    @Test
+    void testOverlongKeyRejected() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> idempotentTransferService.createTransfer("k".repeat(256), createTransferDto));
+        verify(transferService, never()).createTransfer(any(CreateTransferDto.class));
+    }
+
+    private IdempotentTransferServiceImpl ledgerService() {
+        TransferProperties transferProperties = new TransferProperties();
+        transferProperties.getLedger().setEnabled(true);
+        return new IdempotentTransferServiceImpl(transferService, idempotencyKeyRepository,
+                new OptimisticLockRetryExecutor(transferProperties, new SimpleMeterRegistry()),
+                transactionManager, transferProperties);
+    }
+
+    private ResponseCreateTransferDto success(Long transferId) {
+        ResponseCreateTransferDto result = new ResponseCreateTransferDto();
+        result.setTransferId(transferId);
+        result.setMessage("Transfer successful");
+        result.setStatus("success");
+        return result;
+    }
+}
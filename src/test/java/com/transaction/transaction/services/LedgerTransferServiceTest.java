@@ -0,0 +1,89 @@
+package com.transaction.transaction.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.transaction.transaction.config.TransferProperties;
+import com.transaction.transaction.dto.CreateTransferDto;
+import com.transaction.transaction.dto.ResponseCreateTransferDto;
+import com.transaction.transaction.ledger.LedgerEngine;
+import com.transaction.transaction.services.impl.LedgerTransferService;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerTransferServiceTest {
+
+    @Mock
+    private LedgerEngine ledgerEngine;
+
+    private LedgerTransferService ledgerTransferService;
+
+    @BeforeEach
+    void setUp() {
+        TransferProperties transferProperties = new TransferProperties();
+        transferProperties.getLedger().setSubmitTimeout(Duration.ofMillis(50));
+        ledgerTransferService = new LedgerTransferService(ledgerEngine, transferProperties);
+
+        when(ledgerEngine.accountId(1L)).thenReturn(10L);
+        when(ledgerEngine.accountId(2L)).thenReturn(20L);
+    }
+
+    // mvn test -Dtest=LedgerTransferServiceTest#testCreateTransfersReportsOutcomePerItem
+    // Test: batch with a confirmed item, an item the overloaded ledger refuses and one it does not confirm in time
+    // Expected: No exception, success with the ledger sequence, failure and unknown in item order
+    @Test
+    void testCreateTransfersReportsOutcomePerItem() {
+        // Arrange
+        when(ledgerEngine.transfer(10L, 20L, 100_00))
+                .thenReturn(CompletableFuture.completedFuture(7L));
+        when(ledgerEngine.transfer(10L, 20L, 200_00))
+                .thenThrow(new IllegalStateException("Ledger partition 0 is overloaded"));
+        when(ledgerEngine.transfer(10L, 20L, 300_00))
+                .thenReturn(new CompletableFuture<>());
+
+        // Act
+        List<ResponseCreateTransferDto> results = ledgerTransferService.createTransfers(
+                List.of(transfer(100.0), transfer(200.0), transfer(300.0)));
+
+        // Assert
+        assertEquals(List.of("success", "failure", "unknown"), results.stream().map(ResponseCreateTransferDto::getStatus).toList());
+        assertEquals(7L, results.get(0).getLedgerSequence());
+        assertEquals("Ledger partition 0 is overloaded", results.get(1).getMessage());
+        assertNull(results.get(2).getLedgerSequence());
+    }
+
+    // mvn test -Dtest=LedgerTransferServiceTest#testCreateTransfersReportsFailedLogAsFailure
+    // Test: the partition cannot write its log and fails the transfer
+    // Expected: The item is a failure, not unknown, the ledger did not apply it
+    @Test
+    void testCreateTransfersReportsFailedLogAsFailure() {
+        // Arrange
+        when(ledgerEngine.transfer(10L, 20L, 100_00))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Ledger partition 0 cannot write its log")));
+
+        // Act
+        List<ResponseCreateTransferDto> results = ledgerTransferService.createTransfers(List.of(transfer(100.0)));
+
+        // Assert
+        assertEquals("failure", results.get(0).getStatus());
+        assertEquals("Ledger partition 0 cannot write its log", results.get(0).getMessage());
+    }
+
+    private CreateTransferDto transfer(double amount) {
+        CreateTransferDto createTransferDto = new CreateTransferDto();
+        createTransferDto.setFromAccountId(1L);
+        createTransferDto.setToAccountId(2L);
+        createTransferDto.setAmount(amount);
+        return createTransferDto;
+    }
+}
@@ -0,0 +1,109 @@
+package com.transaction.transaction.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import com.transaction.transaction.config.TransferProperties;
+import com.transaction.transaction.entities.Account;
+import com.transaction.transaction.services.impl.OptimisticLockRetryExecutor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OptimisticLockRetryExecutorTest {
+
+    private TransferProperties transferProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private OptimisticLockRetryExecutor retryExecutor;
+
+    @BeforeEach
+    void setUp() {
+        transferProperties = new TransferProperties();
+        transferProperties.getRetry().setMaxAttempts(3);
+        transferProperties.getRetry().setInitialBackoff(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        retryExecutor = new OptimisticLockRetryExecutor(transferProperties, meterRegistry);
+    }
+
+    // mvn test -Dtest=OptimisticLockRetryExecutorTest#testRetriesUntilSuccess
+    // Test: work conflicts twice and then succeeds
+    // Expected: Result returned after three attempts, two retries counted, nothing exhausted
+    @Test
+    void testRetriesUntilSuccess() {
+        // Arrange
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Act
+        Long result = retryExecutor.execute(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Account.class, 10L);
+            }
+            return 42L;
+        });
+
+        // Assert
+        assertEquals(42L, result);
+        assertEquals(3, attempts.get());
+        assertEquals(2.0, meterRegistry.counter("transfer.optimistic.retries").count());
+        assertEquals(0.0, meterRegistry.counter("transfer.optimistic.exhausted").count());
+    }
+
+    // mvn test -Dtest=OptimisticLockRetryExecutorTest#testGivesUpAfterMaxAttempts
+    // Test: work keeps conflicting
+    // Expected: Last conflict rethrown after max attempts, exhaustion counted once
+    @Test
+    void testGivesUpAfterMaxAttempts() {
+        // Arrange
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Act & Assert
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> retryExecutor.execute(() -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Account.class, 10L);
+        }));
+
+        assertEquals(3, attempts.get());
+        assertEquals(1.0, meterRegistry.counter("transfer.optimistic.exhausted").count());
+    }
+
+    // mvn test -Dtest=OptimisticLockRetryExecutorTest#testDoesNotRetryOtherFailures
+    // Test: work fails with a business error
+    // Expected: Error rethrown after the first attempt, no retry counted
+    @Test
+    void testDoesNotRetryOtherFailures() {
+        // Arrange
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> retryExecutor.execute(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalArgumentException("Insufficient balance in the source account");
+        }));
+
+        assertEquals(1, attempts.get());
+        assertEquals(0.0, meterRegistry.counter("transfer.optimistic.retries").count());
+    }
+
+    // mvn test -Dtest=OptimisticLockRetryExecutorTest#testBackoffStaysWithinCap
+    // Test: backoff for late attempts with a small cap
+    // Expected: Every wait lies between zero and the configured maximum
+    @Test
+    void testBackoffStaysWithinCap() {
+        // Arrange
+        transferProperties.getRetry().setInitialBackoff(Duration.ofMillis(20));
+        transferProperties.getRetry().setMaxBackoff(Duration.ofMillis(50));
+
+        // Act & Assert
+        for (int attempt = 1; attempt <= 10; attempt++) {
+            long wait = retryExecutor.backoff(attempt);
+            assertTrue(wait >= 0 && wait <= 50);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.transaction.transaction.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.transaction.transaction.entities.Transaction;
+import com.transaction.transaction.repositories.TransactionCountRepository;
+import com.transaction.transaction.repositories.TransactionRepository;
+import com.transaction.transaction.services.impl.TransactionCountServiceImpl;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionCountServiceTest {
+
+    @Mock
+    private TransactionCountRepository transactionCountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionCountServiceImpl transactionCountService;
+
+    @BeforeEach
+    void setUp() {
+        transactionCountService = new TransactionCountServiceImpl(transactionCountRepository, transactionRepository, jdbcTemplate);
+    }
+
+    // mvn test -Dtest=TransactionCountServiceTest#testCountInsertedSendsOneBatchInAccountOrder
+    // Test: three rows of account 200 and one of account 100 counted together
+    // Expected: One batch with one increment per account, the lower account id first
+    @SuppressWarnings("unchecked")
+    @Test
+    void testCountInsertedSendsOneBatchInAccountOrder() {
+        // Arrange
+        List<Transaction> transactions = List.of(transaction(200L), transaction(100L), transaction(200L), transaction(200L));
+
+        // Act
+        transactionCountService.countInserted(transactions);
+
+        // Assert
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertArrayEquals(new Object[] {1L, 100L}, captor.getValue().get(0));
+        assertArrayEquals(new Object[] {3L, 200L}, captor.getValue().get(1));
+    }
+
+    // mvn test -Dtest=TransactionCountServiceTest#testCountInsertedWithoutRows
+    // Test: a flush that inserted no rows
+    // Expected: No statement sent
+    @Test
+    void testCountInsertedWithoutRows() {
+        // Act
+        transactionCountService.countInserted(List.of());
+
+        // Assert
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    // mvn test -Dtest=TransactionCountServiceTest#testGetTransactionCountReadsCounter
+    // Test: total of an account that has a counter row
+    // Expected: The counter value, no count over the rows
+    @Test
+    void testGetTransactionCountReadsCounter() {
+        // Arrange
+        when(transactionCountRepository.findTransactionCountByAccountId(100L)).thenReturn(Optional.of(12L));
+
+        // Act
+        long count = transactionCountService.getTransactionCount(100L);
+
+        // Assert
+        assertEquals(12L, count);
+        verify(transactionRepository, never()).countByAccountId(anyLong());
+    }
+
+    // mvn test -Dtest=TransactionCountServiceTest#testGetTransactionCountOfHotAccountCountsRows
+    // Test: total of a hot account, which has no counter row
+    // Expected: The rows are counted
+    @Test
+    void testGetTransactionCountOfHotAccountCountsRows() {
+        // Arrange
+        when(transactionCountRepository.findTransactionCountByAccountId(100L)).thenReturn(Optional.empty());
+        when(transactionRepository.countByAccountId(100L)).thenReturn(30L);
+
+        // Act & Assert
+        assertEquals(30L, transactionCountService.getTransactionCount(100L));
+    }
+
+    private Transaction transaction(Long accountId) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(accountId);
+        return transaction;
+    }
+}
@@ -1,9 +1,16 @@
 package com.transaction.transaction.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDateTime;
@@ -16,18 +23,23 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
 import com.transaction.transaction.dto.ResponseHistoryTransactionDto;
 import com.transaction.transaction.dto.ResponseTransactionDTO;
-import com.transaction.transaction.entities.Transaction;
-import com.transaction.transaction.mappers.TransactionMapper;
 import com.transaction.transaction.repositories.TransactionRepository;
 import com.transaction.transaction.services.impl.TransactionServiceImpl;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(MockitoExtension.class)
 class TransactionServiceTest {
 
@@ -35,65 +47,24 @@ class TransactionServiceTest {
     private TransactionRepository transactionRepository;
 
     @Mock
-    private TransactionMapper transactionMapper;
+    private TransactionCountService transactionCountService;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @InjectMocks
     private TransactionServiceImpl transactionService;
 
-    private Transaction transaction1;
-    private Transaction transaction2;
-    private ResponseTransactionDTO responseTransactionDTO1;
-    private ResponseTransactionDTO responseTransactionDTO2;
+    private ResponseTransactionDTO transaction1;
+    private ResponseTransactionDTO transaction2;
 
     @BeforeEach
     void setUp() {
-        // Setup transaction 1
-        transaction1 = new Transaction();
-        transaction1.setId(1L);
-        transaction1.setAccountId(100L);
-        transaction1.setAmount(500.0);
-        transaction1.setType("debit");
-        transaction1.setTransferId(null);
-        transaction1.setCategory("withdrawal");
-        transaction1.setStatus("completed");
-        transaction1.setDescription("ATM Withdrawal");
-        transaction1.setDate(LocalDateTime.of(2025, 12, 10, 10, 0));
-
-        // Setup transaction 2
-        transaction2 = new Transaction();
-        transaction2.setId(2L);
-        transaction2.setAccountId(100L);
-        transaction2.setAmount(1000.0);
-        transaction2.setType("credit");
-        transaction2.setTransferId(5L);
-        transaction2.setCategory("transfer");
-        transaction2.setStatus("completed");
-        transaction2.setDescription("Transfer from friend");
-        transaction2.setDate(LocalDateTime.of(2025, 12, 9, 15, 30));
-
-        // Setup response DTO 1
-        responseTransactionDTO1 = new ResponseTransactionDTO();
-        responseTransactionDTO1.setId(1L);
-        responseTransactionDTO1.setAccountId(100L);
-        responseTransactionDTO1.setAmount(500.0);
-        responseTransactionDTO1.setType("debit");
-        responseTransactionDTO1.setTransferId(null);
-        responseTransactionDTO1.setCategory("withdrawal");
-        responseTransactionDTO1.setStatus("completed");
-        responseTransactionDTO1.setDescription("ATM Withdrawal");
-        responseTransactionDTO1.setDate(LocalDateTime.of(2025, 12, 10, 10, 0));
-
-        // Setup response DTO 2
-        responseTransactionDTO2 = new ResponseTransactionDTO();
-        responseTransactionDTO2.setId(2L);
-        responseTransactionDTO2.setAccountId(100L);
-        responseTransactionDTO2.setAmount(1000.0);
-        responseTransactionDTO2.setType("credit");
-        responseTransactionDTO2.setTransferId(5L);
-        responseTransactionDTO2.setCategory("transfer");
-        responseTransactionDTO2.setStatus("completed");
-        responseTransactionDTO2.setDescription("Transfer from friend");
-        responseTransactionDTO2.setDate(LocalDateTime.of(2025, 12, 9, 15, 30));
+        // rows as the history query projects them, amounts in minor units
+        transaction1 = new ResponseTransactionDTO(1L, 100L, 50_000, "debit", null, "withdrawal", "completed",
+            "ATM Withdrawal", LocalDateTime.of(2025, 12, 10, 10, 0));
+        transaction2 = new ResponseTransactionDTO(2L, 100L, 100_000, "credit", 5L, "transfer", "completed",
+            "Transfer from friend", LocalDateTime.of(2025, 12, 9, 15, 30));
     }
 
     // mvn test -Dtest=TransactionServiceTest#testGetHistoryTransactionSuccess
@@ -106,19 +77,15 @@ class TransactionServiceTest {
         int page = 0;
         int size = 10;
 
-        Page<Transaction> transactionPage = new PageImpl<>(
+        Page<ResponseTransactionDTO> transactionPage = new PageImpl<>(
             List.of(transaction1, transaction2)
         );
 
-        when(transactionRepository.findByAccountId(eq(accountId), any(Pageable.class)))
+        when(transactionRepository.findHistoryByAccountId(eq(accountId), any(Pageable.class)))
             .thenReturn(transactionPage);
-        when(transactionMapper.toResponseTransactionDTO(transaction1))
-            .thenReturn(responseTransactionDTO1);
-        when(transactionMapper.toResponseTransactionDTO(transaction2))
-            .thenReturn(responseTransactionDTO2);
 
         // Act
-        ResponseHistoryTransactionDto result = transactionService.getHistoryTransaction(accountId, page, size);
+        ResponseHistoryTransactionDto result = transactionService.getHistoryTransaction(accountId, page, size, false);
 
         // Assert
         assertNotNull(result);
@@ -140,13 +107,13 @@ class TransactionServiceTest {
         int page = 0;
         int size = 10;
 
-        Page<Transaction> emptyPage = new PageImpl<>(List.of());
+        Page<ResponseTransactionDTO> emptyPage = new PageImpl<>(List.of());
 
-        when(transactionRepository.findByAccountId(eq(accountId), any(Pageable.class)))
+        when(transactionRepository.findHistoryByAccountId(eq(accountId), any(Pageable.class)))
             .thenReturn(emptyPage);
 
         // Act
-        ResponseHistoryTransactionDto result = transactionService.getHistoryTransaction(accountId, page, size);
+        ResponseHistoryTransactionDto result = transactionService.getHistoryTransaction(accountId, page, size, false);
 
         // Assert
         assertNotNull(result);
@@ -168,15 +135,13 @@ class TransactionServiceTest {
         // Arrange
         Long accountId = 100L;
 
-        Page<Transaction> transactionPage = new PageImpl<>(List.of(transaction1));
+        Page<ResponseTransactionDTO> transactionPage = new PageImpl<>(List.of(transaction1));
 
-        when(transactionRepository.findByAccountId(eq(accountId), any(Pageable.class)))
+        when(transactionRepository.findHistoryByAccountId(eq(accountId), any(Pageable.class)))
             .thenReturn(transactionPage);
-        when(transactionMapper.toResponseTransactionDTO(transaction1))
-            .thenReturn(responseTransactionDTO1);
 
         // Act
-        ResponseHistoryTransactionDto result = transactionService.getHistoryTransaction(accountId, page, size);
+        ResponseHistoryTransactionDto result = transactionService.getHistoryTransaction(accountId, page, size, false);
 
         // Assert
         assertNotNull(result);
@@ -185,9 +150,32 @@ class TransactionServiceTest {
         assertEquals(1L, result.getTransactions().get(0).getId());
     }
 
+    // mvn test -Dtest=TransactionServiceTest#testGetHistoryTransactionTimedByPageDepth
+    // Test: read pages at different depths
+    // Expected: Each read timed under the page_depth bucket of its page
+    @ParameterizedTest(name = "Page depth: page={0}, bucket={1}")
+    @CsvSource({
+        "0, 0",
+        "9, 1-9",
+        "10, 10-99",
+        "250, 100-999",
+        "5000, 1000+"
+    })
+    void testGetHistoryTransactionTimedByPageDepth(int page, String bucket) {
+        // Arrange
+        when(transactionRepository.findHistoryByAccountId(eq(100L), any(Pageable.class)))
+            .thenReturn(new PageImpl<>(List.of()));
+
+        // Act
+        transactionService.getHistoryTransaction(100L, page, 10, false);
+
+        // Assert
+        assertEquals(1, meterRegistry.get("transaction.history").tag("page_depth", bucket).timer().count());
+    }
+
     // mvn test -Dtest=TransactionServiceTest#testGetHistoryTransactionVerifyTransactionDetails
-    // Test: verify all transaction fields are correctly mapped from entity to DTO
-    // Expected: All fields (id, accountId, amount, type, category, status, description, date) correctly set
+    // Test: verify all transaction fields are correctly projected into the DTO
+    // Expected: All fields (id, accountId, amount, type, category, status, description, date) correctly set, amount in major units
     @Test
     void testGetHistoryTransactionVerifyTransactionDetails() {
         // Arrange
@@ -195,17 +183,15 @@ class TransactionServiceTest {
         int page = 0;
         int size = 10;
 
-        Page<Transaction> transactionPage = new PageImpl<>(
+        Page<ResponseTransactionDTO> transactionPage = new PageImpl<>(
             List.of(transaction1)
         );
 
-        when(transactionRepository.findByAccountId(eq(accountId), any(Pageable.class)))
+        when(transactionRepository.findHistoryByAccountId(eq(accountId), any(Pageable.class)))
             .thenReturn(transactionPage);
-        when(transactionMapper.toResponseTransactionDTO(transaction1))
-            .thenReturn(responseTransactionDTO1);
 
         // Act
-        ResponseHistoryTransactionDto result = transactionService.getHistoryTransaction(accountId, page, size);
+        ResponseHistoryTransactionDto result = transactionService.getHistoryTransaction(accountId, page, size, false);
 
         // Assert
         assertNotNull(result);
@@ -219,5 +205,114 @@ class TransactionServiceTest {
         assertEquals("ATM Withdrawal", transactionDTO.getDescription());
         assertNotNull(transactionDTO.getDate());
     }
-}
 
+    // mvn test -Dtest=TransactionServiceTest#testGetHistoryTransactionContinuesWithCursor
+    // Test: first page by number with more rows left, then the next page with its next_cursor
+    // Expected: The cursor page seeks past the last row of the first page and reads one row ahead
+    @Test
+    void testGetHistoryTransactionContinuesWithCursor() {
+        // Arrange
+        when(transactionRepository.findHistoryByAccountId(eq(100L), any(Pageable.class)))
+            .thenReturn(new PageImpl<>(List.of(transaction1, transaction2), PageRequest.of(0, 2), 5));
+        when(transactionRepository.findHistoryByAccountIdBefore(100L, transaction2.getDate(), 2L, Limit.of(3)))
+            .thenReturn(List.of(transaction2));
+
+        // Act
+        ResponseHistoryTransactionDto firstPage = transactionService.getHistoryTransaction(100L, 0, 2, false);
+        ResponseHistoryTransactionDto nextPage = transactionService.getHistoryTransaction(100L, firstPage.getNextCursor(), 2, false);
+
+        // Assert
+        assertNotNull(firstPage.getNextCursor());
+        assertEquals(1, nextPage.getTransactions().size());
+        assertNull(nextPage.getNextCursor());
+        assertEquals(1, meterRegistry.get("transaction.history").tag("page_depth", "cursor").timer().count());
+    }
+
+    // mvn test -Dtest=TransactionServiceTest#testGetHistoryTransactionCursorPageWithMoreRows
+    // Test: cursor page of size 2 where the read-ahead returns a third row
+    // Expected: Two rows returned, next_cursor points at the second one
+    @Test
+    void testGetHistoryTransactionCursorPageWithMoreRows() {
+        // Arrange
+        ResponseTransactionDTO transaction3 = new ResponseTransactionDTO();
+        transaction3.setId(3L);
+        transaction3.setAccountId(100L);
+        transaction3.setDate(LocalDateTime.of(2025, 12, 8, 9, 0));
+        ResponseTransactionDTO transaction4 = new ResponseTransactionDTO();
+        transaction4.setId(4L);
+        transaction4.setAccountId(100L);
+        transaction4.setDate(LocalDateTime.of(2025, 12, 7, 9, 0));
+        when(transactionRepository.findHistoryByAccountId(eq(100L), any(Pageable.class)))
+            .thenReturn(new PageImpl<>(List.of(transaction1), PageRequest.of(0, 1), 4));
+        String cursor = transactionService.getHistoryTransaction(100L, 0, 1, false).getNextCursor();
+        when(transactionRepository.findHistoryByAccountIdBefore(100L, transaction1.getDate(), 1L, Limit.of(3)))
+            .thenReturn(List.of(transaction2, transaction3, transaction4));
+        when(transactionRepository.findHistoryByAccountIdBefore(100L, transaction3.getDate(), 3L, Limit.of(3)))
+            .thenReturn(List.of(transaction4));
+
+        // Act
+        ResponseHistoryTransactionDto page = transactionService.getHistoryTransaction(100L, cursor, 2, false);
+        ResponseHistoryTransactionDto lastPage = transactionService.getHistoryTransaction(100L, page.getNextCursor(), 2, false);
+
+        // Assert
+        assertEquals(2, page.getTransactions().size());
+        assertNotNull(page.getNextCursor());
+        assertEquals(1, lastPage.getTransactions().size());
+        assertNull(lastPage.getNextCursor());
+    }
+
+    // mvn test -Dtest=TransactionServiceTest#testGetHistoryTransactionRejectsInvalidCursor
+    // Test: cursor that was not handed out by the service
+    // Expected: IllegalArgumentException, nothing read
+    @ParameterizedTest(name = "Invalid cursor: {0}")
+    @CsvSource({
+        "not-a-cursor",
+        "MjAyNS0xMi0xMFQxMDowMA",
+        "'%%%'"
+    })
+    void testGetHistoryTransactionRejectsInvalidCursor(String cursor) {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+            transactionService.getHistoryTransaction(100L, cursor, 10, false));
+
+        assertEquals("Invalid cursor", exception.getMessage());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    // mvn test -Dtest=TransactionServiceTest#testGetHistoryTransactionReportsHasNextWithoutTotal
+    // Test: page by number where the read-ahead found another row, no total asked for
+    // Expected: has_next set, no total, the counter is not read
+    @Test
+    void testGetHistoryTransactionReportsHasNextWithoutTotal() {
+        // Arrange
+        when(transactionRepository.findHistoryByAccountId(eq(100L), any(Pageable.class)))
+            .thenReturn(new SliceImpl<>(List.of(transaction1, transaction2), PageRequest.of(0, 2), true));
+
+        // Act
+        ResponseHistoryTransactionDto result = transactionService.getHistoryTransaction(100L, 0, 2, false);
+
+        // Assert
+        assertTrue(result.isHasNext());
+        assertNull(result.getTotalTransactions());
+        verifyNoInteractions(transactionCountService);
+    }
+
+    // mvn test -Dtest=TransactionServiceTest#testGetHistoryTransactionIncludesTotalFromCounter
+    // Test: last page by number with include_total
+    // Expected: has_next false, total taken from the transaction counter instead of a count query
+    @Test
+    void testGetHistoryTransactionIncludesTotalFromCounter() {
+        // Arrange
+        when(transactionRepository.findHistoryByAccountId(eq(100L), any(Pageable.class)))
+            .thenReturn(new SliceImpl<>(List.of(transaction1), PageRequest.of(3, 2), false));
+        when(transactionCountService.getTransactionCount(100L)).thenReturn(7L);
+
+        // Act
+        ResponseHistoryTransactionDto result = transactionService.getHistoryTransaction(100L, 3, 2, true);
+
+        // Assert
+        assertFalse(result.isHasNext());
+        assertEquals(7L, result.getTotalTransactions());
+        verify(transactionRepository, never()).countByAccountId(100L);
+    }
+}
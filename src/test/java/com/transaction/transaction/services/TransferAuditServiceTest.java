@@ -0,0 +1,169 @@
+package com.transaction.transaction.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.transaction.transaction.config.TransferProperties;
+import com.transaction.transaction.config.WorkerThreads;
+import com.transaction.transaction.entities.Transaction;
+import com.transaction.transaction.entities.Transfer;
+import com.transaction.transaction.repositories.TransactionRepository;
+import com.transaction.transaction.repositories.TransferRepository;
+import com.transaction.transaction.services.TransferAuditService.AuditedTransfer;
+import com.transaction.transaction.services.impl.TransferAuditServiceImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class TransferAuditServiceTest {
+
+    @Mock
+    private TransferRepository transferRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private TransferProperties transferProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private TransferAuditServiceImpl transferAuditService;
+
+    @BeforeEach
+    void setUp() {
+        transferProperties = new TransferProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        transferAuditService = new TransferAuditServiceImpl(transferRepository, transactionRepository,
+                transferProperties, meterRegistry, new WorkerThreads(new MockEnvironment()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        transferAuditService.stop();
+    }
+
+    // mvn test -Dtest=TransferAuditServiceTest#testAuditMatchingRows
+    // Test: audit a transfer whose transfer row and both transaction rows are stored as written
+    // Expected: No discrepancies
+    @Test
+    void testAuditMatchingRows() {
+        // Arrange
+        when(transferRepository.findById(5L)).thenReturn(Optional.of(transfer(10L, 20L, 30_000)));
+        when(transactionRepository.findByTransferId(5L))
+            .thenReturn(List.of(transaction("debit", 10L, 30_000), transaction("credit", 20L, 30_000)));
+
+        // Act & Assert
+        assertEquals(List.of(), transferAuditService.audit(new AuditedTransfer(5L, 10L, 20L, 30_000, false)));
+    }
+
+    // mvn test -Dtest=TransferAuditServiceTest#testAuditReportsDiscrepancies
+    // Test: audit a transfer with a changed amount, a credit on the wrong account and no debit row
+    // Expected: One discrepancy per failed check
+    @Test
+    void testAuditReportsDiscrepancies() {
+        // Arrange
+        when(transferRepository.findById(5L)).thenReturn(Optional.of(transfer(10L, 20L, 29_999)));
+        when(transactionRepository.findByTransferId(5L)).thenReturn(List.of(transaction("credit", 30L, 30_000)));
+
+        // Act
+        List<String> discrepancies = transferAuditService.audit(new AuditedTransfer(5L, 10L, 20L, 30_000, false));
+
+        // Assert
+        assertEquals(List.of("transfer_mismatch", "debit_missing", "credit_mismatch"), discrepancies);
+    }
+
+    // mvn test -Dtest=TransferAuditServiceTest#testAuditToleratesPendingCoalescedCredit
+    // Test: audit a transfer whose credit is still buffered by the coalescer
+    // Expected: The missing credit row is not reported
+    @Test
+    void testAuditToleratesPendingCoalescedCredit() {
+        // Arrange
+        when(transferRepository.findById(5L)).thenReturn(Optional.of(transfer(10L, 20L, 30_000)));
+        when(transactionRepository.findByTransferId(5L)).thenReturn(List.of(transaction("debit", 10L, 30_000)));
+
+        // Act & Assert
+        assertEquals(List.of(), transferAuditService.audit(new AuditedTransfer(5L, 10L, 20L, 30_000, true)));
+    }
+
+    // mvn test -Dtest=TransferAuditServiceTest#testSubmittedTransferIsAuditedInBackground
+    // Test: submit a transfer with every transfer sampled and a missing transfer row
+    // Expected: Audited on the auditor thread, the discrepancy counted by check
+    @Test
+    void testSubmittedTransferIsAuditedInBackground() {
+        // Arrange
+        transferProperties.getVerification().setSampleRate(1.0);
+        transferAuditService.start();
+        when(transferRepository.findById(5L)).thenReturn(Optional.empty());
+        when(transactionRepository.findByTransferId(5L))
+            .thenReturn(List.of(transaction("debit", 10L, 30_000), transaction("credit", 20L, 30_000)));
+
+        // Act
+        transferAuditService.submit(new AuditedTransfer(5L, 10L, 20L, 30_000, false));
+
+        // Assert
+        verify(transactionRepository, timeout(2000)).findByTransferId(5L);
+        assertEquals(1.0, awaitCount("transfer.audit.checked"));
+        assertEquals(1.0, meterRegistry.counter("transfer.audit.discrepancies", "check", "transfer_missing").count());
+    }
+
+    // mvn test -Dtest=TransferAuditServiceTest#testSubmitIgnoredWhenNotAsync
+    // Test: submit transfers with the inline policy and with a zero sample rate
+    // Expected: Nothing read from the database
+    @Test
+    void testSubmitIgnoredWhenNotAsync() {
+        // Arrange
+        transferProperties.getVerification().setSampleRate(0.0);
+        transferAuditService.start();
+
+        // Act
+        transferAuditService.submit(new AuditedTransfer(5L, 10L, 20L, 30_000, false));
+        transferProperties.getVerification().setPolicy(TransferProperties.Verification.Policy.INLINE);
+        transferProperties.getVerification().setSampleRate(1.0);
+        transferAuditService.submit(new AuditedTransfer(6L, 10L, 20L, 30_000, false));
+
+        // Assert
+        verify(transferRepository, never()).findById(anyLong());
+    }
+
+    private double awaitCount(String name) {
+        for (int attempt = 0; attempt < 100 && meterRegistry.counter(name).count() == 0; attempt++) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return meterRegistry.counter(name).count();
+    }
+
+    private Transfer transfer(Long fromAccountId, Long toAccountId, long amount) {
+        Transfer transfer = new Transfer();
+        transfer.setId(5L);
+        transfer.setFromAccountId(fromAccountId);
+        transfer.setToAccountId(toAccountId);
+        transfer.setAmount(amount);
+        return transfer;
+    }
+
+    private Transaction transaction(String type, Long accountId, long amount) {
+        Transaction transaction = new Transaction();
+        transaction.setType(type);
+        transaction.setAccountId(accountId);
+        transaction.setAmount(amount);
+        transaction.setTransferId(5L);
+        return transaction;
+    }
+}
@@ -0,0 +1,166 @@
+package com.transaction.transaction.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.transaction.transaction.config.TransferProperties;
+import com.transaction.transaction.dto.CreateTransferDto;
+import com.transaction.transaction.dto.ResponseCreateTransferDto;
+import com.transaction.transaction.dto.ResponseTransferStatusDto;
+import com.transaction.transaction.entities.QueuedTransfer;
+import com.transaction.transaction.exceptions.QueueFullException;
+import com.transaction.transaction.exceptions.ResouceNotFoundException;
+import com.transaction.transaction.repositories.AccountRepository;
+import com.transaction.transaction.repositories.AccountRepository.AccountIdView;
+import com.transaction.transaction.repositories.QueuedTransferRepository;
+import com.transaction.transaction.services.impl.TransferQueueServiceImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class TransferQueueServiceTest {
+
+    @Mock
+    private QueuedTransferRepository queuedTransferRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    private TransferProperties transferProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private TransferQueueServiceImpl transferQueueService;
+    private CreateTransferDto createTransferDto;
+
+    @BeforeEach
+    void setUp() {
+        transferProperties = new TransferProperties();
+        transferProperties.getAsync().setEnabled(true);
+        meterRegistry = new SimpleMeterRegistry();
+        transferQueueService = new TransferQueueServiceImpl(queuedTransferRepository, accountRepository,
+                transferProperties, meterRegistry);
+
+        createTransferDto = new CreateTransferDto();
+        createTransferDto.setFromAccountId(1L);
+        createTransferDto.setToAccountId(2L);
+        createTransferDto.setAmount(300.0);
+    }
+
+    // mvn test -Dtest=TransferQueueServiceTest#testEnqueueStoresQueuedTransfer
+    // Test: enqueue a valid transfer
+    // Expected: Row stored with status queued, response carries its id, depth gauge counts it
+    @Test
+    void testEnqueueStoresQueuedTransfer() {
+        // Arrange
+        when(accountRepository.findAccountIdsByUserIds(anyList()))
+            .thenReturn(List.of(accountIdView(1L), accountIdView(2L)));
+        when(queuedTransferRepository.save(any(QueuedTransfer.class))).thenAnswer(invocation -> {
+            QueuedTransfer queuedTransfer = invocation.getArgument(0);
+            queuedTransfer.setId(7L);
+            return queuedTransfer;
+        });
+
+        // Act
+        ResponseCreateTransferDto response = transferQueueService.enqueue(createTransferDto);
+
+        // Assert
+        assertEquals(7L, response.getTransferId());
+        assertEquals("queued", response.getStatus());
+        assertEquals(1.0, meterRegistry.get("transfer.queue.depth").gauge().value());
+    }
+
+    // mvn test -Dtest=TransferQueueServiceTest#testEnqueueUnknownAccountRejected
+    // Test: enqueue a transfer to a non-existent account
+    // Expected: ResouceNotFoundException thrown, nothing queued
+    @Test
+    void testEnqueueUnknownAccountRejected() {
+        // Arrange
+        when(accountRepository.findAccountIdsByUserIds(anyList())).thenReturn(List.of(accountIdView(1L)));
+
+        // Act & Assert
+        ResouceNotFoundException exception = assertThrows(ResouceNotFoundException.class,
+                () -> transferQueueService.enqueue(createTransferDto));
+        assertEquals("To account not found", exception.getMessage());
+        verify(queuedTransferRepository, never()).save(any(QueuedTransfer.class));
+    }
+
+    // mvn test -Dtest=TransferQueueServiceTest#testEnqueueWhenFullRejected
+    // Test: enqueue while the table holds as many queued transfers as the capacity
+    // Expected: QueueFullException thrown before any lookup
+    @Test
+    void testEnqueueWhenFullRejected() {
+        // Arrange
+        transferProperties.getAsync().setCapacity(5);
+        when(queuedTransferRepository.countByStatus("queued")).thenReturn(5L);
+        transferQueueService.refreshDepth();
+
+        // Act & Assert
+        assertThrows(QueueFullException.class, () -> transferQueueService.enqueue(createTransferDto));
+        verify(accountRepository, never()).findAccountIdsByUserIds(anyList());
+    }
+
+    // mvn test -Dtest=TransferQueueServiceTest#testGetStatusOfExecutedTransfer
+    // Test: status of a transfer a worker already executed
+    // Expected: Outcome and transaction id of the executed transfer
+    @Test
+    void testGetStatusOfExecutedTransfer() {
+        // Arrange
+        QueuedTransfer queuedTransfer = new QueuedTransfer();
+        queuedTransfer.setId(7L);
+        queuedTransfer.setStatus("success");
+        queuedTransfer.setMessage("Transfer successful");
+        queuedTransfer.setTransactionId(100L);
+        when(queuedTransferRepository.findById(7L)).thenReturn(Optional.of(queuedTransfer));
+
+        // Act
+        ResponseTransferStatusDto response = transferQueueService.getStatus(7L);
+
+        // Assert
+        assertEquals("success", response.getStatus());
+        assertEquals(100L, response.getTransactionId());
+    }
+
+    // mvn test -Dtest=TransferQueueServiceTest#testGetStatusNotFound
+    // Test: status of an unknown transfer
+    // Expected: ResouceNotFoundException thrown
+    @Test
+    void testGetStatusNotFound() {
+        // Arrange
+        when(queuedTransferRepository.findById(999L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResouceNotFoundException.class, () -> transferQueueService.getStatus(999L));
+    }
+
+    private AccountIdView accountIdView(Long userId) {
+        return new AccountIdView() {
+            @Override
+            public Long getId() {
+                return userId * 10;
+            }
+
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public int getShardCount() {
+                return 0;
+            }
+        };
+    }
+}
@@ -0,0 +1,166 @@
+package com.transaction.transaction.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.transaction.transaction.config.TransferProperties;
+import com.transaction.transaction.config.WorkerThreads;
+import com.transaction.transaction.dto.CreateTransferDto;
+import com.transaction.transaction.dto.ResponseCreateTransferDto;
+import com.transaction.transaction.entities.QueuedTransfer;
+import com.transaction.transaction.repositories.QueuedTransferRepository;
+import com.transaction.transaction.services.impl.TransferQueueWorkers;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class TransferQueueWorkersTest {
+    // amount of the queued transfer the transfer service cannot execute
+    private static final long POISON_AMOUNT = 1_300;
+
+    @Mock
+    private QueuedTransferRepository queuedTransferRepository;
+
+    @Mock
+    private TransferService transferService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TransferQueueWorkers transferQueueWorkers;
+
+    @BeforeEach
+    void setUp() {
+        transferQueueWorkers = new TransferQueueWorkers(queuedTransferRepository, transferService, transactionManager,
+                new TransferProperties(), new SimpleMeterRegistry(), new WorkerThreads(new MockEnvironment()));
+        when(transferService.createTransfers(anyList())).thenAnswer(invocation -> {
+            List<CreateTransferDto> transfers = invocation.getArgument(0);
+            if (transfers.stream().anyMatch(transfer -> transfer.getAmount() == POISON_AMOUNT / 100.0)) {
+                throw new IllegalStateException("Unexpected failure");
+            }
+            return transfers.stream().map(transfer -> success()).toList();
+        });
+    }
+
+    // mvn test -Dtest=TransferQueueWorkersTest#testProcessBatchMarksEveryTransfer
+    // Test: claim a batch the transfer service executes
+    // Expected: Every transfer marked with its outcome in the batch transaction, none claimed again
+    @Test
+    void testProcessBatchMarksEveryTransfer() {
+        // Arrange
+        when(queuedTransferRepository.claimQueued(anyInt())).thenReturn(List.of(queued(1L, 1_000), queued(2L, 2_000)));
+
+        // Act
+        int processed = transferQueueWorkers.processBatch();
+
+        // Assert
+        assertEquals(2, processed);
+        verify(queuedTransferRepository).complete(eq(1L), eq("success"), any(), eq(100L), any(), any());
+        verify(queuedTransferRepository).complete(eq(2L), eq("success"), any(), eq(100L), any(), any());
+        verify(queuedTransferRepository, never()).claimQueuedById(any());
+    }
+
+    // mvn test -Dtest=TransferQueueWorkersTest#testProcessBatchIsolatesFailingTransfer
+    // Test: claim a batch in which one transfer makes the transfer service throw
+    // Expected: The batch is executed again one transfer at a time, the good one succeeds, the failing one is marked failed
+    @Test
+    void testProcessBatchIsolatesFailingTransfer() {
+        // Arrange
+        QueuedTransfer good = queued(1L, 1_000);
+        QueuedTransfer poison = queued(2L, POISON_AMOUNT);
+        when(queuedTransferRepository.claimQueued(anyInt())).thenReturn(List.of(good, poison));
+        when(queuedTransferRepository.claimQueuedById(1L)).thenReturn(Optional.of(good));
+        when(queuedTransferRepository.claimQueuedById(2L)).thenReturn(Optional.of(poison));
+
+        // Act
+        int processed = transferQueueWorkers.processBatch();
+
+        // Assert
+        assertEquals(2, processed);
+        verify(queuedTransferRepository).complete(eq(1L), eq("success"), any(), eq(100L), any(), any());
+        verify(queuedTransferRepository).complete(eq(2L), eq("failure"), eq("Transfer could not be executed"),
+                isNull(), any(), any());
+    }
+
+    // mvn test -Dtest=TransferQueueWorkersTest#testProcessBatchSkipsTransferClaimedElsewhere
+    // Test: a batch fails and one of its transfers is executed by another worker before the retry
+    // Expected: That transfer is neither executed nor marked again
+    @Test
+    void testProcessBatchSkipsTransferClaimedElsewhere() {
+        // Arrange
+        QueuedTransfer poison = queued(2L, POISON_AMOUNT);
+        when(queuedTransferRepository.claimQueued(anyInt())).thenReturn(List.of(queued(1L, 1_000), poison));
+        when(queuedTransferRepository.claimQueuedById(1L)).thenReturn(Optional.empty());
+        when(queuedTransferRepository.claimQueuedById(2L)).thenReturn(Optional.of(poison));
+
+        // Act
+        transferQueueWorkers.processBatch();
+
+        // Assert
+        verify(queuedTransferRepository, never()).complete(eq(1L), any(), any(), any(), any(), any());
+        verify(queuedTransferRepository).complete(eq(2L), eq("failure"), any(), isNull(), any(), any());
+    }
+
+    // mvn test -Dtest=TransferQueueWorkersTest#testLedgerBatchFailureMarksTransfersUnknown
+    // Test: with the ledger engine, a batch fails after the ledger may have applied part of it
+    // Expected: No transfer executed again, every transfer still queued marked unknown
+    @Test
+    void testLedgerBatchFailureMarksTransfersUnknown() {
+        // Arrange
+        TransferProperties transferProperties = new TransferProperties();
+        transferProperties.getLedger().setEnabled(true);
+        TransferQueueWorkers ledgerWorkers = new TransferQueueWorkers(queuedTransferRepository, transferService,
+                transactionManager, transferProperties, new SimpleMeterRegistry(), new WorkerThreads(new MockEnvironment()));
+        QueuedTransfer good = queued(1L, 1_000);
+        QueuedTransfer poison = queued(2L, POISON_AMOUNT);
+        when(queuedTransferRepository.claimQueued(anyInt())).thenReturn(List.of(good, poison));
+        when(queuedTransferRepository.claimQueuedById(1L)).thenReturn(Optional.of(good));
+        when(queuedTransferRepository.claimQueuedById(2L)).thenReturn(Optional.of(poison));
+
+        // Act
+        int processed = ledgerWorkers.processBatch();
+
+        // Assert
+        assertEquals(2, processed);
+        verify(transferService, times(1)).createTransfers(anyList());
+        verify(queuedTransferRepository).complete(eq(1L), eq("unknown"), any(), isNull(), any(), any());
+        verify(queuedTransferRepository).complete(eq(2L), eq("unknown"), any(), isNull(), any(), any());
+    }
+
+    private QueuedTransfer queued(Long id, long amount) {
+        QueuedTransfer queuedTransfer = new QueuedTransfer();
+        queuedTransfer.setId(id);
+        queuedTransfer.setFromUserId(1L);
+        queuedTransfer.setToUserId(2L);
+        queuedTransfer.setAmount(amount);
+        queuedTransfer.setStatus("queued");
+        return queuedTransfer;
+    }
+
+    private ResponseCreateTransferDto success() {
+        ResponseCreateTransferDto result = new ResponseCreateTransferDto();
+        result.setTransferId(100L);
+        result.setMessage("Transfer successful");
+        result.setStatus("success");
+        return result;
+    }
+}
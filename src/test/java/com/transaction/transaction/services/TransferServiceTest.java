@@ -4,31 +4,49 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.transaction.transaction.config.TransferProperties;
 import com.transaction.transaction.dto.CreateTransferDto;
+import com.transaction.transaction.dto.ResponseCreateTransferDto;
 import com.transaction.transaction.entities.Account;
 import com.transaction.transaction.entities.Transaction;
 import com.transaction.transaction.entities.Transfer;
 import com.transaction.transaction.entities.User;
 import com.transaction.transaction.exceptions.ResouceNotFoundException;
+import com.transaction.transaction.money.Money;
 import com.transaction.transaction.repositories.AccountRepository;
+import com.transaction.transaction.repositories.AccountRepository.AccountIdView;
 import com.transaction.transaction.repositories.TransactionRepository;
 import com.transaction.transaction.repositories.TransferRepository;
+import com.transaction.transaction.services.TransferAuditService.AuditedTransfer;
 import com.transaction.transaction.services.impl.TransferServiceImpl;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(MockitoExtension.class)
 class TransferServiceTest {
 
@@ -40,6 +58,27 @@ class TransferServiceTest {
     
     @Mock
     private TransferRepository transferRepository;
+
+    @Mock
+    private HotAccountService hotAccountService;
+
+    @Mock
+    private CreditCoalescingService creditCoalescingService;
+
+    @Mock
+    private TransferAuditService transferAuditService;
+
+    @Mock
+    private AccountBalanceCache accountBalanceCache;
+
+    @Mock
+    private TransactionCountService transactionCountService;
+
+    @Spy
+    private TransferProperties transferProperties = new TransferProperties();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
     
     @InjectMocks
     private TransferServiceImpl transferService;
@@ -55,6 +94,9 @@ class TransferServiceTest {
 
     @BeforeEach
     void setUp() {
+        // most tests below cover the load-and-save path together with its read-back
+        transferProperties.getVerification().setPolicy(TransferProperties.Verification.Policy.INLINE);
+
         // Setup users
         fromUser = new User();
         fromUser.setId(1L);
@@ -66,13 +108,13 @@ class TransferServiceTest {
         fromAccount = new Account();
         fromAccount.setId(10L);
         fromAccount.setUser(fromUser);
-        fromAccount.setBalance(1000.0);
+        fromAccount.setBalance(100_000);
 
         // Setup to account
         toAccount = new Account();
         toAccount.setId(20L);
         toAccount.setUser(toUser);
-        toAccount.setBalance(500.0);
+        toAccount.setBalance(50_000);
 
         // Setup transfer DTO
         createTransferDto = new CreateTransferDto();
@@ -85,14 +127,14 @@ class TransferServiceTest {
         transfer.setId(100L);
         transfer.setFromAccountId(fromAccount.getId());
         transfer.setToAccountId(toAccount.getId());
-        transfer.setAmount(300.0);
+        transfer.setAmount(30_000);
 
         // Setup transactions
         debitTransaction = new Transaction();
         debitTransaction.setId(1000L);
         debitTransaction.setAccountId(fromAccount.getId());
         debitTransaction.setType("debit");
-        debitTransaction.setAmount(300.0);
+        debitTransaction.setAmount(30_000);
         debitTransaction.setCategory("transfer_out");
         debitTransaction.setTransferId(transfer.getId());
         debitTransaction.setStatus("success");
@@ -101,7 +143,7 @@ class TransferServiceTest {
         creditTransaction.setId(2000L);
         creditTransaction.setAccountId(toAccount.getId());
         creditTransaction.setType("credit");
-        creditTransaction.setAmount(300.0);
+        creditTransaction.setAmount(30_000);
         creditTransaction.setCategory("transfer_in");
         creditTransaction.setTransferId(transfer.getId());
         creditTransaction.setStatus("success");
@@ -132,15 +174,57 @@ class TransferServiceTest {
         when(transactionRepository.existsById(any(Long.class))).thenReturn(true);
 
         // Act
-        Long result = transferService.createTransfer(createTransferDto);
+        ResponseCreateTransferDto result = transferService.createTransfer(createTransferDto);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(700.0, fromAccount.getBalance());
-        assertEquals(800.0, toAccount.getBalance());
+        assertNotNull(result.getTransferId());
+        assertEquals(70_000L, fromAccount.getBalance());
+        assertEquals(80_000L, toAccount.getBalance());
         verify(transferRepository, times(1)).save(any(Transfer.class));
         verify(accountRepository, times(2)).save(any(Account.class));
         verify(transactionRepository, times(2)).save(any(Transaction.class));
+        verify(accountBalanceCache, times(1)).evictAfterCommit(List.of(10L, 20L));
+    }
+
+    // mvn test -Dtest=TransferServiceTest#testCreateTransferWithoutVerification
+    // Test: successful transfer with the verification policy off
+    // Expected: Accounts and transaction rows not read back, nothing handed to the auditor
+    @Test
+    void testCreateTransferWithoutVerification() {
+        // Arrange
+        transferProperties.getVerification().setPolicy(TransferProperties.Verification.Policy.OFF);
+        when(accountRepository.findByUserId(1L)).thenReturn(Optional.of(fromAccount));
+        when(accountRepository.findByUserId(2L)).thenReturn(Optional.of(toAccount));
+
+        // Act
+        transferService.createTransfer(createTransferDto);
+
+        // Assert
+        assertEquals(70_000L, fromAccount.getBalance());
+        verify(accountRepository, never()).findById(anyLong());
+        verify(transactionRepository, never()).existsById(anyLong());
+    }
+
+    // mvn test -Dtest=TransferServiceTest#testCreateTransferSubmitsToAuditor
+    // Test: successful transfer with the async verification policy
+    // Expected: No read-back inside the transaction, the transfer handed to the auditor with its accounts and amount
+    @Test
+    void testCreateTransferSubmitsToAuditor() {
+        // Arrange
+        transferProperties.getVerification().setPolicy(TransferProperties.Verification.Policy.ASYNC);
+        when(accountRepository.findByUserId(1L)).thenReturn(Optional.of(fromAccount));
+        when(accountRepository.findByUserId(2L)).thenReturn(Optional.of(toAccount));
+
+        // Act
+        transferService.createTransfer(createTransferDto);
+
+        // Assert
+        ArgumentCaptor<AuditedTransfer> captor = ArgumentCaptor.forClass(AuditedTransfer.class);
+        verify(transferAuditService).submit(captor.capture());
+        assertEquals(10L, captor.getValue().fromAccountId());
+        assertEquals(20L, captor.getValue().toAccountId());
+        assertEquals(30_000L, captor.getValue().amount());
+        verify(accountRepository, never()).findById(anyLong());
     }
 
     // mvn test -Dtest=TransferServiceTest#testCreateTransferFromAccountNotFound
@@ -251,7 +335,7 @@ class TransferServiceTest {
     @Test
     void testCreateTransferInsufficientBalance() {
         // Arrange
-        fromAccount.setBalance(100.0);
+        fromAccount.setBalance(10_000);
         createTransferDto.setAmount(300.0);
         
         when(accountRepository.findByUserId(1L)).thenReturn(Optional.of(fromAccount));
@@ -266,6 +350,51 @@ class TransferServiceTest {
         assertEquals("Insufficient balance in the source account", exception.getMessage());
         verify(transferRepository, never()).save(any(Transfer.class));
         verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(accountBalanceCache, never()).evictAfterCommit(any());
+    }
+
+    // mvn test -Dtest=TransferServiceTest#testCreateTransferRecordsPhaseTimes
+    // Test: successful transfer without inline verification
+    // Expected: Every write phase timed once, verification not timed, one success with its amount
+    @Test
+    void testCreateTransferRecordsPhaseTimes() {
+        // Arrange
+        transferProperties.getVerification().setPolicy(TransferProperties.Verification.Policy.OFF);
+        when(accountRepository.findByUserId(1L)).thenReturn(Optional.of(fromAccount));
+        when(accountRepository.findByUserId(2L)).thenReturn(Optional.of(toAccount));
+
+        // Act
+        transferService.createTransfer(createTransferDto);
+
+        // Assert
+        for (String phase : List.of("lookup", "balance_update", "transfer_insert", "transaction_insert")) {
+            assertEquals(1, meterRegistry.get("transfer.phase").tag("phase", phase).timer().count(), phase);
+        }
+        assertEquals(0, meterRegistry.get("transfer.phase").tag("phase", "verification").timer().count());
+        assertEquals(1.0, meterRegistry.get("transfer.outcome").tag("outcome", "success").counter().count());
+        assertEquals(30_000.0, meterRegistry.get("transfer.amount").summary().totalAmount());
+    }
+
+    // mvn test -Dtest=TransferServiceTest#testCreateTransferCountsRejections
+    // Test: one transfer lacking balance and one to the same account
+    // Expected: Each rejection counted under its own outcome, no success and no amount recorded
+    @Test
+    void testCreateTransferCountsRejections() {
+        // Arrange
+        fromAccount.setBalance(10_000);
+        when(accountRepository.findByUserId(1L)).thenReturn(Optional.of(fromAccount));
+        when(accountRepository.findByUserId(2L)).thenReturn(Optional.of(toAccount));
+        CreateTransferDto toSelf = transferDto(1L, 1L, 10.0);
+
+        // Act
+        assertThrows(IllegalArgumentException.class, () -> transferService.createTransfer(createTransferDto));
+        assertThrows(IllegalArgumentException.class, () -> transferService.createTransfer(toSelf));
+
+        // Assert
+        assertEquals(1.0, meterRegistry.get("transfer.outcome").tag("outcome", "insufficient_balance").counter().count());
+        assertEquals(1.0, meterRegistry.get("transfer.outcome").tag("outcome", "same_account").counter().count());
+        assertEquals(0.0, meterRegistry.get("transfer.outcome").tag("outcome", "success").counter().count());
+        assertEquals(0, meterRegistry.get("transfer.amount").summary().count());
     }
 
     // mvn test -Dtest=TransferServiceTest#testCreateTransferExactBalance
@@ -274,7 +403,7 @@ class TransferServiceTest {
     @Test
     void testCreateTransferExactBalance() {
         // Arrange
-        fromAccount.setBalance(300.0);
+        fromAccount.setBalance(30_000);
         createTransferDto.setAmount(300.0);
         
         when(accountRepository.findByUserId(1L)).thenReturn(Optional.of(fromAccount));
@@ -296,12 +425,12 @@ class TransferServiceTest {
         when(transactionRepository.existsById(any(Long.class))).thenReturn(true);
 
         // Act
-        Long result = transferService.createTransfer(createTransferDto);
+        ResponseCreateTransferDto result = transferService.createTransfer(createTransferDto);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(0.0, fromAccount.getBalance());
-        assertEquals(800.0, toAccount.getBalance());
+        assertNotNull(result.getTransferId());
+        assertEquals(0L, fromAccount.getBalance());
+        assertEquals(80_000L, toAccount.getBalance());
         verify(transferRepository, times(1)).save(any(Transfer.class));
     }
 
@@ -311,9 +440,9 @@ class TransferServiceTest {
     @Test
     void testCreateTransferVerifyBalanceUpdate() {
         // Arrange
-        Double initialFromBalance = fromAccount.getBalance();
-        Double initialToBalance = toAccount.getBalance();
-        Double transferAmount = createTransferDto.getAmount();
+        long initialFromBalance = fromAccount.getBalance();
+        long initialToBalance = toAccount.getBalance();
+        long transferAmount = Money.toMinorUnits(createTransferDto.getAmount());
         
         when(accountRepository.findByUserId(1L)).thenReturn(Optional.of(fromAccount));
         when(accountRepository.findByUserId(2L)).thenReturn(Optional.of(toAccount));
@@ -371,4 +500,450 @@ class TransferServiceTest {
         // Assert - Verify both debit and credit transactions are saved
         verify(transactionRepository, times(2)).save(any(Transaction.class));
     }
+
+    // mvn test -Dtest=TransferServiceTest#testConditionalTransferSuccess
+    // Test: transfer in conditional mode with sufficient balance
+    // Expected: Guarded debit and credit executed, accounts never loaded or saved, transfer and transactions recorded
+    @Test
+    void testConditionalTransferSuccess() {
+        // Arrange
+        transferProperties.setMode(TransferProperties.Mode.CONDITIONAL);
+        when(accountRepository.findAccountIdsByUserIds(anyCollection()))
+            .thenReturn(List.of(accountIdView(10L, 1L), accountIdView(20L, 2L)));
+        when(accountRepository.debitIfSufficient(10L, 30_000)).thenReturn(1);
+        when(accountRepository.credit(20L, 30_000)).thenReturn(1);
+        when(transferRepository.save(any(Transfer.class))).thenReturn(transfer);
+        when(transactionRepository.save(any(Transaction.class)))
+            .thenAnswer(invocation -> {
+                Transaction t = invocation.getArgument(0);
+                t.setId(t.getType().equals("debit") ? debitTransaction.getId() : creditTransaction.getId());
+                return t;
+            });
+
+        // Act
+        ResponseCreateTransferDto result = transferService.createTransfer(createTransferDto);
+
+        // Assert
+        assertEquals(debitTransaction.getId(), result.getTransferId());
+        verify(accountRepository, never()).findByUserId(anyLong());
+        verify(accountRepository, never()).save(any(Account.class));
+        verify(transferRepository, times(1)).save(any(Transfer.class));
+        verify(transactionRepository, times(2)).save(any(Transaction.class));
+        verify(transactionRepository, never()).existsById(anyLong());
+    }
+
+    // mvn test -Dtest=TransferServiceTest#testConditionalTransferDefersCredit
+    // Test: transfer in conditional mode with credit coalescing enabled
+    // Expected: Debit applied right away, credit and its transaction row handed to the coalescer
+    @Test
+    void testConditionalTransferDefersCredit() {
+        // Arrange
+        transferProperties.setMode(TransferProperties.Mode.CONDITIONAL);
+        when(creditCoalescingService.isEnabled()).thenReturn(true);
+        when(accountRepository.findAccountIdsByUserIds(anyCollection()))
+            .thenReturn(List.of(accountIdView(30L, 1L), accountIdView(20L, 2L)));
+        when(accountRepository.debitIfSufficient(30L, 30_000)).thenReturn(1);
+        when(transferRepository.save(any(Transfer.class))).thenReturn(transfer);
+        when(transactionRepository.save(any(Transaction.class)))
+            .thenAnswer(invocation -> {
+                Transaction t = invocation.getArgument(0);
+                t.setId(debitTransaction.getId());
+                return t;
+            });
+
+        // Act
+        ResponseCreateTransferDto result = transferService.createTransfer(createTransferDto);
+
+        // Assert
+        assertEquals(debitTransaction.getId(), result.getTransferId());
+        verify(accountRepository, never()).credit(anyLong(), anyLong());
+        verify(transactionRepository, times(1)).save(any(Transaction.class));
+        verify(creditCoalescingService, times(1)).defer(any(Transaction.class));
+    }
+
+    // mvn test -Dtest=TransferServiceTest#testConditionalTransferInsufficientBalance
+    // Test: transfer in conditional mode when the guarded debit matches no row
+    // Expected: IllegalArgumentException thrown - insufficient balance, nothing recorded
+    @Test
+    void testConditionalTransferInsufficientBalance() {
+        // Arrange
+        transferProperties.setMode(TransferProperties.Mode.CONDITIONAL);
+        when(accountRepository.findAccountIdsByUserIds(anyCollection()))
+            .thenReturn(List.of(accountIdView(10L, 1L), accountIdView(20L, 2L)));
+        when(accountRepository.debitIfSufficient(10L, 30_000)).thenReturn(0);
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(
+            IllegalArgumentException.class,
+            () -> transferService.createTransfer(createTransferDto)
+        );
+
+        assertEquals("Insufficient balance in the source account", exception.getMessage());
+        verify(accountRepository, never()).credit(anyLong(), anyLong());
+        verify(transferRepository, never()).save(any(Transfer.class));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    // mvn test -Dtest=TransferServiceTest#testConditionalTransferLocksLowerAccountFirst
+    // Test: transfer in conditional mode from a higher account id to a lower one
+    // Expected: Credit of the lower account id runs before the debit
+    @Test
+    void testConditionalTransferLocksLowerAccountFirst() {
+        // Arrange
+        transferProperties.setMode(TransferProperties.Mode.CONDITIONAL);
+        when(accountRepository.findAccountIdsByUserIds(anyCollection()))
+            .thenReturn(List.of(accountIdView(30L, 1L), accountIdView(20L, 2L)));
+        when(accountRepository.credit(20L, 30_000)).thenReturn(1);
+        when(accountRepository.debitIfSufficient(30L, 30_000)).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> transferService.createTransfer(createTransferDto));
+
+        InOrder inOrder = inOrder(accountRepository);
+        inOrder.verify(accountRepository).credit(20L, 30_000);
+        inOrder.verify(accountRepository).debitIfSufficient(30L, 30_000);
+        verify(transferRepository, never()).save(any(Transfer.class));
+    }
+
+    // mvn test -Dtest=TransferServiceTest#testConditionalTransferToAccountNotFound
+    // Test: transfer in conditional mode to a user without account
+    // Expected: ResourceNotFoundException thrown with "To account not found" message
+    @Test
+    void testConditionalTransferToAccountNotFound() {
+        // Arrange
+        transferProperties.setMode(TransferProperties.Mode.CONDITIONAL);
+        when(accountRepository.findAccountIdsByUserIds(anyCollection()))
+            .thenReturn(List.of(accountIdView(10L, 1L)));
+
+        // Act & Assert
+        ResouceNotFoundException exception = assertThrows(
+            ResouceNotFoundException.class,
+            () -> transferService.createTransfer(createTransferDto)
+        );
+
+        assertEquals("To account not found", exception.getMessage());
+        verify(accountRepository, never()).debitIfSufficient(anyLong(), anyLong());
+    }
+
+    // mvn test -Dtest=TransferServiceTest#testConditionalTransferToSameAccount
+    // Test: transfer in conditional mode to the same user
+    // Expected: IllegalArgumentException thrown - cannot transfer to same account
+    @Test
+    void testConditionalTransferToSameAccount() {
+        // Arrange
+        transferProperties.setMode(TransferProperties.Mode.CONDITIONAL);
+        createTransferDto.setToAccountId(1L);
+        when(accountRepository.findAccountIdsByUserIds(anyCollection()))
+            .thenReturn(List.of(accountIdView(10L, 1L)));
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(
+            IllegalArgumentException.class,
+            () -> transferService.createTransfer(createTransferDto)
+        );
+
+        assertEquals("Cannot transfer to the same account", exception.getMessage());
+        verify(accountRepository, never()).debitIfSufficient(anyLong(), anyLong());
+    }
+
+    // mvn test -Dtest=TransferServiceTest#testTransferToHotAccountCreditsShard
+    // Test: transfer to an account that is split into shards
+    // Expected: Credit goes to a shard, the destination account row is neither changed nor saved
+    @Test
+    void testTransferToHotAccountCreditsShard() {
+        // Arrange
+        toAccount.setShardCount(4);
+        when(accountRepository.findByUserId(1L)).thenReturn(Optional.of(fromAccount));
+        when(accountRepository.findByUserId(2L)).thenReturn(Optional.of(toAccount));
+        when(transferRepository.save(any(Transfer.class))).thenReturn(transfer);
+        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(accountRepository.findById(fromAccount.getId())).thenReturn(Optional.of(fromAccount));
+        when(accountRepository.findById(toAccount.getId())).thenReturn(Optional.of(toAccount));
+        when(transactionRepository.existsById(any())).thenReturn(true);
+
+        // Act
+        transferService.createTransfer(createTransferDto);
+
+        // Assert
+        assertEquals(70_000L, fromAccount.getBalance());
+        assertEquals(50_000L, toAccount.getBalance());
+        verify(hotAccountService).credit(20L, 4, 30_000);
+        verify(accountRepository, times(1)).save(any(Account.class));
+        verify(hotAccountService, never()).recordCredit(anyLong());
+    }
+
+    // mvn test -Dtest=TransferServiceTest#testTransferFromHotAccountClaimsShards
+    // Test: transfer from a hot account whose row alone does not cover the amount
+    // Expected: Shard balances are folded into the account before the balance check
+    @Test
+    void testTransferFromHotAccountClaimsShards() {
+        // Arrange
+        fromAccount.setShardCount(4);
+        fromAccount.setBalance(10_000);
+        when(accountRepository.findByUserId(1L)).thenReturn(Optional.of(fromAccount));
+        when(accountRepository.findByUserId(2L)).thenReturn(Optional.of(toAccount));
+        when(hotAccountService.claimShards(10L)).thenReturn(25_000L);
+        when(transferRepository.save(any(Transfer.class))).thenReturn(transfer);
+        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(accountRepository.findById(fromAccount.getId())).thenReturn(Optional.of(fromAccount));
+        when(accountRepository.findById(toAccount.getId())).thenReturn(Optional.of(toAccount));
+        when(transactionRepository.existsById(any())).thenReturn(true);
+
+        // Act
+        transferService.createTransfer(createTransferDto);
+
+        // Assert
+        assertEquals(5000L, fromAccount.getBalance());
+        assertEquals(80_000L, toAccount.getBalance());
+        verify(hotAccountService).recordCredit(20L);
+    }
+
+    // mvn test -Dtest=TransferServiceTest#testConditionalTransferFromHotAccountClaimsShards
+    // Test: transfer in conditional mode from a hot account whose row alone does not cover the amount
+    // Expected: Shards folded into the account row, the guarded debit is retried and succeeds
+    @Test
+    void testConditionalTransferFromHotAccountClaimsShards() {
+        // Arrange
+        transferProperties.setMode(TransferProperties.Mode.CONDITIONAL);
+        when(accountRepository.findAccountIdsByUserIds(anyCollection()))
+            .thenReturn(List.of(accountIdView(10L, 1L, 4), accountIdView(20L, 2L)));
+        when(accountRepository.debitIfSufficient(10L, 30_000)).thenReturn(0, 1);
+        when(hotAccountService.claimShards(10L)).thenReturn(25_000L);
+        when(accountRepository.credit(10L, 25_000)).thenReturn(1);
+        when(accountRepository.credit(20L, 30_000)).thenReturn(1);
+        when(transferRepository.save(any(Transfer.class))).thenReturn(transfer);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        transferService.createTransfer(createTransferDto);
+
+        // Assert
+        InOrder inOrder = inOrder(accountRepository, hotAccountService);
+        inOrder.verify(accountRepository).debitIfSufficient(10L, 30_000);
+        inOrder.verify(hotAccountService).claimShards(10L);
+        inOrder.verify(accountRepository).credit(10L, 25_000);
+        inOrder.verify(accountRepository).debitIfSufficient(10L, 30_000);
+        inOrder.verify(accountRepository).credit(20L, 30_000);
+    }
+
+    // mvn test -Dtest=TransferServiceTest#testConditionalTransferToHotAccountDebitsFirst
+    // Test: transfer in conditional mode from a higher account id to a hot account
+    // Expected: Debit runs first and the credit goes to a shard, nothing to undo when the debit fails
+    @Test
+    void testConditionalTransferToHotAccountDebitsFirst() {
+        // Arrange
+        transferProperties.setMode(TransferProperties.Mode.CONDITIONAL);
+        when(accountRepository.findAccountIdsByUserIds(anyCollection()))
+            .thenReturn(List.of(accountIdView(30L, 1L), accountIdView(20L, 2L, 8)));
+        when(accountRepository.debitIfSufficient(30L, 30_000)).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> transferService.createTransfer(createTransferDto));
+
+        verify(accountRepository, never()).credit(anyLong(), anyLong());
+        verify(hotAccountService, never()).credit(anyLong(), anyInt(), anyLong());
+    }
+
+    private AccountIdView accountIdView(Long id, Long userId) {
+        return accountIdView(id, userId, 0);
+    }
+
+    private AccountIdView accountIdView(Long id, Long userId, int shardCount) {
+        return new AccountIdView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public int getShardCount() {
+                return shardCount;
+            }
+        };
+    }
+
+    // mvn test -Dtest=TransferServiceTest#testPessimisticTransferSuccess
+    // Test: transfer in pessimistic mode with sufficient balance
+    // Expected: Both accounts locked in one call, balances moved, transfer and transactions recorded
+    @Test
+    void testPessimisticTransferSuccess() {
+        // Arrange
+        transferProperties.setMode(TransferProperties.Mode.PESSIMISTIC);
+        when(accountRepository.findAllByUserIdInForUpdate(anyCollection()))
+            .thenReturn(List.of(fromAccount, toAccount));
+        when(transferRepository.save(any(Transfer.class))).thenReturn(transfer);
+        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionRepository.save(any(Transaction.class)))
+            .thenAnswer(invocation -> {
+                Transaction t = invocation.getArgument(0);
+                t.setId(t.getType().equals("debit") ? debitTransaction.getId() : creditTransaction.getId());
+                return t;
+            });
+        when(accountRepository.findById(fromAccount.getId())).thenReturn(Optional.of(fromAccount));
+        when(accountRepository.findById(toAccount.getId())).thenReturn(Optional.of(toAccount));
+        when(transactionRepository.existsById(any(Long.class))).thenReturn(true);
+
+        // Act
+        ResponseCreateTransferDto result = transferService.createTransfer(createTransferDto);
+
+        // Assert
+        assertEquals(debitTransaction.getId(), result.getTransferId());
+        assertEquals(70_000L, fromAccount.getBalance());
+        assertEquals(80_000L, toAccount.getBalance());
+        verify(accountRepository, times(1)).findAllByUserIdInForUpdate(anyCollection());
+        verify(accountRepository, never()).findByUserId(anyLong());
+    }
+
+    // mvn test -Dtest=TransferServiceTest#testPessimisticTransferFromAccountNotFound
+    // Test: transfer in pessimistic mode from a user without account
+    // Expected: ResourceNotFoundException thrown with "From account not found" message
+    @Test
+    void testPessimisticTransferFromAccountNotFound() {
+        // Arrange
+        transferProperties.setMode(TransferProperties.Mode.PESSIMISTIC);
+        when(accountRepository.findAllByUserIdInForUpdate(anyCollection()))
+            .thenReturn(List.of(toAccount));
+
+        // Act & Assert
+        ResouceNotFoundException exception = assertThrows(
+            ResouceNotFoundException.class,
+            () -> transferService.createTransfer(createTransferDto)
+        );
+
+        assertEquals("From account not found", exception.getMessage());
+        verify(transferRepository, never()).save(any(Transfer.class));
+    }
+
+    // mvn test -Dtest=TransferServiceTest#testPessimisticTransferInsufficientBalance
+    // Test: transfer in pessimistic mode with amount greater than the locked balance
+    // Expected: IllegalArgumentException thrown - insufficient balance, accounts untouched
+    @Test
+    void testPessimisticTransferInsufficientBalance() {
+        // Arrange
+        transferProperties.setMode(TransferProperties.Mode.PESSIMISTIC);
+        fromAccount.setBalance(10_000);
+        when(accountRepository.findAllByUserIdInForUpdate(anyCollection()))
+            .thenReturn(List.of(fromAccount, toAccount));
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(
+            IllegalArgumentException.class,
+            () -> transferService.createTransfer(createTransferDto)
+        );
+
+        assertEquals("Insufficient balance in the source account", exception.getMessage());
+        assertEquals(10_000L, fromAccount.getBalance());
+        verify(accountRepository, never()).save(any(Account.class));
+    }
+
+    // mvn test -Dtest=TransferServiceTest#testCreateTransfersReportsEveryItem
+    // Test: batch with one valid transfer, one with insufficient balance and one to an unknown user
+    // Expected: Only the valid item is applied and recorded, every item gets its own result
+    @Test
+    void testCreateTransfersReportsEveryItem() {
+        // Arrange
+        CreateTransferDto tooLarge = transferDto(1L, 2L, 5000.0);
+        CreateTransferDto unknownTarget = transferDto(1L, 99L, 10.0);
+        when(accountRepository.findAccountIdsByUserIds(anyCollection()))
+            .thenReturn(List.of(accountIdView(10L, 1L), accountIdView(20L, 2L)));
+        when(accountRepository.debitIfSufficient(10L, 30_000)).thenReturn(1);
+        when(accountRepository.debitIfSufficient(10L, 500_000)).thenReturn(0);
+        when(accountRepository.credit(20L, 30_000)).thenReturn(1);
+        when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Transaction> saved = invocation.getArgument(0);
+            saved.get(0).setId(debitTransaction.getId());
+            saved.get(1).setId(creditTransaction.getId());
+            return saved;
+        });
+
+        // Act
+        List<ResponseCreateTransferDto> results = transferService.createTransfers(
+            List.of(createTransferDto, tooLarge, unknownTarget));
+
+        // Assert
+        assertEquals(3, results.size());
+        assertEquals("success", results.get(0).getStatus());
+        assertEquals(debitTransaction.getId(), results.get(0).getTransferId());
+        assertEquals("failure", results.get(1).getStatus());
+        assertEquals("Insufficient balance in the source account", results.get(1).getMessage());
+        assertEquals("failure", results.get(2).getStatus());
+        assertEquals("To account not found", results.get(2).getMessage());
+        assertEquals(1.0, meterRegistry.get("transfer.outcome").tag("outcome", "success").counter().count());
+        assertEquals(1.0, meterRegistry.get("transfer.outcome").tag("outcome", "insufficient_balance").counter().count());
+        assertEquals(1.0, meterRegistry.get("transfer.outcome").tag("outcome", "not_found").counter().count());
+        verify(accountRepository, times(1)).credit(anyLong(), anyLong());
+        verify(transferRepository, times(1)).saveAll(anyList());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    // mvn test -Dtest=TransferServiceTest#testCreateTransfersUndoesCreditWhenDebitFails
+    // Test: batch item from a higher account id to a lower one without enough balance
+    // Expected: The credit applied first is reverted and the item fails
+    @Test
+    void testCreateTransfersUndoesCreditWhenDebitFails() {
+        // Arrange
+        when(accountRepository.findAccountIdsByUserIds(anyCollection()))
+            .thenReturn(List.of(accountIdView(30L, 1L), accountIdView(20L, 2L)));
+        when(accountRepository.credit(20L, 30_000)).thenReturn(1);
+        when(accountRepository.debitIfSufficient(30L, 30_000)).thenReturn(0);
+
+        // Act
+        List<ResponseCreateTransferDto> results = transferService.createTransfers(List.of(createTransferDto));
+
+        // Assert
+        assertEquals("failure", results.get(0).getStatus());
+        verify(accountRepository, times(1)).credit(20L, -30_000);
+    }
+
+    // mvn test -Dtest=TransferServiceTest#testCreateTransfersLocksAccountsInIdOrder
+    // Test: batch whose items update their accounts from the highest account id down
+    // Expected: Every updated account row locked once, in ascending id order, before any balance changes
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCreateTransfersLocksAccountsInIdOrder() {
+        // Arrange
+        when(accountRepository.findAccountIdsByUserIds(anyCollection()))
+            .thenReturn(List.of(accountIdView(30L, 1L), accountIdView(20L, 2L), accountIdView(10L, 3L)));
+        when(accountRepository.debitIfSufficient(anyLong(), anyLong())).thenReturn(1);
+        when(accountRepository.credit(anyLong(), anyLong())).thenReturn(1);
+
+        // Act
+        transferService.createTransfers(List.of(transferDto(1L, 2L, 10.0), transferDto(2L, 3L, 10.0)));
+
+        // Assert
+        ArgumentCaptor<Collection<Long>> locked = ArgumentCaptor.forClass(Collection.class);
+        InOrder order = inOrder(accountRepository);
+        order.verify(accountRepository).lockAllById(locked.capture());
+        order.verify(accountRepository, times(2)).credit(anyLong(), anyLong());
+        assertEquals(List.of(10L, 20L, 30L), List.copyOf(locked.getValue()));
+    }
+
+    // mvn test -Dtest=TransferServiceTest#testCreateTransfersRejectsOversizedBatch
+    // Test: batch larger than the configured maximum
+    // Expected: IllegalArgumentException thrown before any account is touched
+    @Test
+    void testCreateTransfersRejectsOversizedBatch() {
+        // Arrange
+        transferProperties.getBatch().setMaxSize(1);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+            () -> transferService.createTransfers(List.of(createTransferDto, createTransferDto)));
+        verify(accountRepository, never()).findAccountIdsByUserIds(anyCollection());
+    }
+
+    private CreateTransferDto transferDto(Long fromUserId, Long toUserId, Double amount) {
+        CreateTransferDto dto = new CreateTransferDto();
+        dto.setFromAccountId(fromUserId);
+        dto.setToAccountId(toUserId);
+        dto.setAmount(amount);
+        return dto;
+    }
 }
@@ -0,0 +1,28 @@
+package com.transaction.transaction.sql;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * Most statements of each type the test method may execute on its own thread, counted from
+ * the end of {@code @BeforeEach} to the end of the method. The test fails when a count goes
+ * over its budget and lists the executed SQL. Budgets left out allow no statement of that
+ * type. Needs a {@code @SpringBootTest} context, see {@link StatementCountingAutoConfiguration}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(StatementBudgetExtension.class)
+public @interface StatementBudget {
+
+    int select() default 0;
+
+    int insert() default 0;
+
+    int update() default 0;
+
+    int delete() default 0;
+}
@@ -0,0 +1,74 @@
+package com.transaction.transaction.sql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.opentest4j.AssertionFailedError;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.EntityManager;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+
+/**
+ * Checks the {@link StatementBudget} of a test method. In a {@code @Transactional} test the
+ * persistence context is flushed and cleared before counting, so the setup neither adds its
+ * pending writes nor serves the entities it created from memory, and flushed again at the end
+ * so writes the rolled back transaction never sends are counted as well.
+ */
+class StatementBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        if (!(SpringExtension.getApplicationContext(context).getBean(DataSource.class) instanceof ProxyDataSource)) {
+            throw new IllegalStateException("@StatementBudget needs a @SpringBootTest context with StatementCountingAutoConfiguration");
+        }
+        entityManager(context).ifPresent(entityManager -> {
+            entityManager.flush();
+            entityManager.clear();
+        });
+        StatementCounter.start();
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        if (context.getExecutionException().isPresent()) {
+            StatementCounter.stop();
+            return;
+        }
+        entityManager(context).ifPresent(EntityManager::flush);
+        StatementCounter.Recording recording = StatementCounter.stop();
+        StatementBudget budget = context.getRequiredTestMethod().getAnnotation(StatementBudget.class);
+
+        List<String> exceeded = new ArrayList<>();
+        check(recording, QueryType.SELECT, budget.select(), exceeded);
+        check(recording, QueryType.INSERT, budget.insert(), exceeded);
+        check(recording, QueryType.UPDATE, budget.update(), exceeded);
+        check(recording, QueryType.DELETE, budget.delete(), exceeded);
+        if (!exceeded.isEmpty()) {
+            throw new AssertionFailedError("Statement budget exceeded: " + String.join(", ", exceeded)
+                    + "\nExecuted:\n  " + String.join("\n  ", recording.statements()));
+        }
+    }
+
+    private void check(StatementCounter.Recording recording, QueryType type, int budget, List<String> exceeded) {
+        int count = recording.count(type);
+        if (count > budget) {
+            exceeded.add(type + " " + count + " > " + budget);
+        }
+    }
+
+    private Optional<EntityManager> entityManager(ExtensionContext context) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Optional.empty();
+        }
+        return Optional.of(SpringExtension.getApplicationContext(context).getBean(EntityManager.class));
+    }
+}
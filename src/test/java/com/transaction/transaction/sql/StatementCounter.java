@@ -0,0 +1,73 @@
+package com.transaction.transaction.sql;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.NoOpQueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+
+/**
+ * Datasource-proxy listener counting the statements executed on the thread that called
+ * {@link #start()}. Statements of other threads (queue workers, the coalescer, the auditor)
+ * are ignored. A JDBC batch counts once per statement type, like the round trip it is.
+ *
+ * <p>Id sequence fetches are not counted either: the pooled generators fetch one block of ids
+ * per allocation size, whether a test runs into one depends on the tests that ran before it in
+ * the shared context.
+ */
+public class StatementCounter extends NoOpQueryExecutionListener {
+    private static final ThreadLocal<Recording> RECORDING = new ThreadLocal<>();
+
+    public static void start() {
+        RECORDING.set(new Recording());
+    }
+
+    public static Recording stop() {
+        Recording recording = RECORDING.get();
+        RECORDING.remove();
+        return recording;
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Recording recording = RECORDING.get();
+        if (recording == null) {
+            return;
+        }
+        for (QueryInfo queryInfo : queryInfoList) {
+            if (isSequenceFetch(queryInfo.getQuery())) {
+                continue;
+            }
+            recording.add(QueryUtils.getQueryType(queryInfo.getQuery()), queryInfo.getQuery());
+        }
+    }
+
+    // "select next value for transactions_seq" on H2, "select nextval('transactions_seq')" on PostgreSQL
+    private static boolean isSequenceFetch(String sql) {
+        String lowerCase = sql.toLowerCase();
+        return lowerCase.startsWith("select next value for ") || lowerCase.startsWith("select nextval(");
+    }
+
+    public static final class Recording {
+        private final Map<QueryType, Integer> counts = new EnumMap<>(QueryType.class);
+        private final List<String> statements = new ArrayList<>();
+
+        private void add(QueryType type, String sql) {
+            counts.merge(type, 1, Integer::sum);
+            statements.add(sql);
+        }
+
+        public int count(QueryType type) {
+            return counts.getOrDefault(type, 0);
+        }
+
+        public List<String> statements() {
+            return statements;
+        }
+    }
+}
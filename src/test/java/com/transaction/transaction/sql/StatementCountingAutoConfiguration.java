@@ -0,0 +1,34 @@
+package com.transaction.transaction.sql;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Wraps the data source of every {@code @SpringBootTest} context in a datasource-proxy that
+ * reports to {@link StatementCounter}. Registered as a test auto-configuration rather than
+ * imported per class, so it does not change which tests share a cached context.
+ */
+@AutoConfiguration
+public class StatementCountingAutoConfiguration {
+
+    @Bean
+    static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(new StatementCounter())
+                        .build();
+            }
+        };
+    }
+}